@@ -70,6 +70,14 @@ CREATE TYPE provider_type_enum AS ENUM (
   'TEI'          -- covers both native and OpenAI-compatible TEI endpoints
 );
 
+-- ENUM for vector distance metrics. COSINE vectors are L2-normalized on write
+-- so that the inner-product operator class can serve cosine ordering.
+CREATE TYPE distance_metric_enum AS ENUM (
+  'COSINE',
+  'DOT_PRODUCT',
+  'EUCLIDEAN'
+);
+
 -- Table for Embedders
 CREATE TABLE embedder (
     embedder_id            UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
@@ -113,13 +121,23 @@ CREATE TABLE space (
     name VARCHAR(255) NOT NULL,
     labels JSONB,
     embedder_id UUID NOT NULL REFERENCES embedder(embedder_id),
+    distance_metric distance_metric_enum NOT NULL DEFAULT 'COSINE', -- Immutable after creation
+    -- Whether chunks keep a prefix vector for two-stage search. Only worth its index for
+    -- Matryoshka embedders. Immutable after creation.
+    two_stage_search BOOLEAN NOT NULL DEFAULT FALSE,
     public_read BOOLEAN NOT NULL DEFAULT FALSE,
+    -- Tombstone: set when the space is deleted. The row, its memories and their chunks are
+    -- removed later in small batches by the background purger.
+    deleted_at TIMESTAMPTZ,
     created_at TIMESTAMPTZ NOT NULL DEFAULT current_timestamp,
     updated_at TIMESTAMPTZ NOT NULL DEFAULT current_timestamp,
     created_by_id UUID NOT NULL REFERENCES "user"(user_id),
-    updated_by_id UUID NOT NULL REFERENCES "user"(user_id),
-    UNIQUE (owner_id, name)
+    updated_by_id UUID NOT NULL REFERENCES "user"(user_id)
 );
+-- Names only need to be unique among live spaces, so a deleted name can be reused
+-- before its tombstone is purged
+CREATE UNIQUE INDEX idx_space_owner_name ON space (owner_id, name) WHERE deleted_at IS NULL;
+CREATE INDEX idx_space_deleted_at ON space (deleted_at) WHERE deleted_at IS NOT NULL;
 CREATE INDEX idx_space_owner_id ON space (owner_id);
 CREATE INDEX idx_space_labels ON space USING GIN (labels);
 CREATE INDEX idx_space_public_read ON space (public_read);
@@ -128,6 +146,14 @@ CREATE INDEX idx_space_updated_by_id ON space (updated_by_id);
 -- Add trigram index for name pattern matching with LIKE/ILIKE
 CREATE INDEX idx_space_name_trgm ON space USING GIN (name gin_trgm_ops);
 
+-- Per-space counter bumped by triggers whenever the searchable contents of a space
+-- change. Kept out of the space row so chunk writes neither contend on it nor
+-- touch space.updated_at. Search result caches key on it.
+CREATE TABLE space_content_version (
+    space_id UUID PRIMARY KEY REFERENCES space(space_id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
 -- Table for Memories (Parent entity for chunks)
 CREATE TABLE memory (
     memory_id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
@@ -136,15 +162,42 @@ CREATE TABLE memory (
     content_type VARCHAR(100),
     metadata JSONB,
     processing_status VARCHAR(50) DEFAULT 'PENDING', -- Consider ENUM type
+    -- Tombstone: set when the memory is deleted; see space.deleted_at
+    deleted_at TIMESTAMPTZ,
     created_at TIMESTAMPTZ NOT NULL DEFAULT current_timestamp,
     updated_at TIMESTAMPTZ NOT NULL DEFAULT current_timestamp,
     created_by_id UUID NOT NULL REFERENCES "user"(user_id),
     updated_by_id UUID NOT NULL REFERENCES "user"(user_id)
 );
 CREATE INDEX idx_memory_space_id ON memory (space_id);
+-- Serves ListMemories pagination: each page seeks to its (created_at, memory_id)
+-- cursor within a space and reads forward, a single range scan at any depth
+CREATE INDEX idx_memory_space_created ON memory (space_id, created_at, memory_id)
+    WHERE deleted_at IS NULL;
 CREATE INDEX idx_memory_created_by_id ON memory (created_by_id);
 CREATE INDEX idx_memory_updated_by_id ON memory (updated_by_id);
 CREATE INDEX idx_memory_processing_status ON memory (processing_status);
+CREATE INDEX idx_memory_deleted_at ON memory (deleted_at) WHERE deleted_at IS NOT NULL;
+-- Serves metadata containment (@>) filters on search
+CREATE INDEX idx_memory_metadata ON memory USING GIN (metadata jsonb_path_ops);
+
+-- Centroid of each memory's chunk embeddings, maintained by trigger as chunks are
+-- written. The running sum of the unit-length embeddings is kept so that each
+-- chunk write adjusts it in constant time instead of re-averaging every chunk.
+-- It lives outside the memory table so that maintaining it neither changes
+-- memory.updated_at nor fires the memory triggers. A memory with no embedded
+-- chunk has no row.
+CREATE TABLE memory_centroid (
+    memory_id UUID PRIMARY KEY REFERENCES memory(memory_id) ON DELETE CASCADE,
+    embedding_sum vector(1536) NOT NULL,
+    chunk_count INT NOT NULL,
+    -- Unit-length mean direction of the chunk embeddings
+    centroid_vector vector(1536) NOT NULL
+);
+-- Coarse index for hierarchical search, which picks the closest memories before
+-- searching their chunks. Centroids are unit vectors, so inner product orders
+-- them by cosine similarity whatever the space's metric.
+CREATE INDEX idx_memory_centroid ON memory_centroid USING hnsw (centroid_vector vector_ip_ops);
 
 -- Table for Memory Chunks (including vectors)
 CREATE TABLE memory_chunk (
@@ -152,8 +205,23 @@ CREATE TABLE memory_chunk (
     memory_id UUID NOT NULL REFERENCES memory(memory_id) ON DELETE CASCADE,
     chunk_sequence_number INT,
     chunk_text TEXT, -- Storing the chunk text alongside the vector is often useful
+    -- Full-text document for lexical search. The 'simple' configuration skips stemming and
+    -- stop words so identifiers and product codes are matched verbatim.
+    chunk_tsv tsvector GENERATED ALWAYS AS (to_tsvector('simple', coalesce(chunk_text, ''))) STORED,
     embedding_vector vector(1536), -- The vector embedding, 1536 dimensions
+    -- Unit-length first 256 dimensions of embedding_vector, maintained by trigger in spaces
+    -- with two_stage_search. Matryoshka embedders keep most of their ranking quality in this
+    -- prefix, so it serves as a cheap coarse index for two-stage search.
+    prefix_vector vector(256),
     vector_status VARCHAR(50) DEFAULT 'PENDING', -- Consider ENUM type
+    -- Set on a chunk found at ingest to be a near-duplicate of an existing chunk in the same
+    -- space. Such a chunk keeps its text but no embedding_vector (vector_status 'DUPLICATE'),
+    -- so it adds nothing to the vector indexes; vector searches find the canonical chunk.
+    duplicate_of_chunk_id UUID REFERENCES memory_chunk(chunk_id) ON DELETE SET NULL,
+    -- The duplicate's own embedding, unindexed. It moves back into embedding_vector by
+    -- trigger when the canonical chunk is deleted.
+    duplicate_embedding_vector vector(1536),
+    distance_metric distance_metric_enum NOT NULL DEFAULT 'COSINE', -- Copied from the owning space by trigger
     start_offset INT,
     end_offset INT,
     created_at TIMESTAMPTZ NOT NULL DEFAULT current_timestamp,
@@ -165,15 +233,32 @@ CREATE INDEX idx_memory_chunk_memory_id ON memory_chunk (memory_id);
 CREATE INDEX idx_memory_chunk_vector_status ON memory_chunk (vector_status);
 CREATE INDEX idx_memory_chunk_created_by_id ON memory_chunk (created_by_id);
 CREATE INDEX idx_memory_chunk_updated_by_id ON memory_chunk (updated_by_id);
--- Vector index (HNSW using L2 distance - Euclidean)
-CREATE INDEX idx_memory_chunk_embedding_vector ON memory_chunk USING hnsw (embedding_vector vector_l2_ops);
--- Alternative index using Cosine distance (commented out):
--- CREATE INDEX idx_memory_chunk_embedding_vector_cosine ON memory_chunk USING hnsw (embedding_vector vector_cosine_ops);
+CREATE INDEX idx_memory_chunk_duplicate_of ON memory_chunk (duplicate_of_chunk_id)
+    WHERE duplicate_of_chunk_id IS NOT NULL;
+-- Serves time-window filters on search. Chunks are appended roughly in creation
+-- order, so a BRIN index prunes most of the table at a tiny fraction of a B-tree's size.
+CREATE INDEX idx_memory_chunk_created_at_brin ON memory_chunk USING BRIN (created_at);
+-- Full-text index for the lexical leg of hybrid search
+CREATE INDEX idx_memory_chunk_tsv ON memory_chunk USING GIN (chunk_tsv);
+-- Vector indexes (HNSW), one partial index per distance metric. Queries must
+-- repeat the distance_metric predicate as a literal for the planner to use them.
+-- COSINE chunks hold unit vectors, so inner product yields the cosine ordering.
+CREATE INDEX idx_memory_chunk_embedding_l2 ON memory_chunk
+    USING hnsw (embedding_vector vector_l2_ops) WHERE distance_metric = 'EUCLIDEAN';
+CREATE INDEX idx_memory_chunk_embedding_cosine ON memory_chunk
+    USING hnsw (embedding_vector vector_ip_ops) WHERE distance_metric = 'COSINE';
+CREATE INDEX idx_memory_chunk_embedding_ip ON memory_chunk
+    USING hnsw (embedding_vector vector_ip_ops) WHERE distance_metric = 'DOT_PRODUCT';
+-- Coarse index for two-stage search. Prefixes are unit vectors, so inner product
+-- orders them by cosine similarity whatever the space's metric. Partial, so that
+-- spaces without two-stage search add nothing to it.
+CREATE INDEX idx_memory_chunk_prefix ON memory_chunk
+    USING hnsw (prefix_vector vector_ip_ops) WHERE prefix_vector IS NOT NULL;
 
 -- ENUM types definitions
 -- CREATE TYPE api_key_status AS ENUM ('ACTIVE', 'INACTIVE');
 -- CREATE TYPE processing_status_enum AS ENUM ('PENDING', 'PROCESSING', 'COMPLETED', 'FAILED');
--- CREATE TYPE vector_status_enum AS ENUM ('PENDING', 'GENERATED', 'FAILED');
+-- CREATE TYPE vector_status_enum AS ENUM ('PENDING', 'GENERATED', 'FAILED', 'DUPLICATE');
 
 -- Trigger function to update 'updated_at' timestamps automatically
 CREATE OR REPLACE FUNCTION trigger_set_timestamp()
@@ -184,6 +269,104 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
+-- Trigger function to stamp a chunk with its space's distance metric, to
+-- L2-normalize vectors written to COSINE spaces and to derive the prefix vector
+-- in spaces with two-stage search.
+-- A near-duplicate whose canonical chunk was deleted gets its own embedding back.
+CREATE OR REPLACE FUNCTION trigger_prepare_chunk_vector()
+RETURNS TRIGGER AS $$
+DECLARE
+  space_metric distance_metric_enum;
+  two_stage BOOLEAN;
+BEGIN
+  IF TG_OP = 'UPDATE'
+     AND OLD.duplicate_of_chunk_id IS NOT NULL AND NEW.duplicate_of_chunk_id IS NULL
+     AND NEW.embedding_vector IS NULL AND NEW.duplicate_embedding_vector IS NOT NULL THEN
+    NEW.embedding_vector = NEW.duplicate_embedding_vector;
+    NEW.duplicate_embedding_vector = NULL;
+    NEW.vector_status = 'GENERATED';
+  END IF;
+  SELECT s.distance_metric, s.two_stage_search
+    INTO space_metric, two_stage
+    FROM memory m
+    JOIN space s ON s.space_id = m.space_id
+   WHERE m.memory_id = NEW.memory_id;
+  NEW.distance_metric = COALESCE(space_metric, NEW.distance_metric);
+  IF NEW.distance_metric = 'COSINE' AND NEW.embedding_vector IS NOT NULL THEN
+    NEW.embedding_vector = l2_normalize(NEW.embedding_vector);
+  END IF;
+  NEW.prefix_vector = CASE
+      WHEN NEW.embedding_vector IS NULL OR NOT COALESCE(two_stage, FALSE) THEN NULL
+      ELSE l2_normalize(subvector(NEW.embedding_vector, 1, 256))
+    END;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Trigger functions to bump space_content_version once per statement for every
+-- space whose memories or chunks were written. Spaces deleted in the same
+-- statement are skipped by the join.
+CREATE OR REPLACE FUNCTION trigger_bump_space_version_from_memories()
+RETURNS TRIGGER AS $$
+BEGIN
+  INSERT INTO space_content_version (space_id, version)
+  SELECT DISTINCT s.space_id, 1
+    FROM changed_rows c
+    JOIN space s ON s.space_id = c.space_id
+  ON CONFLICT (space_id) DO UPDATE SET version = space_content_version.version + 1;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Trigger function to adjust the centroid of a memory by the chunk embedding
+-- that was added, removed or replaced. Each embedding is normalized first so
+-- that all chunks weigh the same. Chunks of tombstoned memories, or of memories
+-- in tombstoned spaces, are not added: those memories are never searched again.
+CREATE OR REPLACE FUNCTION trigger_adjust_memory_centroid()
+RETURNS TRIGGER AS $$
+DECLARE
+  delta vector;
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.embedding_vector IS NOT NULL THEN
+    delta = l2_normalize(OLD.embedding_vector);
+    UPDATE memory_centroid
+       SET embedding_sum = embedding_sum - delta,
+           chunk_count = chunk_count - 1,
+           centroid_vector = l2_normalize(embedding_sum - delta)
+     WHERE memory_id = OLD.memory_id;
+    DELETE FROM memory_centroid WHERE memory_id = OLD.memory_id AND chunk_count <= 0;
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.embedding_vector IS NOT NULL
+     AND EXISTS (SELECT 1
+                   FROM memory m
+                   JOIN space s ON s.space_id = m.space_id
+                  WHERE m.memory_id = NEW.memory_id
+                    AND m.deleted_at IS NULL
+                    AND s.deleted_at IS NULL) THEN
+    delta = l2_normalize(NEW.embedding_vector);
+    INSERT INTO memory_centroid AS mc (memory_id, embedding_sum, chunk_count, centroid_vector)
+    VALUES (NEW.memory_id, delta, 1, delta)
+    ON CONFLICT (memory_id) DO UPDATE
+       SET embedding_sum = mc.embedding_sum + EXCLUDED.embedding_sum,
+           chunk_count = mc.chunk_count + 1,
+           centroid_vector = l2_normalize(mc.embedding_sum + EXCLUDED.embedding_sum);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION trigger_bump_space_version_from_chunks()
+RETURNS TRIGGER AS $$
+BEGIN
+  INSERT INTO space_content_version (space_id, version)
+  SELECT DISTINCT m.space_id, 1
+    FROM changed_rows c
+    JOIN memory m ON m.memory_id = c.memory_id
+  ON CONFLICT (space_id) DO UPDATE SET version = space_content_version.version + 1;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
 -- Apply trigger to tables
 CREATE TRIGGER set_timestamp_user BEFORE UPDATE ON "user" FOR EACH ROW EXECUTE FUNCTION trigger_set_timestamp();
 CREATE TRIGGER set_timestamp_role BEFORE UPDATE ON role FOR EACH ROW EXECUTE FUNCTION trigger_set_timestamp();
@@ -193,6 +376,15 @@ CREATE TRIGGER set_timestamp_space BEFORE UPDATE ON space FOR EACH ROW EXECUTE F
 CREATE TRIGGER set_timestamp_memory BEFORE UPDATE ON memory FOR EACH ROW EXECUTE FUNCTION trigger_set_timestamp();
 CREATE TRIGGER set_timestamp_memory_chunk BEFORE UPDATE ON memory_chunk FOR EACH ROW EXECUTE FUNCTION trigger_set_timestamp();
 CREATE TRIGGER set_timestamp_embedder BEFORE UPDATE ON embedder FOR EACH ROW EXECUTE FUNCTION trigger_set_timestamp();
+CREATE TRIGGER prepare_vector_memory_chunk BEFORE INSERT OR UPDATE OF memory_id, embedding_vector, duplicate_of_chunk_id ON memory_chunk FOR EACH ROW EXECUTE FUNCTION trigger_prepare_chunk_vector();
+CREATE TRIGGER bump_space_version_memory_update AFTER UPDATE ON memory REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION trigger_bump_space_version_from_memories();
+CREATE TRIGGER bump_space_version_memory_delete AFTER DELETE ON memory REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION trigger_bump_space_version_from_memories();
+CREATE TRIGGER bump_space_version_chunk_insert AFTER INSERT ON memory_chunk REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION trigger_bump_space_version_from_chunks();
+CREATE TRIGGER bump_space_version_chunk_update AFTER UPDATE ON memory_chunk REFERENCING NEW TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION trigger_bump_space_version_from_chunks();
+CREATE TRIGGER bump_space_version_chunk_delete AFTER DELETE ON memory_chunk REFERENCING OLD TABLE AS changed_rows FOR EACH STATEMENT EXECUTE FUNCTION trigger_bump_space_version_from_chunks();
+CREATE TRIGGER adjust_centroid_chunk_insert AFTER INSERT ON memory_chunk FOR EACH ROW WHEN (NEW.embedding_vector IS NOT NULL) EXECUTE FUNCTION trigger_adjust_memory_centroid();
+CREATE TRIGGER adjust_centroid_chunk_update AFTER UPDATE OF memory_id, embedding_vector, duplicate_of_chunk_id ON memory_chunk FOR EACH ROW WHEN (OLD.memory_id IS DISTINCT FROM NEW.memory_id OR OLD.embedding_vector IS DISTINCT FROM NEW.embedding_vector) EXECUTE FUNCTION trigger_adjust_memory_centroid();
+CREATE TRIGGER adjust_centroid_chunk_delete AFTER DELETE ON memory_chunk FOR EACH ROW WHEN (OLD.embedding_vector IS NOT NULL) EXECUTE FUNCTION trigger_adjust_memory_centroid();
 
 -- Indexes for the embedder table
 CREATE INDEX idx_embedder_provider_type ON embedder (provider_type);
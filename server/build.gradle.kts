@@ -31,6 +31,7 @@ dependencies {
     implementation("io.grpc:grpc-stub:$grpcVersion")
     implementation("io.grpc:grpc-inprocess:$grpcVersion")
     implementation("io.grpc:grpc-services:$grpcVersion")
+    implementation("com.github.luben:zstd-jni:1.5.6-10") // zstd message encoding
     
     // JSON
     implementation("com.fasterxml.jackson.module:jackson-module-kotlin:$jacksonVersion")
@@ -154,4 +155,15 @@ tasks.register<JavaExec>("debugRun") {
     // Add the JDWP agent arguments unconditionally for this task
     // suspend=y makes it wait for the debugger
     jvmArgs("-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=*:5005")
-}
\ No newline at end of file
+}
+
+tasks.register<JavaExec>("benchmark") {
+    group = "Verification"
+    description = "Compares the streaming JSON writer against the Map-based REST serialization."
+
+    dependsOn(tasks.named("testClasses"))
+
+    // The benchmark lives with the tests so it is not shipped in the server jar
+    classpath = sourceSets.test.get().runtimeClasspath
+    mainClass.set("com.goodmem.rest.ProtoJsonWriterBenchmark")
+}
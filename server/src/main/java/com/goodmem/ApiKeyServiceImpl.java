@@ -5,6 +5,7 @@ import com.goodmem.db.util.UuidUtil;
 import com.goodmem.security.AuthInterceptor;
 import com.goodmem.security.Permission;
 import com.goodmem.security.User;
+import com.goodmem.util.ResponseStream;
 import com.google.common.io.BaseEncoding;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
@@ -255,6 +256,68 @@ public class ApiKeyServiceImpl extends ApiKeyServiceImplBase {
     }
   }
 
+  /**
+   * Streams the API keys that ListApiKeys would return, one message per key, oldest first.
+   *
+   * <p>Rows are read from a database cursor and sent as they arrive, waiting for the client to
+   * keep up. Holders of LIST_APIKEY_ANY receive every key; holders of LIST_APIKEY_OWN receive
+   * their own.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - PERMISSION_DENIED: User lacks necessary permissions to list API keys
+   * - INTERNAL: Database or other system errors
+   */
+  @Override
+  public void streamApiKeys(ListApiKeysRequest request, StreamObserver<ApiKey> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(
+          io.grpc.Status.UNAUTHENTICATED
+              .withDescription("Authentication required")
+              .asRuntimeException());
+      return;
+    }
+
+    boolean hasAnyPermission = authenticatedUser.hasPermission(Permission.LIST_APIKEY_ANY);
+    if (!hasAnyPermission && !authenticatedUser.hasPermission(Permission.LIST_APIKEY_OWN)) {
+      Logger.error("User lacks necessary permissions to list API keys");
+      responseObserver.onError(
+          io.grpc.Status.PERMISSION_DENIED
+              .withDescription("Permission denied")
+              .asRuntimeException());
+      return;
+    }
+
+    ResponseStream.start(
+        responseObserver,
+        stream -> {
+          try (Connection connection = config.dataSource().getConnection()) {
+            StatusOr<Long> countOr =
+                com.goodmem.db.ApiKeys.streamApiKeys(
+                    connection,
+                    hasAnyPermission ? null : authenticatedUser.getId(),
+                    apiKey -> stream.send(apiKey.toProto()));
+            if (countOr.isNotOk()) {
+              Logger.error("Error streaming API keys: {}", countOr.getStatus().getMessage());
+              responseObserver.onError(
+                  io.grpc.Status.INTERNAL
+                      .withDescription("Unexpected error while processing request.")
+                      .asRuntimeException());
+              return;
+            }
+            stream.complete();
+          } catch (SQLException e) {
+            Logger.error(e, "Database error during API key streaming: {}", e.getMessage());
+            responseObserver.onError(
+                io.grpc.Status.INTERNAL
+                    .withDescription("Unexpected error while processing request.")
+                    .asRuntimeException());
+          }
+        });
+  }
+
   /**
    * Updates an API key properties (labels, status).
    *
@@ -9,6 +9,7 @@ import com.goodmem.security.Permission;
 import com.goodmem.security.User;
 import com.goodmem.util.EnumConverters;
 import com.goodmem.util.LabelUtils;
+import com.goodmem.util.ResponseStream;
 import com.google.protobuf.Empty;
 import com.zaxxer.hikari.HikariDataSource;
 import goodmem.v1.EmbedderOuterClass.CreateEmbedderRequest;
@@ -28,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import org.tinylog.Logger;
 
@@ -493,29 +495,16 @@ public class EmbedderServiceImpl extends EmbedderServiceImplBase {
       }
       
       // Determine the owner ID to filter by based on permissions
-      UUID ownerIdFilter = null;
-      
-      if (hasManagePermission || hasAnyPermission) {
-        // With LIST_EMBEDDER_ANY permission:
-        // - If an owner ID was requested, use it as a filter (show only that owner's embedders)
-        // - If no owner ID was requested, show all embedders (no owner filter)
-        ownerIdFilter = requestedOwnerId;
-      } else if (hasOwnPermission) {
-        // With only LIST_EMBEDDER_OWN permission:
-        // - If an owner ID was requested and it's not the authenticated user, reject with PERMISSION_DENIED
-        // - Otherwise, filter to only show the authenticated user's embedders
-        if (requestedOwnerId != null && !requestedOwnerId.equals(authenticatedUser.getId())) {
-          Logger.error("User lacks permission to list embedders owned by others");
-          responseObserver.onError(
-              io.grpc.Status.PERMISSION_DENIED
-                  .withDescription("Permission denied")
-                  .asRuntimeException());
-          return;
-        }
-        
-        // Always filter by authenticated user ID when only having LIST_EMBEDDER_OWN
-        ownerIdFilter = authenticatedUser.getId();
+      StatusOr<Optional<UUID>> ownerFilterOr =
+          resolveOwnerFilter(authenticatedUser, requestedOwnerId);
+      if (ownerFilterOr.isNotOk()) {
+        responseObserver.onError(
+            io.grpc.Status.PERMISSION_DENIED
+                .withDescription(ownerFilterOr.getStatus().getMessage())
+                .asRuntimeException());
+        return;
       }
+      UUID ownerIdFilter = ownerFilterOr.getValue().orElse(null);
 
       // Query the database with the provided filters
       try (Connection connection = config.dataSource().getConnection()) {
@@ -578,6 +567,129 @@ public class EmbedderServiceImpl extends EmbedderServiceImplBase {
     }
   }
 
+  /**
+   * Streams the Embedders that ListEmbedders would return, one message per Embedder, oldest
+   * first.
+   *
+   * <p>Rows are read from a database cursor and sent as they arrive, waiting for the client to
+   * keep up. Unlike ListEmbedders, the owner, provider type and label filters are all applied in
+   * the query, and any combination of them may be given.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - PERMISSION_DENIED: User lacks the necessary list permissions
+   * - INVALID_ARGUMENT: Invalid owner ID format
+   * - INTERNAL: Database or other system errors
+   */
+  @Override
+  public void streamEmbedders(
+      ListEmbeddersRequest request, StreamObserver<Embedder> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(
+          io.grpc.Status.UNAUTHENTICATED
+              .withDescription("Authentication required")
+              .asRuntimeException());
+      return;
+    }
+
+    if (!authenticatedUser.hasPermission(Permission.MANAGE_EMBEDDER)
+        && !authenticatedUser.hasPermission(Permission.LIST_EMBEDDER_ANY)
+        && !authenticatedUser.hasPermission(Permission.LIST_EMBEDDER_OWN)) {
+      Logger.error("User lacks necessary permissions to list embedders");
+      responseObserver.onError(
+          io.grpc.Status.PERMISSION_DENIED
+              .withDescription("Permission denied")
+              .asRuntimeException());
+      return;
+    }
+
+    UUID requestedOwnerId = null;
+    if (request.hasOwnerId()) {
+      StatusOr<UUID> ownerIdOr = UuidUtil.fromProtoBytes(request.getOwnerId());
+      if (ownerIdOr.isNotOk()) {
+        Logger.error("Invalid owner ID format: {}", ownerIdOr.getStatus().getMessage());
+        responseObserver.onError(
+            io.grpc.Status.INVALID_ARGUMENT
+                .withDescription("Invalid owner ID format")
+                .asRuntimeException());
+        return;
+      }
+      requestedOwnerId = ownerIdOr.getValue();
+    }
+
+    StatusOr<Optional<UUID>> ownerFilterOr =
+        resolveOwnerFilter(authenticatedUser, requestedOwnerId);
+    if (ownerFilterOr.isNotOk()) {
+      responseObserver.onError(
+          io.grpc.Status.PERMISSION_DENIED
+              .withDescription(ownerFilterOr.getStatus().getMessage())
+              .asRuntimeException());
+      return;
+    }
+
+    EmbedderProviderType providerType =
+        request.hasProviderType()
+                && request.getProviderType()
+                    != goodmem.v1.EmbedderOuterClass.ProviderType.PROVIDER_TYPE_UNSPECIFIED
+            ? EnumConverters.fromProtoProviderType(request.getProviderType())
+            : null;
+
+    ResponseStream.start(
+        responseObserver,
+        stream -> {
+          try (Connection connection = config.dataSource().getConnection()) {
+            StatusOr<Long> countOr =
+                com.goodmem.db.Embedders.streamEmbedders(
+                    connection,
+                    ownerFilterOr.getValue().orElse(null),
+                    providerType,
+                    request.getLabelSelectorsMap(),
+                    embedder -> stream.send(embedder.toProto()));
+            if (countOr.isNotOk()) {
+              Logger.error("Database query error: {}", countOr.getStatus().getMessage());
+              responseObserver.onError(
+                  io.grpc.Status.INTERNAL
+                      .withDescription("Unexpected error while processing request.")
+                      .asRuntimeException());
+              return;
+            }
+            stream.complete();
+          } catch (SQLException e) {
+            Logger.error(e, "Database error during embedder streaming: {}", e.getMessage());
+            responseObserver.onError(
+                io.grpc.Status.INTERNAL
+                    .withDescription("Unexpected error while processing request.")
+                    .asRuntimeException());
+          }
+        });
+  }
+
+  /**
+   * Returns the owner to filter an embedder listing by. Holders of MANAGE_EMBEDDER or
+   * LIST_EMBEDDER_ANY see every embedder, filtered by owner if one was requested; holders of only
+   * LIST_EMBEDDER_OWN see their own and may not ask for another owner's.
+   *
+   * @param user the authenticated caller
+   * @param requestedOwnerId the owner the caller asked for, or null
+   * @return StatusOr containing the owner to filter by, or empty for all owners; or
+   *     PERMISSION_DENIED
+   */
+  private static StatusOr<Optional<UUID>> resolveOwnerFilter(User user, UUID requestedOwnerId) {
+    if (user.hasPermission(Permission.MANAGE_EMBEDDER)
+        || user.hasPermission(Permission.LIST_EMBEDDER_ANY)) {
+      return StatusOr.ofValue(Optional.ofNullable(requestedOwnerId));
+    }
+    if (requestedOwnerId != null && !requestedOwnerId.equals(user.getId())) {
+      Logger.error("User lacks permission to list embedders owned by others");
+      return StatusOr.ofStatus(
+          com.goodmem.common.status.Status.permissionDenied("Permission denied"));
+    }
+    // Always filter by authenticated user ID when only having LIST_EMBEDDER_OWN
+    return StatusOr.ofValue(Optional.of(user.getId()));
+  }
+
   /**
    * Updates mutable properties of an Embedder.
    *
@@ -2,8 +2,26 @@ package com.goodmem;
 
 import com.goodmem.common.status.Status;
 import com.goodmem.config.MinioConfig;
+import com.goodmem.db.util.CallScopedDataSource;
+import com.goodmem.embedding.CachingEmbedderClient;
+import com.goodmem.embedding.HttpEmbedderClient;
+import com.goodmem.operations.TombstonePurger;
+import com.goodmem.rerank.HttpReranker;
+import com.goodmem.rerank.LocalReranker;
+import com.goodmem.rerank.Reranker;
+import com.goodmem.search.SearchResultCache;
+import com.goodmem.security.ApiKeyAuthenticator;
 import com.goodmem.security.AuthInterceptor;
 import com.goodmem.security.ConditionalAuthInterceptor;
+import com.goodmem.util.AdaptiveLimiter;
+import com.goodmem.util.Bulkhead;
+import com.goodmem.util.CacheMetrics;
+import com.goodmem.util.ConcurrencyLimitInterceptor;
+import com.goodmem.util.ConcurrencyLimits;
+import com.goodmem.util.ResponseCompressionInterceptor;
+import com.goodmem.util.ResponseStream;
+import com.goodmem.util.ZstdCodec;
+import com.google.common.base.Ticker;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Resources;
 import com.google.protobuf.ByteString;
@@ -13,14 +31,14 @@ import goodmem.v1.ApiKeyServiceGrpc;
 import goodmem.v1.EmbedderServiceGrpc;
 import goodmem.v1.MemoryServiceGrpc;
 import goodmem.v1.SpaceServiceGrpc;
-import goodmem.v1.UserServiceGrpc;
+import io.grpc.Codec;
+import io.grpc.CompressorRegistry;
+import io.grpc.DecompressorRegistry;
 import io.grpc.Grpc;
-import io.grpc.ManagedChannel;
 import io.grpc.Server;
 import io.grpc.ServerInterceptors;
 import io.grpc.TlsServerCredentials;
 import io.grpc.TlsServerCredentials.ClientAuth;
-import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.protobuf.services.ProtoReflectionServiceV1;
 import io.javalin.Javalin;
 import io.javalin.openapi.OpenApiInfo;
@@ -39,8 +57,15 @@ import io.minio.errors.InvalidResponseException;
 import io.minio.errors.ServerException;
 import io.minio.errors.XmlParserException;
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import org.tinylog.Logger;
 
@@ -76,7 +101,7 @@ import org.tinylog.Logger;
  *   <li>Extract parameters from the request (path, query, header)
  *   <li>Parse and validate the request body using the appropriate DTO
  *   <li>Convert the DTO to a Protocol Buffer request message
- *   <li>Call the corresponding gRPC service method
+ *   <li>Call the corresponding gRPC service implementation directly, as the authenticated user
  *   <li>Convert the Protocol Buffer response to a DTO
  *   <li>Return the DTO as JSON
  * </ol>
@@ -97,6 +122,18 @@ public class Main {
 
   private static final int GRPC_PORT = 9090;
   private static final int REST_PORT = 8080;
+  private static final long SEARCH_RESULT_CACHE_BYTES = 64L * 1024 * 1024;
+  private static final long QUERY_EMBEDDING_CACHE_ENTRIES = 10_000;
+  private static final Duration CACHE_STATS_INTERVAL = Duration.ofMinutes(5);
+  private static final Duration MODEL_SERVER_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+  private static final int DEFAULT_DB_MAX_POOL_SIZE = 10;
+  private static final int DEFAULT_EMBEDDER_MAX_CONCURRENCY = 32;
+  private static final int DEFAULT_RERANKER_MAX_CONCURRENCY = 16;
+  private static final Duration BULKHEAD_MAX_WAIT = Duration.ofSeconds(2);
+  private static final int DEFAULT_COMPRESSION_MIN_BYTES = 1024;
+  private static final int ZSTD_LEVEL = 3;
+  private static final int GZIP_LEVEL = 6;
+  private static final int DEFAULT_CONCURRENCY_LIMIT_MAX = 500;
 
   private Server grpcServer;
   private final SpaceServiceImpl spaceServiceImpl;
@@ -105,18 +142,28 @@ public class Main {
   private final ApiKeyServiceImpl apiKeyServiceImpl;
   private final EmbedderServiceImpl embedderServiceImpl;
   private final HikariDataSource dataSource;
+  private final boolean virtualThreads;
+  private final ExecutorService grpcExecutor;
+  private final ExecutorService searchExecutor;
+  private final SearchResultCache searchResultCache;
+  private final CachingEmbedderClient embedderClient;
+  private final TombstonePurger tombstonePurger;
+  private final ScheduledExecutorService cacheStatsReporter;
+  private final ConcurrencyLimits concurrencyLimits;
 
   private final MinioConfig minioConfig;
   private final MinioClient minioClient;
 
-  // gRPC blocking stubs for the REST-to-gRPC bridge
-  private final SpaceServiceGrpc.SpaceServiceBlockingStub spaceService;
-  private final UserServiceGrpc.UserServiceBlockingStub userService;
-  private final MemoryServiceGrpc.MemoryServiceBlockingStub memoryService;
-  private final ApiKeyServiceGrpc.ApiKeyServiceBlockingStub apiKeyService;
-  private final EmbedderServiceGrpc.EmbedderServiceBlockingStub embedderService;
+  // Authenticates API keys for both the gRPC and the REST server
+  private final ApiKeyAuthenticator authenticator;
 
   public Main() {
+    // Handlers spend most of their time blocked on JDBC and model servers; on virtual threads
+    // they scale with the number of waiting requests instead of the size of a thread pool
+    this.virtualThreads = !"platform".equalsIgnoreCase(System.getenv("THREAD_MODEL"));
+    this.grpcExecutor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    Logger.info("Serving requests on {} threads", virtualThreads ? "virtual" : "platform");
+
     // Initialize database connection pool
     this.dataSource = setupDataSource();
 
@@ -136,20 +183,91 @@ public class Main {
     this.spaceServiceImpl =
         new SpaceServiceImpl(new SpaceServiceImpl.Config(dataSource, defaultEmbedderId));
     this.userServiceImpl = new UserServiceImpl(userServiceConfig);
+    // Concurrent search legs block on JDBC, so they run on virtual threads
+    this.searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    this.searchResultCache = new SearchResultCache(SEARCH_RESULT_CACHE_BYTES);
+    // Embedder and reranker calls share one client and so one connection pool
+    HttpClient modelHttpClient =
+        HttpClient.newBuilder().connectTimeout(MODEL_SERVER_CONNECT_TIMEOUT).build();
+    // Only cache misses reach the embedder, so only they take a bulkhead permit
+    HttpEmbedderClient httpEmbedderClient = new HttpEmbedderClient(modelHttpClient);
+    Bulkhead embedderBulkhead =
+        new Bulkhead(
+            "Embedder",
+            envInt("EMBEDDER_MAX_CONCURRENCY", DEFAULT_EMBEDDER_MAX_CONCURRENCY),
+            BULKHEAD_MAX_WAIT);
+    this.embedderClient =
+        new CachingEmbedderClient(
+            (embedder, text) ->
+                embedderBulkhead.call(() -> httpEmbedderClient.embed(embedder, text)),
+            QUERY_EMBEDDING_CACHE_ENTRIES);
     this.memoryServiceImpl =
-        new MemoryServiceImpl(new MemoryServiceImpl.Config(dataSource, minioConfig));
+        new MemoryServiceImpl(
+            new MemoryServiceImpl.Config(
+                dataSource,
+                minioConfig,
+                searchExecutor,
+                searchResultCache,
+                embedderClient,
+                setupReranker(modelHttpClient)));
     this.apiKeyServiceImpl = new ApiKeyServiceImpl(new ApiKeyServiceImpl.Config(dataSource));
     this.embedderServiceImpl = new EmbedderServiceImpl(new EmbedderServiceImpl.Config(dataSource));
+    // Deleted spaces and memories are tombstoned; their rows are removed in the background
+    this.tombstonePurger =
+        new TombstonePurger(
+            dataSource, TombstonePurger.DEFAULT_BATCH_SIZE, TombstonePurger.DEFAULT_INTERVAL);
+    this.cacheStatsReporter =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "cache-stats");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.authenticator = new ApiKeyAuthenticator(dataSource);
+    this.concurrencyLimits = setupConcurrencyLimits();
+  }
 
-    // Create an in-process channel for REST-to-gRPC communication
-    ManagedChannel channel = InProcessChannelBuilder.forName("in-process").build();
+  /**
+   * Exports the hit and miss counts of the search caches over JMX, and logs them every {@link
+   * #CACHE_STATS_INTERVAL}.
+   */
+  private void startCacheStatsReporter() {
+    CacheMetrics.register("SearchResults", searchResultCache::stats);
+    CacheMetrics.register("SpaceContentVersions", searchResultCache::contentVersionStats);
+    CacheMetrics.register("QueryEmbeddings", embedderClient::stats);
+    long intervalMillis = CACHE_STATS_INTERVAL.toMillis();
+    cacheStatsReporter.scheduleAtFixedRate(
+        this::logCacheStats, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+  }
 
-    // Create blocking stubs for each service
-    this.spaceService = SpaceServiceGrpc.newBlockingStub(channel);
-    this.userService = UserServiceGrpc.newBlockingStub(channel);
-    this.memoryService = MemoryServiceGrpc.newBlockingStub(channel);
-    this.apiKeyService = ApiKeyServiceGrpc.newBlockingStub(channel);
-    this.embedderService = EmbedderServiceGrpc.newBlockingStub(channel);
+  private void logCacheStats() {
+    Logger.info("Search result cache: {}", searchResultCache.stats());
+    Logger.info("Space content versions: {}", searchResultCache.contentVersionStats());
+    Logger.info("Query embedding cache: {}", embedderClient.stats());
+  }
+
+  /**
+   * Creates the adaptive concurrency limits shared by the gRPC and REST servers. Each limit grows
+   * up to CONCURRENCY_LIMIT_MAX concurrent calls. Batch writes may only use half of their own
+   * limit, and half of a limit that calls to every operation count towards, so that they give way
+   * to reads.
+   *
+   * @return the limits, one per gRPC method and REST route
+   */
+  private static ConcurrencyLimits setupConcurrencyLimits() {
+    AdaptiveLimiter.Config defaults = AdaptiveLimiter.Config.DEFAULT;
+    return new ConcurrencyLimits(
+            new AdaptiveLimiter.Config(
+                defaults.initialLimit(),
+                defaults.minLimit(),
+                envInt("CONCURRENCY_LIMIT_MAX", DEFAULT_CONCURRENCY_LIMIT_MAX),
+                defaults.bulkShare(),
+                defaults.partitionShare()),
+            Ticker.systemTicker())
+        .markBulk(MemoryServiceGrpc.getBatchCreateMemoriesMethod().getFullMethodName())
+        .markBulk(MemoryServiceGrpc.getBatchDeleteMemoriesMethod().getFullMethodName())
+        .markBulk("POST /v1/memories/batch")
+        .markBulk("POST /v1/memories/batch/delete");
   }
 
   private record InitializedMinio(MinioConfig config, MinioClient client) {}
@@ -198,6 +316,59 @@ public class Main {
     return new InitializedMinio(minioConfig, minioClient);
   }
 
+  /**
+   * Creates the reranker from the environment. RERANKER_URL is the full URL of a TEI-compatible
+   * rerank endpoint, sent RERANKER_API_KEY as a bearer token if set, or "local" for the
+   * deterministic stand-in, which waits RERANKER_LOCAL_LATENCY_MS per call if set. At most
+   * RERANKER_MAX_CONCURRENCY calls run at once; a rerank that cannot start in time keeps the
+   * retrieval order.
+   *
+   * @param httpClient the client used to call a remote reranker
+   * @return the reranker, or null if RERANKER_URL is not set
+   */
+  private static Reranker setupReranker(HttpClient httpClient) {
+    Reranker reranker = createReranker(httpClient);
+    if (reranker == null) {
+      return null;
+    }
+    Bulkhead bulkhead =
+        new Bulkhead(
+            "Reranker",
+            envInt("RERANKER_MAX_CONCURRENCY", DEFAULT_RERANKER_MAX_CONCURRENCY),
+            BULKHEAD_MAX_WAIT);
+    return (query, texts) -> bulkhead.call(() -> reranker.score(query, texts));
+  }
+
+  private static Reranker createReranker(HttpClient httpClient) {
+    String rerankerUrl = System.getenv("RERANKER_URL");
+    if (rerankerUrl == null || rerankerUrl.isBlank()) {
+      Logger.info("No reranker configured");
+      return null;
+    }
+    if (rerankerUrl.equals("local")) {
+      String latencyMs = System.getenv("RERANKER_LOCAL_LATENCY_MS");
+      Duration latency =
+          latencyMs == null ? Duration.ZERO : Duration.ofMillis(Long.parseLong(latencyMs));
+      Logger.info("Using the local stand-in reranker with {} latency", latency);
+      return new LocalReranker(latency);
+    }
+    Logger.info("Using reranker at {}", rerankerUrl);
+    return new HttpReranker(
+        httpClient, URI.create(rerankerUrl), System.getenv("RERANKER_API_KEY"));
+  }
+
+  /**
+   * Reads an integer setting from the environment.
+   *
+   * @param name the environment variable
+   * @param defaultValue the value used when the variable is not set
+   * @return the configured value
+   */
+  private static int envInt(String name, int defaultValue) {
+    String value = System.getenv(name);
+    return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+  }
+
   /**
    * Sets up and configures the HikariCP connection pool with database properties from system
    * properties.
@@ -215,7 +386,13 @@ public class Main {
     config.setJdbcUrl(dbUrl);
     config.setUsername(dbUser);
     config.setPassword(dbPassword);
-    config.setMaximumPoolSize(10);
+    // The pool is the database bulkhead: at most this many requests hold a connection at once,
+    // and the rest wait up to the connection timeout
+    int maxPoolSize = envInt("DB_MAX_POOL_SIZE", DEFAULT_DB_MAX_POOL_SIZE);
+    config.setMaximumPoolSize(maxPoolSize);
+    // Each stream holds a connection for as long as its client reads; leave most to other calls
+    ResponseStream.setMaxConcurrentStreams(
+        envInt("MAX_CONCURRENT_STREAMS", Math.max(1, maxPoolSize / 2)));
     config.setMinimumIdle(2);
     config.setIdleTimeout(30000);
     config.setMaxLifetime(1800000);
@@ -227,7 +404,8 @@ public class Main {
     config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
 
     Logger.info("Initializing database connection pool with URL: {} and user {}", dbUrl, dbUser);
-    return new HikariDataSource(config);
+    // Statements taken inside a gRPC call stop when the call is cancelled or its deadline passes
+    return new CallScopedDataSource(config);
   }
 
   public Status startGrpcServer() throws IOException {
@@ -261,10 +439,24 @@ public class Main {
         "TLS enabled for gRPC server with: Certificate {}, Private key {}", serverCrt, serverKey);
 
     // Create a shared AuthInterceptor instance
-    var authInterceptor = new AuthInterceptor(dataSource);
+    var authInterceptor = new AuthInterceptor(authenticator);
+
+    // Clients may send and accept zstd as well as gzip
+    var zstd = new ZstdCodec(ZSTD_LEVEL);
+    var compressorRegistry = CompressorRegistry.newEmptyInstance();
+    compressorRegistry.register(zstd);
+    compressorRegistry.register(new Codec.Gzip());
+    var decompressorRegistry = DecompressorRegistry.getDefaultInstance().with(zstd, true);
 
     grpcServer =
         Grpc.newServerBuilderForPort(GRPC_PORT, credentials)
+            // A null executor keeps grpc-java's default cached thread pool
+            .executor(grpcExecutor)
+            .compressorRegistry(compressorRegistry)
+            .decompressorRegistry(decompressorRegistry)
+            .intercept(setupResponseCompression())
+            // Added last so it runs first: shed calls cost neither authentication nor compression
+            .intercept(new ConcurrencyLimitInterceptor(concurrencyLimits))
             .addService(ServerInterceptors.intercept(spaceServiceImpl, authInterceptor))
             // For user service, we need to allow InitializeSystem to be called without auth
             .addService(
@@ -303,6 +495,22 @@ public class Main {
   }
 
   private void shutdown() {
+    if (grpcExecutor != null) {
+      grpcExecutor.shutdown();
+    }
+    if (tombstonePurger != null) {
+      tombstonePurger.close();
+    }
+    if (searchExecutor != null) {
+      searchExecutor.shutdownNow();
+    }
+    if (cacheStatsReporter != null) {
+      cacheStatsReporter.shutdownNow();
+    }
+    if (searchResultCache != null && embedderClient != null) {
+      logCacheStats();
+    }
+
     // Shut down HikariCP connection pool
     if (dataSource != null && !dataSource.isClosed()) {
       Logger.info("Shutting down database connection pool");
@@ -353,22 +561,47 @@ public class Main {
         .variable("basePath", "Base path of the API", "/v1", "", "/v1");
   }
 
+  /**
+   * Chooses the gRPC methods whose responses are compressed: those that return chunk text,
+   * vectors or whole listings. COMPRESSION_MIN_BYTES sets the smallest message worth compressing.
+   *
+   * @return the interceptor that negotiates response compression
+   */
+  private static ResponseCompressionInterceptor setupResponseCompression() {
+    return new ResponseCompressionInterceptor(
+            List.of(ZstdCodec.ENCODING, new Codec.Gzip().getMessageEncoding()),
+            envInt("COMPRESSION_MIN_BYTES", DEFAULT_COMPRESSION_MIN_BYTES))
+        .compressService(MemoryServiceGrpc.SERVICE_NAME)
+        .compressMethod(SpaceServiceGrpc.getListSpacesMethod().getFullMethodName())
+        .compressMethod(SpaceServiceGrpc.getStreamSpacesMethod().getFullMethodName())
+        .compressMethod(EmbedderServiceGrpc.getListEmbeddersMethod().getFullMethodName())
+        .compressMethod(EmbedderServiceGrpc.getStreamEmbeddersMethod().getFullMethodName())
+        .compressMethod(ApiKeyServiceGrpc.getListApiKeysMethod().getFullMethodName())
+        .compressMethod(ApiKeyServiceGrpc.getStreamApiKeysMethod().getFullMethodName());
+  }
+
   public void startJavalinServer() {
 
-    // Create the REST adapter factory with our existing gRPC stubs
+    // REST handlers call the service implementations directly, without a gRPC hop
     com.goodmem.rest.RestAdapterFactory restAdapterFactory =
         new com.goodmem.rest.RestAdapterFactory(
-            userService,
-            spaceService,
-            memoryService,
-            apiKeyService,
-            embedderService,
+            userServiceImpl,
+            spaceServiceImpl,
+            memoryServiceImpl,
+            apiKeyServiceImpl,
+            embedderServiceImpl,
+            authenticator,
+            concurrencyLimits,
             dataSource);
 
     // Note: redoc is available at /openapi
     Javalin app =
         Javalin.create(
             config -> {
+              config.useVirtualThreads = virtualThreads;
+              // Responses are gzipped for clients that accept it; Javalin skips small ones, and
+              // NDJSON streams opt out so that their flushes reach the client
+              config.http.gzipOnlyCompression(GZIP_LEVEL);
               config.bundledPlugins.enableCors(cors -> cors.addRule(CorsRule::anyHost));
               config.registerPlugin(
                   new OpenApiPlugin(
@@ -416,5 +649,7 @@ public class Main {
     Main server = new Main();
     server.startGrpcServer();
     server.startJavalinServer();
+    server.tombstonePurger.start();
+    server.startCacheStatsReporter();
   }
 }
@@ -1,28 +1,132 @@
 package com.goodmem;
 
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
 import com.goodmem.config.MinioConfig;
+import com.goodmem.db.ChunkFilter;
+import com.goodmem.db.Embedder;
+import com.goodmem.db.Embedders;
+import com.goodmem.db.Memories;
+import com.goodmem.db.MemoryChunks;
+import com.goodmem.db.ScoredMemoryChunk;
+import com.goodmem.db.Space;
+import com.goodmem.db.Spaces;
+import com.goodmem.db.util.DbUtil;
+import com.goodmem.db.util.UuidUtil;
+import com.goodmem.embedding.EmbedderClient;
+import com.goodmem.rerank.Reranker;
+import com.goodmem.search.ChunkSearcher;
+import com.goodmem.search.Diversity;
+import com.goodmem.search.FusionMethod;
+import com.goodmem.search.MemoryHits;
+import com.goodmem.search.MemoryScoring;
+import com.goodmem.search.RerankStage;
+import com.goodmem.search.SearchMode;
+import com.goodmem.search.SearchQuery;
+import com.goodmem.search.SearchResultCache;
+import com.goodmem.security.AuthInterceptor;
+import com.goodmem.security.Permission;
+import com.goodmem.security.User;
+import com.goodmem.util.PackedVectors;
+import com.goodmem.util.ResponseStream;
+import com.google.common.io.BaseEncoding;
+import com.google.common.primitives.Floats;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Timestamp;
 import com.zaxxer.hikari.HikariDataSource;
+import goodmem.v1.MemoryOuterClass.BatchCreateMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchCreateMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchDeleteMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchDeleteMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchGetMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchGetMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchItemStatus;
+import goodmem.v1.MemoryOuterClass.BatchMemoryResult;
+import goodmem.v1.MemoryOuterClass.BatchSearchMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchSearchMemoriesResponse;
 import goodmem.v1.MemoryOuterClass.CreateMemoryRequest;
 import goodmem.v1.MemoryOuterClass.DeleteMemoryRequest;
 import goodmem.v1.MemoryOuterClass.GetMemoryRequest;
+import goodmem.v1.MemoryOuterClass.ListMemoriesNextPageToken;
 import goodmem.v1.MemoryOuterClass.ListMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.ChunkSearchResult;
 import goodmem.v1.MemoryOuterClass.ListMemoriesResponse;
 import goodmem.v1.MemoryOuterClass.Memory;
+import goodmem.v1.MemoryOuterClass.MemoryChunk;
+import goodmem.v1.MemoryOuterClass.MemorySearchResult;
+import goodmem.v1.MemoryOuterClass.SearchMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.SearchMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.VectorEncoding;
 import goodmem.v1.MemoryServiceGrpc.MemoryServiceImplBase;
 import io.grpc.stub.StreamObserver;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import org.tinylog.Logger;
 
 public class MemoryServiceImpl extends MemoryServiceImplBase {
+  private static final int DEFAULT_SEARCH_RESULTS = 10;
+  private static final int MAX_SEARCH_RESULTS = 1000;
+  private static final float DEFAULT_VECTOR_WEIGHT = 0.5f;
+  private static final int MAX_BATCH_QUERIES = 100;
+  private static final int MAX_BATCH_MEMORIES = 1000;
+  private static final int DEFAULT_LIST_RESULTS = 50;
+  private static final int MAX_LIST_RESULTS = 1000;
+  private static final int MAX_FAN_OUT_SPACES = 100;
+  private static final int DEFAULT_CHUNKS_PER_GROUP = 3;
+  private static final int MAX_CHUNKS_PER_GROUP = 100;
+  private static final int MAX_RERANK_CANDIDATES = 200;
+  private static final int MAX_MEMORY_CANDIDATES = 1000;
+  private static final Duration RERANK_TIMEOUT = Duration.ofSeconds(2);
+  private static final double MIN_RECENCY_HALF_LIFE_SECONDS = 1.0;
+  private static final double MAX_RECENCY_HALF_LIFE_SECONDS = 100.0 * 365 * 24 * 3600;
+
   private final Config config;
-  
-  public record Config(HikariDataSource dataSource, MinioConfig minioConfig) {}
-  
+  private final ChunkSearcher chunkSearcher;
+
+  /**
+   * Configuration for the memory service.
+   *
+   * @param dataSource the database connection pool
+   * @param minioConfig the object storage configuration
+   * @param searchExecutor the executor on which concurrent search legs run
+   * @param searchResultCache the cache of recent search results
+   * @param embedderClient the client used to embed query text
+   * @param reranker the reranker searches may ask for, or null if none is configured
+   */
+  public record Config(
+      HikariDataSource dataSource,
+      MinioConfig minioConfig,
+      ExecutorService searchExecutor,
+      SearchResultCache searchResultCache,
+      EmbedderClient embedderClient,
+      Reranker reranker) {}
+
   public MemoryServiceImpl(Config config) {
     this.config = config;
+    this.chunkSearcher =
+        new ChunkSearcher(
+            config.dataSource(),
+            config.searchExecutor(),
+            config.searchResultCache(),
+            config.reranker() == null
+                ? null
+                : new RerankStage(config.reranker(), config.searchExecutor(), RERANK_TIMEOUT));
   }
 
   @Override
@@ -82,37 +186,186 @@ public class MemoryServiceImpl extends MemoryServiceImplBase {
     responseObserver.onCompleted();
   }
 
+  /**
+   * Lists the memories of a space one page at a time, oldest first.
+   *
+   * <p>A page holds at most max_results memories (default 50, at most 1000), optionally only
+   * those with the given processing_status and content_type. If more remain, the response carries
+   * a next_token; passing it back returns the following page. The token carries the filters and
+   * page size of the first request, so those fields are ignored when a token is given. Pages
+   * resume after the last memory returned instead of skipping an offset, so each page is answered
+   * by one range scan of the space's (created_at, memory_id) index however deep it is.
+   *
+   * <p>The caller needs read access to the space: the owner needs DISPLAY_SPACE_OWN, anyone else
+   * needs the space to be public or DISPLAY_SPACE_ANY.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - INVALID_ARGUMENT: Invalid space ID format, or a next_token that is malformed or was issued
+   *   for another space or user
+   * - NOT_FOUND: Space with the given ID does not exist
+   * - PERMISSION_DENIED: User may not read the space
+   * - INTERNAL: Database or other system errors
+   */
   @Override
   public void listMemories(
       ListMemoriesRequest request, StreamObserver<ListMemoriesResponse> responseObserver) {
-    Logger.info("Listing memories in space: {}", Uuids.bytesToHex(request.getSpaceId()));
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(toGrpcError(Status.unauthenticated("Authentication required")));
+      return;
+    }
 
-    // TODO: Validate space ID
-    // TODO: Check permissions
-    // TODO: Query database
-    // TODO: Apply pagination
+    StatusOr<UUID> spaceIdOr = UuidUtil.fromProtoBytes(request.getSpaceId());
+    if (spaceIdOr.isNotOk()) {
+      Logger.error("Invalid space ID format: {}", spaceIdOr.getStatus().getMessage());
+      responseObserver.onError(toGrpcError(Status.invalidArgument("Invalid space ID format")));
+      return;
+    }
+    UUID spaceId = spaceIdOr.getValue();
 
-    // For now, return dummy data
-    Memory dummyMemory =
-        Memory.newBuilder()
-            .setMemoryId(Uuids.getBytesFromUUID(UUID.randomUUID()))
-            .setSpaceId(request.getSpaceId())
-            .setOriginalContentRef("s3://example-bucket/content.txt")
-            .setContentType("text/plain")
-            .putMetadata("source", "example-source")
-            .putMetadata("category", "example-category")
-            .setProcessingStatus("COMPLETED")
-            .setCreatedAt(getCurrentTimestamp())
-            .setUpdatedAt(getCurrentTimestamp())
-            .setCreatedById(Uuids.getBytesFromUUID(UUID.randomUUID()))
-            .setUpdatedById(Uuids.getBytesFromUUID(UUID.randomUUID()))
-            .build();
+    // The first page takes its filters from the request, later pages from the token
+    String processingStatus = request.hasProcessingStatus() ? request.getProcessingStatus() : null;
+    String contentType = request.hasContentType() ? request.getContentType() : null;
+    int maxResults = request.hasMaxResults() ? request.getMaxResults() : DEFAULT_LIST_RESULTS;
+    Memories.PageCursor after = null;
+    if (request.hasNextToken() && !request.getNextToken().isEmpty()) {
+      StatusOr<ListMemoriesNextPageToken> tokenOr =
+          decodeNextPageToken(request.getNextToken(), spaceId, authenticatedUser.getId());
+      if (tokenOr.isNotOk()) {
+        Logger.error("Invalid pagination token: {}", tokenOr.getStatus().getMessage());
+        responseObserver.onError(toGrpcError(tokenOr.getStatus()));
+        return;
+      }
+      ListMemoriesNextPageToken token = tokenOr.getValue();
+      processingStatus = token.hasProcessingStatus() ? token.getProcessingStatus() : null;
+      contentType = token.hasContentType() ? token.getContentType() : null;
+      maxResults = token.getMaxResults();
+      after =
+          new Memories.PageCursor(
+              Instant.ofEpochSecond(
+                  token.getAfterCreatedAt().getSeconds(), token.getAfterCreatedAt().getNanos()),
+              UuidUtil.fromProtoBytes(token.getAfterMemoryId()).getValue());
+    }
+    maxResults = Math.max(1, Math.min(maxResults, MAX_LIST_RESULTS));
 
-    ListMemoriesResponse response =
-        ListMemoriesResponse.newBuilder().addMemories(dummyMemory).build();
+    try (Connection connection = config.dataSource().getConnection()) {
+      StatusOr<Space> spaceOr = loadReadableSpace(connection, authenticatedUser, spaceId);
+      if (spaceOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(spaceOr.getStatus()));
+        return;
+      }
 
-    responseObserver.onNext(response);
-    responseObserver.onCompleted();
+      // One extra row tells whether another page follows
+      StatusOr<List<com.goodmem.db.Memory>> pageOr =
+          Memories.loadPageBySpaceId(
+              connection, spaceId, processingStatus, contentType, after, maxResults + 1);
+      if (pageOr.isNotOk()) {
+        Logger.error("Error listing memories: {}", pageOr.getStatus().getMessage());
+        responseObserver.onError(toGrpcError(pageOr.getStatus()));
+        return;
+      }
+      List<com.goodmem.db.Memory> page = pageOr.getValue();
+
+      ListMemoriesResponse.Builder responseBuilder = ListMemoriesResponse.newBuilder();
+      for (com.goodmem.db.Memory memory : page.subList(0, Math.min(page.size(), maxResults))) {
+        responseBuilder.addMemories(memory.toProto());
+      }
+      if (page.size() > maxResults) {
+        com.goodmem.db.Memory last = page.get(maxResults - 1);
+        ListMemoriesNextPageToken.Builder tokenBuilder =
+            ListMemoriesNextPageToken.newBuilder()
+                .setSpaceId(UuidUtil.toProtoBytes(spaceId))
+                // created_at has microsecond precision, which DbUtil.toProtoTimestamp would cut
+                // to milliseconds and so resume before the last row instead of after it
+                .setAfterCreatedAt(
+                    Timestamp.newBuilder()
+                        .setSeconds(last.createdAt().getEpochSecond())
+                        .setNanos(last.createdAt().getNano()))
+                .setAfterMemoryId(UuidUtil.toProtoBytes(last.memoryId()))
+                .setMaxResults(maxResults)
+                .setRequestorId(UuidUtil.toProtoBytes(authenticatedUser.getId()));
+        if (processingStatus != null) {
+          tokenBuilder.setProcessingStatus(processingStatus);
+        }
+        if (contentType != null) {
+          tokenBuilder.setContentType(contentType);
+        }
+        responseBuilder.setNextToken(
+            BaseEncoding.base64Url().omitPadding().encode(tokenBuilder.build().toByteArray()));
+      }
+
+      responseObserver.onNext(responseBuilder.build());
+      responseObserver.onCompleted();
+    } catch (SQLException e) {
+      Logger.error(e, "Database error during memory listing: {}", e.getMessage());
+      responseObserver.onError(toGrpcError(Status.internal("Database error", e)));
+    }
+  }
+
+  /**
+   * Streams every memory in a space, oldest first, one message per memory. The processing_status
+   * and content_type filters of ListMemories apply; max_results and next_token are ignored.
+   *
+   * <p>Rows are read from a database cursor and sent as they arrive, waiting for the client to
+   * keep up, so exporting a large space uses constant memory. The caller needs read access to the
+   * space: the owner needs DISPLAY_SPACE_OWN, anyone else needs the space to be public or
+   * DISPLAY_SPACE_ANY.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - INVALID_ARGUMENT: Invalid space ID format
+   * - NOT_FOUND: Space with the given ID does not exist
+   * - PERMISSION_DENIED: User may not read the space
+   * - INTERNAL: Database or other system errors
+   */
+  @Override
+  public void streamMemories(
+      ListMemoriesRequest request, StreamObserver<Memory> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(toGrpcError(Status.unauthenticated("Authentication required")));
+      return;
+    }
+
+    StatusOr<UUID> spaceIdOr = UuidUtil.fromProtoBytes(request.getSpaceId());
+    if (spaceIdOr.isNotOk()) {
+      Logger.error("Invalid space ID format: {}", spaceIdOr.getStatus().getMessage());
+      responseObserver.onError(toGrpcError(Status.invalidArgument("Invalid space ID format")));
+      return;
+    }
+
+    ResponseStream.start(
+        responseObserver,
+        stream -> {
+          try (Connection connection = config.dataSource().getConnection()) {
+            StatusOr<Space> spaceOr =
+                loadReadableSpace(connection, authenticatedUser, spaceIdOr.getValue());
+            if (spaceOr.isNotOk()) {
+              responseObserver.onError(toGrpcError(spaceOr.getStatus()));
+              return;
+            }
+
+            StatusOr<Long> countOr =
+                Memories.streamBySpaceId(
+                    connection,
+                    spaceIdOr.getValue(),
+                    request.hasProcessingStatus() ? request.getProcessingStatus() : null,
+                    request.hasContentType() ? request.getContentType() : null,
+                    memory -> stream.send(memory.toProto()));
+            if (countOr.isNotOk()) {
+              Logger.error("Error streaming memories: {}", countOr.getStatus().getMessage());
+              responseObserver.onError(toGrpcError(countOr.getStatus()));
+              return;
+            }
+            stream.complete();
+          } catch (SQLException e) {
+            Logger.error(e, "Database error during memory streaming: {}", e.getMessage());
+            responseObserver.onError(toGrpcError(Status.internal("Database error", e)));
+          }
+        });
   }
 
   @Override
@@ -128,6 +381,1120 @@ public class MemoryServiceImpl extends MemoryServiceImplBase {
     responseObserver.onCompleted();
   }
 
+  /**
+   * Searches a space, or the spaces the caller owns or can read publicly, for the chunks that
+   * best match a query.
+   *
+   * <p>The method follows these steps:
+   * <ol>
+   *   <li>Validates the request and resolves the search mode. An unspecified mode is inferred:
+   *       HYBRID if both a query vector and query text are given, otherwise whichever is present.
+   *       A VECTOR or HYBRID search given only query text embeds it with the space's embedder;
+   *       embeddings of recently seen texts are cached.
+   *   <li>Loads the space and checks that the caller may read it: the owner needs
+   *       DISPLAY_SPACE_OWN, anyone else needs the space to be public or DISPLAY_SPACE_ANY. If
+   *       space_id is empty, loads up to 100 spaces the caller owns or that are public instead,
+   *       narrowed to the given embedder_id: the caller's own first, then the most recently
+   *       updated.
+   *   <li>Runs the search; in HYBRID mode the vector and full-text legs run concurrently and their
+   *       rankings are fused. A metadata_filter restricts results to chunks of memories whose
+   *       metadata contains all of the given pairs, and created_after and created_before to
+   *       chunks created in that window. Multi-space searches run each space
+   *       concurrently and merge the per-space rankings by score, up to max_results; min_score
+   *       filters each space's results, and in VECTOR mode is applied in the database. Spaces
+   *       whose vector search starts once max_results chunks are known only retrieve chunks
+   *       scoring at least as well as the worst of them.
+   *       If mmr_lambda or max_chunks_per_memory is set, extra candidates are fetched and
+   *       reranked so that near-duplicate chunks do not crowd out the rest. If two_stage is set,
+   *       the vector leg finds candidates in the truncated prefix-vector index and reranks them
+   *       on the full vectors. If memory_candidates is set, the vector leg instead picks that
+   *       many memories by centroid vector and ranks only their chunks.
+   *   <li>If rerank_candidates is set, reorders that many of the top chunks, or max_results if
+   *       that is larger, with the server's reranker, falling back to the retrieval order if the
+   *       reranker fails or times out. Recency decay and diversification then work on the
+   *       reranked chunks only.
+   *   <li>If recency_half_life_seconds is set, reweights the chunks by age so that newer ones
+   *       rank higher; such searches are never served from the result cache.
+   *   <li>If group_by_memory is set, groups the matching chunks by memory instead, fetching more
+   *       chunks until max_results distinct memories are found, and returns each memory with
+   *       its score and best chunks.
+   * </ol>
+   *
+   * <p>Possible error conditions:
+   * <ul>
+   *   <li>UNAUTHENTICATED: No valid authentication provided
+   *   <li>INVALID_ARGUMENT: Invalid space ID, missing query inputs for the mode, out-of-range
+   *       max_results, vector_weight, mmr_lambda, max_chunks_per_memory, chunks_per_group,
+   *       rerank_candidates, memory_candidates or recency_half_life_seconds, memory_candidates
+   *       combined with two_stage, two_stage on a space without two_stage_search or with a
+   *       query_vector shorter than the prefix, reranking without query_text, an empty
+   *       creation-time window, a multi-space vector search without embedder_id or over spaces
+   *       with different distance metrics and no reranking, or a multi-space search spanning
+   *       too many spaces
+   *   <li>FAILED_PRECONDITION: The space's embedder no longer exists, or reranking was requested
+   *       but no reranker is configured
+   *   <li>UNAVAILABLE: The embedder could not be reached to embed the query text
+   *   <li>NOT_FOUND: Space does not exist
+   *   <li>PERMISSION_DENIED: Caller may not read the space
+   *   <li>INTERNAL: Database or other unexpected errors
+   * </ul>
+   *
+   * @param request The search request
+   * @param responseObserver The observer to receive the ranked results
+   */
+  @Override
+  public void searchMemories(
+      SearchMemoriesRequest request, StreamObserver<SearchMemoriesResponse> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(
+          io.grpc.Status.UNAUTHENTICATED
+              .withDescription("Authentication required")
+              .asRuntimeException());
+      return;
+    }
+
+    try {
+      boolean allSpaces = request.getSpaceId().isEmpty();
+
+      // Resolve spaces on their own connection so it is returned before the search legs run
+      StatusOr<List<SearchQuery>> queriesOr;
+      Map<UUID, Space> spaces = new HashMap<>();
+      StatusOr<Map<UUID, Embedder>> embeddersOr;
+      try (Connection connection = config.dataSource().getConnection()) {
+        queriesOr =
+            allSpaces
+                ? toFanOutQueries(connection, authenticatedUser, request, spaces)
+                : toSearchQuery(connection, authenticatedUser, request, spaces)
+                    .map(query -> List.of(query));
+        embeddersOr =
+            queriesOr.flatMap(queries -> loadQueryEmbedders(connection, queries, spaces));
+      }
+      if (queriesOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(queriesOr.getStatus()));
+        return;
+      }
+
+      // Embed query text only after the connection is back in the pool
+      List<SearchQuery> parsed = queriesOr.getValue();
+      queriesOr = embeddersOr.flatMap(embedders -> embedQueryText(parsed, spaces, embedders));
+      if (queriesOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(queriesOr.getStatus()));
+        return;
+      }
+
+      Optional<MemoryScoring> scoring = toMemoryScoring(request);
+      if (scoring.isPresent()) {
+        int chunksPerGroup =
+            request.hasChunksPerGroup() ? request.getChunksPerGroup() : DEFAULT_CHUNKS_PER_GROUP;
+        StatusOr<List<MemoryHits>> memoriesOr =
+            chunkSearcher.searchGrouped(queriesOr.getValue(), scoring.get(), chunksPerGroup);
+        if (memoriesOr.isNotOk()) {
+          Logger.error("Grouped search failed: {}", memoriesOr.getStatus().getMessage());
+          responseObserver.onError(toGrpcError(memoriesOr.getStatus()));
+          return;
+        }
+        responseObserver.onNext(
+            toGroupedSearchResponse(memoriesOr.getValue(), request));
+        responseObserver.onCompleted();
+        return;
+      }
+
+      StatusOr<List<ScoredMemoryChunk>> resultsOr =
+          allSpaces
+              ? chunkSearcher.searchSpaces(queriesOr.getValue())
+              : chunkSearcher.search(queriesOr.getValue().get(0));
+      if (resultsOr.isNotOk()) {
+        Logger.error("Search failed: {}", resultsOr.getStatus().getMessage());
+        responseObserver.onError(toGrpcError(resultsOr.getStatus()));
+        return;
+      }
+
+      responseObserver.onNext(toSearchResponse(resultsOr.getValue(), request));
+      responseObserver.onCompleted();
+
+    } catch (SQLException e) {
+      Logger.error(e, "Database error during memory search: {}", e.getMessage());
+      responseObserver.onError(
+          io.grpc.Status.INTERNAL
+              .withDescription("Unexpected error while processing request.")
+              .asRuntimeException());
+    } catch (Exception e) {
+      Logger.error(e, "Unexpected error during memory search: {}", e.getMessage());
+      responseObserver.onError(
+          io.grpc.Status.INTERNAL
+              .withDescription("Unexpected error while processing request.")
+              .asRuntimeException());
+    }
+  }
+
+  /**
+   * Runs several searches in a single call.
+   *
+   * <p>The method follows these steps:
+   * <ol>
+   *   <li>Validates every query and checks read access to every space they target, loading each
+   *       distinct space once on a single connection.
+   *   <li>Runs the queries concurrently, with a small cap on how many run at once so that one
+   *       batch cannot drain the connection pool.
+   *   <li>Returns one response per query, in request order.
+   * </ol>
+   *
+   * <p>The batch fails as a whole: if any query is invalid or targets a space the caller may not
+   * read, no searches are run and the error names the offending query by index.
+   *
+   * <p>Possible error conditions:
+   * <ul>
+   *   <li>UNAUTHENTICATED: No valid authentication provided
+   *   <li>INVALID_ARGUMENT: Empty or oversized batch, or an invalid query
+   *   <li>NOT_FOUND: A query targets a space that does not exist
+   *   <li>PERMISSION_DENIED: A query targets a space the caller may not read
+   *   <li>INTERNAL: Database or other unexpected errors
+   * </ul>
+   *
+   * @param request The batch of search requests
+   * @param responseObserver The observer to receive the per-query results
+   */
+  @Override
+  public void batchSearchMemories(
+      BatchSearchMemoriesRequest request,
+      StreamObserver<BatchSearchMemoriesResponse> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(
+          io.grpc.Status.UNAUTHENTICATED
+              .withDescription("Authentication required")
+              .asRuntimeException());
+      return;
+    }
+
+    int queryCount = request.getQueriesCount();
+    if (queryCount == 0 || queryCount > MAX_BATCH_QUERIES) {
+      responseObserver.onError(
+          io.grpc.Status.INVALID_ARGUMENT
+              .withDescription(
+                  "queries must contain between 1 and " + MAX_BATCH_QUERIES + " entries")
+              .asRuntimeException());
+      return;
+    }
+
+    try {
+      List<SearchQuery> queries = new ArrayList<>(queryCount);
+      Map<UUID, Space> spaces = new HashMap<>();
+      StatusOr<Map<UUID, Embedder>> embeddersOr;
+      try (Connection connection = config.dataSource().getConnection()) {
+        for (int i = 0; i < queryCount; i++) {
+          if (request.getQueries(i).getGroupByMemoryValue() != 0) {
+            responseObserver.onError(
+                io.grpc.Status.INVALID_ARGUMENT
+                    .withDescription(
+                        "queries[" + i + "]: group_by_memory is not supported in batch searches")
+                    .asRuntimeException());
+            return;
+          }
+          StatusOr<SearchQuery> queryOr =
+              toSearchQuery(connection, authenticatedUser, request.getQueries(i), spaces);
+          if (queryOr.isNotOk()) {
+            Status status = queryOr.getStatus();
+            responseObserver.onError(
+                toGrpcError(
+                    Status.of(status.getCode(), "queries[" + i + "]: " + status.getMessage())));
+            return;
+          }
+          queries.add(queryOr.getValue());
+        }
+        embeddersOr = loadQueryEmbedders(connection, queries, spaces);
+      }
+
+      StatusOr<List<SearchQuery>> embeddedOr =
+          embeddersOr.flatMap(embedders -> embedQueryText(queries, spaces, embedders));
+      if (embeddedOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(embeddedOr.getStatus()));
+        return;
+      }
+
+      StatusOr<List<List<ScoredMemoryChunk>>> resultsOr =
+          chunkSearcher.searchAll(embeddedOr.getValue());
+      if (resultsOr.isNotOk()) {
+        Logger.error("Batch search failed: {}", resultsOr.getStatus().getMessage());
+        responseObserver.onError(toGrpcError(resultsOr.getStatus()));
+        return;
+      }
+
+      BatchSearchMemoriesResponse.Builder responseBuilder =
+          BatchSearchMemoriesResponse.newBuilder();
+      for (int i = 0; i < queryCount; i++) {
+        responseBuilder.addResponses(
+            toSearchResponse(resultsOr.getValue().get(i), request.getQueries(i)));
+      }
+      responseObserver.onNext(responseBuilder.build());
+      responseObserver.onCompleted();
+
+    } catch (SQLException e) {
+      Logger.error(e, "Database error during batch memory search: {}", e.getMessage());
+      responseObserver.onError(
+          io.grpc.Status.INTERNAL
+              .withDescription("Unexpected error while processing request.")
+              .asRuntimeException());
+    } catch (Exception e) {
+      Logger.error(e, "Unexpected error during batch memory search: {}", e.getMessage());
+      responseObserver.onError(
+          io.grpc.Status.INTERNAL
+              .withDescription("Unexpected error while processing request.")
+              .asRuntimeException());
+    }
+  }
+
+  /**
+   * Creates several memories in one call.
+   *
+   * <p>Each request is checked on its own: its space_id must name an existing space the caller may
+   * write to (the owner needs UPDATE_SPACE_OWN, anyone else UPDATE_SPACE_ANY). Requests that fail
+   * get an error result and the rest are created, as PENDING memories, with a single multi-row
+   * INSERT. The whole batch therefore costs one authentication, one connection, one query for the
+   * spaces and one for the write, and is created atomically: if the INSERT fails the call fails
+   * and no memory is created.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - INVALID_ARGUMENT: requests is empty or has more than 1000 entries
+   * - INTERNAL: Database or other system errors
+   *
+   * <p>Per-item errors: INVALID_ARGUMENT for a malformed space ID, NOT_FOUND for a missing space
+   * and PERMISSION_DENIED for a space the caller may not write to.
+   */
+  @Override
+  public void batchCreateMemories(
+      BatchCreateMemoriesRequest request,
+      StreamObserver<BatchCreateMemoriesResponse> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(toGrpcError(Status.unauthenticated("Authentication required")));
+      return;
+    }
+    int count = request.getRequestsCount();
+    if (count == 0 || count > MAX_BATCH_MEMORIES) {
+      responseObserver.onError(
+          toGrpcError(
+              Status.invalidArgument(
+                  "requests must contain between 1 and " + MAX_BATCH_MEMORIES + " entries")));
+      return;
+    }
+
+    List<StatusOr<UUID>> spaceIds = new ArrayList<>(count);
+    for (CreateMemoryRequest item : request.getRequestsList()) {
+      spaceIds.add(UuidUtil.fromProtoBytes(item.getSpaceId()));
+    }
+
+    try (Connection connection = config.dataSource().getConnection()) {
+      StatusOr<Map<UUID, Space>> spacesOr = Spaces.loadByIds(connection, validIds(spaceIds));
+      if (spacesOr.isNotOk()) {
+        Logger.error("Error loading spaces: {}", spacesOr.getStatus().getMessage());
+        responseObserver.onError(toGrpcError(spacesOr.getStatus()));
+        return;
+      }
+
+      Instant now = Instant.now();
+      List<com.goodmem.db.Memory> memories = new ArrayList<>();
+      BatchCreateMemoriesResponse.Builder responseBuilder =
+          BatchCreateMemoriesResponse.newBuilder();
+      for (int i = 0; i < count; i++) {
+        Status access =
+            checkSpaceAccess(spaceIds.get(i), spacesOr.getValue(), authenticatedUser, true);
+        if (!access.isOk()) {
+          responseBuilder.addResults(
+              BatchMemoryResult.newBuilder().setStatus(toItemStatus(access)));
+          continue;
+        }
+        CreateMemoryRequest item = request.getRequests(i);
+        com.goodmem.db.Memory memory =
+            new com.goodmem.db.Memory(
+                UUID.randomUUID(),
+                spaceIds.get(i).getValue(),
+                item.getOriginalContentRef(),
+                item.getContentType(),
+                item.getMetadataMap(),
+                "PENDING",
+                now,
+                now,
+                authenticatedUser.getId(),
+                authenticatedUser.getId());
+        memories.add(memory);
+        responseBuilder.addResults(
+            BatchMemoryResult.newBuilder()
+                .setStatus(BatchItemStatus.getDefaultInstance())
+                .setMemory(memory.toProto()));
+      }
+
+      StatusOr<Integer> insertedOr = Memories.insertAll(connection, memories);
+      if (insertedOr.isNotOk()) {
+        Logger.error("Error creating memories: {}", insertedOr.getStatus().getMessage());
+        responseObserver.onError(toGrpcError(insertedOr.getStatus()));
+        return;
+      }
+      config
+          .searchResultCache()
+          .invalidateContentVersions(
+              memories.stream().map(com.goodmem.db.Memory::spaceId).distinct().toList());
+      responseObserver.onNext(responseBuilder.build());
+      responseObserver.onCompleted();
+    } catch (SQLException e) {
+      Logger.error(e, "Database error during batch memory creation: {}", e.getMessage());
+      responseObserver.onError(toGrpcError(Status.internal("Database error", e)));
+    }
+  }
+
+  /**
+   * Retrieves several memories by ID in one call.
+   *
+   * <p>The memories and then their spaces are each loaded with one query. A memory is returned if
+   * the caller may read its space: the owner needs DISPLAY_SPACE_OWN, anyone else needs the space
+   * to be public or DISPLAY_SPACE_ANY.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - INVALID_ARGUMENT: memory_ids is empty or has more than 1000 entries
+   * - INTERNAL: Database or other system errors
+   *
+   * <p>Per-item errors: INVALID_ARGUMENT for a malformed memory ID, NOT_FOUND for a missing or
+   * deleted memory and PERMISSION_DENIED for a memory whose space the caller may not read.
+   */
+  @Override
+  public void batchGetMemories(
+      BatchGetMemoriesRequest request, StreamObserver<BatchGetMemoriesResponse> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(toGrpcError(Status.unauthenticated("Authentication required")));
+      return;
+    }
+    StatusOr<List<StatusOr<UUID>>> memoryIdsOr = parseBatchMemoryIds(request.getMemoryIdsList());
+    if (memoryIdsOr.isNotOk()) {
+      responseObserver.onError(toGrpcError(memoryIdsOr.getStatus()));
+      return;
+    }
+    List<StatusOr<UUID>> memoryIds = memoryIdsOr.getValue();
+
+    try (Connection connection = config.dataSource().getConnection()) {
+      StatusOr<Map<UUID, com.goodmem.db.Memory>> memoriesOr =
+          loadBatchMemories(connection, memoryIds);
+      if (memoriesOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(memoriesOr.getStatus()));
+        return;
+      }
+      Map<UUID, com.goodmem.db.Memory> memories = memoriesOr.getValue();
+      StatusOr<Map<UUID, Space>> spacesOr = loadMemorySpaces(connection, memories.values());
+      if (spacesOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(spacesOr.getStatus()));
+        return;
+      }
+
+      BatchGetMemoriesResponse.Builder responseBuilder = BatchGetMemoriesResponse.newBuilder();
+      for (StatusOr<UUID> memoryIdOr : memoryIds) {
+        Status access =
+            checkMemoryAccess(memoryIdOr, memories, spacesOr.getValue(), authenticatedUser, false);
+        BatchMemoryResult.Builder result =
+            BatchMemoryResult.newBuilder().setStatus(toItemStatus(access));
+        if (access.isOk()) {
+          result.setMemory(memories.get(memoryIdOr.getValue()).toProto());
+        }
+        responseBuilder.addResults(result);
+      }
+      responseObserver.onNext(responseBuilder.build());
+      responseObserver.onCompleted();
+    } catch (SQLException e) {
+      Logger.error(e, "Database error during batch memory retrieval: {}", e.getMessage());
+      responseObserver.onError(toGrpcError(Status.internal("Database error", e)));
+    }
+  }
+
+  /**
+   * Deletes several memories by ID in one call.
+   *
+   * <p>The memories and their spaces are loaded with one query each, and the memories the caller
+   * may delete are tombstoned with one statement. Deleting a memory requires write access to its
+   * space: the owner needs UPDATE_SPACE_OWN, anyone else UPDATE_SPACE_ANY.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - INVALID_ARGUMENT: memory_ids is empty or has more than 1000 entries
+   * - INTERNAL: Database or other system errors
+   *
+   * <p>Per-item errors: INVALID_ARGUMENT for a malformed memory ID, NOT_FOUND for a missing or
+   * already deleted memory and PERMISSION_DENIED for a memory whose space the caller may not
+   * write to.
+   */
+  @Override
+  public void batchDeleteMemories(
+      BatchDeleteMemoriesRequest request,
+      StreamObserver<BatchDeleteMemoriesResponse> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(toGrpcError(Status.unauthenticated("Authentication required")));
+      return;
+    }
+    StatusOr<List<StatusOr<UUID>>> memoryIdsOr = parseBatchMemoryIds(request.getMemoryIdsList());
+    if (memoryIdsOr.isNotOk()) {
+      responseObserver.onError(toGrpcError(memoryIdsOr.getStatus()));
+      return;
+    }
+    List<StatusOr<UUID>> memoryIds = memoryIdsOr.getValue();
+
+    try (Connection connection = config.dataSource().getConnection()) {
+      StatusOr<Map<UUID, com.goodmem.db.Memory>> memoriesOr =
+          loadBatchMemories(connection, memoryIds);
+      if (memoriesOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(memoriesOr.getStatus()));
+        return;
+      }
+      Map<UUID, com.goodmem.db.Memory> memories = memoriesOr.getValue();
+      StatusOr<Map<UUID, Space>> spacesOr = loadMemorySpaces(connection, memories.values());
+      if (spacesOr.isNotOk()) {
+        responseObserver.onError(toGrpcError(spacesOr.getStatus()));
+        return;
+      }
+
+      List<Status> access = new ArrayList<>(memoryIds.size());
+      Set<UUID> deletable = new HashSet<>();
+      for (StatusOr<UUID> memoryIdOr : memoryIds) {
+        Status itemAccess =
+            checkMemoryAccess(memoryIdOr, memories, spacesOr.getValue(), authenticatedUser, true);
+        access.add(itemAccess);
+        if (itemAccess.isOk()) {
+          deletable.add(memoryIdOr.getValue());
+        }
+      }
+      Set<UUID> deleted = Set.of();
+      if (!deletable.isEmpty()) {
+        StatusOr<Set<UUID>> deletedOr = Memories.deleteAll(connection, deletable);
+        if (deletedOr.isNotOk()) {
+          Logger.error("Error deleting memories: {}", deletedOr.getStatus().getMessage());
+          responseObserver.onError(toGrpcError(deletedOr.getStatus()));
+          return;
+        }
+        deleted = deletedOr.getValue();
+        config
+            .searchResultCache()
+            .invalidateContentVersions(
+                deleted.stream()
+                    .map(memoryId -> memories.get(memoryId).spaceId())
+                    .distinct()
+                    .toList());
+      }
+
+      BatchDeleteMemoriesResponse.Builder responseBuilder =
+          BatchDeleteMemoriesResponse.newBuilder();
+      for (int i = 0; i < memoryIds.size(); i++) {
+        Status itemStatus = access.get(i);
+        // A memory deleted concurrently since it was loaded is reported as not found
+        if (itemStatus.isOk() && !deleted.contains(memoryIds.get(i).getValue())) {
+          itemStatus = Status.notFound("Memory not found");
+        }
+        responseBuilder.addResults(toItemStatus(itemStatus));
+      }
+      responseObserver.onNext(responseBuilder.build());
+      responseObserver.onCompleted();
+    } catch (SQLException e) {
+      Logger.error(e, "Database error during batch memory deletion: {}", e.getMessage());
+      responseObserver.onError(toGrpcError(Status.internal("Database error", e)));
+    }
+  }
+
+  /**
+   * Validates a search request and resolves it against the space it targets.
+   *
+   * @param connection the connection used to load the space
+   * @param user the authenticated caller
+   * @param request the search request
+   * @param spaces spaces already loaded during this call, keyed by ID; updated with any space
+   *     loaded here
+   * @return StatusOr containing the query to run, or the error to report to the caller
+   */
+  private StatusOr<SearchQuery> toSearchQuery(
+      Connection connection, User user, SearchMemoriesRequest request, Map<UUID, Space> spaces) {
+    StatusOr<UUID> spaceIdOr = UuidUtil.fromProtoBytes(request.getSpaceId());
+    if (spaceIdOr.isNotOk()) {
+      Logger.error("Invalid space ID format: {}", spaceIdOr.getStatus().getMessage());
+      return StatusOr.ofStatus(Status.invalidArgument("Invalid space ID format"));
+    }
+
+    StatusOr<SearchQuery> queryOr = parseSearchQuery(request);
+    if (queryOr.isNotOk()) {
+      return queryOr;
+    }
+
+    Space space = spaces.get(spaceIdOr.getValue());
+    if (space == null) {
+      StatusOr<Optional<Space>> spaceOr = Spaces.loadById(connection, spaceIdOr.getValue());
+      if (spaceOr.isNotOk()) {
+        Logger.error("Error loading space: {}", spaceOr.getStatus().getMessage());
+        return StatusOr.ofStatus(spaceOr.getStatus());
+      }
+      if (spaceOr.getValue().isEmpty()) {
+        return StatusOr.ofStatus(Status.notFound("Space not found"));
+      }
+      space = spaceOr.getValue().get();
+      spaces.put(space.spaceId(), space);
+    }
+
+    if (!canRead(user, space)) {
+      Logger.error("User lacks permission to search space {}", space.spaceId());
+      return StatusOr.ofStatus(Status.permissionDenied("Permission denied"));
+    }
+    if (queryOr.getValue().twoStage() && !space.twoStageSearch()) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("two_stage needs a space created with two_stage_search"));
+    }
+
+    return StatusOr.ofValue(queryOr.getValue().withSpace(space.spaceId(), space.distanceMetric()));
+  }
+
+  /**
+   * Validates a search request that leaves space_id unset and resolves it to one query per space
+   * the caller owns or that is public, whatever the caller's role. At most {@link
+   * #MAX_FAN_OUT_SPACES} spaces are searched: the caller's own first, then the most recently
+   * updated public ones.
+   *
+   * @param connection the connection used to load the spaces
+   * @param user the authenticated caller
+   * @param request the search request
+   * @param spaces updated with every space a query is returned for, keyed by ID
+   * @return StatusOr containing one query per space to search, or the error to report
+   */
+  private StatusOr<List<SearchQuery>> toFanOutQueries(
+      Connection connection, User user, SearchMemoriesRequest request, Map<UUID, Space> spaces) {
+    StatusOr<SearchQuery> queryOr = parseSearchQuery(request);
+    if (queryOr.isNotOk()) {
+      return StatusOr.ofStatus(queryOr.getStatus());
+    }
+    SearchQuery query = queryOr.getValue();
+
+    UUID embedderId = null;
+    if (!request.getEmbedderId().isEmpty()) {
+      StatusOr<UUID> embedderIdOr = UuidUtil.fromProtoBytes(request.getEmbedderId());
+      if (embedderIdOr.isNotOk()) {
+        return StatusOr.ofStatus(Status.invalidArgument("Invalid embedder ID format"));
+      }
+      embedderId = embedderIdOr.getValue();
+    } else if (query.mode() != SearchMode.LEXICAL) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument(
+              "embedder_id is required when searching all spaces in " + query.mode() + " mode"));
+    }
+
+    // Other users' private spaces are only searched when named, even by those allowed to read them
+    StatusOr<List<Space>> spacesOr =
+        Spaces.loadReadableByUser(connection, user.getId(), embedderId, MAX_FAN_OUT_SPACES);
+    if (spacesOr.isNotOk()) {
+      Logger.error("Error loading spaces: {}", spacesOr.getStatus().getMessage());
+      return StatusOr.ofStatus(spacesOr.getStatus());
+    }
+
+    List<SearchQuery> queries = new ArrayList<>();
+    for (Space space : spacesOr.getValue()) {
+      if (!canRead(user, space)) {
+        continue;
+      }
+      if (query.twoStage() && !space.twoStageSearch()) {
+        return StatusOr.ofStatus(
+            Status.invalidArgument(
+                "two_stage needs every searched space to be created with two_stage_search; space "
+                    + space.spaceId()
+                    + " was not"));
+      }
+      queries.add(query.withSpace(space.spaceId(), space.distanceMetric()));
+      spaces.put(space.spaceId(), space);
+    }
+    return StatusOr.ofValue(queries);
+  }
+
+  /**
+   * Validates the query fields of a search request. The returned query does not yet target a
+   * space; see {@link SearchQuery#withSpace}.
+   *
+   * @param request the search request
+   * @return StatusOr containing the query, or an INVALID_ARGUMENT status
+   */
+  private StatusOr<SearchQuery> parseSearchQuery(SearchMemoriesRequest request) {
+    boolean hasVector = request.getQueryVectorCount() > 0;
+    boolean hasText = !request.getQueryText().isBlank();
+    SearchMode mode =
+        switch (request.getMode()) {
+          case SEARCH_MODE_VECTOR -> SearchMode.VECTOR;
+          case SEARCH_MODE_LEXICAL -> SearchMode.LEXICAL;
+          case SEARCH_MODE_HYBRID -> SearchMode.HYBRID;
+          default ->
+              hasVector && hasText
+                  ? SearchMode.HYBRID
+                  : hasText ? SearchMode.LEXICAL : SearchMode.VECTOR;
+        };
+    // Without a vector, the query text is embedded with the embedder of each searched space
+    if (mode != SearchMode.LEXICAL && !hasVector && !hasText) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("query_vector or query_text is required for " + mode + " search"));
+    }
+    if (mode != SearchMode.VECTOR && !hasText) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("query_text is required for " + mode + " search"));
+    }
+
+    int maxResults = request.hasMaxResults() ? request.getMaxResults() : DEFAULT_SEARCH_RESULTS;
+    if (maxResults < 1 || maxResults > MAX_SEARCH_RESULTS) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("max_results must be between 1 and " + MAX_SEARCH_RESULTS));
+    }
+
+    float vectorWeight =
+        request.hasVectorWeight() ? request.getVectorWeight() : DEFAULT_VECTOR_WEIGHT;
+    if (vectorWeight < 0.0f || vectorWeight > 1.0f) {
+      return StatusOr.ofStatus(Status.invalidArgument("vector_weight must be between 0 and 1"));
+    }
+    FusionMethod fusionMethod =
+        switch (request.getFusionMethod()) {
+          case FUSION_METHOD_WEIGHTED -> FusionMethod.WEIGHTED;
+          default -> FusionMethod.RRF;
+        };
+
+    if (request.hasMinScore() && Double.isNaN(request.getMinScore())) {
+      return StatusOr.ofStatus(Status.invalidArgument("min_score must be a number"));
+    }
+    double minScore = request.hasMinScore() ? request.getMinScore() : Double.NEGATIVE_INFINITY;
+
+    int chunksPerGroup = request.getChunksPerGroup();
+    if (request.hasChunksPerGroup()
+        && (chunksPerGroup < 1 || chunksPerGroup > MAX_CHUNKS_PER_GROUP)) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("chunks_per_group must be between 1 and " + MAX_CHUNKS_PER_GROUP));
+    }
+
+    int rerankCandidates = request.getRerankCandidates();
+    if (rerankCandidates < 0 || rerankCandidates > MAX_RERANK_CANDIDATES) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument(
+              "rerank_candidates must be between 0 and " + MAX_RERANK_CANDIDATES));
+    }
+    if (rerankCandidates > 0 && !hasText) {
+      return StatusOr.ofStatus(Status.invalidArgument("query_text is required for reranking"));
+    }
+    if (rerankCandidates > 0 && config.reranker() == null) {
+      return StatusOr.ofStatus(
+          Status.of(StatusCode.FAILED_PRECONDITION, "No reranker is configured on this server"));
+    }
+
+    float mmrLambda = request.hasMmrLambda() ? request.getMmrLambda() : 1.0f;
+    if (!(mmrLambda >= 0.0f && mmrLambda <= 1.0f)) {
+      return StatusOr.ofStatus(Status.invalidArgument("mmr_lambda must be between 0 and 1"));
+    }
+    if (request.getMaxChunksPerMemory() < 0) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("max_chunks_per_memory must not be negative"));
+    }
+    if (request.getVectorEncoding() == VectorEncoding.UNRECOGNIZED) {
+      return StatusOr.ofStatus(Status.invalidArgument("Unknown vector_encoding"));
+    }
+
+    int memoryCandidates = request.getMemoryCandidates();
+    if (memoryCandidates < 0 || memoryCandidates > MAX_MEMORY_CANDIDATES) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument(
+              "memory_candidates must be between 0 and " + MAX_MEMORY_CANDIDATES));
+    }
+    if (memoryCandidates > 0 && request.getTwoStage()) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("memory_candidates cannot be combined with two_stage"));
+    }
+    if (request.getTwoStage()
+        && hasVector
+        && request.getQueryVectorCount() < MemoryChunks.PREFIX_DIMENSIONS) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument(
+              "two_stage needs a query_vector of at least "
+                  + MemoryChunks.PREFIX_DIMENSIONS
+                  + " dimensions"));
+    }
+
+    Instant createdAfter =
+        request.hasCreatedAfter() ? DbUtil.fromProtoTimestamp(request.getCreatedAfter()) : null;
+    Instant createdBefore =
+        request.hasCreatedBefore() ? DbUtil.fromProtoTimestamp(request.getCreatedBefore()) : null;
+    if (createdAfter != null && createdBefore != null && !createdAfter.isBefore(createdBefore)) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("created_after must be earlier than created_before"));
+    }
+
+    Duration recencyHalfLife = null;
+    if (request.hasRecencyHalfLifeSeconds()) {
+      double seconds = request.getRecencyHalfLifeSeconds();
+      if (!(seconds >= MIN_RECENCY_HALF_LIFE_SECONDS && seconds <= MAX_RECENCY_HALF_LIFE_SECONDS)) {
+        return StatusOr.ofStatus(
+            Status.invalidArgument(
+                "recency_half_life_seconds must be between "
+                    + MIN_RECENCY_HALF_LIFE_SECONDS
+                    + " and "
+                    + MAX_RECENCY_HALF_LIFE_SECONDS));
+      }
+      recencyHalfLife = Duration.ofMillis(Math.round(seconds * 1000));
+    }
+
+    return StatusOr.ofValue(
+        new SearchQuery(
+            new ChunkFilter(null, request.getMetadataFilterMap(), createdAfter, createdBefore),
+            null,
+            hasVector ? Floats.toArray(request.getQueryVectorList()) : null,
+            hasText ? request.getQueryText() : null,
+            mode,
+            fusionMethod,
+            vectorWeight,
+            maxResults,
+            minScore,
+            new Diversity(mmrLambda, request.getMaxChunksPerMemory()),
+            request.getTwoStage(),
+            memoryCandidates,
+            rerankCandidates,
+            recencyHalfLife));
+  }
+
+  /**
+   * Loads the embedders needed to embed the text of queries that have no query vector.
+   *
+   * @param connection the connection used to load the embedders
+   * @param queries the queries to run, each targeting a space in {@code spaces}
+   * @param spaces the spaces the queries target, keyed by ID
+   * @return StatusOr containing the needed embedders keyed by ID, or an error
+   */
+  private static StatusOr<Map<UUID, Embedder>> loadQueryEmbedders(
+      Connection connection, List<SearchQuery> queries, Map<UUID, Space> spaces) {
+    Map<UUID, Embedder> embedders = new HashMap<>();
+    for (SearchQuery query : queries) {
+      if (query.mode() == SearchMode.LEXICAL || query.queryVector() != null) {
+        continue;
+      }
+      UUID embedderId = spaces.get(query.filter().spaceId()).embedderId();
+      if (embedders.containsKey(embedderId)) {
+        continue;
+      }
+      StatusOr<Optional<Embedder>> embedderOr = Embedders.loadById(connection, embedderId);
+      if (embedderOr.isNotOk()) {
+        Logger.error("Error loading embedder: {}", embedderOr.getStatus().getMessage());
+        return StatusOr.ofStatus(embedderOr.getStatus());
+      }
+      if (embedderOr.getValue().isEmpty()) {
+        return StatusOr.ofStatus(
+            Status.of(
+                StatusCode.FAILED_PRECONDITION,
+                "Embedder of space " + query.filter().spaceId() + " no longer exists"));
+      }
+      embedders.put(embedderId, embedderOr.getValue().get());
+    }
+    return StatusOr.ofValue(embedders);
+  }
+
+  /**
+   * Embeds the text of every query that has no query vector, using the embedder of the space it
+   * targets. Distinct texts are embedded concurrently; repeated ones are served by the embedding
+   * cache.
+   *
+   * @param queries the queries to run
+   * @param spaces the spaces the queries target, keyed by ID
+   * @param embedders the embedders of those spaces, keyed by ID
+   * @return StatusOr containing the queries with their vectors set, in the order given, or an error
+   */
+  private StatusOr<List<SearchQuery>> embedQueryText(
+      List<SearchQuery> queries, Map<UUID, Space> spaces, Map<UUID, Embedder> embedders) {
+    if (embedders.isEmpty()) {
+      return StatusOr.ofValue(queries);
+    }
+    List<Future<StatusOr<float[]>>> futures = new ArrayList<>(queries.size());
+    for (SearchQuery query : queries) {
+      if (query.mode() == SearchMode.LEXICAL || query.queryVector() != null) {
+        futures.add(null);
+        continue;
+      }
+      Embedder embedder = embedders.get(spaces.get(query.filter().spaceId()).embedderId());
+      futures.add(
+          config
+              .searchExecutor()
+              .submit(() -> config.embedderClient().embed(embedder, query.queryText())));
+    }
+
+    List<SearchQuery> embedded = new ArrayList<>(queries.size());
+    for (int i = 0; i < queries.size(); i++) {
+      if (futures.get(i) == null) {
+        embedded.add(queries.get(i));
+        continue;
+      }
+      StatusOr<float[]> vectorOr = ChunkSearcher.await(futures.get(i));
+      if (vectorOr.isNotOk()) {
+        Logger.error("Error embedding query text: {}", vectorOr.getStatus().getMessage());
+        for (Future<StatusOr<float[]>> pending : futures) {
+          if (pending != null) {
+            pending.cancel(true);
+          }
+        }
+        return StatusOr.ofStatus(vectorOr.getStatus());
+      }
+      embedded.add(queries.get(i).withQueryVector(vectorOr.getValue()));
+    }
+    return StatusOr.ofValue(embedded);
+  }
+
+  /**
+   * Loads a space whose memories the user wants to list, checking that the user may read it.
+   *
+   * @return the space, or NOT_FOUND, PERMISSION_DENIED or a database error
+   */
+  private static StatusOr<Space> loadReadableSpace(Connection connection, User user, UUID spaceId) {
+    StatusOr<Optional<Space>> spaceOr = Spaces.loadById(connection, spaceId);
+    if (spaceOr.isNotOk()) {
+      Logger.error("Error loading space: {}", spaceOr.getStatus().getMessage());
+      return StatusOr.ofStatus(spaceOr.getStatus());
+    }
+    if (spaceOr.getValue().isEmpty()) {
+      return StatusOr.ofStatus(Status.notFound("Space not found"));
+    }
+    if (!canRead(user, spaceOr.getValue().get())) {
+      Logger.error("User lacks permission to list memories of space {}", spaceId);
+      return StatusOr.ofStatus(Status.permissionDenied("Permission denied"));
+    }
+    return StatusOr.ofValue(spaceOr.getValue().get());
+  }
+
+  /**
+   * Decodes a ListMemories next_token, checking that it was issued for this space and user.
+   *
+   * @return the token, or INVALID_ARGUMENT if it is malformed or belongs to another listing
+   */
+  private static StatusOr<ListMemoriesNextPageToken> decodeNextPageToken(
+      String tokenString, UUID spaceId, UUID requestorId) {
+    ListMemoriesNextPageToken token;
+    try {
+      token =
+          ListMemoriesNextPageToken.parseFrom(
+              BaseEncoding.base64Url().omitPadding().decode(tokenString));
+    } catch (IllegalArgumentException | InvalidProtocolBufferException e) {
+      return StatusOr.ofStatus(Status.invalidArgument("Invalid pagination token"));
+    }
+    StatusOr<UUID> tokenSpaceIdOr = UuidUtil.fromProtoBytes(token.getSpaceId());
+    StatusOr<UUID> tokenRequestorIdOr = UuidUtil.fromProtoBytes(token.getRequestorId());
+    if (tokenSpaceIdOr.isNotOk()
+        || tokenRequestorIdOr.isNotOk()
+        || UuidUtil.fromProtoBytes(token.getAfterMemoryId()).isNotOk()
+        || !token.hasAfterCreatedAt()) {
+      return StatusOr.ofStatus(Status.invalidArgument("Invalid pagination token"));
+    }
+    if (!tokenSpaceIdOr.getValue().equals(spaceId)
+        || !tokenRequestorIdOr.getValue().equals(requestorId)) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("Pagination token was issued for another request"));
+    }
+    return StatusOr.ofValue(token);
+  }
+
+  /**
+   * Parses the memory IDs of a batch get or delete, keeping malformed IDs as errors so that they
+   * can be reported per item.
+   *
+   * @return the parsed IDs in request order, or INVALID_ARGUMENT if there are none or too many
+   */
+  private static StatusOr<List<StatusOr<UUID>>> parseBatchMemoryIds(List<ByteString> rawIds) {
+    if (rawIds.isEmpty() || rawIds.size() > MAX_BATCH_MEMORIES) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument(
+              "memory_ids must contain between 1 and " + MAX_BATCH_MEMORIES + " entries"));
+    }
+    List<StatusOr<UUID>> memoryIds = new ArrayList<>(rawIds.size());
+    for (ByteString rawId : rawIds) {
+      memoryIds.add(UuidUtil.fromProtoBytes(rawId));
+    }
+    return StatusOr.ofValue(memoryIds);
+  }
+
+  /** Returns the distinct IDs that parsed successfully. */
+  private static Set<UUID> validIds(List<StatusOr<UUID>> ids) {
+    Set<UUID> valid = new HashSet<>();
+    for (StatusOr<UUID> idOr : ids) {
+      if (idOr.isOk()) {
+        valid.add(idOr.getValue());
+      }
+    }
+    return valid;
+  }
+
+  /** Loads the memories of a batch with one query, keyed by ID. */
+  private static StatusOr<Map<UUID, com.goodmem.db.Memory>> loadBatchMemories(
+      Connection connection, List<StatusOr<UUID>> memoryIds) {
+    StatusOr<Map<UUID, com.goodmem.db.Memory>> memoriesOr =
+        Memories.loadByIds(connection, validIds(memoryIds));
+    if (memoriesOr.isNotOk()) {
+      Logger.error("Error loading memories: {}", memoriesOr.getStatus().getMessage());
+    }
+    return memoriesOr;
+  }
+
+  /** Loads the spaces of the given memories with one query, keyed by ID. */
+  private static StatusOr<Map<UUID, Space>> loadMemorySpaces(
+      Connection connection, Collection<com.goodmem.db.Memory> memories) {
+    Set<UUID> spaceIds = new HashSet<>();
+    for (com.goodmem.db.Memory memory : memories) {
+      spaceIds.add(memory.spaceId());
+    }
+    StatusOr<Map<UUID, Space>> spacesOr = Spaces.loadByIds(connection, spaceIds);
+    if (spacesOr.isNotOk()) {
+      Logger.error("Error loading spaces: {}", spacesOr.getStatus().getMessage());
+    }
+    return spacesOr;
+  }
+
+  /**
+   * Checks one item of a batch against the space it targets.
+   *
+   * @param spaceIdOr the parsed space ID of the item
+   * @param spaces the spaces of the batch, keyed by ID
+   * @param user the authenticated caller
+   * @param write whether the item writes to the space rather than reads it
+   * @return OK, or the error to report for the item
+   */
+  private static Status checkSpaceAccess(
+      StatusOr<UUID> spaceIdOr, Map<UUID, Space> spaces, User user, boolean write) {
+    if (spaceIdOr.isNotOk()) {
+      return Status.invalidArgument("Invalid space ID format");
+    }
+    Space space = spaces.get(spaceIdOr.getValue());
+    if (space == null) {
+      return Status.notFound("Space not found");
+    }
+    if (!(write ? canWrite(user, space) : canRead(user, space))) {
+      return Status.permissionDenied("Permission denied");
+    }
+    return Status.ok();
+  }
+
+  /**
+   * Checks one item of a batch against the memory it names and that memory's space.
+   *
+   * @return OK, or the error to report for the item
+   */
+  private static Status checkMemoryAccess(
+      StatusOr<UUID> memoryIdOr,
+      Map<UUID, com.goodmem.db.Memory> memories,
+      Map<UUID, Space> spaces,
+      User user,
+      boolean write) {
+    if (memoryIdOr.isNotOk()) {
+      return Status.invalidArgument("Invalid memory ID format");
+    }
+    com.goodmem.db.Memory memory = memories.get(memoryIdOr.getValue());
+    if (memory == null) {
+      return Status.notFound("Memory not found");
+    }
+    Status access = checkSpaceAccess(StatusOr.ofValue(memory.spaceId()), spaces, user, write);
+    // A memory whose space is gone is gone too
+    return access.getCode() == StatusCode.NOT_FOUND ? Status.notFound("Memory not found") : access;
+  }
+
+  /** Converts the outcome of one batch item into its result status. */
+  private static BatchItemStatus toItemStatus(Status status) {
+    if (status.isOk()) {
+      return BatchItemStatus.getDefaultInstance();
+    }
+    return BatchItemStatus.newBuilder()
+        .setCode(io.grpc.Status.Code.valueOf(status.getCode().name()).value())
+        .setMessage(status.getMessage())
+        .build();
+  }
+
+  /**
+   * Returns whether a user may add memories to or delete memories from a space: the owner needs
+   * UPDATE_SPACE_OWN, anyone else needs UPDATE_SPACE_ANY.
+   */
+  private static boolean canWrite(User user, Space space) {
+    if (user.hasPermission(Permission.UPDATE_SPACE_ANY)) {
+      return true;
+    }
+    return space.ownerId().equals(user.getId()) && user.hasPermission(Permission.UPDATE_SPACE_OWN);
+  }
+
+  /**
+   * Returns whether a user may search a space: the owner needs DISPLAY_SPACE_OWN, anyone else
+   * needs the space to be public or DISPLAY_SPACE_ANY.
+   */
+  private static boolean canRead(User user, Space space) {
+    if (user.hasPermission(Permission.DISPLAY_SPACE_ANY)) {
+      return true;
+    }
+    boolean isOwner = space.ownerId().equals(user.getId());
+    return isOwner ? user.hasPermission(Permission.DISPLAY_SPACE_OWN) : space.publicRead();
+  }
+
+  /** Returns how a grouped search scores memories, or empty if the search is not grouped. */
+  private static Optional<MemoryScoring> toMemoryScoring(SearchMemoriesRequest request) {
+    return switch (request.getGroupByMemory()) {
+      case MEMORY_SCORING_MAX -> Optional.of(MemoryScoring.MAX);
+      case MEMORY_SCORING_SUM -> Optional.of(MemoryScoring.SUM);
+      default -> Optional.empty();
+    };
+  }
+
+  private static SearchMemoriesResponse toGroupedSearchResponse(
+      List<MemoryHits> memories, SearchMemoriesRequest request) {
+    SearchMemoriesResponse.Builder responseBuilder = SearchMemoriesResponse.newBuilder();
+    for (MemoryHits memory : memories) {
+      responseBuilder.addMemoryResults(
+          MemorySearchResult.newBuilder()
+              .setMemoryId(UuidUtil.toProtoBytes(memory.memoryId()))
+              .setScore(memory.score())
+              .addAllChunks(toSearchResponse(memory.chunks(), request).getResultsList()));
+    }
+    return responseBuilder.build();
+  }
+
+  private static SearchMemoriesResponse toSearchResponse(
+      List<ScoredMemoryChunk> results, SearchMemoriesRequest request) {
+    boolean packVectors =
+        request.getIncludeVectors()
+            && request.getVectorEncoding() != VectorEncoding.VECTOR_ENCODING_UNSPECIFIED;
+    SearchMemoriesResponse.Builder responseBuilder = SearchMemoriesResponse.newBuilder();
+    for (ScoredMemoryChunk scored : results) {
+      float[] vector = scored.chunk().embeddingVector();
+      MemoryChunk chunk;
+      if (!request.getIncludeVectors() || vector == null) {
+        chunk = scored.chunk().withEmbeddingVector(null).toProto();
+      } else if (packVectors) {
+        chunk =
+            PackedVectors.pack(
+                    vector,
+                    request.getVectorEncoding(),
+                    scored.chunk().withEmbeddingVector(null).toProto().toBuilder())
+                .build();
+      } else {
+        chunk = scored.chunk().toProto();
+      }
+      responseBuilder.addResults(
+          ChunkSearchResult.newBuilder().setChunk(chunk).setScore(scored.score()));
+    }
+    return responseBuilder.build();
+  }
+
+  /**
+   * Converts a Status into the gRPC error reported to the caller. Internal failures are reported
+   * with a generic description so that database details do not leak.
+   */
+  private static io.grpc.StatusRuntimeException toGrpcError(Status status) {
+    if (status.getCode() == StatusCode.INTERNAL || status.getCode() == StatusCode.UNKNOWN) {
+      return io.grpc.Status.INTERNAL
+          .withDescription("Unexpected error while processing request.")
+          .asRuntimeException();
+    }
+    // StatusCode mirrors the gRPC canonical codes name for name
+    return io.grpc.Status.fromCode(io.grpc.Status.Code.valueOf(status.getCode().name()))
+        .withDescription(status.getMessage())
+        .asRuntimeException();
+  }
+
   private Timestamp getCurrentTimestamp() {
     Instant now = Instant.now();
     return Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()).build();
@@ -4,6 +4,7 @@ import com.goodmem.db.util.UuidUtil;
 import com.goodmem.security.AuthInterceptor;
 import com.goodmem.security.Permission;
 import com.goodmem.security.User;
+import com.goodmem.util.ResponseStream;
 import com.google.common.io.BaseEncoding;
 import com.google.protobuf.Empty;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -131,6 +132,15 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
       return;
     }
 
+    if (request.getDistanceMetric() == goodmem.v1.SpaceOuterClass.DistanceMetric.UNRECOGNIZED) {
+      Logger.error("Unknown distance metric: {}", request.getDistanceMetricValue());
+      responseObserver.onError(
+          io.grpc.Status.INVALID_ARGUMENT
+              .withDescription("Unknown distance_metric")
+              .asRuntimeException());
+      return;
+    }
+
     // Creator is always the authenticated user
     UUID creatorId = authenticatedUser.getId();
 
@@ -155,6 +165,32 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
     }
 
     try (java.sql.Connection connection = config.dataSource().getConnection()) {
+      // Two-stage search indexes a fixed-length prefix of each vector
+      if (request.getTwoStageSearch()) {
+        com.goodmem.common.status.StatusOr<java.util.Optional<com.goodmem.db.Embedder>> embedderOr =
+            com.goodmem.db.Embedders.loadById(connection, embedderId);
+        if (embedderOr.isNotOk()) {
+          Logger.error("Error loading embedder: {}", embedderOr.getStatus().getMessage());
+          responseObserver.onError(
+              io.grpc.Status.INTERNAL
+                  .withDescription("Unexpected error while processing request.")
+                  .asRuntimeException());
+          return;
+        }
+        if (embedderOr.getValue().isPresent()
+            && embedderOr.getValue().get().dimensionality()
+                < com.goodmem.db.MemoryChunks.PREFIX_DIMENSIONS) {
+          responseObserver.onError(
+              io.grpc.Status.INVALID_ARGUMENT
+                  .withDescription(
+                      "two_stage_search needs an embedder of at least "
+                          + com.goodmem.db.MemoryChunks.PREFIX_DIMENSIONS
+                          + " dimensions")
+                  .asRuntimeException());
+          return;
+        }
+      }
+
       // Check if a space with the same name already exists for this owner
       com.goodmem.common.status.StatusOr<java.util.Optional<com.goodmem.db.Space>> existingSpaceOr = 
           com.goodmem.db.Spaces.loadByOwnerAndName(connection, ownerId, request.getName());
@@ -187,6 +223,8 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
           request.getName(),
           request.getLabelsMap(),
           embedderId,
+          com.goodmem.util.EnumConverters.fromProtoDistanceMetric(request.getDistanceMetric()),
+          request.getTwoStageSearch(),
           request.getPublicRead(),
           now,
           now,
@@ -263,7 +301,8 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
    * 2. Validate the space ID format
    * 3. Load the space to check ownership
    * 4. Check permissions (DELETE_SPACE_OWN or DELETE_SPACE_ANY based on ownership)
-   * 5. Delete the space from the database
+   * 5. Tombstone the space, which hides it and its memories at once; the rows are removed
+   *    later in small batches by the background purger
    *
    * <p>Possible error conditions:
    * - UNAUTHENTICATED: No valid authentication provided
@@ -549,55 +588,32 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
         }
       }
       
-      // Determine the owner ID to filter by based on permissions
-      UUID ownerIdFilter = null;
-      boolean includePublic = hasAnyPermission;
-      
-      if (hasAnyPermission) {
-        // With LIST_SPACE_ANY permission:
-        // - If an owner ID was requested, use it as a filter (show only that owner's spaces)
-        // - If no owner ID was requested, show all spaces (no owner filter)
-        ownerIdFilter = requestedOwnerId;
-      } else if (hasOwnPermission) {
-        // With only LIST_SPACE_OWN permission:
-        // - If an owner ID was requested and it's not the authenticated user, reject with PERMISSION_DENIED
-        // - Otherwise, filter to only show the authenticated user's spaces
-        if (requestedOwnerId != null && !requestedOwnerId.equals(authenticatedUser.getId())) {
-          Logger.error("User lacks permission to list spaces owned by others");
-          responseObserver.onError(
-              io.grpc.Status.PERMISSION_DENIED
-                  .withDescription("Permission denied")
-                  .asRuntimeException());
-          return;
-        }
-        
-        // Always filter by authenticated user ID when only having LIST_SPACE_OWN
-        ownerIdFilter = authenticatedUser.getId();
-        includePublic = false; // Don't include public spaces when only has LIST_SPACE_OWN
-      }
-      
-      // Convert name filter to SQL pattern if provided
-      String namePattern = null;
-      if (nameFilter != null && !nameFilter.isEmpty()) {
-        namePattern = globToSqlLike(nameFilter);
+      // Narrow the filters to what the caller may see
+      com.goodmem.common.status.StatusOr<SpaceFilter> filterOr =
+          resolveSpaceFilter(
+              authenticatedUser, requestedOwnerId, labelSelectors, nameFilter, sortBy, sortOrder);
+      if (filterOr.isNotOk()) {
+        responseObserver.onError(
+            io.grpc.Status.PERMISSION_DENIED
+                .withDescription(filterOr.getStatus().getMessage())
+                .asRuntimeException());
+        return;
       }
-      
-      // Determine sort direction
-      boolean sortAscending = (sortOrder == null || sortOrder == SortOrder.ASCENDING);
+      SpaceFilter filter = filterOr.getValue();
       
       // Query the database with the provided filters
       try (java.sql.Connection connection = config.dataSource().getConnection()) {
         com.goodmem.common.status.StatusOr<com.goodmem.db.Spaces.QueryResult> queryResultOr = 
             com.goodmem.db.Spaces.querySpaces(
                 connection,
-                ownerIdFilter,
-                labelSelectors,
-                namePattern,
-                sortBy,
-                sortAscending,
+                filter.ownerId(),
+                filter.labelSelectors(),
+                filter.namePattern(),
+                filter.sortBy(),
+                filter.sortAscending(),
                 offset,
                 maxResults,
-                includePublic,
+                filter.includePublic(),
                 authenticatedUser.getId());
         
         if (queryResultOr.isNotOk()) {
@@ -658,6 +674,109 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
     }
   }
 
+  /**
+   * Streams every Space that ListSpaces would return across all of its pages, one message per
+   * Space, in the same order.
+   *
+   * <p>Rows are read from a database cursor and sent as they arrive, waiting for the client to
+   * keep up, so memory use does not grow with the number of spaces. Filters and permission checks
+   * are those of ListSpaces; max_results and next_token are ignored.
+   *
+   * <p>Possible error conditions:
+   * - UNAUTHENTICATED: No valid authentication provided
+   * - PERMISSION_DENIED: User lacks LIST_SPACE_OWN/LIST_SPACE_ANY, or asked for another owner's
+   *   spaces with only LIST_SPACE_OWN
+   * - INVALID_ARGUMENT: Invalid owner ID format
+   * - INTERNAL: Database or other system errors
+   */
+  @Override
+  public void streamSpaces(ListSpacesRequest request, StreamObserver<Space> responseObserver) {
+    User authenticatedUser = AuthInterceptor.USER_CONTEXT_KEY.get();
+    if (authenticatedUser == null) {
+      Logger.error("No authentication context found");
+      responseObserver.onError(
+          io.grpc.Status.UNAUTHENTICATED
+              .withDescription("Authentication required")
+              .asRuntimeException());
+      return;
+    }
+
+    if (!authenticatedUser.hasPermission(Permission.LIST_SPACE_ANY)
+        && !authenticatedUser.hasPermission(Permission.LIST_SPACE_OWN)) {
+      Logger.error("User lacks necessary permissions to list spaces");
+      responseObserver.onError(
+          io.grpc.Status.PERMISSION_DENIED
+              .withDescription("Permission denied")
+              .asRuntimeException());
+      return;
+    }
+
+    UUID requestedOwnerId = null;
+    if (request.hasOwnerId()) {
+      com.goodmem.common.status.StatusOr<UUID> ownerIdOr =
+          UuidUtil.fromProtoBytes(request.getOwnerId());
+      if (ownerIdOr.isNotOk()) {
+        Logger.error("Invalid owner ID format: {}", ownerIdOr.getStatus().getMessage());
+        responseObserver.onError(
+            io.grpc.Status.INVALID_ARGUMENT
+                .withDescription("Invalid owner ID format")
+                .asRuntimeException());
+        return;
+      }
+      requestedOwnerId = ownerIdOr.getValue();
+    }
+
+    com.goodmem.common.status.StatusOr<SpaceFilter> filterOr =
+        resolveSpaceFilter(
+            authenticatedUser,
+            requestedOwnerId,
+            request.getLabelSelectorsCount() > 0 ? request.getLabelSelectorsMap() : null,
+            request.hasNameFilter() ? request.getNameFilter() : null,
+            request.hasSortBy() ? request.getSortBy() : null,
+            request.hasSortOrder() ? request.getSortOrder() : null);
+    if (filterOr.isNotOk()) {
+      responseObserver.onError(
+          io.grpc.Status.PERMISSION_DENIED
+              .withDescription(filterOr.getStatus().getMessage())
+              .asRuntimeException());
+      return;
+    }
+    SpaceFilter filter = filterOr.getValue();
+
+    ResponseStream.start(
+        responseObserver,
+        stream -> {
+          try (java.sql.Connection connection = config.dataSource().getConnection()) {
+            com.goodmem.common.status.StatusOr<Long> countOr =
+                com.goodmem.db.Spaces.streamSpaces(
+                    connection,
+                    filter.ownerId(),
+                    filter.labelSelectors(),
+                    filter.namePattern(),
+                    filter.sortBy(),
+                    filter.sortAscending(),
+                    filter.includePublic(),
+                    authenticatedUser.getId(),
+                    space -> stream.send(space.toProto()));
+            if (countOr.isNotOk()) {
+              Logger.error("Database query error: {}", countOr.getStatus().getMessage());
+              responseObserver.onError(
+                  io.grpc.Status.INTERNAL
+                      .withDescription("Unexpected error while processing request.")
+                      .asRuntimeException());
+              return;
+            }
+            stream.complete();
+          } catch (java.sql.SQLException e) {
+            Logger.error(e, "Database error during space streaming: {}", e.getMessage());
+            responseObserver.onError(
+                io.grpc.Status.INTERNAL
+                    .withDescription("Unexpected error while processing request.")
+                    .asRuntimeException());
+          }
+        });
+  }
+
   /**
    * Updates mutable properties of a Space.
    *
@@ -814,6 +933,8 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
           newName,
           newLabels,
           existingSpace.embedderId(), // embedder_id is immutable
+          existingSpace.distanceMetric(), // distance_metric is immutable
+          existingSpace.twoStageSearch(), // two_stage_search is immutable
           newPublicRead,
           existingSpace.createdAt(),
           now, // updated now
@@ -854,6 +975,63 @@ public class SpaceServiceImpl extends SpaceServiceImplBase {
     }
   }
 
+  /**
+   * The filters of a space listing after narrowing them to what the caller may see.
+   *
+   * @param ownerId only list spaces with this owner, or null for any owner
+   * @param labelSelectors label pairs a space must have, or null
+   * @param namePattern SQL LIKE pattern the name must match, or null
+   * @param sortBy the requested sort field, or null for the default order
+   * @param sortAscending whether to sort in ascending order
+   * @param includePublic whether other owners' public spaces are included
+   */
+  private record SpaceFilter(
+      UUID ownerId,
+      Map<String, String> labelSelectors,
+      String namePattern,
+      String sortBy,
+      boolean sortAscending,
+      boolean includePublic) {}
+
+  /**
+   * Narrows the filters of a space listing to what the caller may see. Holders of LIST_SPACE_ANY
+   * see every space, filtered by owner if one was requested; holders of only LIST_SPACE_OWN see
+   * their own spaces and may not ask for another owner's.
+   *
+   * @return StatusOr containing the narrowed filters, or PERMISSION_DENIED
+   */
+  private static com.goodmem.common.status.StatusOr<SpaceFilter> resolveSpaceFilter(
+      User user,
+      UUID requestedOwnerId,
+      Map<String, String> labelSelectors,
+      String nameFilter,
+      String sortBy,
+      SortOrder sortOrder) {
+    UUID ownerIdFilter = requestedOwnerId;
+    boolean includePublic = true;
+    if (!user.hasPermission(Permission.LIST_SPACE_ANY)) {
+      if (requestedOwnerId != null && !requestedOwnerId.equals(user.getId())) {
+        Logger.error("User lacks permission to list spaces owned by others");
+        return com.goodmem.common.status.StatusOr.ofStatus(
+            com.goodmem.common.status.Status.permissionDenied("Permission denied"));
+      }
+      // Always filter by authenticated user ID when only having LIST_SPACE_OWN
+      ownerIdFilter = user.getId();
+      includePublic = false;
+    }
+
+    // Convert name filter to SQL pattern if provided
+    String namePattern = null;
+    if (nameFilter != null && !nameFilter.isEmpty()) {
+      namePattern = globToSqlLike(nameFilter);
+    }
+
+    boolean sortAscending = (sortOrder == null || sortOrder == SortOrder.ASCENDING);
+    return com.goodmem.common.status.StatusOr.ofValue(
+        new SpaceFilter(
+            ownerIdFilter, labelSelectors, namePattern, sortBy, sortAscending, includePublic));
+  }
+
   private Timestamp getCurrentTimestamp() {
     Instant now = Instant.now();
     return Timestamp.newBuilder().setSeconds(now.getEpochSecond()).setNanos(now.getNano()).build();
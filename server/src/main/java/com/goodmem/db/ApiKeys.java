@@ -3,6 +3,7 @@ package com.goodmem.db;
 import com.goodmem.common.status.Status;
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.db.util.DbUtil;
+import com.goodmem.db.util.RowCursor;
 import com.google.common.collect.ImmutableList;
 import com.google.protobuf.ByteString;
 import java.sql.Connection;
@@ -124,6 +125,30 @@ public final class ApiKeys {
     }
   }
 
+  /**
+   * Streams API keys through a server-side cursor, oldest first.
+   *
+   * @param conn an open JDBC connection
+   * @param userId only stream this user's keys, or null to stream every key
+   * @param sink receives each API key as it is read
+   * @return StatusOr containing the number of keys the sink accepted, or an error
+   */
+  @Nonnull
+  public static StatusOr<Long> streamApiKeys(
+      Connection conn, UUID userId, RowCursor.RowSink<ApiKey> sink) {
+    String sql =
+        """
+        SELECT api_key_id, user_id, key_prefix, key_hash, status, labels,
+               expires_at, last_used_at, created_at, updated_at,
+               created_by_id, updated_by_id
+          FROM apikey
+        """
+            + (userId == null ? "" : " WHERE user_id = ?")
+            + " ORDER BY created_at, api_key_id";
+    List<Object> params = userId == null ? List.of() : List.of(userId);
+    return RowCursor.stream(conn, sql, params, ApiKeys::extractApiKey, sink);
+  }
+
   /**
    * Finds an API key by its hash value.
    *
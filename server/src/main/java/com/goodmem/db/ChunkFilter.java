@@ -0,0 +1,66 @@
+package com.goodmem.db;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Restricts which memory chunks a search considers.
+ *
+ * @param spaceId Only chunks of memories in this space; null for all spaces
+ * @param metadata Only chunks of memories whose metadata contains all of these pairs; empty or
+ *     null for no restriction
+ * @param createdAfter Only chunks created at or after this time; null for no lower bound
+ * @param createdBefore Only chunks created before this time; null for no upper bound
+ */
+public record ChunkFilter(
+    UUID spaceId, Map<String, String> metadata, Instant createdAfter, Instant createdBefore) {
+
+  /**
+   * Creates a filter that restricts a search to a single space.
+   *
+   * @param spaceId the space to search
+   * @return the filter
+   */
+  public static ChunkFilter forSpace(UUID spaceId) {
+    return new ChunkFilter(spaceId, Map.of(), null, null);
+  }
+
+  /**
+   * Returns a copy of this filter restricted to another space.
+   *
+   * @param newSpaceId the space to search
+   * @return the filter
+   */
+  public ChunkFilter withSpace(UUID newSpaceId) {
+    return new ChunkFilter(newSpaceId, metadata, createdAfter, createdBefore);
+  }
+
+  /**
+   * Returns whether this filter restricts on memory metadata.
+   *
+   * @return true if at least one metadata pair must match
+   */
+  public boolean hasMetadata() {
+    return metadata != null && !metadata.isEmpty();
+  }
+
+  /**
+   * Returns whether this filter restricts on chunk creation time.
+   *
+   * @return true if either time bound is set
+   */
+  public boolean hasTimeWindow() {
+    return createdAfter != null || createdBefore != null;
+  }
+
+  /**
+   * Returns whether this filter restricts chunks beyond the space they belong to. Such filters
+   * can reject most of the rows an HNSW scan returns, so searches plan around them.
+   *
+   * @return true if the filter has metadata or time conditions
+   */
+  public boolean hasConditions() {
+    return hasMetadata() || hasTimeWindow();
+  }
+}
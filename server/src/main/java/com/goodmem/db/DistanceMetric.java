@@ -0,0 +1,93 @@
+package com.goodmem.db;
+
+/**
+ * Enumeration of the vector distance metrics a space can be configured with.
+ *
+ * <p>Each metric maps to a pgvector distance operator and to a partial HNSW index on
+ * memory_chunk built with the matching operator class. Vectors stored in COSINE spaces are
+ * L2-normalized on write, so cosine ordering is served by the inner-product operator, which is
+ * cheaper to evaluate than {@code <=>}.
+ *
+ * IMPORTANT: Keep this enum in sync with the database's distance_metric_enum type in 01-schema.sql
+ */
+public enum DistanceMetric {
+  /**
+   * Cosine similarity. Vectors are normalized on write and searched by inner product.
+   */
+  COSINE,
+
+  /**
+   * Raw inner (dot) product, for models trained with un-normalized dot-product similarity.
+   */
+  DOT_PRODUCT,
+
+  /**
+   * Euclidean (L2) distance.
+   */
+  EUCLIDEAN;
+
+  /**
+   * Returns the pgvector operator that orders rows by ascending distance for this metric.
+   *
+   * @return The SQL distance operator
+   */
+  public String operator() {
+    return switch (this) {
+      case COSINE, DOT_PRODUCT -> "<#>";
+      case EUCLIDEAN -> "<->";
+    };
+  }
+
+  /**
+   * Returns whether vectors must be L2-normalized before they are compared under this metric.
+   *
+   * @return true if query and stored vectors are unit-length
+   */
+  public boolean requiresNormalization() {
+    return this == COSINE;
+  }
+
+  /**
+   * Converts the raw value produced by {@link #operator()} into a similarity score where larger
+   * values are better. For COSINE this is the cosine similarity in [-1, 1]; for DOT_PRODUCT the
+   * inner product; for EUCLIDEAN the negated distance.
+   *
+   * @param operatorValue The value computed by the SQL distance operator
+   * @return The similarity score
+   */
+  public double toScore(double operatorValue) {
+    // <#> returns the negative inner product, <-> the distance; both are "smaller is closer".
+    return -operatorValue;
+  }
+
+  /**
+   * Converts a similarity score back into the operator value it was computed from, so that a
+   * minimum score can be applied as a maximum distance in SQL. The inverse of {@link #toScore}.
+   *
+   * @param score The similarity score
+   * @return The operator value; positive infinity for a score of negative infinity
+   */
+  public double toOperatorValue(double score) {
+    return -score;
+  }
+
+  /**
+   * Converts the enum to its string representation for database storage.
+   *
+   * @return The string value for database storage
+   */
+  public String toDatabaseValue() {
+    return name();
+  }
+
+  /**
+   * Creates an enum value from its database string representation.
+   *
+   * @param value The database string value
+   * @return The corresponding enum value
+   * @throws IllegalArgumentException If the value doesn't match any enum constant
+   */
+  public static DistanceMetric fromDatabaseValue(String value) {
+    return valueOf(value);
+  }
+}
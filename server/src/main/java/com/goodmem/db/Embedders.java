@@ -3,6 +3,7 @@ package com.goodmem.db;
 import com.goodmem.common.status.Status;
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.db.util.DbUtil;
+import com.goodmem.db.util.RowCursor;
 import com.google.common.collect.ImmutableList;
 import java.sql.Array;
 import java.sql.Connection;
@@ -165,6 +166,54 @@ public final class Embedders {
     }
   }
 
+  /**
+   * Streams the embedders matching the given filters through a server-side cursor, oldest first.
+   *
+   * @param conn an open JDBC connection
+   * @param ownerId only stream embedders with this owner, or null for any owner
+   * @param providerType only stream embedders of this provider type, or null for any type
+   * @param labelSelectors only stream embedders whose labels contain all of these pairs; may be
+   *     null or empty
+   * @param sink receives each embedder as it is read
+   * @return StatusOr containing the number of embedders the sink accepted, or an error
+   */
+  @Nonnull
+  public static StatusOr<Long> streamEmbedders(
+      Connection conn,
+      UUID ownerId,
+      EmbedderProviderType providerType,
+      Map<String, String> labelSelectors,
+      RowCursor.RowSink<Embedder> sink) {
+    StringBuilder sql =
+        new StringBuilder(
+            """
+            SELECT embedder_id, display_name, description, provider_type, endpoint_url, api_path,
+                   model_identifier, dimensionality, max_sequence_length, supported_modalities,
+                   credentials, labels, version, monitoring_endpoint,
+                   owner_id, created_at, updated_at, created_by_id, updated_by_id
+              FROM embedder
+             WHERE TRUE
+            """);
+    List<Object> params = new ArrayList<>();
+    if (ownerId != null) {
+      sql.append(" AND owner_id = ?");
+      params.add(ownerId);
+    }
+    if (providerType != null) {
+      sql.append(" AND provider_type = ?::provider_type_enum");
+      params.add(providerType.toDatabaseValue());
+    }
+    if (labelSelectors != null) {
+      for (Map.Entry<String, String> entry : labelSelectors.entrySet()) {
+        sql.append(" AND labels->? = to_jsonb(?::text)");
+        params.add(entry.getKey());
+        params.add(entry.getValue());
+      }
+    }
+    sql.append(" ORDER BY created_at, embedder_id");
+    return RowCursor.stream(conn, sql.toString(), params, Embedders::extractEmbedder, sink);
+  }
+
   /**
    * Loads an embedder by unique connection details.
    *
@@ -1,21 +1,35 @@
 package com.goodmem.db;
 
+import com.goodmem.common.status.Status;
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.db.util.DbUtil;
+import com.goodmem.db.util.RowCursor;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
 import java.util.UUID;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-/** DAO helper class for the 'memory' table. */
+/**
+ * DAO helper class for the 'memory' table.
+ *
+ * <p>Loads skip tombstoned memories and the memories of tombstoned spaces; see {@link #delete}.
+ */
 public final class Memories {
 
   private Memories() {
@@ -35,6 +49,9 @@ public final class Memories {
         SELECT memory_id, space_id, original_content_ref, content_type, metadata,
                processing_status, created_at, updated_at, created_by_id, updated_by_id
           FROM memory
+         WHERE deleted_at IS NULL
+           AND NOT EXISTS (SELECT 1 FROM space s
+                            WHERE s.space_id = memory.space_id AND s.deleted_at IS NOT NULL)
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql);
         ResultSet rs = stmt.executeQuery()) {
@@ -67,6 +84,9 @@ public final class Memories {
                processing_status, created_at, updated_at, created_by_id, updated_by_id
           FROM memory
          WHERE memory_id = ?
+           AND deleted_at IS NULL
+           AND NOT EXISTS (SELECT 1 FROM space s
+                            WHERE s.space_id = memory.space_id AND s.deleted_at IS NOT NULL)
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, memoryId);
@@ -100,6 +120,9 @@ public final class Memories {
                processing_status, created_at, updated_at, created_by_id, updated_by_id
           FROM memory
          WHERE space_id = ?
+           AND deleted_at IS NULL
+           AND NOT EXISTS (SELECT 1 FROM space s
+                            WHERE s.space_id = memory.space_id AND s.deleted_at IS NOT NULL)
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, spaceId);
@@ -119,6 +142,117 @@ public final class Memories {
     }
   }
 
+  /**
+   * Streams the memories of a space through a server-side cursor, oldest first.
+   *
+   * @param conn an open JDBC connection
+   * @param spaceId the space to stream memories from
+   * @param processingStatus only stream memories with this processing status, or null for all
+   * @param contentType only stream memories with this content type, or null for all
+   * @param sink receives each memory as it is read
+   * @return StatusOr containing the number of memories the sink accepted, or an error
+   */
+  @Nonnull
+  public static StatusOr<Long> streamBySpaceId(
+      Connection conn,
+      UUID spaceId,
+      @Nullable String processingStatus,
+      @Nullable String contentType,
+      RowCursor.RowSink<Memory> sink) {
+    List<Object> params = new ArrayList<>();
+    StringBuilder sql = selectBySpaceId(params, spaceId, processingStatus, contentType);
+    sql.append(" ORDER BY created_at, memory_id");
+    return RowCursor.stream(conn, sql.toString(), params, Memories::extractMemory, sink);
+  }
+
+  /** Position in a space's memories, ordered by creation time and then ID, to resume after. */
+  public record PageCursor(Instant createdAt, UUID memoryId) {}
+
+  /**
+   * Loads one page of the memories of a space, oldest first.
+   *
+   * <p>Pages are keyed on {@code (created_at, memory_id)} rather than an offset: the query seeks to
+   * the cursor in the {@code (space_id, created_at, memory_id)} index and reads forward, so every
+   * page is a single index range scan however deep into the space it is.
+   *
+   * @param conn an open JDBC connection
+   * @param spaceId the space to list memories from
+   * @param processingStatus only return memories with this processing status, or null for all
+   * @param contentType only return memories with this content type, or null for all
+   * @param after the position of the last memory of the previous page, or null for the first page
+   * @param limit the maximum number of memories to return
+   * @return StatusOr containing the memories of the page or an error
+   */
+  @Nonnull
+  public static StatusOr<List<Memory>> loadPageBySpaceId(
+      Connection conn,
+      UUID spaceId,
+      @Nullable String processingStatus,
+      @Nullable String contentType,
+      @Nullable PageCursor after,
+      int limit) {
+    List<Object> params = new ArrayList<>();
+    StringBuilder sql = selectBySpaceId(params, spaceId, processingStatus, contentType);
+    if (after != null) {
+      sql.append("   AND (created_at, memory_id) > (?, ?)\n");
+      params.add(DbUtil.toSqlTimestamp(after.createdAt()));
+      params.add(after.memoryId());
+    }
+    sql.append(" ORDER BY created_at, memory_id\n LIMIT ?");
+    params.add(limit);
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+      for (int i = 0; i < params.size(); i++) {
+        stmt.setObject(i + 1, params.get(i));
+      }
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<Memory> result = new ArrayList<>();
+        while (rs.next()) {
+          StatusOr<Memory> memoryOr = extractMemory(rs);
+          if (memoryOr.isNotOk()) {
+            return StatusOr.ofStatus(memoryOr.getStatus());
+          }
+          result.add(memoryOr.getValue());
+        }
+        return StatusOr.ofValue(ImmutableList.copyOf(result));
+      }
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Starts the query for the live memories of a space, with the optional exact-match filters of
+   * ListMemories, adding the values of its parameters to {@code params}.
+   */
+  private static StringBuilder selectBySpaceId(
+      List<Object> params,
+      UUID spaceId,
+      @Nullable String processingStatus,
+      @Nullable String contentType) {
+    StringBuilder sql =
+        new StringBuilder(
+            """
+            SELECT memory_id, space_id, original_content_ref, content_type, metadata,
+                   processing_status, created_at, updated_at, created_by_id, updated_by_id
+              FROM memory
+             WHERE space_id = ?
+               AND deleted_at IS NULL
+               AND NOT EXISTS (SELECT 1 FROM space s
+                                WHERE s.space_id = memory.space_id AND s.deleted_at IS NOT NULL)
+            """);
+    params.add(spaceId);
+    if (processingStatus != null) {
+      sql.append("   AND processing_status = ?\n");
+      params.add(processingStatus);
+    }
+    if (contentType != null) {
+      sql.append("   AND content_type = ?\n");
+      params.add(contentType);
+    }
+    return sql;
+  }
+
   /**
    * Loads memories by processing status.
    *
@@ -135,6 +269,9 @@ public final class Memories {
                processing_status, created_at, updated_at, created_by_id, updated_by_id
           FROM memory
          WHERE processing_status = ?
+           AND deleted_at IS NULL
+           AND NOT EXISTS (SELECT 1 FROM space s
+                            WHERE s.space_id = memory.space_id AND s.deleted_at IS NOT NULL)
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setString(1, processingStatus);
@@ -184,9 +321,11 @@ public final class Memories {
       stmt.setString(3, memory.originalContentRef());
       stmt.setString(4, memory.contentType());
 
-      // Note: In a real implementation, this would use proper JSONB handling
-      // For example: stmt.setObject(5, memory.metadata(), Types.OTHER);
-      stmt.setObject(5, null); // Placeholder for JSONB
+      // Process and set the metadata as JSONB
+      Status metadataStatus = DbUtil.setJsonbParameter(stmt, 5, memory.metadata());
+      if (!metadataStatus.isOk()) {
+        return StatusOr.ofStatus(metadataStatus);
+      }
 
       stmt.setString(6, memory.processingStatus());
       stmt.setTimestamp(7, DbUtil.toSqlTimestamp(memory.createdAt()));
@@ -201,6 +340,130 @@ public final class Memories {
     }
   }
 
+  /**
+   * Inserts several new memories with a single multi-row INSERT.
+   *
+   * <p>The rows are sent in one round trip and written by one statement, so either all of them
+   * are inserted or, if any row fails (e.g. its space was deleted meanwhile), none is.
+   *
+   * @param conn an open JDBC connection
+   * @param memories the memories to insert; their IDs must be new
+   * @return StatusOr containing the number of inserted rows or an error
+   */
+  @Nonnull
+  public static StatusOr<Integer> insertAll(Connection conn, List<Memory> memories) {
+    if (memories.isEmpty()) {
+      return StatusOr.ofValue(0);
+    }
+    StringJoiner rows = new StringJoiner(",\n       ");
+    for (int i = 0; i < memories.size(); i++) {
+      rows.add("(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+    }
+    String sql =
+        """
+        INSERT INTO memory
+               (memory_id, space_id, original_content_ref, content_type, metadata,
+                processing_status, created_at, updated_at, created_by_id, updated_by_id)
+        VALUES\s"""
+            + rows;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      int index = 1;
+      for (Memory memory : memories) {
+        stmt.setObject(index++, memory.memoryId());
+        stmt.setObject(index++, memory.spaceId());
+        stmt.setString(index++, memory.originalContentRef());
+        stmt.setString(index++, memory.contentType());
+        Status metadataStatus = DbUtil.setJsonbParameter(stmt, index++, memory.metadata());
+        if (!metadataStatus.isOk()) {
+          return StatusOr.ofStatus(metadataStatus);
+        }
+        stmt.setString(index++, memory.processingStatus());
+        stmt.setTimestamp(index++, DbUtil.toSqlTimestamp(memory.createdAt()));
+        stmt.setTimestamp(index++, DbUtil.toSqlTimestamp(memory.updatedAt()));
+        stmt.setObject(index++, memory.createdById());
+        stmt.setObject(index++, memory.updatedById());
+      }
+      return StatusOr.ofValue(stmt.executeUpdate());
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Loads several memories by ID in one query.
+   *
+   * @param conn an open JDBC connection
+   * @param memoryIds the UUIDs of the memories to load
+   * @return StatusOr containing the memories found, keyed by ID, or an error; IDs that do not
+   *     exist or are deleted are absent from the map
+   */
+  @Nonnull
+  public static StatusOr<Map<UUID, Memory>> loadByIds(
+      Connection conn, Collection<UUID> memoryIds) {
+    String sql =
+        """
+        SELECT memory_id, space_id, original_content_ref, content_type, metadata,
+               processing_status, created_at, updated_at, created_by_id, updated_by_id
+          FROM memory
+         WHERE memory_id = ANY(?)
+           AND deleted_at IS NULL
+           AND NOT EXISTS (SELECT 1 FROM space s
+                            WHERE s.space_id = memory.space_id AND s.deleted_at IS NOT NULL)
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setArray(1, conn.createArrayOf("uuid", memoryIds.toArray()));
+      Map<UUID, Memory> result = new HashMap<>();
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          StatusOr<Memory> memoryOr = extractMemory(rs);
+          if (memoryOr.isNotOk()) {
+            return StatusOr.ofStatus(memoryOr.getStatus());
+          }
+          result.put(memoryOr.getValue().memoryId(), memoryOr.getValue());
+        }
+      }
+      return StatusOr.ofValue(ImmutableMap.copyOf(result));
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Deletes several memories by ID with one statement. Like {@link #delete}, this only tombstones
+   * them.
+   *
+   * @param conn an open JDBC connection
+   * @param memoryIds the UUIDs of the memories to delete
+   * @return StatusOr containing the IDs of the memories that were deleted, which excludes IDs that
+   *     do not exist or were already deleted, or an error
+   */
+  @Nonnull
+  public static StatusOr<Set<UUID>> deleteAll(Connection conn, Collection<UUID> memoryIds) {
+    String sql =
+        """
+        UPDATE memory
+           SET deleted_at = now()
+         WHERE memory_id = ANY(?) AND deleted_at IS NULL
+        RETURNING memory_id
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setArray(1, conn.createArrayOf("uuid", memoryIds.toArray()));
+      Set<UUID> deleted = new HashSet<>();
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          StatusOr<UUID> memoryIdOr = DbUtil.getUuid(rs, "memory_id");
+          if (memoryIdOr.isNotOk()) {
+            return StatusOr.ofStatus(memoryIdOr.getStatus());
+          }
+          deleted.add(memoryIdOr.getValue());
+        }
+      }
+      return StatusOr.ofValue(ImmutableSet.copyOf(deleted));
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
   /**
    * Updates the processing status of a memory.
    *
@@ -232,19 +495,103 @@ public final class Memories {
     }
   }
 
+  /**
+   * Finds the memories whose centroid vectors are closest to a query vector.
+   *
+   * <p>This is the coarse stage of a hierarchical search: the centroid index holds one vector per
+   * memory rather than one per chunk, so it is much smaller to traverse, and the chunk search
+   * that follows only has to rank the chunks of the memories returned here. Centroids are unit
+   * vectors, so the query vector is normalized and memories are ranked by cosine similarity.
+   *
+   * <p>The space and metadata conditions of {@code filter} are applied to the rows the index
+   * returns; time bounds apply to chunks and are left to the chunk search. Callers with a
+   * metadata filter should run the query in a transaction after
+   * {@link MemoryChunks#enableIterativeScan(Connection)}.
+   *
+   * @param conn an open JDBC connection
+   * @param queryVector the query vector
+   * @param filter restricts which memories are considered
+   * @param limit maximum number of memories
+   * @return StatusOr containing the IDs of the closest memories, closest first, or an error
+   */
+  @Nonnull
+  public static StatusOr<List<UUID>> loadNearestByCentroid(
+      Connection conn, float[] queryVector, ChunkFilter filter, int limit) {
+    StringBuilder sql =
+        new StringBuilder(
+            """
+            WITH candidates AS MATERIALIZED (
+              SELECT c.memory_id, c.centroid_vector <#> ?::vector AS distance
+                FROM memory_centroid c
+                JOIN memory m ON m.memory_id = c.memory_id
+               WHERE m.deleted_at IS NULL
+            """);
+    if (filter.spaceId() != null) {
+      sql.append("     AND m.space_id = ?\n");
+    }
+    if (filter.hasMetadata()) {
+      sql.append("     AND m.metadata @> ?\n");
+    }
+    sql.append(
+        """
+               ORDER BY distance
+               LIMIT ?
+            )
+            SELECT memory_id FROM candidates ORDER BY distance
+            """);
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+      int paramIndex = 1;
+      stmt.setObject(
+          paramIndex++,
+          DbUtil.formatVector(DbUtil.normalizeVector(queryVector)),
+          java.sql.Types.OTHER);
+      if (filter.spaceId() != null) {
+        stmt.setObject(paramIndex++, filter.spaceId());
+      }
+      if (filter.hasMetadata()) {
+        Status status = DbUtil.setJsonbParameter(stmt, paramIndex++, filter.metadata());
+        if (!status.isOk()) {
+          return StatusOr.ofStatus(status);
+        }
+      }
+      stmt.setInt(paramIndex, limit);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<UUID> result = new ArrayList<>();
+        while (rs.next()) {
+          StatusOr<UUID> idOr = DbUtil.getUuid(rs, "memory_id");
+          if (idOr.isNotOk()) {
+            return StatusOr.ofStatus(idOr.getStatus());
+          }
+          result.add(idOr.getValue());
+        }
+        return StatusOr.ofValue(ImmutableList.copyOf(result));
+      }
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
   /**
    * Deletes a memory by ID.
    *
+   * <p>The memory is only tombstoned, which takes constant time however many chunks it has: it
+   * disappears from every load and search at once. The row and its chunks are removed later by
+   * {@link #purgeTombstoned} and {@link MemoryChunks#purgeTombstoned}.
+   *
    * @param conn an open JDBC connection
    * @param memoryId the UUID of the memory to delete
-   * @return StatusOr containing the number of affected rows or an error
+   * @return StatusOr containing the number of affected rows (0 if the memory does not exist or is
+   *     already deleted) or an error
    */
   @Nonnull
   public static StatusOr<Integer> delete(Connection conn, UUID memoryId) {
     String sql =
         """
-        DELETE FROM memory
-         WHERE memory_id = ?
+        UPDATE memory
+           SET deleted_at = now()
+         WHERE memory_id = ? AND deleted_at IS NULL
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, memoryId);
@@ -255,6 +602,35 @@ public final class Memories {
     }
   }
 
+  /**
+   * Removes a batch of memories that are tombstoned, or belong to a tombstoned space, and whose
+   * chunks have all been purged.
+   *
+   * @param conn an open JDBC connection
+   * @param batchSize maximum number of memories to remove
+   * @return StatusOr containing the number of memories removed or an error
+   */
+  @Nonnull
+  public static StatusOr<Integer> purgeTombstoned(Connection conn, int batchSize) {
+    String sql =
+        """
+        DELETE FROM memory
+         WHERE memory_id IN (
+               SELECT m.memory_id
+                 FROM memory m
+                WHERE (m.deleted_at IS NOT NULL
+                       OR m.space_id IN (SELECT space_id FROM space WHERE deleted_at IS NOT NULL))
+                  AND NOT EXISTS (SELECT 1 FROM memory_chunk c WHERE c.memory_id = m.memory_id)
+                LIMIT ?)
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setInt(1, batchSize);
+      return StatusOr.ofValue(stmt.executeUpdate());
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
   /** Extracts a Memory from the current row of a ResultSet. */
   @Nonnull
   private static StatusOr<Memory> extractMemory(ResultSet rs) throws SQLException {
@@ -272,10 +648,12 @@ public final class Memories {
     String contentType = rs.getString("content_type");
     String processingStatus = rs.getString("processing_status");
 
-    // Note: In a real implementation, you would use proper JSONB parsing
-    // For example:
-    // StatusOr<Map<String, String>> metadataOr = DbUtil.parseJsonbToMap(rs, "metadata");
-    Map<String, String> metadata = Map.of(); // Placeholder for JSONB
+    // Parse the JSONB metadata
+    StatusOr<Map<String, String>> metadataOr = DbUtil.parseJsonbToMap(rs, "metadata");
+    if (metadataOr.isNotOk()) {
+      return StatusOr.ofStatus(metadataOr.getStatus());
+    }
+    Map<String, String> metadata = metadataOr.getValue();
 
     StatusOr<Instant> createdAtOr = DbUtil.getInstant(rs, "created_at");
     if (createdAtOr.isNotOk()) {
@@ -1,5 +1,6 @@
 package com.goodmem.db;
 
+import com.goodmem.common.status.Status;
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.db.util.DbUtil;
 import com.google.common.collect.ImmutableList;
@@ -7,17 +8,36 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /** DAO helper class for the 'memory_chunk' table. */
 public final class MemoryChunks {
 
+  /** Columns of memory_chunk read by extractMemoryChunk, qualified with the alias c. */
+  private static final String CHUNK_COLUMNS =
+      """
+      c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embedding_vector,
+             c.vector_status, c.start_offset, c.end_offset, c.created_at, c.updated_at,
+             c.created_by_id, c.updated_by_id""";
+
+  /** Number of leading embedding dimensions kept in prefix_vector for two-stage search. */
+  public static final int PREFIX_DIMENSIONS = 256;
+
+  /** Vector status of a chunk stored as a link to a near-duplicate chunk, without an embedding. */
+  public static final String DUPLICATE_STATUS = "DUPLICATE";
+
+  /** Nearest neighbours checked for a near-duplicate before a chunk is inserted. */
+  static final int DUPLICATE_CANDIDATES = 4;
+
   private MemoryChunks() {
     // Utility class
   }
@@ -164,70 +184,449 @@ public final class MemoryChunks {
   }
 
   /**
-   * Performs a vector similarity search using pgvector.
+   * Performs an approximate vector similarity search using pgvector.
+   *
+   * <p>The distance operator and the distance_metric predicate are chosen from {@code metric} so
+   * that the query is served by the matching partial HNSW index. The predicate is inlined as a
+   * literal rather than bound, because the planner can only prove that a partial index applies
+   * against constants. For COSINE the query vector is normalized here, mirroring the
+   * normalization applied to stored vectors on write.
+   *
+   * <p>Metadata predicates in {@code filter} are applied to the rows the index returns (post
+   * filtering). Callers with a selective filter should run the query in a transaction after
+   * {@link #enableIterativeScan(Connection)}, so the index scan keeps going until {@code limit}
+   * rows pass the filter. Iterative scans may return rows slightly out of order, so the index
+   * results are materialized and re-sorted by exact distance. {@code maxDistance} is applied to
+   * the materialized rows rather than in the index scan, where an iterative scan would keep
+   * looking for rows within it; rows beyond it are still not sent back.
    *
    * @param conn an open JDBC connection
    * @param queryVector the query vector
-   * @param spaceId the space to search in (optional)
+   * @param filter restricts which chunks are considered
+   * @param metric the distance metric of the space being searched
+   * @param maxDistance the greatest operator value returned, see {@link
+   *     DistanceMetric#toOperatorValue}; positive infinity for no bound
    * @param limit maximum number of results
-   * @return StatusOr containing a list of MemoryChunk objects or an error
+   * @return StatusOr containing the matching chunks, closest first, or an error
+   */
+  @Nonnull
+  public static StatusOr<List<ScoredMemoryChunk>> vectorSearch(
+      Connection conn,
+      float[] queryVector,
+      ChunkFilter filter,
+      DistanceMetric metric,
+      double maxDistance,
+      int limit) {
+    float[] searchVector =
+        metric.requiresNormalization() ? DbUtil.normalizeVector(queryVector) : queryVector;
+
+    String sql =
+        String.format(
+            """
+WITH candidates AS MATERIALIZED (
+  SELECT %1$s, c.embedding_vector %2$s ?::vector AS distance
+    FROM memory_chunk c
+    JOIN memory m ON c.memory_id = m.memory_id
+   WHERE c.distance_metric = '%3$s'
+     AND c.vector_status = 'GENERATED'%4$s
+   ORDER BY distance
+   LIMIT ?
+)
+SELECT * FROM candidates WHERE distance <= ? ORDER BY distance
+""",
+            CHUNK_COLUMNS,
+            metric.operator(),
+            metric.toDatabaseValue(),
+            filterPredicates(filter));
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      int paramIndex = 1;
+
+      // Bind the vector rather than inlining it so the statement text stays cacheable
+      stmt.setObject(paramIndex++, DbUtil.formatVector(searchVector), java.sql.Types.OTHER);
+
+      StatusOr<Integer> nextIndexOr = bindFilter(stmt, paramIndex, filter);
+      if (nextIndexOr.isNotOk()) {
+        return StatusOr.ofStatus(nextIndexOr.getStatus());
+      }
+      int paramIndex = nextIndexOr.getValue();
+      stmt.setInt(paramIndex++, limit);
+      stmt.setDouble(paramIndex, maxDistance);
+
+      return readScoredByDistance(stmt, metric);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Computes exact distances for an explicit set of chunks, bypassing the HNSW index.
+   *
+   * <p>This is the pre-filtering counterpart of {@link #vectorSearch}: when a filter matches few
+   * chunks, scanning just those rows is both exact and cheaper than walking the graph past all
+   * the rows the filter would reject. The candidate rows are materialized so that the planner
+   * cannot push the ORDER BY into an index scan.
+   *
+   * @param conn an open JDBC connection
+   * @param queryVector the query vector
+   * @param chunkIds the chunks to rank
+   * @param metric the distance metric of the space being searched
+   * @param maxDistance the greatest operator value returned; positive infinity for no bound
+   * @param limit maximum number of results
+   * @return StatusOr containing the matching chunks, closest first, or an error
+   */
+  @Nonnull
+  public static StatusOr<List<ScoredMemoryChunk>> exactVectorSearch(
+      Connection conn,
+      float[] queryVector,
+      List<UUID> chunkIds,
+      DistanceMetric metric,
+      double maxDistance,
+      int limit) {
+    if (chunkIds.isEmpty()) {
+      return StatusOr.ofValue(ImmutableList.of());
+    }
+    float[] searchVector =
+        metric.requiresNormalization() ? DbUtil.normalizeVector(queryVector) : queryVector;
+
+    String sql =
+        String.format(
+            """
+WITH allowed AS MATERIALIZED (
+  SELECT %1$s
+    FROM memory_chunk c
+   WHERE c.chunk_id = ANY(?)
+     AND c.distance_metric = '%2$s'
+     AND c.vector_status = 'GENERATED'
+)
+SELECT *
+  FROM (SELECT *, embedding_vector %3$s ?::vector AS distance FROM allowed) scored
+ WHERE distance <= ?
+ ORDER BY distance
+ LIMIT ?
+""",
+            CHUNK_COLUMNS,
+            metric.toDatabaseValue(),
+            metric.operator());
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setArray(1, conn.createArrayOf("uuid", chunkIds.toArray()));
+      stmt.setObject(2, DbUtil.formatVector(searchVector), java.sql.Types.OTHER);
+      stmt.setDouble(3, maxDistance);
+      stmt.setInt(4, limit);
+
+      return readScoredByDistance(stmt, metric);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Computes exact distances for the chunks of an explicit set of memories, bypassing the HNSW
+   * index.
+   *
+   * <p>This is the fine stage of a hierarchical search, after
+   * {@link Memories#loadNearestByCentroid} has picked the memories closest to the query. The
+   * chunks of those memories are read through the memory_id index, so they are fetched in a few
+   * clustered lookups rather than scattered across an HNSW traversal, and are ranked exactly.
+   * The remaining conditions of {@code filter} are applied to them.
+   *
+   * @param conn an open JDBC connection
+   * @param queryVector the query vector
+   * @param memoryIds the memories whose chunks are ranked
+   * @param filter restricts which chunks are considered
+   * @param metric the distance metric of the space being searched
+   * @param maxDistance the greatest operator value returned; positive infinity for no bound
+   * @param limit maximum number of results
+   * @return StatusOr containing the matching chunks, closest first, or an error
+   */
+  @Nonnull
+  public static StatusOr<List<ScoredMemoryChunk>> memoryScopedVectorSearch(
+      Connection conn,
+      float[] queryVector,
+      List<UUID> memoryIds,
+      ChunkFilter filter,
+      DistanceMetric metric,
+      double maxDistance,
+      int limit) {
+    if (memoryIds.isEmpty()) {
+      return StatusOr.ofValue(ImmutableList.of());
+    }
+    float[] searchVector =
+        metric.requiresNormalization() ? DbUtil.normalizeVector(queryVector) : queryVector;
+
+    String sql =
+        String.format(
+            """
+WITH allowed AS MATERIALIZED (
+  SELECT %1$s
+    FROM memory_chunk c
+    JOIN memory m ON c.memory_id = m.memory_id
+   WHERE c.memory_id = ANY(?)
+     AND c.distance_metric = '%2$s'
+     AND c.vector_status = 'GENERATED'%3$s
+)
+SELECT *
+  FROM (SELECT *, embedding_vector %4$s ?::vector AS distance FROM allowed) scored
+ WHERE distance <= ?
+ ORDER BY distance
+ LIMIT ?
+""",
+            CHUNK_COLUMNS,
+            metric.toDatabaseValue(),
+            filterPredicates(filter),
+            metric.operator());
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setArray(1, conn.createArrayOf("uuid", memoryIds.toArray()));
+      StatusOr<Integer> nextIndexOr = bindFilter(stmt, 2, filter);
+      if (nextIndexOr.isNotOk()) {
+        return StatusOr.ofStatus(nextIndexOr.getStatus());
+      }
+      int paramIndex = nextIndexOr.getValue();
+      stmt.setObject(paramIndex++, DbUtil.formatVector(searchVector), java.sql.Types.OTHER);
+      stmt.setDouble(paramIndex++, maxDistance);
+      stmt.setInt(paramIndex, limit);
+
+      return readScoredByDistance(stmt, metric);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Performs a two-stage vector search: a coarse HNSW scan over the normalized 256-dimension
+   * prefix vectors, followed by an exact rerank of its candidates on the full embedding.
+   *
+   * <p>The prefix index is several times smaller than the full-dimension indexes and cheaper to
+   * traverse, at the cost of some recall in the coarse stage. It is only a good approximation
+   * for embedders trained to front-load information into their leading dimensions (Matryoshka
+   * representation learning). Because prefixes are unit vectors ranked by inner product, the
+   * coarse stage orders candidates by direction whatever the space's metric; the rerank applies
+   * the space's metric to the full vectors.
+   *
+   * <p>Metadata predicates in {@code filter} are applied to the rows the coarse index returns.
+   * Callers should run the query in a transaction after {@link #enableIterativeScan(Connection)}
+   * and {@link #setEfSearch(Connection, int)} so that the coarse stage yields enough candidates.
+   *
+   * @param conn an open JDBC connection
+   * @param queryVector the query vector, with at least {@link #PREFIX_DIMENSIONS} dimensions
+   * @param filter restricts which chunks are considered
+   * @param metric the distance metric of the space being searched
+   * @param candidates number of candidates the coarse stage passes to the rerank
+   * @param maxDistance the greatest full-vector operator value returned; positive infinity for
+   *     no bound
+   * @param limit maximum number of results
+   * @return StatusOr containing the matching chunks, closest first, or an error
    */
   @Nonnull
-  public static StatusOr<List<MemoryChunk>> vectorSearch(
-      Connection conn, float[] queryVector, UUID spaceId, int limit) {
-    // For pgvector, we need to use a vector literal in the SQL
-    String vectorExpr = "'" + DbUtil.formatVector(queryVector) + "'::vector";
-
-    String sql;
-    if (spaceId != null) {
-      sql =
-          String.format(
-              """
-SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embedding_vector,
-       c.vector_status, c.start_offset, c.end_offset, c.created_at, c.updated_at,
-       c.created_by_id, c.updated_by_id
+  public static StatusOr<List<ScoredMemoryChunk>> twoStageVectorSearch(
+      Connection conn,
+      float[] queryVector,
+      ChunkFilter filter,
+      DistanceMetric metric,
+      int candidates,
+      double maxDistance,
+      int limit) {
+    if (queryVector.length < PREFIX_DIMENSIONS) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument(
+              "Two-stage search needs a query vector of at least "
+                  + PREFIX_DIMENSIONS
+                  + " dimensions"));
+    }
+    float[] prefixVector =
+        DbUtil.normalizeVector(Arrays.copyOf(queryVector, PREFIX_DIMENSIONS));
+    float[] searchVector =
+        metric.requiresNormalization() ? DbUtil.normalizeVector(queryVector) : queryVector;
+
+    String sql =
+        String.format(
+            """
+WITH coarse AS MATERIALIZED (
+  SELECT c.chunk_id
+    FROM memory_chunk c
+    JOIN memory m ON c.memory_id = m.memory_id
+   WHERE c.distance_metric = '%3$s'
+     AND c.vector_status = 'GENERATED'
+     AND c.prefix_vector IS NOT NULL%4$s
+   ORDER BY c.prefix_vector <#> ?::vector
+   LIMIT ?
+)
+SELECT *
+  FROM (SELECT %1$s, c.embedding_vector %2$s ?::vector AS distance
+          FROM coarse
+          JOIN memory_chunk c ON c.chunk_id = coarse.chunk_id) scored
+ WHERE distance <= ?
+ ORDER BY distance
+ LIMIT ?
+""",
+            CHUNK_COLUMNS,
+            metric.operator(),
+            metric.toDatabaseValue(),
+            filterPredicates(filter));
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setObject(1, DbUtil.formatVector(prefixVector), java.sql.Types.OTHER);
+
+      StatusOr<Integer> nextIndexOr = bindFilter(stmt, 2, filter);
+      if (nextIndexOr.isNotOk()) {
+        return StatusOr.ofStatus(nextIndexOr.getStatus());
+      }
+      int paramIndex = nextIndexOr.getValue();
+      stmt.setInt(paramIndex++, candidates);
+      stmt.setObject(paramIndex++, DbUtil.formatVector(searchVector), java.sql.Types.OTHER);
+      stmt.setDouble(paramIndex++, maxDistance);
+      stmt.setInt(paramIndex, limit);
+
+      return readScoredByDistance(stmt, metric);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Loads the IDs of searchable chunks that match a filter, up to {@code maxIds}.
+   *
+   * <p>Only chunks with a generated embedding under {@code metric} are returned. Callers use the
+   * size of the result, capped by {@code maxIds}, as a cheap estimate of how selective the filter
+   * is when choosing between {@link #exactVectorSearch} and {@link #vectorSearch}.
+   *
+   * @param conn an open JDBC connection
+   * @param filter restricts which chunks are returned
+   * @param metric the distance metric of the space being searched
+   * @param maxIds maximum number of IDs to return
+   * @return StatusOr containing the chunk IDs or an error
+   */
+  @Nonnull
+  public static StatusOr<List<UUID>> loadSearchableChunkIds(
+      Connection conn, ChunkFilter filter, DistanceMetric metric, int maxIds) {
+    String sql =
+        String.format(
+            """
+SELECT c.chunk_id
   FROM memory_chunk c
   JOIN memory m ON c.memory_id = m.memory_id
- WHERE m.space_id = ?
-   AND c.vector_status = 'GENERATED'
- ORDER BY c.embedding_vector <-> %s
+ WHERE c.distance_metric = '%1$s'
+   AND c.vector_status = 'GENERATED'%2$s
  LIMIT ?
 """,
-              vectorExpr);
-    } else {
-      sql =
-          String.format(
-              """
-              SELECT chunk_id, memory_id, chunk_sequence_number, chunk_text, embedding_vector,
-                     vector_status, start_offset, end_offset, created_at, updated_at,
-                     created_by_id, updated_by_id
-                FROM memory_chunk
-               WHERE vector_status = 'GENERATED'
-               ORDER BY embedding_vector <-> %s
-               LIMIT ?
-              """,
-              vectorExpr);
-    }
+            metric.toDatabaseValue(),
+            filterPredicates(filter));
 
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-      int paramIndex = 1;
+      StatusOr<Integer> nextIndexOr = bindFilter(stmt, 1, filter);
+      if (nextIndexOr.isNotOk()) {
+        return StatusOr.ofStatus(nextIndexOr.getStatus());
+      }
+      stmt.setInt(nextIndexOr.getValue(), maxIds);
 
-      if (spaceId != null) {
-        stmt.setObject(paramIndex++, spaceId);
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<UUID> result = new ArrayList<>();
+        while (rs.next()) {
+          StatusOr<UUID> idOr = DbUtil.getUuid(rs, "chunk_id");
+          if (idOr.isNotOk()) {
+            return StatusOr.ofStatus(idOr.getStatus());
+          }
+          result.add(idOr.getValue());
+        }
+        return StatusOr.ofValue(ImmutableList.copyOf(result));
       }
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
 
-      // Vector is now included in the SQL directly
+  /**
+   * Enables pgvector iterative index scans for the rest of the current transaction.
+   *
+   * <p>With iterative scans, an HNSW scan whose rows are rejected by a filter keeps expanding its
+   * search instead of returning fewer than the requested number of rows. The setting is applied
+   * with {@code SET LOCAL}, so it must be called with auto-commit disabled and is discarded when
+   * the transaction ends.
+   *
+   * @param conn an open JDBC connection with auto-commit disabled
+   * @return Status indicating success or failure
+   */
+  @Nonnull
+  public static Status enableIterativeScan(Connection conn) {
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("SET LOCAL hnsw.iterative_scan = relaxed_order");
+      return Status.ok();
+    } catch (SQLException e) {
+      return Status.internal("Failed to enable iterative index scan: " + e.getMessage(), e);
+    }
+  }
 
-      stmt.setInt(paramIndex, limit);
+  /**
+   * Sets the HNSW candidate list size for the rest of the current transaction.
+   *
+   * <p>An HNSW scan returns at most {@code hnsw.ef_search} rows (40 by default) unless iterative
+   * scans are enabled, and larger values improve recall at the cost of a longer traversal. Like
+   * {@link #enableIterativeScan(Connection)}, this must be called with auto-commit disabled.
+   *
+   * @param conn an open JDBC connection with auto-commit disabled
+   * @param efSearch the candidate list size, between 1 and 1000
+   * @return Status indicating success or failure
+   */
+  @Nonnull
+  public static Status setEfSearch(Connection conn, int efSearch) {
+    // SET does not accept bind parameters; the value is an int, so formatting it is safe
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("SET LOCAL hnsw.ef_search = " + efSearch);
+      return Status.ok();
+    } catch (SQLException e) {
+      return Status.internal("Failed to set HNSW ef_search: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Performs a full-text search over chunk text using the chunk_tsv GIN index.
+   *
+   * <p>The query is parsed with {@code websearch_to_tsquery}, so it accepts free text, quoted
+   * phrases and {@code -exclusions} without raising syntax errors. Results are ranked by
+   * {@code ts_rank_cd}.
+   *
+   * @param conn an open JDBC connection
+   * @param queryText the free-text query
+   * @param filter restricts which chunks are considered
+   * @param limit maximum number of results
+   * @return StatusOr containing the matching chunks, best match first, or an error
+   */
+  @Nonnull
+  public static StatusOr<List<ScoredMemoryChunk>> lexicalSearch(
+      Connection conn, String queryText, ChunkFilter filter, int limit) {
+    String sql =
+        String.format(
+            """
+SELECT %1$s, ts_rank_cd(c.chunk_tsv, q.query) AS rank
+  FROM memory_chunk c
+  JOIN memory m ON c.memory_id = m.memory_id
+ CROSS JOIN websearch_to_tsquery('simple', ?) AS q(query)
+ WHERE c.chunk_tsv @@ q.query%2$s
+ ORDER BY rank DESC
+ LIMIT ?
+""",
+            CHUNK_COLUMNS,
+            filterPredicates(filter));
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setString(1, queryText);
+
+      StatusOr<Integer> nextIndexOr = bindFilter(stmt, 2, filter);
+      if (nextIndexOr.isNotOk()) {
+        return StatusOr.ofStatus(nextIndexOr.getStatus());
+      }
+      stmt.setInt(nextIndexOr.getValue(), limit);
 
       try (ResultSet rs = stmt.executeQuery()) {
-        List<MemoryChunk> result = new ArrayList<>();
+        List<ScoredMemoryChunk> result = new ArrayList<>();
         while (rs.next()) {
           StatusOr<MemoryChunk> chunkOr = extractMemoryChunk(rs);
           if (chunkOr.isNotOk()) {
             return StatusOr.ofStatus(chunkOr.getStatus());
           }
-          result.add(chunkOr.getValue());
+          result.add(new ScoredMemoryChunk(chunkOr.getValue(), rs.getDouble("rank")));
         }
         return StatusOr.ofValue(ImmutableList.copyOf(result));
       }
@@ -236,6 +635,72 @@ SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embeddi
     }
   }
 
+  /**
+   * Renders the WHERE predicates for a filter, each prefixed with AND. Queries using this must
+   * alias memory_chunk as {@code c} and join memory as {@code m}.
+   */
+  private static String filterPredicates(ChunkFilter filter) {
+    // Tombstoned memories are excluded; those of tombstoned spaces are never searched
+    StringBuilder sql = new StringBuilder("\n     AND m.deleted_at IS NULL");
+    if (filter.spaceId() != null) {
+      sql.append("\n     AND m.space_id = ?");
+    }
+    if (filter.hasMetadata()) {
+      // Containment is served by the jsonb_path_ops GIN index on memory.metadata
+      sql.append("\n     AND m.metadata @> ?");
+    }
+    // Time bounds are served by the BRIN index on memory_chunk.created_at
+    if (filter.createdAfter() != null) {
+      sql.append("\n     AND c.created_at >= ?");
+    }
+    if (filter.createdBefore() != null) {
+      sql.append("\n     AND c.created_at < ?");
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Binds the parameters of {@link #filterPredicates(ChunkFilter)} starting at {@code paramIndex}.
+   *
+   * @return StatusOr containing the index of the next unbound parameter, or an error
+   */
+  private static StatusOr<Integer> bindFilter(
+      PreparedStatement stmt, int paramIndex, ChunkFilter filter) throws SQLException {
+    if (filter.spaceId() != null) {
+      stmt.setObject(paramIndex++, filter.spaceId());
+    }
+    if (filter.hasMetadata()) {
+      Status status = DbUtil.setJsonbParameter(stmt, paramIndex++, filter.metadata());
+      if (!status.isOk()) {
+        return StatusOr.ofStatus(status);
+      }
+    }
+    if (filter.createdAfter() != null) {
+      stmt.setTimestamp(paramIndex++, DbUtil.toSqlTimestamp(filter.createdAfter()));
+    }
+    if (filter.createdBefore() != null) {
+      stmt.setTimestamp(paramIndex++, DbUtil.toSqlTimestamp(filter.createdBefore()));
+    }
+    return StatusOr.ofValue(paramIndex);
+  }
+
+  /** Reads rows carrying a "distance" column into scored chunks, preserving row order. */
+  private static StatusOr<List<ScoredMemoryChunk>> readScoredByDistance(
+      PreparedStatement stmt, DistanceMetric metric) throws SQLException {
+    try (ResultSet rs = stmt.executeQuery()) {
+      List<ScoredMemoryChunk> result = new ArrayList<>();
+      while (rs.next()) {
+        StatusOr<MemoryChunk> chunkOr = extractMemoryChunk(rs);
+        if (chunkOr.isNotOk()) {
+          return StatusOr.ofStatus(chunkOr.getStatus());
+        }
+        result.add(
+            new ScoredMemoryChunk(chunkOr.getValue(), metric.toScore(rs.getDouble("distance"))));
+      }
+      return StatusOr.ofValue(ImmutableList.copyOf(result));
+    }
+  }
+
   /**
    * Inserts or updates a memory chunk (upsert).
    *
@@ -245,11 +710,29 @@ SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embeddi
    */
   @Nonnull
   public static StatusOr<Integer> save(Connection conn, MemoryChunk chunk) {
+    return upsert(conn, chunk, null, null);
+  }
+
+  /**
+   * Inserts or updates a memory chunk, together with its near-duplicate link. Saving a chunk
+   * without a link clears any link a previous save left.
+   *
+   * @param duplicateOfChunkId the chunk this one duplicates, or null
+   * @param heldVector the chunk's own embedding, kept out of the vector indexes while it is a
+   *     duplicate, or null
+   */
+  private static StatusOr<Integer> upsert(
+      Connection conn,
+      MemoryChunk chunk,
+      @Nullable UUID duplicateOfChunkId,
+      @Nullable float[] heldVector) {
     // For pgvector, we need to build a SQL string with the vector cast
     String vectorSql =
         chunk.embeddingVector() != null
             ? "'" + DbUtil.formatVector(chunk.embeddingVector()) + "'::vector"
             : "NULL";
+    String heldVectorSql =
+        heldVector != null ? "'" + DbUtil.formatVector(heldVector) + "'::vector" : "NULL";
 
     String sql =
         String.format(
@@ -257,8 +740,9 @@ SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embeddi
             INSERT INTO memory_chunk
                    (chunk_id, memory_id, chunk_sequence_number, chunk_text, embedding_vector,
                     vector_status, start_offset, end_offset, created_at, updated_at,
-                    created_by_id, updated_by_id)
-            VALUES (?, ?, ?, ?, %s, ?, ?, ?, ?, ?, ?, ?)
+                    created_by_id, updated_by_id, duplicate_of_chunk_id,
+                    duplicate_embedding_vector)
+            VALUES (?, ?, ?, ?, %s, ?, ?, ?, ?, ?, ?, ?, ?, %s)
             ON CONFLICT(chunk_id)
             DO UPDATE SET memory_id           = excluded.memory_id,
                           chunk_sequence_number = excluded.chunk_sequence_number,
@@ -268,10 +752,12 @@ SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embeddi
                           start_offset        = excluded.start_offset,
                           end_offset          = excluded.end_offset,
                           updated_at          = excluded.updated_at,
-                          updated_by_id       = excluded.updated_by_id
+                          updated_by_id       = excluded.updated_by_id,
+                          duplicate_of_chunk_id = excluded.duplicate_of_chunk_id,
+                          duplicate_embedding_vector = excluded.duplicate_embedding_vector
             """,
-            vectorSql);
-
+            vectorSql,
+            heldVectorSql);
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, chunk.chunkId());
       stmt.setObject(2, chunk.memoryId());
@@ -302,6 +788,7 @@ SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embeddi
       stmt.setTimestamp(9, DbUtil.toSqlTimestamp(chunk.updatedAt()));
       stmt.setObject(10, chunk.createdById());
       stmt.setObject(11, chunk.updatedById());
+      stmt.setObject(12, duplicateOfChunkId);
 
       int rowsAffected = stmt.executeUpdate();
       return StatusOr.ofValue(rowsAffected);
@@ -310,6 +797,92 @@ SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embeddi
     }
   }
 
+  /**
+   * Saves a chunk unless an existing chunk in the same space is a near-duplicate of it.
+   *
+   * <p>The chunk's embedding is looked up in the space's HNSW index, and the closest few chunks
+   * are compared to it by cosine similarity, whatever the space's metric. If one reaches {@code
+   * minSimilarity}, the chunk is stored as a link to it instead: with its text and offsets, so
+   * its memory stays complete, but with status {@link #DUPLICATE_STATUS}, no indexed embedding
+   * and duplicate_of_chunk_id set, all in one statement. It then adds nothing to the vector
+   * indexes, and vector searches find the chunk it duplicates. Its embedding is kept unindexed;
+   * if that chunk is later deleted, the link is cleared and the embedding is indexed again.
+   *
+   * <p>Saving a chunk that is no longer a near-duplicate clears the link of an earlier save.
+   * Chunks without an embedding are saved as-is. Detection is best effort: two identical chunks
+   * saved concurrently can both miss each other.
+   *
+   * @param conn an open JDBC connection
+   * @param chunk the chunk to save
+   * @param spaceId the space of the chunk's memory
+   * @param metric the distance metric of that space
+   * @param minSimilarity the cosine similarity, in (0, 1], at which chunks count as duplicates
+   * @return StatusOr containing the ID of the chunk this one duplicates, or empty if it was saved
+   *     as a new chunk, or an error
+   */
+  @Nonnull
+  public static StatusOr<Optional<UUID>> saveDeduplicated(
+      Connection conn,
+      MemoryChunk chunk,
+      UUID spaceId,
+      DistanceMetric metric,
+      double minSimilarity) {
+    if (!(minSimilarity > 0.0 && minSimilarity <= 1.0)) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("Duplicate similarity threshold must be in (0, 1]"));
+    }
+    if (chunk.embeddingVector() == null) {
+      return save(conn, chunk).map(rows -> Optional.empty());
+    }
+
+    StatusOr<List<ScoredMemoryChunk>> neighboursOr =
+        vectorSearch(
+            conn,
+            chunk.embeddingVector(),
+            ChunkFilter.forSpace(spaceId),
+            metric,
+            DUPLICATE_CANDIDATES);
+    if (neighboursOr.isNotOk()) {
+      return StatusOr.ofStatus(neighboursOr.getStatus());
+    }
+    Optional<UUID> original =
+        neighboursOr.getValue().stream()
+            .map(ScoredMemoryChunk::chunk)
+            .filter(neighbour -> !neighbour.chunkId().equals(chunk.chunkId()))
+            .filter(
+                neighbour ->
+                    cosineSimilarity(chunk.embeddingVector(), neighbour.embeddingVector())
+                        >= minSimilarity)
+            .map(MemoryChunk::chunkId)
+            .findFirst();
+    if (original.isEmpty()) {
+      return save(conn, chunk).map(rows -> Optional.empty());
+    }
+
+    return upsert(
+            conn,
+            chunk.withEmbeddingVector(null).withVectorStatus(DUPLICATE_STATUS),
+            original.get(),
+            chunk.embeddingVector())
+        .map(rows -> original);
+  }
+
+  /** Computes the cosine similarity of two vectors; 0 if either is missing or zero. */
+  private static double cosineSimilarity(float[] a, float[] b) {
+    if (a == null || b == null || a.length != b.length) {
+      return 0.0;
+    }
+    double dot = 0.0;
+    double normA = 0.0;
+    double normB = 0.0;
+    for (int i = 0; i < a.length; i++) {
+      dot += (double) a[i] * b[i];
+      normA += (double) a[i] * a[i];
+      normB += (double) b[i] * b[i];
+    }
+    return normA == 0.0 || normB == 0.0 ? 0.0 : dot / Math.sqrt(normA * normB);
+  }
+
   /**
    * Updates the vector status of a memory chunk.
    *
@@ -364,6 +937,50 @@ SELECT c.chunk_id, c.memory_id, c.chunk_sequence_number, c.chunk_text, c.embeddi
     }
   }
 
+  /**
+   * Removes a batch of the chunks of tombstoned memories and of memories in tombstoned spaces.
+   *
+   * <p>Purging chunks in small batches, each its own short transaction, spreads the HNSW
+   * deletions and WAL of a large delete over time instead of holding locks for one long
+   * cascade. Once a memory's chunks are gone, {@link Memories#purgeTombstoned} removes it.
+   *
+   * <p>The centroids of the affected memories are dropped in the same statement, before the
+   * chunk triggers run, so the purge does not adjust a centroid once per chunk removed. A memory
+   * in a tombstoned space is itself still live, so its centroid would otherwise be maintained.
+   *
+   * @param conn an open JDBC connection
+   * @param batchSize maximum number of chunks to remove
+   * @return StatusOr containing the number of chunks removed or an error
+   */
+  @Nonnull
+  public static StatusOr<Integer> purgeTombstoned(Connection conn, int batchSize) {
+    String sql =
+        """
+        WITH doomed AS MATERIALIZED (
+             SELECT c.chunk_id, c.memory_id
+               FROM memory_chunk c
+              WHERE c.memory_id IN (
+                    SELECT memory_id FROM memory WHERE deleted_at IS NOT NULL
+                    UNION ALL
+                    SELECT m.memory_id
+                      FROM memory m
+                      JOIN space s ON s.space_id = m.space_id
+                     WHERE s.deleted_at IS NOT NULL)
+              LIMIT ?),
+             dropped_centroids AS (
+             DELETE FROM memory_centroid
+              WHERE memory_id IN (SELECT memory_id FROM doomed))
+        DELETE FROM memory_chunk
+         WHERE chunk_id IN (SELECT chunk_id FROM doomed)
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setInt(1, batchSize);
+      return StatusOr.ofValue(stmt.executeUpdate());
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
   /**
    * Deletes all memory chunks for a given memory.
    *
@@ -0,0 +1,9 @@
+package com.goodmem.db;
+
+/**
+ * A memory chunk returned by a search together with its relevance score.
+ *
+ * @param chunk The matching chunk
+ * @param score The relevance score; larger values are more relevant
+ */
+public record ScoredMemoryChunk(MemoryChunk chunk, double score) {}
@@ -2,6 +2,7 @@ package com.goodmem.db;
 
 import com.goodmem.db.util.DbUtil;
 import com.goodmem.db.util.UuidUtil;
+import com.goodmem.util.EnumConverters;
 import java.time.Instant;
 import java.util.Map;
 import java.util.UUID;
@@ -14,6 +15,8 @@ import java.util.UUID;
  * @param name The name of the space
  * @param labels User-defined labels for the space
  * @param embedderId The ID of the embedder used by this space
+ * @param distanceMetric The distance metric used to rank this space's vectors
+ * @param twoStageSearch Whether chunks keep the prefix vectors that two-stage search needs
  * @param publicRead Whether this space is public readable
  * @param createdAt Timestamp when the record was created
  * @param updatedAt Timestamp when the record was last updated
@@ -26,6 +29,8 @@ public record Space(
     String name,
     Map<String, String> labels,
     UUID embedderId,
+    DistanceMetric distanceMetric,
+    boolean twoStageSearch,
     boolean publicRead,
     Instant createdAt,
     Instant updatedAt,
@@ -43,6 +48,8 @@ public record Space(
             .setOwnerId(UuidUtil.toProtoBytes(ownerId))
             .setName(name)
             .setEmbedderId(UuidUtil.toProtoBytes(embedderId))
+            .setDistanceMetric(EnumConverters.toProtoDistanceMetric(distanceMetric))
+            .setTwoStageSearch(twoStageSearch)
             .setPublicRead(publicRead)
             .setCreatedAt(DbUtil.toProtoTimestamp(createdAt))
             .setUpdatedAt(DbUtil.toProtoTimestamp(updatedAt))
@@ -3,13 +3,16 @@ package com.goodmem.db;
 import com.goodmem.common.status.Status;
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.db.util.DbUtil;
+import com.goodmem.db.util.RowCursor;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,6 +20,7 @@ import java.util.Optional;
 import java.util.StringJoiner;
 import java.util.UUID;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /** DAO helper class for the 'space' table. */
 public final class Spaces {
@@ -35,9 +39,10 @@ public final class Spaces {
   public static StatusOr<List<Space>> loadAll(Connection conn) {
     String sql =
         """
-        SELECT space_id, owner_id, name, labels, embedder_id, public_read,
-               created_at, updated_at, created_by_id, updated_by_id
+        SELECT space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+               public_read, created_at, updated_at, created_by_id, updated_by_id
           FROM space
+         WHERE deleted_at IS NULL
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql);
         ResultSet rs = stmt.executeQuery()) {
@@ -66,10 +71,10 @@ public final class Spaces {
   public static StatusOr<Optional<Space>> loadById(Connection conn, UUID spaceId) {
     String sql =
         """
-        SELECT space_id, owner_id, name, labels, embedder_id, public_read,
-               created_at, updated_at, created_by_id, updated_by_id
+        SELECT space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+               public_read, created_at, updated_at, created_by_id, updated_by_id
           FROM space
-         WHERE space_id = ?
+         WHERE space_id = ? AND deleted_at IS NULL
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, spaceId);
@@ -88,6 +93,41 @@ public final class Spaces {
     }
   }
 
+  /**
+   * Loads several spaces by ID in one query.
+   *
+   * @param conn an open JDBC connection
+   * @param spaceIds the UUIDs of the spaces to load
+   * @return StatusOr containing the spaces found, keyed by ID, or an error; IDs that do not exist
+   *     are absent from the map
+   */
+  @Nonnull
+  public static StatusOr<Map<UUID, Space>> loadByIds(Connection conn, Collection<UUID> spaceIds) {
+    String sql =
+        """
+        SELECT space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+               public_read, created_at, updated_at, created_by_id, updated_by_id
+          FROM space
+         WHERE space_id = ANY(?) AND deleted_at IS NULL
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setArray(1, conn.createArrayOf("uuid", spaceIds.toArray()));
+      Map<UUID, Space> result = new HashMap<>();
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          StatusOr<Space> spaceOr = extractSpace(rs);
+          if (spaceOr.isNotOk()) {
+            return StatusOr.ofStatus(spaceOr.getStatus());
+          }
+          result.put(spaceOr.getValue().spaceId(), spaceOr.getValue());
+        }
+      }
+      return StatusOr.ofValue(ImmutableMap.copyOf(result));
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
   /**
    * Loads spaces by owner ID.
    *
@@ -99,10 +139,10 @@ public final class Spaces {
   public static StatusOr<List<Space>> loadByOwnerId(Connection conn, UUID ownerId) {
     String sql =
         """
-        SELECT space_id, owner_id, name, labels, embedder_id, public_read,
-               created_at, updated_at, created_by_id, updated_by_id
+        SELECT space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+               public_read, created_at, updated_at, created_by_id, updated_by_id
           FROM space
-         WHERE owner_id = ?
+         WHERE owner_id = ? AND deleted_at IS NULL
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, ownerId);
@@ -122,6 +162,52 @@ public final class Spaces {
     }
   }
 
+  /**
+   * Loads the spaces a user can read by default: those the user owns plus every public space.
+   * The user's own spaces come first, then the most recently updated.
+   *
+   * @param conn an open JDBC connection
+   * @param userId the user whose readable spaces to load
+   * @param embedderId only load spaces using this embedder, or null for any embedder
+   * @param limit the maximum number of spaces to load
+   * @return StatusOr containing a list of Space objects or an error
+   */
+  @Nonnull
+  public static StatusOr<List<Space>> loadReadableByUser(
+      Connection conn, UUID userId, @Nullable UUID embedderId, int limit) {
+    String sql =
+        """
+        SELECT space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+               public_read, created_at, updated_at, created_by_id, updated_by_id
+          FROM space
+         WHERE (owner_id = ? OR public_read = true)
+           AND (?::uuid IS NULL OR embedder_id = ?)
+           AND deleted_at IS NULL
+         ORDER BY owner_id = ? DESC, updated_at DESC
+         LIMIT ?
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setObject(1, userId);
+      stmt.setObject(2, embedderId);
+      stmt.setObject(3, embedderId);
+      stmt.setObject(4, userId);
+      stmt.setInt(5, limit);
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<Space> result = new ArrayList<>();
+        while (rs.next()) {
+          StatusOr<Space> spaceOr = extractSpace(rs);
+          if (spaceOr.isNotOk()) {
+            return StatusOr.ofStatus(spaceOr.getStatus());
+          }
+          result.add(spaceOr.getValue());
+        }
+        return StatusOr.ofValue(ImmutableList.copyOf(result));
+      }
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
   /**
    * Loads a space by owner ID and name.
    *
@@ -135,10 +221,10 @@ public final class Spaces {
       Connection conn, UUID ownerId, String name) {
     String sql =
         """
-        SELECT space_id, owner_id, name, labels, embedder_id, public_read,
-               created_at, updated_at, created_by_id, updated_by_id
+        SELECT space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+               public_read, created_at, updated_at, created_by_id, updated_by_id
           FROM space
-         WHERE owner_id = ? AND name = ?
+         WHERE owner_id = ? AND name = ? AND deleted_at IS NULL
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, ownerId);
@@ -170,9 +256,9 @@ public final class Spaces {
     String sql =
         """
         INSERT INTO space
-               (space_id, owner_id, name, labels, embedder_id, public_read,
-                created_at, updated_at, created_by_id, updated_by_id)
-        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+               (space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+                public_read, created_at, updated_at, created_by_id, updated_by_id)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
         ON CONFLICT(space_id)
         DO UPDATE SET owner_id       = excluded.owner_id,
                       name           = excluded.name,
@@ -194,11 +280,18 @@ public final class Spaces {
       }
 
       stmt.setObject(5, space.embedderId());
-      stmt.setBoolean(6, space.publicRead());
-      stmt.setTimestamp(7, DbUtil.toSqlTimestamp(space.createdAt()));
-      stmt.setTimestamp(8, DbUtil.toSqlTimestamp(space.updatedAt()));
-      stmt.setObject(9, space.createdById());
-      stmt.setObject(10, space.updatedById());
+      // The metric and two-stage search are fixed at creation, so the upsert's update branch
+      // leaves them alone.
+      DistanceMetric distanceMetric =
+          space.distanceMetric() != null ? space.distanceMetric() : DistanceMetric.COSINE;
+      // Cast the string to the distance_metric_enum PostgreSQL type
+      stmt.setObject(6, distanceMetric.toDatabaseValue(), java.sql.Types.OTHER);
+      stmt.setBoolean(7, space.twoStageSearch());
+      stmt.setBoolean(8, space.publicRead());
+      stmt.setTimestamp(9, DbUtil.toSqlTimestamp(space.createdAt()));
+      stmt.setTimestamp(10, DbUtil.toSqlTimestamp(space.updatedAt()));
+      stmt.setObject(11, space.createdById());
+      stmt.setObject(12, space.updatedById());
 
       int rowsAffected = stmt.executeUpdate();
       return StatusOr.ofValue(rowsAffected);
@@ -210,16 +303,23 @@ public final class Spaces {
   /**
    * Deletes a space by ID.
    *
+   * <p>The space is only tombstoned, which takes constant time however many memories it holds:
+   * it disappears from every load and search at once, and its name can be reused. The row, its
+   * memories and their chunks are removed later by {@link #purgeTombstoned} and the matching
+   * methods of {@link Memories} and {@link MemoryChunks}.
+   *
    * @param conn an open JDBC connection
    * @param spaceId the UUID of the space to delete
-   * @return StatusOr containing the number of affected rows or an error
+   * @return StatusOr containing the number of affected rows (0 if the space does not exist or is
+   *     already deleted) or an error
    */
   @Nonnull
   public static StatusOr<Integer> delete(Connection conn, UUID spaceId) {
     String sql =
         """
-        DELETE FROM space
-         WHERE space_id = ?
+        UPDATE space
+           SET deleted_at = now()
+         WHERE space_id = ? AND deleted_at IS NULL
         """;
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       stmt.setObject(1, spaceId);
@@ -230,6 +330,74 @@ public final class Spaces {
     }
   }
 
+  /**
+   * Removes a batch of tombstoned spaces whose memories have all been purged.
+   *
+   * @param conn an open JDBC connection
+   * @param batchSize maximum number of spaces to remove
+   * @return StatusOr containing the number of spaces removed or an error
+   */
+  @Nonnull
+  public static StatusOr<Integer> purgeTombstoned(Connection conn, int batchSize) {
+    String sql =
+        """
+        DELETE FROM space
+         WHERE space_id IN (
+               SELECT s.space_id
+                 FROM space s
+                WHERE s.deleted_at IS NOT NULL
+                  AND NOT EXISTS (SELECT 1 FROM memory m WHERE m.space_id = s.space_id)
+                LIMIT ?)
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setInt(1, batchSize);
+      return StatusOr.ofValue(stmt.executeUpdate());
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Loads the content versions of a set of spaces.
+   *
+   * <p>A space's content version is bumped by database triggers whenever a memory or chunk in the
+   * space is written or deleted, so two reads that see the same version see the same searchable
+   * contents. Spaces whose contents have never changed have no row and are reported as version 0.
+   *
+   * @param conn an open JDBC connection
+   * @param spaceIds the spaces to look up
+   * @return StatusOr containing the version of every requested space or an error
+   */
+  @Nonnull
+  public static StatusOr<Map<UUID, Long>> loadContentVersions(
+      Connection conn, Collection<UUID> spaceIds) {
+    String sql =
+        """
+        SELECT space_id, version
+          FROM space_content_version
+         WHERE space_id = ANY(?)
+        """;
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setArray(1, conn.createArrayOf("uuid", spaceIds.toArray()));
+      Map<UUID, Long> result = new HashMap<>();
+      for (UUID spaceId : spaceIds) {
+        result.put(spaceId, 0L);
+      }
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          StatusOr<UUID> spaceIdOr = DbUtil.getUuid(rs, "space_id");
+          if (spaceIdOr.isNotOk()) {
+            return StatusOr.ofStatus(spaceIdOr.getStatus());
+          }
+          result.put(spaceIdOr.getValue(), rs.getLong("version"));
+        }
+      }
+      return StatusOr.ofValue(ImmutableMap.copyOf(result));
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
   /** Extracts a Space from the current row of a ResultSet. */
   @Nonnull
   private static StatusOr<Space> extractSpace(ResultSet rs) throws SQLException {
@@ -250,6 +418,16 @@ public final class Spaces {
       return StatusOr.ofStatus(embedderIdOr.getStatus());
     }
     
+    String distanceMetricStr = rs.getString("distance_metric");
+    DistanceMetric distanceMetric;
+    try {
+      distanceMetric = DistanceMetric.fromDatabaseValue(distanceMetricStr);
+    } catch (IllegalArgumentException | NullPointerException e) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument("Invalid distance metric: " + distanceMetricStr));
+    }
+
+    boolean twoStageSearch = rs.getBoolean("two_stage_search");
     boolean publicRead = rs.getBoolean("public_read");
 
     // Parse the JSONB labels
@@ -286,6 +464,8 @@ public final class Spaces {
             name,
             labels,
             embedderIdOr.getValue(),
+            distanceMetric,
+            twoStageSearch,
             publicRead,
             createdAtOr.getValue(),
             updatedAtOr.getValue(),
@@ -323,76 +503,19 @@ public final class Spaces {
     
     StringBuilder sqlBuilder = new StringBuilder();
     List<Object> params = new ArrayList<>();
-    int paramIndex = 1;
-    
-    // Build the base query
-    sqlBuilder.append(
-        """
-        SELECT space_id, owner_id, name, labels, embedder_id, public_read,
-               created_at, updated_at, created_by_id, updated_by_id
-          FROM space
-         WHERE 1=1
-        """);
-    
-    // Apply owner filter if specified
-    if (ownerId != null) {
-      sqlBuilder.append(" AND owner_id = ?");
-      params.add(ownerId);
-      paramIndex++;
-    }
-    
-    // Apply name pattern filter if specified
-    if (namePattern != null && !namePattern.isEmpty()) {
-      sqlBuilder.append(" AND name ILIKE ? ESCAPE '\\'");
-      params.add(namePattern);
-      paramIndex++;
-    }
-    
-    // Apply label selector filters if specified
-    if (labelSelectors != null && !labelSelectors.isEmpty()) {
-      for (Map.Entry<String, String> entry : labelSelectors.entrySet()) {
-        // Add a condition for each label key-value pair
-        // Check if the key exists and has the specified value
-        sqlBuilder.append(" AND labels->? = to_jsonb(?::text)");
-        params.add(entry.getKey());
-        params.add(entry.getValue());
-        paramIndex += 2;
-      }
-    }
-    
-    // Apply permission-based filtering
-    if (includePublic) {
-      // Include spaces where the user is the owner OR public_read is true
-      sqlBuilder.append(" AND (owner_id = ? OR public_read = true)");
-      params.add(userId);
-      paramIndex++;
-    } else {
-      // Only include spaces where the user is the owner
-      sqlBuilder.append(" AND owner_id = ?");
-      params.add(userId);
-      paramIndex++;
-    }
+    appendFilteredQuery(
+        sqlBuilder, params, ownerId, labelSelectors, namePattern, includePublic, userId);
     
     // Count query (for total results)
     String countSql = "SELECT COUNT(*) FROM (" + sqlBuilder + ") AS filtered_spaces";
     
     // Add sorting and pagination to the main query
-    if (sortBy != null && !sortBy.isEmpty()) {
-      sortBy = sanitizeSortField(sortBy); // Sanitize the sort field to prevent SQL injection
-      sqlBuilder.append(" ORDER BY ").append(sortBy).append(sortAscending ? " ASC" : " DESC");
-      
-      // Add secondary sort by space_id for stable pagination
-      sqlBuilder.append(", space_id ").append(sortAscending ? "ASC" : "DESC");
-    } else {
-      // Default sort by created_at descending if not specified
-      sqlBuilder.append(" ORDER BY created_at DESC, space_id DESC");
-    }
+    appendOrderBy(sqlBuilder, sortBy, sortAscending);
     
     // Add pagination
     sqlBuilder.append(" LIMIT ? OFFSET ?");
     params.add(limit);
     params.add(offset);
-    paramIndex += 2;
     
     // Execute both queries (count and data)
     try {
@@ -436,6 +559,111 @@ public final class Spaces {
     }
   }
   
+  /**
+   * Streams every space matching the filters of {@link #querySpaces}, in the same order, through a
+   * server-side cursor.
+   *
+   * @param conn An open JDBC connection
+   * @param ownerId Optional filter by owner ID
+   * @param labelSelectors Optional filter by labels (all keys and values must match)
+   * @param namePattern Optional glob-style pattern for name matching
+   * @param sortBy Field to sort by (created_at, updated_at, name, etc.)
+   * @param sortAscending Whether to sort in ascending (true) or descending (false) order
+   * @param includePublic Whether to include spaces with public_read=true
+   * @param userId User ID to restrict results to (for permission filtering)
+   * @param sink Receives each space as it is read
+   * @return StatusOr containing the number of spaces the sink accepted, or an error
+   */
+  @Nonnull
+  public static StatusOr<Long> streamSpaces(
+      Connection conn,
+      UUID ownerId,
+      Map<String, String> labelSelectors,
+      String namePattern,
+      String sortBy,
+      boolean sortAscending,
+      boolean includePublic,
+      UUID userId,
+      RowCursor.RowSink<Space> sink) {
+    StringBuilder sqlBuilder = new StringBuilder();
+    List<Object> params = new ArrayList<>();
+    appendFilteredQuery(
+        sqlBuilder, params, ownerId, labelSelectors, namePattern, includePublic, userId);
+    appendOrderBy(sqlBuilder, sortBy, sortAscending);
+    return RowCursor.stream(conn, sqlBuilder.toString(), params, Spaces::extractSpace, sink);
+  }
+
+  /**
+   * Appends the SELECT and WHERE clauses shared by {@link #querySpaces} and {@link #streamSpaces},
+   * adding the value of each parameter to params.
+   */
+  private static void appendFilteredQuery(
+      StringBuilder sqlBuilder,
+      List<Object> params,
+      UUID ownerId,
+      Map<String, String> labelSelectors,
+      String namePattern,
+      boolean includePublic,
+      UUID userId) {
+    // Build the base query
+    sqlBuilder.append(
+        """
+        SELECT space_id, owner_id, name, labels, embedder_id, distance_metric, two_stage_search,
+               public_read, created_at, updated_at, created_by_id, updated_by_id
+          FROM space
+         WHERE deleted_at IS NULL
+        """);
+    
+    // Apply owner filter if specified
+    if (ownerId != null) {
+      sqlBuilder.append(" AND owner_id = ?");
+      params.add(ownerId);
+    }
+    
+    // Apply name pattern filter if specified
+    if (namePattern != null && !namePattern.isEmpty()) {
+      sqlBuilder.append(" AND name ILIKE ? ESCAPE '\\'");
+      params.add(namePattern);
+    }
+    
+    // Apply label selector filters if specified
+    if (labelSelectors != null && !labelSelectors.isEmpty()) {
+      for (Map.Entry<String, String> entry : labelSelectors.entrySet()) {
+        // Add a condition for each label key-value pair
+        // Check if the key exists and has the specified value
+        sqlBuilder.append(" AND labels->? = to_jsonb(?::text)");
+        params.add(entry.getKey());
+        params.add(entry.getValue());
+      }
+    }
+    
+    // Apply permission-based filtering
+    if (includePublic) {
+      // Include spaces where the user is the owner OR public_read is true
+      sqlBuilder.append(" AND (owner_id = ? OR public_read = true)");
+      params.add(userId);
+    } else {
+      // Only include spaces where the user is the owner
+      sqlBuilder.append(" AND owner_id = ?");
+      params.add(userId);
+    }
+  }
+
+  /** Appends the ORDER BY clause; space_id breaks ties so that the order is stable. */
+  private static void appendOrderBy(
+      StringBuilder sqlBuilder, String sortBy, boolean sortAscending) {
+    if (sortBy != null && !sortBy.isEmpty()) {
+      sortBy = sanitizeSortField(sortBy); // Sanitize the sort field to prevent SQL injection
+      sqlBuilder.append(" ORDER BY ").append(sortBy).append(sortAscending ? " ASC" : " DESC");
+      
+      // Add secondary sort by space_id for stable pagination
+      sqlBuilder.append(", space_id ").append(sortAscending ? "ASC" : "DESC");
+    } else {
+      // Default sort by created_at descending if not specified
+      sqlBuilder.append(" ORDER BY created_at DESC, space_id DESC");
+    }
+  }
+
   /**
    * Sanitizes the sort field to prevent SQL injection.
    * Only allows known valid sort fields.
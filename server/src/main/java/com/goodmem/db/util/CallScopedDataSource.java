@@ -0,0 +1,198 @@
+package com.goodmem.db.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.tinylog.Logger;
+
+/**
+ * A connection pool whose connections stop SQL that the calling request no longer waits for.
+ *
+ * <p>Without this, a query keeps its Postgres backend and pool connection until it finishes even
+ * after the client has cancelled or its deadline has passed. A connection taken inside a gRPC call
+ * instead gives each statement it creates a query timeout of the call's remaining deadline, and
+ * cancels its running statements as soon as the call is cancelled. Connections taken outside any
+ * call, such as by background jobs, are returned unchanged.
+ *
+ * <p>Cancelling a statement opens a new connection to Postgres, so it is done on a few threads
+ * of its own rather than on the thread that cancels the call, which may be a transport thread.
+ */
+public class CallScopedDataSource extends HikariDataSource {
+
+  /** SQLSTATE query_canceled, as reported by Postgres for cancelled statements. */
+  static final String QUERY_CANCELED = "57014";
+
+  private static final int CANCEL_THREADS = 2;
+
+  private static final Executor CANCELLER =
+      Executors.newFixedThreadPool(
+          CANCEL_THREADS,
+          new ThreadFactoryBuilder().setNameFormat("statement-cancel-%d").setDaemon(true).build());
+
+  /**
+   * Creates a new CallScopedDataSource.
+   *
+   * @param config the pool configuration
+   */
+  public CallScopedDataSource(HikariConfig config) {
+    super(config);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    Connection connection = super.getConnection();
+    Context context = Context.current();
+    return context == Context.ROOT ? connection : bind(connection, context);
+  }
+
+  /**
+   * Ties a connection to a call.
+   *
+   * @param connection the pooled connection
+   * @param context the context of the call
+   * @return a connection whose statements follow the call's deadline and cancellation, and that
+   *     stops following them when closed
+   * @throws SQLException if the call is already cancelled; the connection is then closed
+   */
+  static Connection bind(Connection connection, Context context) throws SQLException {
+    CallBinding binding = new CallBinding(connection, context);
+    try {
+      binding.checkNotCancelled();
+    } catch (SQLException e) {
+      connection.close();
+      throw e;
+    }
+    context.addListener(binding, CANCELLER);
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, binding);
+  }
+
+  /** Forwards to the pooled connection, tracking the statements it creates. */
+  private static final class CallBinding
+      implements InvocationHandler, Context.CancellationListener {
+    private final Connection delegate;
+    private final Context context;
+    // The open statements. Guarded by this; cleared on close so a late cancellation cannot reach
+    // the next borrower
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean closed;
+
+    CallBinding(Connection delegate, Context context) {
+      this.delegate = delegate;
+      this.context = context;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      switch (method.getName()) {
+        case "close" -> {
+          close();
+          return null;
+        }
+        case "equals" -> {
+          return proxy == args[0];
+        }
+        case "hashCode" -> {
+          return System.identityHashCode(proxy);
+        }
+        default -> {}
+      }
+      Object result;
+      try {
+        result = method.invoke(delegate, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+      // Only the statement factories return statements
+      if (result instanceof Statement statement) {
+        track(statement);
+      }
+      return result;
+    }
+
+    private void track(Statement statement) throws SQLException {
+      try {
+        checkNotCancelled();
+        Deadline deadline = context.getDeadline();
+        if (deadline != null) {
+          long remainingMillis = deadline.timeRemaining(TimeUnit.MILLISECONDS);
+          statement.setQueryTimeout((int) Math.max(1, (remainingMillis + 999) / 1000));
+        }
+      } catch (SQLException e) {
+        statement.close();
+        throw e;
+      }
+      synchronized (this) {
+        // Connections that run many statements would otherwise hold on to all of them
+        for (Iterator<Statement> it = statements.iterator(); it.hasNext(); ) {
+          if (isClosed(it.next())) {
+            it.remove();
+          }
+        }
+        statements.add(statement);
+      }
+    }
+
+    private static boolean isClosed(Statement statement) {
+      try {
+        return statement.isClosed();
+      } catch (SQLException e) {
+        return true;
+      }
+    }
+
+    void checkNotCancelled() throws SQLException {
+      if (context.isCancelled()) {
+        throw new SQLException("Call cancelled before the query ran", QUERY_CANCELED);
+      }
+      Deadline deadline = context.getDeadline();
+      if (deadline != null && deadline.isExpired()) {
+        throw new SQLTimeoutException("Call deadline passed before the query ran", QUERY_CANCELED);
+      }
+    }
+
+    @Override
+    public synchronized void cancelled(Context cancelledContext) {
+      if (closed) {
+        return;
+      }
+      // A statement that is not running ignores the cancel
+      for (Statement statement : statements) {
+        try {
+          statement.cancel();
+        } catch (SQLException e) {
+          Logger.debug(e, "Could not cancel statement of a cancelled call");
+        }
+      }
+    }
+
+    private void close() throws SQLException {
+      synchronized (this) {
+        if (closed) {
+          return;
+        }
+        closed = true;
+        statements.clear();
+      }
+      context.removeListener(this);
+      delegate.close();
+    }
+  }
+}
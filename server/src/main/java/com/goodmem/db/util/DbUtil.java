@@ -297,4 +297,32 @@ public final class DbUtil {
     sb.append("]");
     return sb.toString();
   }
+
+  /**
+   * Returns a unit-length (L2-normalized) copy of a vector. This matches pgvector's
+   * {@code l2_normalize}, which is applied to vectors stored in COSINE spaces. A zero vector is
+   * returned unchanged.
+   *
+   * @param vector The vector to normalize
+   * @return A new normalized vector
+   */
+  public static float[] normalizeVector(float[] vector) {
+    if (vector == null) {
+      throw new IllegalArgumentException("Vector cannot be null");
+    }
+
+    double sumOfSquares = 0.0;
+    for (float v : vector) {
+      sumOfSquares += (double) v * v;
+    }
+    float[] result = vector.clone();
+    if (sumOfSquares == 0.0) {
+      return result;
+    }
+    double norm = Math.sqrt(sumOfSquares);
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (float) (result[i] / norm);
+    }
+    return result;
+  }
 }
@@ -0,0 +1,108 @@
+package com.goodmem.db.util;
+
+import com.goodmem.common.status.StatusOr;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.tinylog.Logger;
+
+/**
+ * Streams the rows of a query to a consumer without materializing the result.
+ *
+ * <p>The PostgreSQL driver reads the whole result set into memory unless the statement has a fetch
+ * size and runs inside a transaction, in which case it reads through a server-side cursor one
+ * batch at a time. {@link #stream} sets both up, so callers that hand each row on as it arrives,
+ * such as server-streaming list RPCs, use memory proportional to the fetch size rather than to the
+ * number of rows.
+ */
+public final class RowCursor {
+
+  /** Rows fetched from the server per round trip. */
+  public static final int DEFAULT_FETCH_SIZE = 500;
+
+  private RowCursor() {
+    // Utility class, no instances
+  }
+
+  /** Converts the current row of a ResultSet into a value. */
+  @FunctionalInterface
+  public interface RowReader<T> {
+    StatusOr<T> read(ResultSet rs) throws SQLException;
+  }
+
+  /** Receives streamed rows. */
+  @FunctionalInterface
+  public interface RowSink<T> {
+    /**
+     * Accepts the next row.
+     *
+     * @param row the row read from the cursor
+     * @return true to keep reading, false to stop, e.g. because the client went away
+     */
+    boolean accept(T row);
+  }
+
+  /**
+   * Runs a query and hands each row to a sink as it is read.
+   *
+   * <p>If the connection is in autocommit mode, autocommit is turned off for the duration of the
+   * query and restored afterwards; the read-only transaction is rolled back. A connection already
+   * inside a transaction is left in it.
+   *
+   * @param conn an open JDBC connection
+   * @param sql the query to run
+   * @param params the values of the query's parameters, in order
+   * @param reader converts each row
+   * @param sink receives each converted row
+   * @return StatusOr containing the number of rows the sink accepted, or an error
+   */
+  @Nonnull
+  public static <T> StatusOr<Long> stream(
+      Connection conn, String sql, List<?> params, RowReader<T> reader, RowSink<T> sink) {
+    boolean restoreAutoCommit;
+    try {
+      restoreAutoCommit = conn.getAutoCommit();
+      if (restoreAutoCommit) {
+        conn.setAutoCommit(false);
+      }
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+
+    try (PreparedStatement stmt =
+        conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+      stmt.setFetchSize(DEFAULT_FETCH_SIZE);
+      for (int i = 0; i < params.size(); i++) {
+        stmt.setObject(i + 1, params.get(i));
+      }
+      long count = 0;
+      try (ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          StatusOr<T> rowOr = reader.read(rs);
+          if (rowOr.isNotOk()) {
+            return StatusOr.ofStatus(rowOr.getStatus());
+          }
+          if (!sink.accept(rowOr.getValue())) {
+            break;
+          }
+          count++;
+        }
+      }
+      return StatusOr.ofValue(count);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    } finally {
+      if (restoreAutoCommit) {
+        try {
+          conn.rollback();
+          conn.setAutoCommit(true);
+        } catch (SQLException e) {
+          Logger.warn(e, "Failed to end cursor transaction");
+        }
+      }
+    }
+  }
+}
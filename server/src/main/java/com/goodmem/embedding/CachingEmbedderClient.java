@@ -0,0 +1,102 @@
+package com.goodmem.embedding;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.Embedder;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.text.Normalizer;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nonnull;
+
+/**
+ * An EmbedderClient that caches the embeddings of recently seen texts.
+ *
+ * <p>Texts are Unicode-normalized and whitespace-collapsed before they are embedded, so trivially
+ * different spellings of the same query share an entry. Keys include the embedder's model
+ * identifier, version and dimensionality, so changing any of them on an embedder stops old vectors
+ * from being served.
+ *
+ * <p>Concurrent misses on the same key are coalesced: the first caller embeds the text while the
+ * others wait for its result, so a burst of identical queries makes a single embedder call.
+ * Failures are not cached.
+ */
+public class CachingEmbedderClient implements EmbedderClient {
+
+  private final EmbedderClient delegate;
+  private final Cache<Key, float[]> cache;
+
+  /**
+   * Creates a new CachingEmbedderClient.
+   *
+   * @param delegate the client that computes embeddings on a miss
+   * @param maxEntries the maximum number of embeddings to keep
+   */
+  public CachingEmbedderClient(EmbedderClient delegate, long maxEntries) {
+    this.delegate = delegate;
+    this.cache = CacheBuilder.newBuilder().maximumSize(maxEntries).recordStats().build();
+  }
+
+  @Override
+  @Nonnull
+  public StatusOr<float[]> embed(Embedder embedder, String text) {
+    String normalizedText = normalize(text);
+    Key key =
+        new Key(
+            embedder.embedderId(),
+            embedder.modelIdentifier(),
+            embedder.version(),
+            embedder.dimensionality(),
+            normalizedText);
+    try {
+      // Cache.get runs the loader once per key and blocks other callers for that key until it ends
+      float[] vector =
+          cache.get(
+              key,
+              () -> {
+                StatusOr<float[]> vectorOr = delegate.embed(embedder, normalizedText);
+                if (vectorOr.isNotOk()) {
+                  throw new EmbeddingFailedException(vectorOr.getStatus());
+                }
+                return vectorOr.getValue();
+              });
+      // Hand out a copy so that callers cannot corrupt the cached vector
+      return StatusOr.ofValue(vector.clone());
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof EmbeddingFailedException failure) {
+        return StatusOr.ofStatus(failure.status);
+      }
+      return StatusOr.ofStatus(Status.internal("Embedding failed", e.getCause()));
+    }
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts since the cache was created.
+   *
+   * @return the cache statistics
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /** Normalizes text to the form that is embedded and cached. */
+  static String normalize(String text) {
+    return Normalizer.normalize(text, Normalizer.Form.NFC).strip().replaceAll("\\s+", " ");
+  }
+
+  private record Key(
+      UUID embedderId, String modelIdentifier, String version, int dimensionality, String text) {}
+
+  /** Carries a failed status out of the cache loader. */
+  private static final class EmbeddingFailedException extends Exception {
+    private final Status status;
+
+    EmbeddingFailedException(Status status) {
+      super(status.getMessage(), null, false, false);
+      this.status = status;
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.goodmem.embedding;
+
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.Embedder;
+import javax.annotation.Nonnull;
+
+/** Computes embeddings with the service an embedder is configured to call. */
+public interface EmbedderClient {
+
+  /**
+   * Embeds a single text.
+   *
+   * @param embedder the embedder to use
+   * @param text the text to embed
+   * @return StatusOr containing the embedding or an error
+   */
+  @Nonnull
+  StatusOr<float[]> embed(Embedder embedder, String text);
+}
@@ -0,0 +1,133 @@
+package com.goodmem.embedding;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.Embedder;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Calls embedding services over HTTP.
+ *
+ * <p>OPENAI and VLLM embedders, and TEI embedders whose API path ends in {@code /embeddings}, are
+ * called with the OpenAI request format ({@code {"model", "input"}}) and answer with
+ * {@code {"data": [{"embedding": [...]}]}}. Other TEI embedders are called with the native
+ * {@code /embed} format ({@code {"inputs"}}) and answer with a list of vectors.
+ */
+public class HttpEmbedderClient implements EmbedderClient {
+
+  /** Upper bound on a single embedding request, including connection setup. */
+  static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+  private static final Gson GSON = new Gson();
+
+  private final HttpClient httpClient;
+
+  /**
+   * Creates a new HttpEmbedderClient.
+   *
+   * @param httpClient the client used to send requests
+   */
+  public HttpEmbedderClient(HttpClient httpClient) {
+    this.httpClient = httpClient;
+  }
+
+  @Override
+  @Nonnull
+  public StatusOr<float[]> embed(Embedder embedder, String text) {
+    String apiPath = embedder.apiPath() == null ? "" : embedder.apiPath();
+    URI uri;
+    try {
+      uri = URI.create(embedder.endpointUrl().replaceAll("/+$", "") + apiPath);
+    } catch (IllegalArgumentException e) {
+      return StatusOr.ofStatus(
+          Status.internal("Invalid embedder endpoint: " + embedder.endpointUrl(), e));
+    }
+
+    boolean openAiFormat = usesOpenAiFormat(embedder);
+    String body =
+        openAiFormat
+            ? GSON.toJson(Map.of("model", embedder.modelIdentifier(), "input", List.of(text)))
+            : GSON.toJson(Map.of("inputs", text));
+    HttpRequest.Builder requestBuilder =
+        HttpRequest.newBuilder(uri)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+    if (embedder.credentials() != null && !embedder.credentials().isBlank()) {
+      requestBuilder.header("Authorization", "Bearer " + embedder.credentials());
+    }
+
+    HttpResponse<String> response;
+    try {
+      response = httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
+    } catch (IOException e) {
+      return StatusOr.ofStatus(
+          Status.of(StatusCode.UNAVAILABLE, "Embedder request failed: " + e.getMessage(), e));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return StatusOr.ofStatus(
+          Status.of(StatusCode.CANCELLED, "Interrupted while waiting for embedder", e));
+    }
+    if (response.statusCode() / 100 != 2) {
+      return StatusOr.ofStatus(
+          Status.of(
+              StatusCode.UNAVAILABLE, "Embedder returned HTTP status " + response.statusCode()));
+    }
+
+    StatusOr<float[]> vectorOr = parseResponse(response.body(), openAiFormat);
+    if (vectorOr.isOk() && vectorOr.getValue().length != embedder.dimensionality()) {
+      return StatusOr.ofStatus(
+          Status.internal(
+              "Embedder returned "
+                  + vectorOr.getValue().length
+                  + " dimensions, expected "
+                  + embedder.dimensionality(),
+              null));
+    }
+    return vectorOr;
+  }
+
+  /** Returns whether an embedder is called with the OpenAI request and response format. */
+  static boolean usesOpenAiFormat(Embedder embedder) {
+    return switch (embedder.providerType()) {
+      case OPENAI, VLLM -> true;
+      case TEI -> embedder.apiPath() != null && embedder.apiPath().endsWith("/embeddings");
+    };
+  }
+
+  /** Extracts the first embedding from a response body. */
+  static StatusOr<float[]> parseResponse(String body, boolean openAiFormat) {
+    try {
+      JsonElement root = JsonParser.parseString(body);
+      JsonArray values =
+          openAiFormat
+              ? root.getAsJsonObject()
+                  .getAsJsonArray("data")
+                  .get(0)
+                  .getAsJsonObject()
+                  .getAsJsonArray("embedding")
+              : root.getAsJsonArray().get(0).getAsJsonArray();
+      float[] vector = new float[values.size()];
+      for (int i = 0; i < vector.length; i++) {
+        vector[i] = values.get(i).getAsFloat();
+      }
+      return StatusOr.ofValue(vector);
+    } catch (RuntimeException e) {
+      return StatusOr.ofStatus(
+          Status.internal("Unexpected embedder response: " + e.getMessage(), e));
+    }
+  }
+}
@@ -0,0 +1,12 @@
+/**
+ * Clients for the embedding services that embedders are configured to call.
+ *
+ * <ul>
+ *   <li>{@code EmbedderClient} turns text into a vector using an {@code Embedder} configuration
+ *   <li>{@code HttpEmbedderClient} calls OpenAI-compatible and TEI endpoints over HTTP
+ *   <li>{@code CachingEmbedderClient} caches the vectors of repeated query texts
+ * </ul>
+ *
+ * <p>Like the database layer, operations return {@code StatusOr<T>} rather than throwing.
+ */
+package com.goodmem.embedding;
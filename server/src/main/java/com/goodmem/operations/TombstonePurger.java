@@ -0,0 +1,107 @@
+package com.goodmem.operations;
+
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.Memories;
+import com.goodmem.db.MemoryChunks;
+import com.goodmem.db.Spaces;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.tinylog.Logger;
+
+/**
+ * Removes tombstoned spaces and memories in the background.
+ *
+ * <p>Deleting a space or memory only marks it as deleted; see {@link Spaces#delete} and
+ * {@link Memories#delete}. This purger then removes the rows bottom-up: chunks first, then
+ * memories without chunks, then spaces without memories, so that no single statement cascades
+ * through a large subtree. Each run removes at most one batch, in its own short transaction,
+ * and runs are separated by a fixed delay, which caps the purge rate at {@code batchSize} rows
+ * per interval and leaves the database to serve foreground traffic.
+ */
+public class TombstonePurger implements AutoCloseable {
+
+  /** Default maximum number of rows removed by one run. */
+  public static final int DEFAULT_BATCH_SIZE = 500;
+
+  /** Default delay between the end of one run and the start of the next. */
+  public static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(1);
+
+  private final DataSource dataSource;
+  private final int batchSize;
+  private final Duration interval;
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Creates a new TombstonePurger. Call {@link #start()} to begin purging.
+   *
+   * @param dataSource the pool to check connections out of
+   * @param batchSize maximum number of rows removed by one run
+   * @param interval delay between runs
+   */
+  public TombstonePurger(DataSource dataSource, int batchSize, Duration interval) {
+    this.dataSource = dataSource;
+    this.batchSize = batchSize;
+    this.interval = interval;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "tombstone-purger");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Starts running purges at the configured interval. */
+  public void start() {
+    scheduler.scheduleWithFixedDelay(
+        this::runLogged, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Removes at most one batch of tombstoned rows: chunks if any remain to purge, otherwise
+   * memories, otherwise spaces.
+   *
+   * @return StatusOr containing the number of rows removed, 0 once nothing is left to purge, or
+   *     an error
+   */
+  public StatusOr<Integer> purgeBatch() {
+    try (Connection connection = dataSource.getConnection()) {
+      StatusOr<Integer> removedOr = MemoryChunks.purgeTombstoned(connection, batchSize);
+      if (removedOr.isNotOk() || removedOr.getValue() > 0) {
+        return removedOr;
+      }
+      removedOr = Memories.purgeTombstoned(connection, batchSize);
+      if (removedOr.isNotOk() || removedOr.getValue() > 0) {
+        return removedOr;
+      }
+      return Spaces.purgeTombstoned(connection, batchSize);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /** Stops purging; a run in progress is allowed to finish. */
+  @Override
+  public void close() {
+    scheduler.shutdown();
+  }
+
+  private void runLogged() {
+    // An exception escaping a scheduled task would cancel all later runs
+    try {
+      StatusOr<Integer> removedOr = purgeBatch();
+      if (removedOr.isNotOk()) {
+        Logger.error("Tombstone purge failed: {}", removedOr.getStatus().getMessage());
+      } else if (removedOr.getValue() > 0) {
+        Logger.debug("Purged {} tombstoned rows", removedOr.getValue());
+      }
+    } catch (RuntimeException e) {
+      Logger.error(e, "Tombstone purge failed");
+    }
+  }
+}
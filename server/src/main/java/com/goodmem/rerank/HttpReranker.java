@@ -0,0 +1,105 @@
+package com.goodmem.rerank;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import com.google.common.primitives.Doubles;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+/**
+ * Calls a reranker served with the Text Embeddings Inference {@code /rerank} API.
+ *
+ * <p>Requests are {@code {"query", "texts", "truncate": true}} and responses are a list of
+ * {@code {"index", "score"}} objects, which the service may return in any order.
+ */
+public class HttpReranker implements Reranker {
+
+  /** Upper bound on a single rerank request, including connection setup. */
+  static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+  private static final Gson GSON = new Gson();
+
+  private final HttpClient httpClient;
+  private final URI endpoint;
+  private final String apiKey;
+
+  /**
+   * Creates a new HttpReranker.
+   *
+   * @param httpClient the client used to send requests; may be shared with other HTTP callers
+   * @param endpoint the full URL of the rerank endpoint
+   * @param apiKey the bearer token to send, or null to send none
+   */
+  public HttpReranker(HttpClient httpClient, URI endpoint, String apiKey) {
+    this.httpClient = httpClient;
+    this.endpoint = endpoint;
+    this.apiKey = apiKey;
+  }
+
+  @Override
+  @Nonnull
+  public StatusOr<List<Double>> score(String query, List<String> texts) {
+    String body = GSON.toJson(Map.of("query", query, "texts", texts, "truncate", true));
+    HttpRequest.Builder requestBuilder =
+        HttpRequest.newBuilder(endpoint)
+            .timeout(REQUEST_TIMEOUT)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body));
+    if (apiKey != null && !apiKey.isBlank()) {
+      requestBuilder.header("Authorization", "Bearer " + apiKey);
+    }
+
+    HttpResponse<String> response;
+    try {
+      response = httpClient.send(requestBuilder.build(), HttpResponse.BodyHandlers.ofString());
+    } catch (IOException e) {
+      return StatusOr.ofStatus(
+          Status.of(StatusCode.UNAVAILABLE, "Reranker request failed: " + e.getMessage(), e));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return StatusOr.ofStatus(
+          Status.of(StatusCode.CANCELLED, "Interrupted while waiting for reranker", e));
+    }
+    if (response.statusCode() / 100 != 2) {
+      return StatusOr.ofStatus(
+          Status.of(
+              StatusCode.UNAVAILABLE, "Reranker returned HTTP status " + response.statusCode()));
+    }
+    return parseResponse(response.body(), texts.size());
+  }
+
+  /** Reads the per-text scores from a response body. */
+  static StatusOr<List<Double>> parseResponse(String body, int textCount) {
+    double[] scores = new double[textCount];
+    Arrays.fill(scores, Double.NaN);
+    try {
+      for (JsonElement element : JsonParser.parseString(body).getAsJsonArray()) {
+        JsonObject result = element.getAsJsonObject();
+        scores[result.get("index").getAsInt()] = result.get("score").getAsDouble();
+      }
+    } catch (RuntimeException e) {
+      return StatusOr.ofStatus(
+          Status.internal("Unexpected reranker response: " + e.getMessage(), e));
+    }
+    for (double score : scores) {
+      if (Double.isNaN(score)) {
+        return StatusOr.ofStatus(
+            Status.internal("Reranker response did not score every text", null));
+      }
+    }
+    return StatusOr.ofValue(Doubles.asList(scores));
+  }
+}
@@ -0,0 +1,95 @@
+package com.goodmem.rerank;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * A deterministic stand-in for a cross-encoder, for load tests and development without a model
+ * server.
+ *
+ * <p>A text scores the fraction of distinct query terms it contains, plus a bonus of up to 0.5
+ * for the fraction of adjacent query term pairs it contains in order. Terms are lower-cased runs
+ * of letters and digits. The scores mean little, but they are stable, cheap to compute and differ
+ * from vector similarity, so reranking visibly reorders candidates.
+ *
+ * <p>An optional fixed delay per call simulates the latency of a remote model, so that timeouts
+ * and batching can be exercised.
+ */
+public class LocalReranker implements Reranker {
+
+  private final Duration latency;
+
+  /**
+   * Creates a new LocalReranker.
+   *
+   * @param latency the delay added to every call; {@link Duration#ZERO} for none
+   */
+  public LocalReranker(Duration latency) {
+    this.latency = latency;
+  }
+
+  @Override
+  @Nonnull
+  public StatusOr<List<Double>> score(String query, List<String> texts) {
+    if (!latency.isZero()) {
+      try {
+        Thread.sleep(latency);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return StatusOr.ofStatus(
+            Status.of(StatusCode.CANCELLED, "Interrupted while reranking", e));
+      }
+    }
+
+    List<String> queryTerms = terms(query);
+    Set<String> distinctTerms = new HashSet<>(queryTerms);
+    List<Double> scores = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      scores.add(score(queryTerms, distinctTerms, text == null ? "" : text));
+    }
+    return StatusOr.ofValue(scores);
+  }
+
+  private static double score(List<String> queryTerms, Set<String> distinctTerms, String text) {
+    if (distinctTerms.isEmpty()) {
+      return 0.0;
+    }
+    List<String> textTerms = terms(text);
+    Set<String> textTermSet = new HashSet<>(textTerms);
+    Set<String> textBigrams = new HashSet<>();
+    for (int i = 0; i + 1 < textTerms.size(); i++) {
+      textBigrams.add(textTerms.get(i) + ' ' + textTerms.get(i + 1));
+    }
+
+    long matched = distinctTerms.stream().filter(textTermSet::contains).count();
+    double score = (double) matched / distinctTerms.size();
+    if (queryTerms.size() > 1) {
+      int matchedBigrams = 0;
+      for (int i = 0; i + 1 < queryTerms.size(); i++) {
+        if (textBigrams.contains(queryTerms.get(i) + ' ' + queryTerms.get(i + 1))) {
+          matchedBigrams++;
+        }
+      }
+      score += 0.5 * matchedBigrams / (queryTerms.size() - 1);
+    }
+    return score;
+  }
+
+  private static List<String> terms(String text) {
+    List<String> terms = new ArrayList<>();
+    for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+      if (!term.isEmpty()) {
+        terms.add(term);
+      }
+    }
+    return terms;
+  }
+}
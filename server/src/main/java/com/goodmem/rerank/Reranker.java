@@ -0,0 +1,20 @@
+package com.goodmem.rerank;
+
+import com.goodmem.common.status.StatusOr;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+/** Scores candidate texts by their relevance to a query. */
+public interface Reranker {
+
+  /**
+   * Scores a batch of texts against a query.
+   *
+   * @param query the query text
+   * @param texts the candidate texts
+   * @return StatusOr containing one score per text, in the order given, higher meaning more
+   *     relevant, or an error
+   */
+  @Nonnull
+  StatusOr<List<Double>> score(String query, List<String> texts);
+}
@@ -0,0 +1,14 @@
+/**
+ * Rerankers that rescore search candidates against the query text.
+ *
+ * <ul>
+ *   <li>{@code Reranker} scores a batch of candidate texts against a query
+ *   <li>{@code HttpReranker} calls a TEI-compatible {@code /rerank} endpoint
+ *   <li>{@code LocalReranker} is a deterministic, dependency-free stand-in for offline testing
+ * </ul>
+ *
+ * <p>The search layer decides how candidates are batched and what happens when a reranker fails;
+ * see {@code com.goodmem.search.RerankStage}. Like the database layer, operations return
+ * {@code StatusOr<T>} rather than throwing.
+ */
+package com.goodmem.rerank;
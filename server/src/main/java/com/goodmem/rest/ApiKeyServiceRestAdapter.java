@@ -9,6 +9,7 @@ import com.goodmem.rest.dto.ListApiKeysResponse;
 import com.goodmem.rest.dto.UpdateApiKeyRequest;
 import com.goodmem.util.RestMapper;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
 import com.google.protobuf.Timestamp;
 import goodmem.v1.ApiKeyServiceGrpc;
 import goodmem.v1.Apikey;
@@ -33,14 +34,14 @@ import org.tinylog.Logger;
  */
 public class ApiKeyServiceRestAdapter implements RestAdapter {
   
-  private final ApiKeyServiceGrpc.ApiKeyServiceBlockingStub apiKeyService;
+  private final ApiKeyServiceGrpc.AsyncService apiKeyService;
   
   /**
-   * Creates a new ApiKeyServiceRestAdapter with the specified gRPC service stub.
+   * Creates a new ApiKeyServiceRestAdapter backed by the specified service implementation.
    * 
-   * @param apiKeyService The gRPC service stub to delegate to
+   * @param apiKeyService The service implementation to delegate to
    */
-  public ApiKeyServiceRestAdapter(ApiKeyServiceGrpc.ApiKeyServiceBlockingStub apiKeyService) {
+  public ApiKeyServiceRestAdapter(ApiKeyServiceGrpc.AsyncService apiKeyService) {
     this.apiKeyService = apiKeyService;
   }
   
@@ -119,8 +120,15 @@ public class ApiKeyServiceRestAdapter implements RestAdapter {
               .build());
     }
 
-    // Call the gRPC service
-    Apikey.CreateApiKeyResponse response = apiKeyService.createApiKey(requestBuilder.build());
+    // Call the service
+    StatusOr<Apikey.CreateApiKeyResponse> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), apiKeyService::createApiKey, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    Apikey.CreateApiKeyResponse response = responseOr.getValue();
     
     // Convert the ApiKey metadata to our DTO
     Map<String, Object> metadataMap = RestMapper.toJsonMap(response.getApiKeyMetadata());
@@ -156,7 +164,7 @@ public class ApiKeyServiceRestAdapter implements RestAdapter {
       path = "/v1/apikeys",
       methods = { HttpMethod.GET },
       summary = "List API keys",
-      description = "Retrieves a list of API keys belonging to the authenticated user. The list includes metadata about each key but not the actual key values.",
+      description = "Retrieves a list of API keys belonging to the authenticated user. The list includes metadata about each key but not the actual key values. With \"Accept: application/x-ndjson\", keys are streamed instead, one JSON object per line.",
       operationId = "listApiKeys",
       tags = "API Keys",
       responses = {
@@ -177,7 +185,17 @@ public class ApiKeyServiceRestAdapter implements RestAdapter {
 
     // Create and execute the gRPC request (note: currently no parameters)
     ListApiKeysRequest request = ListApiKeysRequest.newBuilder().build();
-    Apikey.ListApiKeysResponse response = apiKeyService.listApiKeys(request);
+    if (wantsNdjson(ctx)) {
+      streamNdjson(ctx, apiKeyService::streamApiKeys, request, ProtoJsonWriter::writeApiKey);
+      return;
+    }
+    StatusOr<Apikey.ListApiKeysResponse> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), apiKeyService::listApiKeys, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    Apikey.ListApiKeysResponse response = responseOr.getValue();
     
     // Convert each ApiKey to our DTO format
     List<ApiKeyResponse> apiKeys = response.getKeysList().stream()
@@ -312,8 +330,15 @@ public class ApiKeyServiceRestAdapter implements RestAdapter {
       requestBuilder.setStatus(status);
     }
 
-    // Call the gRPC service
-    ApiKey response = apiKeyService.updateApiKey(requestBuilder.build());
+    // Call the service
+    StatusOr<ApiKey> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), apiKeyService::updateApiKey, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    ApiKey response = responseOr.getValue();
     
     // Convert the response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -393,8 +418,13 @@ public class ApiKeyServiceRestAdapter implements RestAdapter {
         .setApiKeyId(apiKeyIdOr.getValue())
         .build();
     
-    // Call the gRPC service
-    apiKeyService.deleteApiKey(request);
+    // Call the service
+    StatusOr<Empty> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), apiKeyService::deleteApiKey, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
     
     // Return 204 No Content on successful deletion
     ctx.status(204);
@@ -0,0 +1,169 @@
+package com.goodmem.rest;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.security.AuthInterceptor;
+import com.goodmem.security.User;
+import io.grpc.Context;
+import io.grpc.stub.StreamObserver;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Invokes gRPC service implementations directly from REST handlers.
+ *
+ * <p>The service implementations hold all business logic behind their {@code StreamObserver}
+ * methods, and gRPC clients reach them through the interceptor chain. REST handlers used to go
+ * through an in-process channel as well, which serialized every request and response, ran the
+ * interceptors again and parked the Jetty thread while another thread served the call. A direct
+ * call instead runs the service method on the calling thread, with the already authenticated user
+ * bound to the gRPC context exactly as {@link AuthInterceptor} would bind it, and turns the
+ * observer callbacks into a {@link StatusOr}.
+ */
+public final class DirectCall {
+
+  private DirectCall() {
+    // Utility class
+  }
+
+  /**
+   * Calls a unary service method as the given user.
+   *
+   * @param user the authenticated user, or null for methods that need no authentication
+   * @param method the service method, e.g. {@code spaceService::getSpace}
+   * @param request the request message
+   * @return StatusOr containing the response, or the status the service failed with
+   */
+  public static <ReqT, RespT> StatusOr<RespT> unary(
+      User user, BiConsumer<ReqT, StreamObserver<RespT>> method, ReqT request) {
+    UnaryObserver<RespT> observer = new UnaryObserver<>();
+    try {
+      Context.current()
+          .withValue(AuthInterceptor.USER_CONTEXT_KEY, user)
+          .run(() -> method.accept(request, observer));
+    } catch (RuntimeException e) {
+      return StatusOr.ofStatus(Status.internal("Service method failed", e));
+    }
+
+    // Services normally respond before returning; one that hands off to another thread is awaited
+    try {
+      return StatusOr.ofValue(observer.result.get());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return StatusOr.ofStatus(Status.of(StatusCode.CANCELLED, "Interrupted awaiting response"));
+    } catch (ExecutionException e) {
+      return StatusOr.ofStatus(fromThrowable(e.getCause()));
+    }
+  }
+
+  /**
+   * Calls a server-streaming service method as the given user, handing each response message to a
+   * consumer as the service produces it.
+   *
+   * <p>The consumer runs on the service's thread, so a consumer that writes to the client blocks
+   * the service until the client has read the message. If the consumer throws, for example because
+   * the client went away, the service stops producing and the call fails with CANCELLED.
+   *
+   * @param user the authenticated user, or null for methods that need no authentication
+   * @param method the service method, e.g. {@code spaceService::streamSpaces}
+   * @param request the request message
+   * @param onResponse receives each response message
+   * @return OK once the service completes the stream, or the status it failed with
+   */
+  public static <ReqT, RespT> Status serverStreaming(
+      User user,
+      BiConsumer<ReqT, StreamObserver<RespT>> method,
+      ReqT request,
+      Consumer<RespT> onResponse) {
+    StreamingObserver<RespT> observer = new StreamingObserver<>(onResponse);
+    try {
+      Context.current()
+          .withValue(AuthInterceptor.USER_CONTEXT_KEY, user)
+          .run(() -> method.accept(request, observer));
+    } catch (RuntimeException e) {
+      return Status.internal("Service method failed", e);
+    }
+
+    try {
+      observer.done.get();
+      return Status.ok();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Status.of(StatusCode.CANCELLED, "Interrupted awaiting response");
+    } catch (ExecutionException e) {
+      return fromThrowable(e.getCause());
+    }
+  }
+
+  /**
+   * Converts the error a service reported into a Status. gRPC codes map onto StatusCode name for
+   * name.
+   */
+  private static Status fromThrowable(Throwable error) {
+    io.grpc.Status grpcStatus = io.grpc.Status.fromThrowable(error);
+    if (grpcStatus.getCode() == io.grpc.Status.Code.UNKNOWN) {
+      return Status.internal("Service method failed", error);
+    }
+    return Status.of(
+        StatusCode.valueOf(grpcStatus.getCode().name()),
+        grpcStatus.getDescription() == null
+            ? grpcStatus.getCode().name()
+            : grpcStatus.getDescription());
+  }
+
+  /** Forwards each message of a server-streaming call and captures how the stream ended. */
+  private static final class StreamingObserver<RespT> implements StreamObserver<RespT> {
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+    private final Consumer<RespT> onResponse;
+
+    StreamingObserver(Consumer<RespT> onResponse) {
+      this.onResponse = onResponse;
+    }
+
+    @Override
+    public void onNext(RespT response) {
+      onResponse.accept(response);
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      done.completeExceptionally(error);
+    }
+
+    @Override
+    public void onCompleted() {
+      done.complete(null);
+    }
+  }
+
+  /** Captures the single response or error of a unary call. */
+  private static final class UnaryObserver<RespT> implements StreamObserver<RespT> {
+    private final CompletableFuture<RespT> result = new CompletableFuture<>();
+    private RespT value;
+
+    @Override
+    public void onNext(RespT response) {
+      value = response;
+    }
+
+    @Override
+    public void onError(Throwable error) {
+      result.completeExceptionally(error);
+    }
+
+    @Override
+    public void onCompleted() {
+      if (value == null) {
+        result.completeExceptionally(
+            io.grpc.Status.INTERNAL
+                .withDescription("Service completed without a response")
+                .asRuntimeException());
+      } else {
+        result.complete(value);
+      }
+    }
+  }
+}
@@ -15,16 +15,19 @@ import com.goodmem.rest.dto.UpdateEmbedderRequest;
 import com.goodmem.util.RestMapper;
 import com.google.common.base.Strings;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
 import goodmem.v1.Common;
 import goodmem.v1.EmbedderOuterClass;
 import goodmem.v1.EmbedderOuterClass.Embedder;
 import goodmem.v1.EmbedderServiceGrpc;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
 import io.javalin.openapi.HttpMethod;
 import io.javalin.openapi.OpenApi;
 import io.javalin.openapi.OpenApiContent;
 import io.javalin.openapi.OpenApiRequestBody;
 import io.javalin.openapi.OpenApiResponse;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -38,14 +41,14 @@ import org.tinylog.Logger;
  */
 public class EmbedderServiceRestAdapter implements RestAdapter {
   
-  private final EmbedderServiceGrpc.EmbedderServiceBlockingStub embedderService;
+  private final EmbedderServiceGrpc.AsyncService embedderService;
   
   /**
-   * Creates a new EmbedderServiceRestAdapter with the specified gRPC service stub.
+   * Creates a new EmbedderServiceRestAdapter backed by the specified service implementation.
    * 
-   * @param embedderService The gRPC service stub to delegate to
+   * @param embedderService The service implementation to delegate to
    */
-  public EmbedderServiceRestAdapter(EmbedderServiceGrpc.EmbedderServiceBlockingStub embedderService) {
+  public EmbedderServiceRestAdapter(EmbedderServiceGrpc.AsyncService embedderService) {
     this.embedderService = embedderService;
   }
   
@@ -194,8 +197,15 @@ public class EmbedderServiceRestAdapter implements RestAdapter {
       }
     }
     
-    // Call the gRPC service
-    Embedder response = embedderService.createEmbedder(requestBuilder.build());
+    // Call the service
+    StatusOr<Embedder> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), embedderService::createEmbedder, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    Embedder response = responseOr.getValue();
     
     // Convert the response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -265,8 +275,14 @@ public class EmbedderServiceRestAdapter implements RestAdapter {
             .setEmbedderId(embedderIdOr.getValue())
             .build();
     
-    // Call the gRPC service
-    Embedder response = embedderService.getEmbedder(request);
+    // Call the service
+    StatusOr<Embedder> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), embedderService::getEmbedder, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    Embedder response = responseOr.getValue();
     
     // Convert the response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -286,7 +302,7 @@ public class EmbedderServiceRestAdapter implements RestAdapter {
       path = "/v1/embedders",
       methods = { HttpMethod.GET },
       summary = "List embedders",
-      description = "Retrieves a list of embedder configurations accessible to the caller, with optional filtering.",
+      description = "Retrieves a list of embedder configurations accessible to the caller, with optional filtering. With \"Accept: application/x-ndjson\", embedders are streamed instead, one JSON object per line.",
       operationId = "listEmbedders",
       tags = "Embedders",
       queryParams = {
@@ -392,23 +408,33 @@ public class EmbedderServiceRestAdapter implements RestAdapter {
       requestDto.labelSelectors().forEach(requestBuilder::putLabelSelectors);
     }
     
-    // Call the gRPC service
-    EmbedderOuterClass.ListEmbeddersResponse response
-        = embedderService.listEmbedders(requestBuilder.build());
-    
-    // Convert the response to a list of EmbedderResponse DTOs
-    List<EmbedderResponse> embedders = response.getEmbeddersList().stream()
-        .map(embedder -> {
-          Map<String, Object> embedderMap = RestMapper.toJsonMap(embedder);
-          return createEmbedderResponseFromMap(embedderMap);
-        })
-        .collect(Collectors.toList());
-    
-    // Create and return the ListEmbeddersResponse DTO
-    ListEmbeddersResponse responseDto = new ListEmbeddersResponse(embedders);
+    // Stream the embedders as NDJSON if the client asked for it
+    if (wantsNdjson(ctx)) {
+      streamNdjson(
+          ctx,
+          embedderService::streamEmbedders,
+          requestBuilder.build(),
+          ProtoJsonWriter::writeEmbedder);
+      return;
+    }
+
+    // Call the service
+    StatusOr<EmbedderOuterClass.ListEmbeddersResponse> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), embedderService::listEmbedders, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    EmbedderOuterClass.ListEmbeddersResponse response = responseOr.getValue();
     
-    // Return the response
-    ctx.json(responseDto);
+    // Stream the response straight to the client rather than through Maps and DTOs
+    ctx.contentType(ContentType.APPLICATION_JSON);
+    try {
+      ProtoJsonWriter.writeListEmbeddersResponse(ctx.outputStream(), response);
+    } catch (IOException e) {
+      Logger.warn(e, "Failed to write ListEmbedders response");
+    }
   }
 
   /**
@@ -565,8 +591,15 @@ public class EmbedderServiceRestAdapter implements RestAdapter {
       }
     }
     
-    // Call the gRPC service
-    Embedder response = embedderService.updateEmbedder(requestBuilder.build());
+    // Call the service
+    StatusOr<Embedder> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), embedderService::updateEmbedder, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    Embedder response = responseOr.getValue();
     
     // Convert the response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -635,8 +668,13 @@ public class EmbedderServiceRestAdapter implements RestAdapter {
             .setEmbedderId(embedderIdOr.getValue())
             .build();
     
-    // Call the gRPC service
-    embedderService.deleteEmbedder(request);
+    // Call the service
+    StatusOr<Empty> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), embedderService::deleteEmbedder, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
     
     // Return 204 No Content on successful deletion
     ctx.status(204);
@@ -2,15 +2,39 @@ package com.goodmem.rest;
 
 import static io.javalin.apibuilder.ApiBuilder.path;
 
+import com.goodmem.Uuids;
+import com.goodmem.common.status.Status;
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.util.RestMapper;
+import com.google.common.base.Strings;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.util.Timestamps;
+import goodmem.v1.MemoryOuterClass.BatchCreateMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchCreateMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchDeleteMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchDeleteMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchGetMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchGetMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchItemStatus;
+import goodmem.v1.MemoryOuterClass.BatchMemoryResult;
+import goodmem.v1.MemoryOuterClass.BatchSearchMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchSearchMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.ChunkSearchResult;
 import goodmem.v1.MemoryOuterClass.CreateMemoryRequest;
 import goodmem.v1.MemoryOuterClass.DeleteMemoryRequest;
+import goodmem.v1.MemoryOuterClass.FusionMethod;
 import goodmem.v1.MemoryOuterClass.GetMemoryRequest;
 import goodmem.v1.MemoryOuterClass.ListMemoriesRequest;
 import goodmem.v1.MemoryOuterClass.ListMemoriesResponse;
 import goodmem.v1.MemoryOuterClass.Memory;
+import goodmem.v1.MemoryOuterClass.MemoryScoring;
+import goodmem.v1.MemoryOuterClass.MemorySearchResult;
+import goodmem.v1.MemoryOuterClass.SearchMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.SearchMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.SearchMode;
+import goodmem.v1.MemoryOuterClass.VectorEncoding;
 import goodmem.v1.MemoryServiceGrpc;
 import io.javalin.http.Context;
 import io.javalin.openapi.HttpMethod;
@@ -18,6 +42,11 @@ import io.javalin.openapi.OpenApi;
 import io.javalin.openapi.OpenApiContent;
 import io.javalin.openapi.OpenApiRequestBody;
 import io.javalin.openapi.OpenApiResponse;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import org.tinylog.Logger;
 
@@ -33,14 +62,14 @@ import org.tinylog.Logger;
  */
 public class MemoryServiceRestAdapter implements RestAdapter {
   
-  private final MemoryServiceGrpc.MemoryServiceBlockingStub memoryService;
+  private final MemoryServiceGrpc.AsyncService memoryService;
   
   /**
-   * Creates a new MemoryServiceRestAdapter with the specified gRPC service stub.
+   * Creates a new MemoryServiceRestAdapter backed by the specified service implementation.
    * 
-   * @param memoryService The gRPC service stub to delegate to
+   * @param memoryService The service implementation to delegate to
    */
-  public MemoryServiceRestAdapter(MemoryServiceGrpc.MemoryServiceBlockingStub memoryService) {
+  public MemoryServiceRestAdapter(MemoryServiceGrpc.AsyncService memoryService) {
     this.memoryService = memoryService;
   }
   
@@ -126,7 +155,14 @@ public class MemoryServiceRestAdapter implements RestAdapter {
       requestBuilder.putAllMetadata(metadata);
     }
 
-    Memory response = memoryService.createMemory(requestBuilder.build());
+    StatusOr<Memory> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), memoryService::createMemory, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    Memory response = responseOr.getValue();
     ctx.json(RestMapper.toJsonMap(response));
   }
 
@@ -180,9 +216,16 @@ public class MemoryServiceRestAdapter implements RestAdapter {
       return;
     }
 
-    Memory response =
-        memoryService.getMemory(
+    StatusOr<Memory> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx),
+            memoryService::getMemory,
             GetMemoryRequest.newBuilder().setMemoryId(memoryIdOr.getValue()).build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    Memory response = responseOr.getValue();
     ctx.json(RestMapper.toJsonMap(response));
   }
 
@@ -196,7 +239,7 @@ public class MemoryServiceRestAdapter implements RestAdapter {
       path = "/v1/spaces/{spaceId}/memories",
       methods = { HttpMethod.GET },
       summary = "List memories in a space",
-      description = "Retrieves a list of memories contained within a specific space.",
+      description = "Retrieves the memories contained within a specific space, oldest first. Results are paginated with a maximum number of memories per response; pass the returned nextToken as next_token to fetch the following page. With \"Accept: application/x-ndjson\", every matching memory is streamed instead, one JSON object per line, and max_results and next_token are ignored.",
       operationId = "listMemories",
       tags = "Memories",
       pathParams = {
@@ -207,6 +250,32 @@ public class MemoryServiceRestAdapter implements RestAdapter {
               type = String.class,
               example = "550e8400-e29b-41d4-a716-446655440000")
       },
+      queryParams = {
+          @io.javalin.openapi.OpenApiParam(
+              name = "processing_status",
+              description = "Only return memories with this processing status",
+              required = false,
+              type = String.class,
+              example = "COMPLETED"),
+          @io.javalin.openapi.OpenApiParam(
+              name = "content_type",
+              description = "Only return memories with this content type",
+              required = false,
+              type = String.class,
+              example = "text/plain"),
+          @io.javalin.openapi.OpenApiParam(
+              name = "max_results",
+              description = "Maximum number of results to return in a single page (default 50, at most 1000)",
+              required = false,
+              type = Integer.class,
+              example = "100"),
+          @io.javalin.openapi.OpenApiParam(
+              name = "next_token",
+              description = "Pagination token for retrieving the next set of results; it carries the filters of the first request",
+              required = false,
+              type = String.class,
+              example = "ChBVDoQA4ptB1KcWRGZVRAAAEgwIgN2ZqgYQwJbPHQ")
+      },
       responses = {
           @OpenApiResponse(
               status = "200",
@@ -214,7 +283,7 @@ public class MemoryServiceRestAdapter implements RestAdapter {
               content = @OpenApiContent(type = "application/json")),
           @OpenApiResponse(
               status = "400",
-              description = "Invalid request - space ID in invalid format"),
+              description = "Invalid request - space ID or pagination token in invalid format"),
           @OpenApiResponse(
               status = "401",
               description = "Unauthorized - invalid or missing API key"),
@@ -237,12 +306,47 @@ public class MemoryServiceRestAdapter implements RestAdapter {
       return;
     }
 
-    ListMemoriesResponse response =
-        memoryService.listMemories(
-            ListMemoriesRequest.newBuilder().setSpaceId(spaceIdOr.getValue()).build());
-    ctx.json(
-        Map.of(
-            "memories", response.getMemoriesList().stream().map(RestMapper::toJsonMap).toList()));
+    ListMemoriesRequest.Builder requestBuilder =
+        ListMemoriesRequest.newBuilder().setSpaceId(spaceIdOr.getValue());
+    String processingStatus = ctx.queryParam("processing_status");
+    if (!Strings.isNullOrEmpty(processingStatus)) {
+      requestBuilder.setProcessingStatus(processingStatus);
+    }
+    String contentType = ctx.queryParam("content_type");
+    if (!Strings.isNullOrEmpty(contentType)) {
+      requestBuilder.setContentType(contentType);
+    }
+    String maxResultsStr = ctx.queryParam("max_results");
+    if (!Strings.isNullOrEmpty(maxResultsStr)) {
+      try {
+        requestBuilder.setMaxResults(Integer.parseInt(maxResultsStr));
+      } catch (NumberFormatException e) {
+        setError(ctx, 400, "Invalid max_results parameter");
+        return;
+      }
+    }
+    String nextToken = ctx.queryParam("next_token");
+    if (!Strings.isNullOrEmpty(nextToken)) {
+      requestBuilder.setNextToken(nextToken);
+    }
+
+    ListMemoriesRequest request = requestBuilder.build();
+    if (wantsNdjson(ctx)) {
+      streamNdjson(ctx, memoryService::streamMemories, request, ProtoJsonWriter::writeMemory);
+      return;
+    }
+
+    StatusOr<ListMemoriesResponse> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), memoryService::listMemories, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    ListMemoriesResponse response = responseOr.getValue();
+    Map<String, Object> body = new HashMap<>();
+    body.put("memories", response.getMemoriesList().stream().map(RestMapper::toJsonMap).toList());
+    body.put("nextToken", response.hasNextToken() ? response.getNextToken() : null);
+    ctx.json(body);
   }
 
   /**
@@ -294,8 +398,755 @@ public class MemoryServiceRestAdapter implements RestAdapter {
       return;
     }
 
-    memoryService.deleteMemory(
-        DeleteMemoryRequest.newBuilder().setMemoryId(memoryIdOr.getValue()).build());
+    StatusOr<Empty> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx),
+            memoryService::deleteMemory,
+            DeleteMemoryRequest.newBuilder().setMemoryId(memoryIdOr.getValue()).build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
     ctx.status(204);
   }
-}
\ No newline at end of file
+
+  /**
+   * Handles a REST request to create several memories at once. Each entry of "requests" takes the
+   * same fields as the single create body.
+   *
+   * @param ctx The Javalin context containing the request and response
+   */
+  @OpenApi(
+      path = "/v1/memories/batch",
+      methods = { HttpMethod.POST },
+      summary = "Create several memories",
+      description =
+          "Creates a batch of up to 1000 memories in one transaction and returns one result per "
+              + "request, in request order. Requests that fail (invalid or missing space, or no "
+              + "permission to write to it) get an error code and message instead of a memory; "
+              + "the rest are created.",
+      operationId = "batchCreateMemories",
+      tags = "Memories",
+      requestBody =
+          @OpenApiRequestBody(
+              description = "Memories to create",
+              required = true,
+              content =
+                  @OpenApiContent(
+                      type = "application/json",
+                      example =
+                          """
+              {
+                "requests": [
+                  {
+                    "space_id": "550e8400-e29b-41d4-a716-446655440000",
+                    "original_content_ref": "s3://bucket/a.txt",
+                    "content_type": "text/plain",
+                    "metadata": {"source": "crawler"}
+                  },
+                  {
+                    "space_id": "550e8400-e29b-41d4-a716-446655440000",
+                    "original_content_ref": "s3://bucket/b.txt",
+                    "content_type": "text/plain"
+                  }
+                ]
+              }
+              """)),
+      responses = {
+          @OpenApiResponse(
+              status = "200",
+              description = "One result per request, in request order",
+              content = @OpenApiContent(type = "application/json")),
+          @OpenApiResponse(
+              status = "400",
+              description = "Invalid request - requests missing, empty or over 1000 entries"),
+          @OpenApiResponse(
+              status = "401",
+              description = "Unauthorized - invalid or missing API key")
+      })
+  public void handleBatchCreateMemories(Context ctx) {
+    String apiKey = ctx.header("x-api-key");
+    Logger.info("REST BatchCreateMemories request with API key: {}", apiKey);
+
+    Map<String, Object> json = ctx.bodyAsClass(Map.class);
+    if (!(json.get("requests") instanceof List<?> requests)) {
+      setError(ctx, 400, "requests must be an array");
+      return;
+    }
+
+    BatchCreateMemoriesRequest.Builder requestBuilder = BatchCreateMemoriesRequest.newBuilder();
+    for (int i = 0; i < requests.size(); i++) {
+      if (!(requests.get(i) instanceof Map<?, ?> item)) {
+        setError(ctx, 400, "requests[" + i + "] must be an object");
+        return;
+      }
+      CreateMemoryRequest.Builder itemBuilder = CreateMemoryRequest.newBuilder();
+      // A malformed space ID is left empty and reported in the item's result
+      if (item.get("space_id") instanceof String spaceIdHex) {
+        StatusOr<ByteString> spaceIdOr = convertHexToUuidBytes(spaceIdHex);
+        if (spaceIdOr.isOk()) {
+          itemBuilder.setSpaceId(spaceIdOr.getValue());
+        }
+      }
+      if (item.get("original_content_ref") instanceof String contentRef) {
+        itemBuilder.setOriginalContentRef(contentRef);
+      }
+      if (item.get("content_type") instanceof String contentType) {
+        itemBuilder.setContentType(contentType);
+      }
+      if (item.get("metadata") instanceof Map<?, ?> metadata) {
+        metadata.forEach((key, value) -> itemBuilder.putMetadata(key.toString(), value.toString()));
+      }
+      requestBuilder.addRequests(itemBuilder);
+    }
+
+    StatusOr<BatchCreateMemoriesResponse> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), memoryService::batchCreateMemories, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    ctx.json(
+        Map.of(
+            "results",
+            responseOr.getValue().getResultsList().stream()
+                .map(MemoryServiceRestAdapter::toJsonMap)
+                .toList()));
+  }
+
+  /**
+   * Handles a REST request to retrieve several memories at once by their hex IDs.
+   *
+   * @param ctx The Javalin context containing the request and response
+   */
+  @OpenApi(
+      path = "/v1/memories/batch/get",
+      methods = { HttpMethod.POST },
+      summary = "Get several memories by ID",
+      description =
+          "Retrieves up to 1000 memories by ID and returns one result per ID, in request order. "
+              + "IDs that are invalid, missing or not readable by the caller get an error code "
+              + "and message instead of a memory.",
+      operationId = "batchGetMemories",
+      tags = "Memories",
+      requestBody =
+          @OpenApiRequestBody(
+              description = "IDs of the memories to retrieve",
+              required = true,
+              content =
+                  @OpenApiContent(
+                      type = "application/json",
+                      example =
+                          """
+              {
+                "memory_ids": [
+                  "550e8400-e29b-41d4-a716-446655440000",
+                  "6ba7b810-9dad-11d1-80b4-00c04fd430c8"
+                ]
+              }
+              """)),
+      responses = {
+          @OpenApiResponse(
+              status = "200",
+              description = "One result per ID, in request order",
+              content = @OpenApiContent(type = "application/json")),
+          @OpenApiResponse(
+              status = "400",
+              description = "Invalid request - memory_ids missing, empty or over 1000 entries"),
+          @OpenApiResponse(
+              status = "401",
+              description = "Unauthorized - invalid or missing API key")
+      })
+  public void handleBatchGetMemories(Context ctx) {
+    String apiKey = ctx.header("x-api-key");
+    Logger.info("REST BatchGetMemories request with API key: {}", apiKey);
+
+    StatusOr<List<ByteString>> memoryIdsOr = parseMemoryIds(ctx.bodyAsClass(Map.class));
+    if (memoryIdsOr.isNotOk()) {
+      setError(ctx, 400, memoryIdsOr.getStatus().getMessage());
+      return;
+    }
+
+    StatusOr<BatchGetMemoriesResponse> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx),
+            memoryService::batchGetMemories,
+            BatchGetMemoriesRequest.newBuilder().addAllMemoryIds(memoryIdsOr.getValue()).build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    ctx.json(
+        Map.of(
+            "results",
+            responseOr.getValue().getResultsList().stream()
+                .map(MemoryServiceRestAdapter::toJsonMap)
+                .toList()));
+  }
+
+  /**
+   * Handles a REST request to delete several memories at once by their hex IDs.
+   *
+   * @param ctx The Javalin context containing the request and response
+   */
+  @OpenApi(
+      path = "/v1/memories/batch/delete",
+      methods = { HttpMethod.POST },
+      summary = "Delete several memories by ID",
+      description =
+          "Deletes up to 1000 memories by ID and returns one result per ID, in request order. "
+              + "IDs that are invalid, missing or whose space the caller may not write to get an "
+              + "error code and message; the rest are deleted.",
+      operationId = "batchDeleteMemories",
+      tags = "Memories",
+      requestBody =
+          @OpenApiRequestBody(
+              description = "IDs of the memories to delete",
+              required = true,
+              content =
+                  @OpenApiContent(
+                      type = "application/json",
+                      example =
+                          """
+              {
+                "memory_ids": [
+                  "550e8400-e29b-41d4-a716-446655440000",
+                  "6ba7b810-9dad-11d1-80b4-00c04fd430c8"
+                ]
+              }
+              """)),
+      responses = {
+          @OpenApiResponse(
+              status = "200",
+              description = "One result per ID, in request order",
+              content = @OpenApiContent(type = "application/json")),
+          @OpenApiResponse(
+              status = "400",
+              description = "Invalid request - memory_ids missing, empty or over 1000 entries"),
+          @OpenApiResponse(
+              status = "401",
+              description = "Unauthorized - invalid or missing API key")
+      })
+  public void handleBatchDeleteMemories(Context ctx) {
+    String apiKey = ctx.header("x-api-key");
+    Logger.info("REST BatchDeleteMemories request with API key: {}", apiKey);
+
+    StatusOr<List<ByteString>> memoryIdsOr = parseMemoryIds(ctx.bodyAsClass(Map.class));
+    if (memoryIdsOr.isNotOk()) {
+      setError(ctx, 400, memoryIdsOr.getStatus().getMessage());
+      return;
+    }
+
+    StatusOr<BatchDeleteMemoriesResponse> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx),
+            memoryService::batchDeleteMemories,
+            BatchDeleteMemoriesRequest.newBuilder()
+                .addAllMemoryIds(memoryIdsOr.getValue())
+                .build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    ctx.json(
+        Map.of(
+            "results",
+            responseOr.getValue().getResultsList().stream()
+                .map(MemoryServiceRestAdapter::toJsonMap)
+                .toList()));
+  }
+
+  /**
+   * Reads the "memory_ids" array of a batch get or delete body. Malformed IDs are passed on empty
+   * so that the service reports them in their item's result.
+   */
+  private StatusOr<List<ByteString>> parseMemoryIds(Map<String, Object> json) {
+    if (!(json.get("memory_ids") instanceof List<?> rawIds)) {
+      return StatusOr.ofStatus(Status.invalidArgument("memory_ids must be an array"));
+    }
+    List<ByteString> memoryIds = new ArrayList<>(rawIds.size());
+    for (Object rawId : rawIds) {
+      StatusOr<ByteString> memoryIdOr =
+          rawId instanceof String hex
+              ? convertHexToUuidBytes(hex)
+              : StatusOr.ofStatus(Status.invalidArgument("not a string"));
+      memoryIds.add(memoryIdOr.isOk() ? memoryIdOr.getValue() : ByteString.EMPTY);
+    }
+    return StatusOr.ofValue(memoryIds);
+  }
+
+  /**
+   * Handles a REST request to search the chunks of a Space. Builds the search request from JSON
+   * and calls the gRPC service.
+   *
+   * @param ctx The Javalin context containing the request and response
+   */
+  @OpenApi(
+      path = "/v1/spaces/{spaceId}/search",
+      methods = { HttpMethod.POST },
+      summary = "Search memories in a space",
+      description =
+          "Returns the chunks in a space that best match a query vector, query text, or both. "
+              + "Hybrid searches run the vector and full-text queries concurrently and fuse the rankings. "
+              + "Without a query vector, the query text is embedded with the space's embedder. "
+              + "With include_vectors, a vector_encoding of FLOAT32, FLOAT16 or INT8 returns each chunk's vector as base64 packed little-endian bytes in packedVector instead of an embeddingVector array.",
+      operationId = "searchMemories",
+      tags = "Memories",
+      pathParams = {
+          @io.javalin.openapi.OpenApiParam(
+              name = "spaceId",
+              description = "The unique identifier of the space to search",
+              required = true,
+              type = String.class,
+              example = "550e8400-e29b-41d4-a716-446655440000")
+      },
+      requestBody =
+          @OpenApiRequestBody(
+              description = "Search parameters",
+              required = true,
+              content =
+                  @OpenApiContent(
+                      type = "application/json",
+                      example =
+                          """
+              {
+                "query_text": "invoice SKU-1234",
+                "query_vector": [0.12, -0.03, 0.57],
+                "mode": "HYBRID",
+                "fusion_method": "RRF",
+                "max_results": 10,
+                "mmr_lambda": 0.7,
+                "max_chunks_per_memory": 2,
+                "metadata_filter": {
+                  "source": "email"
+                }
+              }
+              """)),
+      responses = {
+          @OpenApiResponse(
+              status = "200",
+              description = "Ranked search results, best match first",
+              content = @OpenApiContent(type = "application/json")),
+          @OpenApiResponse(
+              status = "400",
+              description = "Invalid request - missing query inputs or invalid parameters"),
+          @OpenApiResponse(
+              status = "401",
+              description = "Unauthorized - invalid or missing API key"),
+          @OpenApiResponse(
+              status = "403",
+              description = "Forbidden - insufficient permissions to read this space"),
+          @OpenApiResponse(
+              status = "404",
+              description = "Not found - space with the specified ID does not exist")
+      })
+  public void handleSearchMemories(Context ctx) {
+    String spaceIdHex = ctx.pathParam("spaceId");
+    String apiKey = ctx.header("x-api-key");
+    Logger.info("REST SearchMemories request for space ID: {} with API key: {}", spaceIdHex, apiKey);
+
+    StatusOr<ByteString> spaceIdOr = convertHexToUuidBytes(spaceIdHex);
+    if (spaceIdOr.isNotOk()) {
+      setError(ctx, 400, "Invalid space ID format");
+      return;
+    }
+
+    Map<String, Object> json = ctx.bodyAsClass(Map.class);
+    StatusOr<SearchMemoriesRequest> requestOr = toSearchRequest(spaceIdOr.getValue(), json);
+    if (requestOr.isNotOk()) {
+      setError(ctx, 400, requestOr.getStatus().getMessage());
+      return;
+    }
+
+    StatusOr<SearchMemoriesResponse> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), memoryService::searchMemories, requestOr.getValue());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    SearchMemoriesResponse response = responseOr.getValue();
+    ctx.json(toJsonMap(response));
+  }
+
+  /**
+   * Handles a REST request to search the spaces the caller owns or can read publicly, up to 100 of
+   * them. Takes the same body as the single-space search plus an optional hex "embedder_id", which
+   * is required with a query vector.
+   *
+   * @param ctx The Javalin context containing the request and response
+   */
+  @OpenApi(
+      path = "/v1/search",
+      methods = { HttpMethod.POST },
+      summary = "Search memories across readable spaces",
+      description =
+          "Searches up to 100 spaces the caller owns or can read publicly, its own first, "
+              + "optionally narrowed to the spaces of one embedder, and merges the per-space "
+              + "results by score. With group_by_memory, returns the top memories, each with "
+              + "its best chunks.",
+      operationId = "searchAllMemories",
+      tags = "Memories",
+      requestBody =
+          @OpenApiRequestBody(
+              description = "Search parameters",
+              required = true,
+              content =
+                  @OpenApiContent(
+                      type = "application/json",
+                      example =
+                          """
+              {
+                "embedder_id": "550e8400-e29b-41d4-a716-446655440000",
+                "query_vector": [0.12, -0.03, 0.57],
+                "max_results": 10,
+                "min_score": 0.35,
+                "group_by_memory": "MAX",
+                "chunks_per_group": 2
+              }
+              """)),
+      responses = {
+          @OpenApiResponse(
+              status = "200",
+              description = "Ranked search results across spaces, best match first",
+              content = @OpenApiContent(type = "application/json")),
+          @OpenApiResponse(
+              status = "400",
+              description =
+                  "Invalid request - missing query inputs, missing embedder_id for a vector "
+                      + "search, or too many spaces"),
+          @OpenApiResponse(
+              status = "401",
+              description = "Unauthorized - invalid or missing API key")
+      })
+  public void handleSearchAllMemories(Context ctx) {
+    String apiKey = ctx.header("x-api-key");
+    Logger.info("REST SearchMemories request across spaces with API key: {}", apiKey);
+
+    Map<String, Object> json = ctx.bodyAsClass(Map.class);
+    StatusOr<SearchMemoriesRequest> requestOr = toSearchRequest(ByteString.EMPTY, json);
+    if (requestOr.isNotOk()) {
+      setError(ctx, 400, requestOr.getStatus().getMessage());
+      return;
+    }
+
+    SearchMemoriesRequest request = requestOr.getValue();
+    if (json.get("embedder_id") instanceof String embedderIdHex) {
+      StatusOr<ByteString> embedderIdOr = convertHexToUuidBytes(embedderIdHex);
+      if (embedderIdOr.isNotOk()) {
+        setError(ctx, 400, "Invalid embedder ID format");
+        return;
+      }
+      request = request.toBuilder().setEmbedderId(embedderIdOr.getValue()).build();
+    }
+
+    StatusOr<SearchMemoriesResponse> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), memoryService::searchMemories, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    SearchMemoriesResponse response = responseOr.getValue();
+    ctx.json(toJsonMap(response));
+  }
+
+  /**
+   * Handles a REST request to run several searches at once. Each entry of "queries" takes the
+   * same fields as the single-space search body plus the hex "space_id" to search.
+   *
+   * @param ctx The Javalin context containing the request and response
+   */
+  @OpenApi(
+      path = "/v1/search/batch",
+      methods = { HttpMethod.POST },
+      summary = "Run several memory searches",
+      description =
+          "Runs a batch of searches, each against its own space, and returns one result list per "
+              + "query in request order. The batch fails as a whole if any query is invalid.",
+      operationId = "batchSearchMemories",
+      tags = "Memories",
+      requestBody =
+          @OpenApiRequestBody(
+              description = "Search queries",
+              required = true,
+              content =
+                  @OpenApiContent(
+                      type = "application/json",
+                      example =
+                          """
+              {
+                "queries": [
+                  {
+                    "space_id": "550e8400-e29b-41d4-a716-446655440000",
+                    "query_text": "invoice SKU-1234",
+                    "max_results": 5
+                  },
+                  {
+                    "space_id": "550e8400-e29b-41d4-a716-446655440000",
+                    "query_vector": [0.12, -0.03, 0.57]
+                  }
+                ]
+              }
+              """)),
+      responses = {
+          @OpenApiResponse(
+              status = "200",
+              description = "One ranked result list per query, in request order",
+              content = @OpenApiContent(type = "application/json")),
+          @OpenApiResponse(
+              status = "400",
+              description = "Invalid request - empty or oversized batch, or an invalid query"),
+          @OpenApiResponse(
+              status = "401",
+              description = "Unauthorized - invalid or missing API key"),
+          @OpenApiResponse(
+              status = "403",
+              description = "Forbidden - insufficient permissions to read a queried space"),
+          @OpenApiResponse(
+              status = "404",
+              description = "Not found - a queried space does not exist")
+      })
+  public void handleBatchSearchMemories(Context ctx) {
+    String apiKey = ctx.header("x-api-key");
+    Logger.info("REST BatchSearchMemories request with API key: {}", apiKey);
+
+    Map<String, Object> json = ctx.bodyAsClass(Map.class);
+    if (!(json.get("queries") instanceof List<?> queries)) {
+      setError(ctx, 400, "queries must be an array");
+      return;
+    }
+
+    BatchSearchMemoriesRequest.Builder requestBuilder = BatchSearchMemoriesRequest.newBuilder();
+    for (int i = 0; i < queries.size(); i++) {
+      if (!(queries.get(i) instanceof Map<?, ?> query)
+          || !(query.get("space_id") instanceof String spaceIdHex)) {
+        setError(ctx, 400, "queries[" + i + "]: space_id is required");
+        return;
+      }
+      StatusOr<ByteString> spaceIdOr = convertHexToUuidBytes(spaceIdHex);
+      if (spaceIdOr.isNotOk()) {
+        setError(ctx, 400, "queries[" + i + "]: Invalid space ID format");
+        return;
+      }
+      @SuppressWarnings("unchecked")
+      StatusOr<SearchMemoriesRequest> queryOr =
+          toSearchRequest(spaceIdOr.getValue(), (Map<String, Object>) query);
+      if (queryOr.isNotOk()) {
+        setError(ctx, 400, "queries[" + i + "]: " + queryOr.getStatus().getMessage());
+        return;
+      }
+      requestBuilder.addQueries(queryOr.getValue());
+    }
+
+    StatusOr<BatchSearchMemoriesResponse> responseOr =
+        DirectCall.unary(
+            authenticatedUser(ctx), memoryService::batchSearchMemories, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    BatchSearchMemoriesResponse response = responseOr.getValue();
+    ctx.json(
+        Map.of(
+            "responses",
+            response.getResponsesList().stream()
+                .map(MemoryServiceRestAdapter::toJsonMap)
+                .toList()));
+  }
+
+  /**
+   * Builds a search request from the snake_case fields of a JSON search body.
+   *
+   * @return StatusOr containing the request, or an INVALID_ARGUMENT status describing the bad field
+   */
+  private static StatusOr<SearchMemoriesRequest> toSearchRequest(
+      ByteString spaceId, Map<String, Object> json) {
+    SearchMemoriesRequest.Builder requestBuilder =
+        SearchMemoriesRequest.newBuilder().setSpaceId(spaceId);
+
+    if (json.get("query_vector") instanceof List<?> vector) {
+      for (Object value : vector) {
+        if (!(value instanceof Number number)) {
+          return StatusOr.ofStatus(
+              Status.invalidArgument("query_vector must be an array of numbers"));
+        }
+        requestBuilder.addQueryVector(number.floatValue());
+      }
+    }
+
+    if (json.get("query_text") instanceof String queryText) {
+      requestBuilder.setQueryText(queryText);
+    }
+
+    if (json.get("max_results") instanceof Number maxResults) {
+      requestBuilder.setMaxResults(maxResults.intValue());
+    }
+
+    if (json.get("mode") instanceof String mode) {
+      try {
+        requestBuilder.setMode(SearchMode.valueOf("SEARCH_MODE_" + mode.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        return StatusOr.ofStatus(Status.invalidArgument("Invalid search mode: " + mode));
+      }
+    }
+
+    if (json.get("fusion_method") instanceof String fusionMethod) {
+      try {
+        requestBuilder.setFusionMethod(
+            FusionMethod.valueOf("FUSION_METHOD_" + fusionMethod.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        return StatusOr.ofStatus(
+            Status.invalidArgument("Invalid fusion method: " + fusionMethod));
+      }
+    }
+
+    if (json.get("vector_weight") instanceof Number vectorWeight) {
+      requestBuilder.setVectorWeight(vectorWeight.floatValue());
+    }
+
+    if (json.get("include_vectors") instanceof Boolean includeVectors) {
+      requestBuilder.setIncludeVectors(includeVectors);
+    }
+
+    if (json.get("vector_encoding") instanceof String vectorEncoding) {
+      try {
+        requestBuilder.setVectorEncoding(
+            VectorEncoding.valueOf("VECTOR_ENCODING_" + vectorEncoding.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        return StatusOr.ofStatus(
+            Status.invalidArgument("Invalid vector encoding: " + vectorEncoding));
+      }
+    }
+
+    if (json.get("metadata_filter") instanceof Map<?, ?> metadataFilter) {
+      for (Map.Entry<?, ?> entry : metadataFilter.entrySet()) {
+        if (!(entry.getValue() instanceof String value)) {
+          return StatusOr.ofStatus(
+              Status.invalidArgument(
+                  "metadata_filter values must be strings; got a non-string for "
+                      + entry.getKey()));
+        }
+        requestBuilder.putMetadataFilter((String) entry.getKey(), value);
+      }
+    }
+
+    if (json.get("min_score") instanceof Number minScore) {
+      requestBuilder.setMinScore(minScore.doubleValue());
+    }
+
+    if (json.get("group_by_memory") instanceof String groupByMemory) {
+      try {
+        requestBuilder.setGroupByMemory(
+            MemoryScoring.valueOf("MEMORY_SCORING_" + groupByMemory.toUpperCase(Locale.ROOT)));
+      } catch (IllegalArgumentException e) {
+        return StatusOr.ofStatus(
+            Status.invalidArgument("Invalid memory scoring: " + groupByMemory));
+      }
+    }
+
+    if (json.get("chunks_per_group") instanceof Number chunksPerGroup) {
+      requestBuilder.setChunksPerGroup(chunksPerGroup.intValue());
+    }
+
+    if (json.get("rerank_candidates") instanceof Number rerankCandidates) {
+      requestBuilder.setRerankCandidates(rerankCandidates.intValue());
+    }
+
+    if (json.get("two_stage") instanceof Boolean twoStage) {
+      requestBuilder.setTwoStage(twoStage);
+    }
+
+    if (json.get("memory_candidates") instanceof Number memoryCandidates) {
+      requestBuilder.setMemoryCandidates(memoryCandidates.intValue());
+    }
+
+    if (json.get("created_after") instanceof String createdAfter) {
+      StatusOr<Timestamp> timestampOr = parseTimestamp("created_after", createdAfter);
+      if (timestampOr.isNotOk()) {
+        return StatusOr.ofStatus(timestampOr.getStatus());
+      }
+      requestBuilder.setCreatedAfter(timestampOr.getValue());
+    }
+
+    if (json.get("created_before") instanceof String createdBefore) {
+      StatusOr<Timestamp> timestampOr = parseTimestamp("created_before", createdBefore);
+      if (timestampOr.isNotOk()) {
+        return StatusOr.ofStatus(timestampOr.getStatus());
+      }
+      requestBuilder.setCreatedBefore(timestampOr.getValue());
+    }
+
+    if (json.get("recency_half_life_seconds") instanceof Number halfLife) {
+      requestBuilder.setRecencyHalfLifeSeconds(halfLife.doubleValue());
+    }
+
+    if (json.get("mmr_lambda") instanceof Number mmrLambda) {
+      requestBuilder.setMmrLambda(mmrLambda.floatValue());
+    }
+
+    if (json.get("max_chunks_per_memory") instanceof Number maxChunksPerMemory) {
+      requestBuilder.setMaxChunksPerMemory(maxChunksPerMemory.intValue());
+    }
+
+    return StatusOr.ofValue(requestBuilder.build());
+  }
+
+  /** Parses an RFC 3339 timestamp such as {@code 2025-01-31T12:00:00Z}. */
+  private static StatusOr<Timestamp> parseTimestamp(String field, String value) {
+    try {
+      return StatusOr.ofValue(Timestamps.parse(value));
+    } catch (ParseException e) {
+      return StatusOr.ofStatus(
+          Status.invalidArgument(field + " must be an RFC 3339 timestamp: " + value));
+    }
+  }
+
+  private static Map<String, Object> toJsonMap(SearchMemoriesResponse response) {
+    if (response.getMemoryResultsCount() > 0) {
+      return Map.of(
+          "memory_results",
+          response.getMemoryResultsList().stream()
+              .map(MemoryServiceRestAdapter::toJsonMap)
+              .toList());
+    }
+    return Map.of("results", toJsonList(response.getResultsList()));
+  }
+
+  private static Map<String, Object> toJsonMap(BatchMemoryResult result) {
+    Map<String, Object> resultMap = toJsonMap(result.getStatus());
+    if (result.hasMemory()) {
+      resultMap.put("memory", RestMapper.toJsonMap(result.getMemory()));
+    }
+    return resultMap;
+  }
+
+  private static Map<String, Object> toJsonMap(BatchItemStatus status) {
+    Map<String, Object> resultMap = new HashMap<>();
+    resultMap.put("code", io.grpc.Status.fromCodeValue(status.getCode()).getCode().name());
+    if (!status.getMessage().isEmpty()) {
+      resultMap.put("message", status.getMessage());
+    }
+    return resultMap;
+  }
+
+  private static Map<String, Object> toJsonMap(MemorySearchResult memoryResult) {
+    Map<String, Object> resultMap = new HashMap<>();
+    resultMap.put("memory_id", Uuids.bytesToHex(memoryResult.getMemoryId().toByteArray()));
+    resultMap.put("score", memoryResult.getScore());
+    resultMap.put("chunks", toJsonList(memoryResult.getChunksList()));
+    return resultMap;
+  }
+
+  private static List<Map<String, Object>> toJsonList(List<ChunkSearchResult> results) {
+    return results.stream()
+        .map(
+            result -> {
+              Map<String, Object> resultMap = new HashMap<>();
+              resultMap.put("chunk", RestMapper.toJsonMap(result.getChunk()));
+              resultMap.put("score", result.getScore());
+              return resultMap;
+            })
+        .toList();
+  }
+}
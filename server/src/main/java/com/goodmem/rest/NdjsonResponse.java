@@ -0,0 +1,82 @@
+package com.goodmem.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes the messages of a streamed response to a REST client as newline-delimited JSON.
+ *
+ * <p>Nothing is written until the first message arrives, so a call that fails before producing
+ * anything can still be answered with an ordinary JSON error. The first message is flushed at
+ * once so that the client sees the start of the response without waiting for a full buffer;
+ * after that, output is flushed every {@link #FLUSH_INTERVAL} messages and when the stream ends.
+ *
+ * <p>Streamed responses are never compressed. Javalin's gzip stream does not sync-flush, so it
+ * would hold back the lines these flushes are meant to deliver.
+ */
+final class NdjsonResponse<T> implements Consumer<T> {
+
+  /** The media type of newline-delimited JSON. */
+  static final String CONTENT_TYPE = "application/x-ndjson";
+
+  private static final int FLUSH_INTERVAL = 100;
+
+  private final Context ctx;
+  private final ProtoJsonWriter.MessageWriter<T> writer;
+  private JsonGenerator gen;
+  private long count;
+
+  NdjsonResponse(Context ctx, ProtoJsonWriter.MessageWriter<T> writer) {
+    this.ctx = ctx;
+    this.writer = writer;
+  }
+
+  /**
+   * Writes one message as a line.
+   *
+   * @throws UncheckedIOException if the client can no longer be written to
+   */
+  @Override
+  public void accept(T message) {
+    try {
+      if (gen == null) {
+        ctx.contentType(CONTENT_TYPE);
+        ctx.disableCompression();
+        gen = ProtoJsonWriter.createNdjsonGenerator(ctx.outputStream());
+      }
+      writer.write(gen, message);
+      gen.writeRaw('\n');
+      count++;
+      if (count == 1 || count % FLUSH_INTERVAL == 0) {
+        gen.flush();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns whether any part of the response has been written.
+   *
+   * @return true once the first message has been written
+   */
+  boolean started() {
+    return gen != null;
+  }
+
+  /** Flushes the remaining output; an empty stream becomes an empty NDJSON body. */
+  void finish() {
+    if (gen == null) {
+      ctx.contentType(CONTENT_TYPE);
+      return;
+    }
+    try {
+      gen.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
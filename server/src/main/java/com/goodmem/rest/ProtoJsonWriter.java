@@ -0,0 +1,328 @@
+package com.goodmem.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.goodmem.rest.dto.DistanceMetric;
+import com.goodmem.rest.dto.Modality;
+import com.goodmem.rest.dto.ProviderType;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.util.Timestamps;
+import goodmem.v1.Apikey;
+import goodmem.v1.EmbedderOuterClass;
+import goodmem.v1.MemoryOuterClass;
+import goodmem.v1.SpaceOuterClass;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * Writes protocol buffer responses as JSON straight to an output stream.
+ *
+ * <p>The default REST path converts each message into a {@code Map} with {@link
+ * com.goodmem.util.RestMapper}, copies it into a DTO record and lets Javalin serialize the DTO,
+ * which allocates two object graphs per response. This writer instead walks the message once with
+ * a Jackson {@link JsonGenerator}. Field names are {@link SerializedString}s, whose quoted UTF-8
+ * form is computed once, and UUIDs are hex-encoded from a byte-to-digits table without building
+ * intermediate strings. The JSON has the same shape as the corresponding DTO in {@code
+ * com.goodmem.rest.dto}.
+ */
+public final class ProtoJsonWriter {
+
+  private static final JsonFactory JSON_FACTORY =
+      JsonFactory.builder().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET).build();
+
+  // Two upper-case hex digits per byte value, matching Uuids.bytesToHex
+  private static final char[] BYTE_TO_HEX = new char[512];
+
+  static {
+    char[] digits = "0123456789ABCDEF".toCharArray();
+    for (int b = 0; b < 256; b++) {
+      BYTE_TO_HEX[2 * b] = digits[b >>> 4];
+      BYTE_TO_HEX[2 * b + 1] = digits[b & 0xF];
+    }
+  }
+
+  private static final SerializedString SPACES = new SerializedString("spaces");
+  private static final SerializedString NEXT_TOKEN = new SerializedString("nextToken");
+  private static final SerializedString EMBEDDERS = new SerializedString("embedders");
+  private static final SerializedString SPACE_ID = new SerializedString("spaceId");
+  private static final SerializedString NAME = new SerializedString("name");
+  private static final SerializedString LABELS = new SerializedString("labels");
+  private static final SerializedString EMBEDDER_ID = new SerializedString("embedderId");
+  private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+  private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+  private static final SerializedString OWNER_ID = new SerializedString("ownerId");
+  private static final SerializedString CREATED_BY_ID = new SerializedString("createdById");
+  private static final SerializedString UPDATED_BY_ID = new SerializedString("updatedById");
+  private static final SerializedString PUBLIC_READ = new SerializedString("publicRead");
+  private static final SerializedString DISTANCE_METRIC = new SerializedString("distanceMetric");
+  private static final SerializedString TWO_STAGE_SEARCH = new SerializedString("twoStageSearch");
+  private static final SerializedString DISPLAY_NAME = new SerializedString("displayName");
+  private static final SerializedString DESCRIPTION = new SerializedString("description");
+  private static final SerializedString PROVIDER_TYPE = new SerializedString("providerType");
+  private static final SerializedString ENDPOINT_URL = new SerializedString("endpointUrl");
+  private static final SerializedString API_PATH = new SerializedString("apiPath");
+  private static final SerializedString MODEL_IDENTIFIER = new SerializedString("modelIdentifier");
+  private static final SerializedString DIMENSIONALITY = new SerializedString("dimensionality");
+  private static final SerializedString MAX_SEQUENCE_LENGTH =
+      new SerializedString("maxSequenceLength");
+  private static final SerializedString SUPPORTED_MODALITIES =
+      new SerializedString("supportedModalities");
+  private static final SerializedString VERSION = new SerializedString("version");
+  private static final SerializedString MONITORING_ENDPOINT =
+      new SerializedString("monitoringEndpoint");
+  private static final SerializedString API_KEY_ID = new SerializedString("apiKeyId");
+  private static final SerializedString USER_ID = new SerializedString("userId");
+  private static final SerializedString KEY_PREFIX = new SerializedString("keyPrefix");
+  private static final SerializedString STATUS = new SerializedString("status");
+  private static final SerializedString EXPIRES_AT = new SerializedString("expiresAt");
+  private static final SerializedString LAST_USED_AT = new SerializedString("lastUsedAt");
+  private static final SerializedString MEMORY_ID = new SerializedString("memoryId");
+  private static final SerializedString ORIGINAL_CONTENT_REF =
+      new SerializedString("originalContentRef");
+  private static final SerializedString CONTENT_TYPE = new SerializedString("contentType");
+  private static final SerializedString METADATA = new SerializedString("metadata");
+  private static final SerializedString PROCESSING_STATUS =
+      new SerializedString("processingStatus");
+
+  private ProtoJsonWriter() {
+    // Utility class
+  }
+
+  /** Writes one message as a JSON object. */
+  @FunctionalInterface
+  public interface MessageWriter<T> {
+    void write(JsonGenerator gen, T message) throws IOException;
+  }
+
+  /**
+   * Creates a generator for newline-delimited JSON. Root-level values are written without a
+   * separator, so the caller ends each one with a newline.
+   *
+   * @param out the stream to write to; closing the generator flushes but does not close it
+   * @return the generator
+   * @throws IOException if the generator cannot be created
+   */
+  static JsonGenerator createNdjsonGenerator(OutputStream out) throws IOException {
+    JsonGenerator gen = JSON_FACTORY.createGenerator(out);
+    gen.setRootValueSeparator(null);
+    return gen;
+  }
+
+  /**
+   * Writes a ListSpacesResponse in the shape of {@link com.goodmem.rest.dto.ListSpacesResponse}.
+   *
+   * @param out the stream to write to; it is flushed but not closed
+   * @param response the response to write
+   * @throws IOException if writing to the stream fails
+   */
+  public static void writeListSpacesResponse(
+      OutputStream out, SpaceOuterClass.ListSpacesResponse response) throws IOException {
+    try (JsonGenerator gen = JSON_FACTORY.createGenerator(out)) {
+      gen.writeStartObject();
+      gen.writeFieldName(SPACES);
+      gen.writeStartArray();
+      for (SpaceOuterClass.Space space : response.getSpacesList()) {
+        writeSpace(gen, space);
+      }
+      gen.writeEndArray();
+      gen.writeFieldName(NEXT_TOKEN);
+      if (response.hasNextToken()) {
+        gen.writeString(response.getNextToken());
+      } else {
+        gen.writeNull();
+      }
+      gen.writeEndObject();
+    }
+  }
+
+  /**
+   * Writes a ListEmbeddersResponse in the shape of {@link
+   * com.goodmem.rest.dto.ListEmbeddersResponse}.
+   *
+   * @param out the stream to write to; it is flushed but not closed
+   * @param response the response to write
+   * @throws IOException if writing to the stream fails
+   */
+  public static void writeListEmbeddersResponse(
+      OutputStream out, EmbedderOuterClass.ListEmbeddersResponse response) throws IOException {
+    try (JsonGenerator gen = JSON_FACTORY.createGenerator(out)) {
+      gen.writeStartObject();
+      gen.writeFieldName(EMBEDDERS);
+      gen.writeStartArray();
+      for (EmbedderOuterClass.Embedder embedder : response.getEmbeddersList()) {
+        writeEmbedder(gen, embedder);
+      }
+      gen.writeEndArray();
+      gen.writeEndObject();
+    }
+  }
+
+  /** Writes a Space in the shape of {@link com.goodmem.rest.dto.Space}. */
+  static void writeSpace(JsonGenerator gen, SpaceOuterClass.Space space) throws IOException {
+    gen.writeStartObject();
+    writeUuid(gen, SPACE_ID, space.getSpaceId());
+    gen.writeFieldName(NAME);
+    gen.writeString(space.getName());
+    writeStringMap(gen, LABELS, space.getLabelsMap());
+    writeUuid(gen, EMBEDDER_ID, space.getEmbedderId());
+    writeTimestamp(gen, CREATED_AT, space.getCreatedAt());
+    writeTimestamp(gen, UPDATED_AT, space.getUpdatedAt());
+    writeUuid(gen, OWNER_ID, space.getOwnerId());
+    writeUuid(gen, CREATED_BY_ID, space.getCreatedById());
+    writeUuid(gen, UPDATED_BY_ID, space.getUpdatedById());
+    gen.writeFieldName(PUBLIC_READ);
+    gen.writeBoolean(space.getPublicRead());
+    writeEnum(
+        gen, DISTANCE_METRIC, DistanceMetric.fromProtoDistanceMetric(space.getDistanceMetric()));
+    gen.writeFieldName(TWO_STAGE_SEARCH);
+    gen.writeBoolean(space.getTwoStageSearch());
+    gen.writeEndObject();
+  }
+
+  /** Writes an Embedder in the shape of {@link com.goodmem.rest.dto.EmbedderResponse}. */
+  static void writeEmbedder(JsonGenerator gen, EmbedderOuterClass.Embedder embedder)
+      throws IOException {
+    gen.writeStartObject();
+    writeUuid(gen, EMBEDDER_ID, embedder.getEmbedderId());
+    gen.writeFieldName(DISPLAY_NAME);
+    gen.writeString(embedder.getDisplayName());
+    gen.writeFieldName(DESCRIPTION);
+    gen.writeString(embedder.getDescription());
+    writeEnum(gen, PROVIDER_TYPE, ProviderType.fromProtoProviderType(embedder.getProviderType()));
+    gen.writeFieldName(ENDPOINT_URL);
+    gen.writeString(embedder.getEndpointUrl());
+    gen.writeFieldName(API_PATH);
+    gen.writeString(embedder.getApiPath());
+    gen.writeFieldName(MODEL_IDENTIFIER);
+    gen.writeString(embedder.getModelIdentifier());
+    gen.writeFieldName(DIMENSIONALITY);
+    gen.writeNumber(embedder.getDimensionality());
+    gen.writeFieldName(MAX_SEQUENCE_LENGTH);
+    if (embedder.hasMaxSequenceLength()) {
+      gen.writeNumber(embedder.getMaxSequenceLength());
+    } else {
+      gen.writeNull();
+    }
+    gen.writeFieldName(SUPPORTED_MODALITIES);
+    gen.writeStartArray();
+    for (EmbedderOuterClass.Modality modality : embedder.getSupportedModalitiesList()) {
+      Modality dtoModality = Modality.fromProtoModality(modality);
+      if (dtoModality != null) {
+        gen.writeString(dtoModality.name());
+      }
+    }
+    gen.writeEndArray();
+    writeStringMap(gen, LABELS, embedder.getLabelsMap());
+    gen.writeFieldName(VERSION);
+    gen.writeString(embedder.getVersion());
+    gen.writeFieldName(MONITORING_ENDPOINT);
+    gen.writeString(embedder.getMonitoringEndpoint());
+    writeUuid(gen, OWNER_ID, embedder.getOwnerId());
+    writeTimestamp(gen, CREATED_AT, embedder.getCreatedAt());
+    writeTimestamp(gen, UPDATED_AT, embedder.getUpdatedAt());
+    writeUuid(gen, CREATED_BY_ID, embedder.getCreatedById());
+    writeUuid(gen, UPDATED_BY_ID, embedder.getUpdatedById());
+    gen.writeEndObject();
+  }
+
+  /** Writes an ApiKey in the shape of {@link com.goodmem.rest.dto.ApiKeyResponse}. */
+  static void writeApiKey(JsonGenerator gen, Apikey.ApiKey apiKey) throws IOException {
+    gen.writeStartObject();
+    writeUuid(gen, API_KEY_ID, apiKey.getApiKeyId());
+    writeUuid(gen, USER_ID, apiKey.getUserId());
+    gen.writeFieldName(KEY_PREFIX);
+    gen.writeString(apiKey.getKeyPrefix());
+    gen.writeFieldName(STATUS);
+    gen.writeString(apiKey.getStatus().name());
+    writeStringMap(gen, LABELS, apiKey.getLabelsMap());
+    if (apiKey.hasExpiresAt()) {
+      writeTimestamp(gen, EXPIRES_AT, apiKey.getExpiresAt());
+    } else {
+      gen.writeFieldName(EXPIRES_AT);
+      gen.writeNull();
+    }
+    if (apiKey.hasLastUsedAt()) {
+      writeTimestamp(gen, LAST_USED_AT, apiKey.getLastUsedAt());
+    } else {
+      gen.writeFieldName(LAST_USED_AT);
+      gen.writeNull();
+    }
+    writeTimestamp(gen, CREATED_AT, apiKey.getCreatedAt());
+    writeTimestamp(gen, UPDATED_AT, apiKey.getUpdatedAt());
+    writeUuid(gen, CREATED_BY_ID, apiKey.getCreatedById());
+    writeUuid(gen, UPDATED_BY_ID, apiKey.getUpdatedById());
+    gen.writeEndObject();
+  }
+
+  /** Writes a Memory with the fields that {@code RestMapper.toJsonMap} gives it. */
+  static void writeMemory(JsonGenerator gen, MemoryOuterClass.Memory memory) throws IOException {
+    gen.writeStartObject();
+    writeUuid(gen, MEMORY_ID, memory.getMemoryId());
+    writeUuid(gen, SPACE_ID, memory.getSpaceId());
+    gen.writeFieldName(ORIGINAL_CONTENT_REF);
+    gen.writeString(memory.getOriginalContentRef());
+    gen.writeFieldName(CONTENT_TYPE);
+    gen.writeString(memory.getContentType());
+    writeStringMap(gen, METADATA, memory.getMetadataMap());
+    gen.writeFieldName(PROCESSING_STATUS);
+    gen.writeString(memory.getProcessingStatus());
+    writeTimestamp(gen, CREATED_AT, memory.getCreatedAt());
+    writeTimestamp(gen, UPDATED_AT, memory.getUpdatedAt());
+    writeUuid(gen, CREATED_BY_ID, memory.getCreatedById());
+    writeUuid(gen, UPDATED_BY_ID, memory.getUpdatedById());
+    gen.writeEndObject();
+  }
+
+  /**
+   * Writes UUID bytes as hex in the format of {@link com.goodmem.Uuids#bytesToHex(ByteString)}:
+   * dashed 8-4-4-4-12 for 16 bytes, undashed otherwise.
+   */
+  private static void writeUuid(JsonGenerator gen, SerializableString name, ByteString bytes)
+      throws IOException {
+    gen.writeFieldName(name);
+    int size = bytes.size();
+    boolean dashed = size == 16;
+    char[] chars = new char[dashed ? 36 : 2 * size];
+    int pos = 0;
+    for (int i = 0; i < size; i++) {
+      if (dashed && (i == 4 || i == 6 || i == 8 || i == 10)) {
+        chars[pos++] = '-';
+      }
+      int index = 2 * (bytes.byteAt(i) & 0xFF);
+      chars[pos++] = BYTE_TO_HEX[index];
+      chars[pos++] = BYTE_TO_HEX[index + 1];
+    }
+    gen.writeString(chars, 0, chars.length);
+  }
+
+  private static void writeTimestamp(
+      JsonGenerator gen, SerializableString name, Timestamp timestamp) throws IOException {
+    gen.writeFieldName(name);
+    gen.writeNumber(Timestamps.toMillis(timestamp));
+  }
+
+  private static void writeEnum(JsonGenerator gen, SerializableString name, Enum<?> value)
+      throws IOException {
+    gen.writeFieldName(name);
+    if (value == null) {
+      gen.writeNull();
+    } else {
+      gen.writeString(value.name());
+    }
+  }
+
+  private static void writeStringMap(
+      JsonGenerator gen, SerializableString name, Map<String, String> map) throws IOException {
+    gen.writeFieldName(name);
+    gen.writeStartObject();
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      gen.writeFieldName(entry.getKey());
+      gen.writeString(entry.getValue());
+    }
+    gen.writeEndObject();
+  }
+}
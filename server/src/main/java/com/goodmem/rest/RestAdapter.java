@@ -1,12 +1,17 @@
 package com.goodmem.rest;
 
 import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
 import com.goodmem.common.status.StatusOr;
+import com.goodmem.security.User;
 import com.google.protobuf.ByteString;
+import io.grpc.stub.StreamObserver;
 import io.javalin.http.Context;
 import com.google.common.base.Strings;
 import com.google.common.io.BaseEncoding;
+import java.io.UncheckedIOException;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import org.tinylog.Logger;
 
 /**
@@ -18,6 +23,9 @@ import org.tinylog.Logger;
  */
 public interface RestAdapter {
 
+  /** Context attribute under which the REST layer stores the authenticated user. */
+  String USER_ATTRIBUTE = "goodmem.user";
+
   /**
    * Sets an error response with the specified status code and message.
    *
@@ -30,6 +38,79 @@ public interface RestAdapter {
     Logger.error("Error response: {} - {}", statusCode, message);
   }
 
+  /**
+   * Sets an error response for a failed service call, using the HTTP code that corresponds to the
+   * status code. Internal failures are reported with a generic message so that database details
+   * do not leak.
+   *
+   * @param ctx The Javalin context to set the error on
+   * @param status The status the service call failed with
+   */
+  default void setError(Context ctx, Status status) {
+    if (status.getCode() == StatusCode.INTERNAL || status.getCode() == StatusCode.UNKNOWN) {
+      Logger.error(status.getCause(), "Service call failed: {}", status.getMessage());
+      setError(ctx, 500, "Unexpected error while processing request.");
+      return;
+    }
+    setError(ctx, status.getHttpCode(), status.getMessage());
+  }
+
+  /**
+   * Returns the user authenticated for this request by the REST layer.
+   *
+   * @param ctx The Javalin context of the request
+   * @return The authenticated user, or null if the endpoint needs no authentication
+   */
+  default User authenticatedUser(Context ctx) {
+    return ctx.attribute(USER_ATTRIBUTE);
+  }
+
+  /**
+   * Returns whether the client asked for a newline-delimited JSON stream rather than a single
+   * JSON document.
+   *
+   * @param ctx The Javalin context of the request
+   * @return True if the Accept header names application/x-ndjson
+   */
+  default boolean wantsNdjson(Context ctx) {
+    String accept = ctx.header("Accept");
+    return accept != null && accept.contains(NdjsonResponse.CONTENT_TYPE);
+  }
+
+  /**
+   * Calls a server-streaming service method and writes its messages to the client as
+   * newline-delimited JSON, one object per line, as the service produces them.
+   *
+   * <p>A failure before the first message is reported as an ordinary error response. Once lines
+   * have been sent the status code can no longer change, so a later failure ends the body early
+   * and is only logged.
+   *
+   * @param ctx The Javalin context of the request
+   * @param method The service method, e.g. {@code spaceService::streamSpaces}
+   * @param request The request message
+   * @param writer Writes one response message as a JSON object
+   */
+  default <ReqT, RespT> void streamNdjson(
+      Context ctx,
+      BiConsumer<ReqT, StreamObserver<RespT>> method,
+      ReqT request,
+      ProtoJsonWriter.MessageWriter<RespT> writer) {
+    NdjsonResponse<RespT> response = new NdjsonResponse<>(ctx, writer);
+    Status status = DirectCall.serverStreaming(authenticatedUser(ctx), method, request, response);
+    if (status.isError()) {
+      if (!response.started()) {
+        setError(ctx, status);
+        return;
+      }
+      Logger.warn("NDJSON stream ended early: {}", status.getMessage());
+    }
+    try {
+      response.finish();
+    } catch (UncheckedIOException e) {
+      Logger.warn(e, "Failed to finish NDJSON stream");
+    }
+  }
+
   /**
    * Converts a hexadecimal UUID string to a ByteString.
    *
@@ -1,55 +1,84 @@
 package com.goodmem.rest;
 
+import static io.javalin.apibuilder.ApiBuilder.after;
+import static io.javalin.apibuilder.ApiBuilder.before;
 import static io.javalin.apibuilder.ApiBuilder.delete;
 import static io.javalin.apibuilder.ApiBuilder.get;
 import static io.javalin.apibuilder.ApiBuilder.path;
 import static io.javalin.apibuilder.ApiBuilder.post;
 import static io.javalin.apibuilder.ApiBuilder.put;
 
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.security.ApiKeyAuthenticator;
+import com.goodmem.security.User;
+import com.goodmem.util.AdaptiveLimiter;
+import com.goodmem.util.ConcurrencyLimits;
 import goodmem.v1.ApiKeyServiceGrpc;
 import goodmem.v1.EmbedderServiceGrpc;
 import goodmem.v1.MemoryServiceGrpc;
 import goodmem.v1.SpaceServiceGrpc;
 import goodmem.v1.UserServiceGrpc;
-import io.grpc.ManagedChannel;
-import io.javalin.Javalin;
 import io.javalin.config.RouterConfig;
-
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 import javax.sql.DataSource;
+import org.tinylog.Logger;
 
 /**
  * Factory for creating REST adapters for all service endpoints.
  *
  * <p>This factory creates and manages all REST adapter instances, ensuring they are properly
- * initialized with their corresponding gRPC service stubs.
+ * initialized with their corresponding service implementations. Handlers call the services
+ * directly rather than through a gRPC channel; see {@link DirectCall}. Requests are authenticated
+ * once, before any handler runs, with the same {@link ApiKeyAuthenticator} the gRPC interceptor
+ * uses, and then admitted under the adaptive concurrency limit of their route.
  */
 public class RestAdapterFactory {
 
+  /** Paths that can be called without an API key. */
+  private static final Set<String> UNAUTHENTICATED_PATHS = Set.of("/v1/system/init");
+
+  /** Context attribute holding the concurrency permit of an admitted request. */
+  private static final String PERMIT_ATTRIBUTE = "goodmem.concurrencyPermit";
+
+  /** Path segments that are resource IDs, which do not distinguish one route from another. */
+  private static final Pattern ID_SEGMENT = Pattern.compile("(?<=/)[0-9a-fA-F-]{32,36}(?=/|$)");
+
   private final List<RestAdapter> adapters = new ArrayList<>();
   private final SpaceServiceRestAdapter spaceAdapter;
   private final UserServiceRestAdapter userAdapter;
   private final MemoryServiceRestAdapter memoryAdapter;
   private final ApiKeyServiceRestAdapter apiKeyAdapter;
   private final EmbedderServiceRestAdapter embedderAdapter;
+  private final ApiKeyAuthenticator authenticator;
+  private final ConcurrencyLimits limits;
 
   /**
-   * Creates a new RestAdapterFactory with the specified gRPC service stubs.
+   * Creates a new RestAdapterFactory with the specified service implementations.
    *
-   * @param userService The UserService gRPC stub
-   * @param spaceService The SpaceService gRPC stub
-   * @param memoryService The MemoryService gRPC stub
-   * @param apiKeyService The ApiKeyService gRPC stub
-   * @param embedderService The EmbedderService gRPC stub
+   * @param userService The UserService implementation
+   * @param spaceService The SpaceService implementation
+   * @param memoryService The MemoryService implementation
+   * @param apiKeyService The ApiKeyService implementation
+   * @param embedderService The EmbedderService implementation
+   * @param authenticator Resolves the API key of each request to a user
+   * @param limits The concurrency limits requests are admitted under, keyed by route
    * @param dataSource The data source for database connections
    */
   public RestAdapterFactory(
-      UserServiceGrpc.UserServiceBlockingStub userService,
-      SpaceServiceGrpc.SpaceServiceBlockingStub spaceService,
-      MemoryServiceGrpc.MemoryServiceBlockingStub memoryService,
-      ApiKeyServiceGrpc.ApiKeyServiceBlockingStub apiKeyService,
-      EmbedderServiceGrpc.EmbedderServiceBlockingStub embedderService,
+      UserServiceGrpc.AsyncService userService,
+      SpaceServiceGrpc.AsyncService spaceService,
+      MemoryServiceGrpc.AsyncService memoryService,
+      ApiKeyServiceGrpc.AsyncService apiKeyService,
+      EmbedderServiceGrpc.AsyncService embedderService,
+      ApiKeyAuthenticator authenticator,
+      ConcurrencyLimits limits,
       DataSource dataSource) {
 
     // Create all adapters
@@ -58,6 +87,8 @@ public class RestAdapterFactory {
     this.memoryAdapter = new MemoryServiceRestAdapter(memoryService);
     this.apiKeyAdapter = new ApiKeyServiceRestAdapter(apiKeyService);
     this.embedderAdapter = new EmbedderServiceRestAdapter(embedderService);
+    this.authenticator = authenticator;
+    this.limits = limits;
 
     // Add all adapters to the list
     adapters.add(userAdapter);
@@ -68,21 +99,70 @@ public class RestAdapterFactory {
   }
 
   /**
-   * Creates a new RestAdapterFactory with service stubs created from the provided channel.
+   * Authenticates a request before it reaches its handler, storing the user under
+   * {@link RestAdapter#USER_ATTRIBUTE}. Unauthenticated requests are answered with 401 and go no
+   * further.
    *
-   * @param channel The gRPC managed channel to use for creating service stubs
-   * @param dataSource The data source for database connections
-   * @return A new RestAdapterFactory instance
+   * @param ctx The Javalin context of the request
+   */
+  private void authenticate(Context ctx) {
+    if (ctx.method() == HandlerType.OPTIONS || UNAUTHENTICATED_PATHS.contains(ctx.path())) {
+      return;
+    }
+    StatusOr<User> userOr = authenticator.authenticate(ctx.header("x-api-key"));
+    if (userOr.isNotOk()) {
+      Logger.warn("Authentication failed: {}", userOr.getStatus().getMessage());
+      ctx.status(401).json(Map.of("error", userOr.getStatus().getMessage()));
+      ctx.skipRemainingHandlers();
+      return;
+    }
+    ctx.attribute(RestAdapter.USER_ATTRIBUTE, userOr.getValue());
+  }
+
+  /**
+   * Admits an authenticated request under the concurrency limit of its route, storing its permit
+   * under {@link #PERMIT_ATTRIBUTE}. Requests over the limit are answered at once with 429 and a
+   * Retry-After header rather than queueing for a database connection.
+   *
+   * @param ctx The Javalin context of the request
+   */
+  private void admit(Context ctx) {
+    if (ctx.method() == HandlerType.OPTIONS) {
+      return;
+    }
+    String operation = ctx.method() + " " + ID_SEGMENT.matcher(ctx.path()).replaceAll("{id}");
+    User user = ctx.attribute(RestAdapter.USER_ATTRIBUTE);
+    Optional<AdaptiveLimiter.Permit> permitOr =
+        limits.tryAcquire(
+            operation,
+            user != null ? user.getId().toString() : ConcurrencyLimits.UNAUTHENTICATED_PARTITION);
+    if (permitOr.isEmpty()) {
+      long retryAfterMillis = limits.limiterFor(operation).retryAfter().toMillis();
+      Logger.warn("Shedding {} request: at concurrency limit", operation);
+      ctx.header("Retry-After", Long.toString(Math.max(1, (retryAfterMillis + 999) / 1000)));
+      ctx.status(429).json(Map.of("error", "Too many concurrent requests; retry later"));
+      ctx.skipRemainingHandlers();
+      return;
+    }
+    ctx.attribute(PERMIT_ATTRIBUTE, permitOr.get());
+  }
+
+  /**
+   * Releases the concurrency permit of a request once its response is complete. Responses that
+   * report overload cut the route's limit; all others are latency samples.
+   *
+   * @param ctx The Javalin context of the request
    */
-  public static RestAdapterFactory createWithChannel(
-      ManagedChannel channel, DataSource dataSource) {
-    return new RestAdapterFactory(
-        UserServiceGrpc.newBlockingStub(channel),
-        SpaceServiceGrpc.newBlockingStub(channel),
-        MemoryServiceGrpc.newBlockingStub(channel),
-        ApiKeyServiceGrpc.newBlockingStub(channel),
-        EmbedderServiceGrpc.newBlockingStub(channel),
-        dataSource);
+  private void release(Context ctx) {
+    AdaptiveLimiter.Permit permit = ctx.attribute(PERMIT_ATTRIBUTE);
+    if (permit == null) {
+      return;
+    }
+    int status = ctx.statusCode();
+    permit.release(
+        status == 429 || status == 503 || status == 504
+            ? AdaptiveLimiter.Outcome.DROPPED
+            : AdaptiveLimiter.Outcome.SUCCESS);
   }
 
   /**
@@ -91,6 +171,12 @@ public class RestAdapterFactory {
   public void configureRoutes(RouterConfig router) {
     router.apiBuilder(
         () -> {
+          // Every API request is authenticated once, up front
+          before("/v1/*", this::authenticate);
+          // Then admitted under their route's concurrency limit, released once answered
+          before("/v1/*", this::admit);
+          after("/v1/*", this::release);
+
           // Space endpoints
           path(
               "/v1/spaces",
@@ -109,6 +195,23 @@ public class RestAdapterFactory {
                     () -> {
                       get(memoryAdapter::handleListMemories);
                     });
+                path(
+                    "{spaceId}/search",
+                    () -> {
+                      post(memoryAdapter::handleSearchMemories);
+                    });
+              });
+
+          // Search endpoints that span spaces
+          path(
+              "/v1/search",
+              () -> {
+                post(memoryAdapter::handleSearchAllMemories);
+                path(
+                    "batch",
+                    () -> {
+                      post(memoryAdapter::handleBatchSearchMemories);
+                    });
               });
 
           // User endpoints
@@ -134,6 +237,13 @@ public class RestAdapterFactory {
               "/v1/memories",
               () -> {
                 post(memoryAdapter::handleCreateMemory);
+                path(
+                    "batch",
+                    () -> {
+                      post(memoryAdapter::handleBatchCreateMemories);
+                      post("get", memoryAdapter::handleBatchGetMemories);
+                      post("delete", memoryAdapter::handleBatchDeleteMemories);
+                    });
                 path(
                     "{id}",
                     () -> {
@@ -5,6 +5,7 @@ import static io.javalin.apibuilder.ApiBuilder.path;
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.rest.dto.CreateSpaceRequest;
 import com.goodmem.rest.dto.DeleteSpaceRequest;
+import com.goodmem.rest.dto.DistanceMetric;
 import com.goodmem.rest.dto.GetSpaceRequest;
 import com.goodmem.rest.dto.ListSpacesRequest;
 import com.goodmem.rest.dto.ListSpacesResponse;
@@ -14,19 +15,20 @@ import com.goodmem.rest.dto.UpdateSpaceRequest;
 import com.goodmem.util.RestMapper;
 import com.google.common.base.Strings;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
 import goodmem.v1.Common;
 import goodmem.v1.SpaceOuterClass;
 import goodmem.v1.SpaceServiceGrpc;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
 import io.javalin.openapi.HttpMethod;
 import io.javalin.openapi.OpenApi;
 import io.javalin.openapi.OpenApiContent;
 import io.javalin.openapi.OpenApiRequestBody;
 import io.javalin.openapi.OpenApiResponse;
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import org.tinylog.Logger;
 
 /**
@@ -37,14 +39,14 @@ import org.tinylog.Logger;
  */
 public class SpaceServiceRestAdapter implements RestAdapter {
   
-  private final SpaceServiceGrpc.SpaceServiceBlockingStub spaceService;
+  private final SpaceServiceGrpc.AsyncService spaceService;
   
   /**
-   * Creates a new SpaceServiceRestAdapter with the specified gRPC service stub.
+   * Creates a new SpaceServiceRestAdapter backed by the specified service implementation.
    * 
-   * @param spaceService The gRPC service stub to delegate to
+   * @param spaceService The service implementation to delegate to
    */
-  public SpaceServiceRestAdapter(SpaceServiceGrpc.SpaceServiceBlockingStub spaceService) {
+  public SpaceServiceRestAdapter(SpaceServiceGrpc.AsyncService spaceService) {
     this.spaceService = spaceService;
   }
   
@@ -80,6 +82,7 @@ public class SpaceServiceRestAdapter implements RestAdapter {
                 "name": "My Research Space",
                 "embedderId": "00000000-0000-0000-0000-000000000001",
                 "publicRead": false,
+                "distanceMetric": "COSINE",
                 "labels": {
                   "category": "research",
                   "project": "ai-embeddings"
@@ -138,6 +141,15 @@ public class SpaceServiceRestAdapter implements RestAdapter {
       requestBuilder.putAllLabels(requestDto.labels());
     }
     
+    // Set the distance metric if provided; the server defaults to COSINE otherwise
+    if (requestDto.distanceMetric() != null) {
+      requestBuilder.setDistanceMetric(requestDto.distanceMetric().toProtoDistanceMetric());
+    }
+    
+    if (requestDto.twoStageSearch() != null) {
+      requestBuilder.setTwoStageSearch(requestDto.twoStageSearch());
+    }
+    
     // Set owner ID if provided
     if (!Strings.isNullOrEmpty(requestDto.ownerId())) {
       StatusOr<ByteString> ownerIdOr = convertHexToUuidBytes(requestDto.ownerId());
@@ -150,8 +162,14 @@ public class SpaceServiceRestAdapter implements RestAdapter {
       }
     }
 
-    // Call the gRPC service
-    SpaceOuterClass.Space response = spaceService.createSpace(requestBuilder.build());
+    // Call the service
+    StatusOr<SpaceOuterClass.Space> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), spaceService::createSpace, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    SpaceOuterClass.Space response = responseOr.getValue();
     
     // Map the gRPC response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -165,7 +183,9 @@ public class SpaceServiceRestAdapter implements RestAdapter {
         (String) responseMap.get("owner_id"),
         (String) responseMap.get("created_by_id"),
         (String) responseMap.get("updated_by_id"),
-        (Boolean) responseMap.get("public_read")
+        (Boolean) responseMap.get("public_read"),
+        DistanceMetric.fromProtoDistanceMetric(response.getDistanceMetric()),
+        response.getTwoStageSearch()
     );
     
     ctx.json(responseDto);
@@ -230,7 +250,13 @@ public class SpaceServiceRestAdapter implements RestAdapter {
         .setSpaceId(spaceIdOr.getValue())
         .build();
     
-    SpaceOuterClass.Space response = spaceService.getSpace(request);
+    StatusOr<SpaceOuterClass.Space> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), spaceService::getSpace, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    SpaceOuterClass.Space response = responseOr.getValue();
     
     // Map the gRPC response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -244,7 +270,9 @@ public class SpaceServiceRestAdapter implements RestAdapter {
         (String) responseMap.get("owner_id"),
         (String) responseMap.get("created_by_id"),
         (String) responseMap.get("updated_by_id"),
-        (Boolean) responseMap.get("public_read")
+        (Boolean) responseMap.get("public_read"),
+        DistanceMetric.fromProtoDistanceMetric(response.getDistanceMetric()),
+        response.getTwoStageSearch()
     );
     
     ctx.json(responseDto);
@@ -260,7 +288,7 @@ public class SpaceServiceRestAdapter implements RestAdapter {
       path = "/v1/spaces",
       methods = { HttpMethod.GET },
       summary = "List spaces",
-      description = "Retrieves a list of spaces accessible to the caller, with optional filtering by owner, labels, and name. Results are paginated with a maximum number of spaces per response.",
+      description = "Retrieves a list of spaces accessible to the caller, with optional filtering by owner, labels, and name. Results are paginated with a maximum number of spaces per response. With \"Accept: application/x-ndjson\", every matching space is streamed instead, one JSON object per line, and max_results and next_token are ignored.",
       operationId = "listSpaces",
       tags = "Spaces",
       queryParams = {
@@ -407,35 +435,29 @@ public class SpaceServiceRestAdapter implements RestAdapter {
       requestBuilder.setSortOrder(requestDto.sortOrder().toProtoSortOrder());
     }
 
-    // Call the gRPC service
-    SpaceOuterClass.ListSpacesResponse response = spaceService.listSpaces(requestBuilder.build());
-    
-    // Convert the response to a list of Space DTOs
-    List<Space> spaces = response.getSpacesList().stream()
-        .map(space -> {
-          Map<String, Object> spaceMap = RestMapper.toJsonMap(space);
-          return new Space(
-              (String) spaceMap.get("space_id"),
-              (String) spaceMap.get("name"),
-              (Map<String, String>) spaceMap.get("labels"),
-              (String) spaceMap.get("embedder_id"),
-              (Long) spaceMap.get("created_at"),
-              (Long) spaceMap.get("updated_at"),
-              (String) spaceMap.get("owner_id"),
-              (String) spaceMap.get("created_by_id"),
-              (String) spaceMap.get("updated_by_id"),
-              (Boolean) spaceMap.get("public_read")
-          );
-        })
-        .collect(Collectors.toList());
-    
-    // Create and return the ListSpacesResponse DTO
-    ListSpacesResponse responseDto = new ListSpacesResponse(
-        spaces,
-        response.hasNextToken() ? response.getNextToken() : null
-    );
+    // Stream every matching space as NDJSON if the client asked for it
+    if (wantsNdjson(ctx)) {
+      streamNdjson(
+          ctx, spaceService::streamSpaces, requestBuilder.build(), ProtoJsonWriter::writeSpace);
+      return;
+    }
+
+    // Call the service
+    StatusOr<SpaceOuterClass.ListSpacesResponse> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), spaceService::listSpaces, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    SpaceOuterClass.ListSpacesResponse response = responseOr.getValue();
     
-    ctx.json(responseDto);
+    // Stream the response straight to the client rather than through Maps and DTOs
+    ctx.contentType(ContentType.APPLICATION_JSON);
+    try {
+      ProtoJsonWriter.writeListSpacesResponse(ctx.outputStream(), response);
+    } catch (IOException e) {
+      Logger.warn(e, "Failed to write ListSpaces response");
+    }
   }
 
   /**
@@ -545,8 +567,14 @@ public class SpaceServiceRestAdapter implements RestAdapter {
       requestBuilder.setMergeLabels(labelsBuilder.build());
     }
     
-    // Call the gRPC service
-    SpaceOuterClass.Space response = spaceService.updateSpace(requestBuilder.build());
+    // Call the service
+    StatusOr<SpaceOuterClass.Space> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), spaceService::updateSpace, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    SpaceOuterClass.Space response = responseOr.getValue();
     
     // Map the gRPC response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -560,7 +588,9 @@ public class SpaceServiceRestAdapter implements RestAdapter {
         (String) responseMap.get("owner_id"),
         (String) responseMap.get("created_by_id"),
         (String) responseMap.get("updated_by_id"),
-        (Boolean) responseMap.get("public_read")
+        (Boolean) responseMap.get("public_read"),
+        DistanceMetric.fromProtoDistanceMetric(response.getDistanceMetric()),
+        response.getTwoStageSearch()
     );
     
     ctx.json(responseDto);
@@ -625,8 +655,13 @@ public class SpaceServiceRestAdapter implements RestAdapter {
             .setSpaceId(spaceIdOr.getValue())
             .build();
     
-    // Call the gRPC service
-    spaceService.deleteSpace(request);
+    // Call the service
+    StatusOr<Empty> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), spaceService::deleteSpace, request);
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
     
     // Return 204 No Content on successful deletion
     ctx.status(204);
@@ -30,17 +30,17 @@ import org.tinylog.Logger;
  */
 public class UserServiceRestAdapter implements RestAdapter {
 
-  private final UserServiceGrpc.UserServiceBlockingStub userService;
+  private final UserServiceGrpc.AsyncService userService;
   private final DataSource dataSource;
 
   /**
-   * Creates a new UserServiceRestAdapter with the specified gRPC service stub.
+   * Creates a new UserServiceRestAdapter backed by the specified service implementation.
    * 
-   * @param userService The gRPC service stub to delegate to
+   * @param userService The service implementation to delegate to
    * @param dataSource Data source for database connection
    */
   public UserServiceRestAdapter(
-      UserServiceGrpc.UserServiceBlockingStub userService,
+      UserServiceGrpc.AsyncService userService,
       DataSource dataSource) {
     this.userService = userService;
     this.dataSource = dataSource;
@@ -125,8 +125,14 @@ public class UserServiceRestAdapter implements RestAdapter {
       requestBuilder.setEmail(requestDto.email());
     }
     
-    // Call the gRPC service
-    UserOuterClass.User response = userService.getUser(requestBuilder.build());
+    // Call the service
+    StatusOr<UserOuterClass.User> responseOr =
+        DirectCall.unary(authenticatedUser(ctx), userService::getUser, requestBuilder.build());
+    if (responseOr.isNotOk()) {
+      setError(ctx, responseOr.getStatus());
+      return;
+    }
+    UserOuterClass.User response = responseOr.getValue();
     
     // Map the gRPC response to our DTO
     Map<String, Object> responseMap = RestMapper.toJsonMap(response);
@@ -60,7 +60,17 @@ public record CreateSpaceRequest(
     @OpenApiPropertyType(definedBy = String.class)
     @OpenApiStringValidation(format = "uuid")
     @OpenApiNullable
-    String ownerId
+    String ownerId,
+
+    @OpenApiDescription("The distance metric used to rank this space's vectors. Cannot be changed after creation. Defaults to COSINE.")
+    @OpenApiExample("COSINE")
+    @OpenApiNullable
+    DistanceMetric distanceMetric,
+
+    @OpenApiDescription("Whether to keep the prefix vectors that two-stage search needs. Only useful for Matryoshka embedders of at least 256 dimensions. Cannot be changed after creation. Defaults to false.")
+    @OpenApiExample("false")
+    @OpenApiNullable
+    Boolean twoStageSearch
 ) {
     /**
      * Convenience constructor with only the essential fields, using empty map for labels.
@@ -70,7 +80,22 @@ public record CreateSpaceRequest(
      * @param publicRead Whether the space should be publicly readable
      */
     public CreateSpaceRequest(String name, String embedderId, Boolean publicRead) {
-        this(name, embedderId, publicRead, Collections.emptyMap(), null);
+        this(name, embedderId, publicRead, Collections.emptyMap(), null, null, null);
+    }
+
+    /**
+     * Constructor for requests that use the server's default distance metric and no two-stage
+     * search.
+     *
+     * @param name The name of the space
+     * @param embedderId The UUID of the embedder to use with this space
+     * @param publicRead Whether the space should be publicly readable
+     * @param labels Key-value pairs to categorize the space
+     * @param ownerId Optional owner ID, or null to use the authenticated user
+     */
+    public CreateSpaceRequest(
+        String name, String embedderId, Boolean publicRead, Map<String, String> labels, String ownerId) {
+        this(name, embedderId, publicRead, labels, ownerId, null, null);
     }
     
     /**
@@ -78,6 +103,6 @@ public record CreateSpaceRequest(
      * Required for proper JSON deserialization.
      */
     public CreateSpaceRequest() {
-        this(null, null, null, null, null);
+        this(null, null, null, null, null, null, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.goodmem.rest.dto;
+
+import goodmem.v1.SpaceOuterClass;
+import io.javalin.openapi.OpenApiDescription;
+import io.javalin.openapi.OpenApiName;
+
+/**
+ * Enum representing the vector distance metrics a space can be configured with.
+ *
+ * <p>This enum corresponds to the goodmem.v1.SpaceOuterClass.DistanceMetric protobuf enum,
+ * but is independent from the protocol buffer implementation to maintain separation
+ * between REST and gRPC layers.
+ */
+@OpenApiDescription("Vector distance metrics")
+@OpenApiName("DistanceMetric")
+@ProtobufEquivalent(SpaceOuterClass.DistanceMetric.class)
+public enum DistanceMetric {
+  COSINE,       // Cosine similarity (vectors normalized on write)
+  DOT_PRODUCT,  // Raw inner product
+  EUCLIDEAN;    // L2 distance
+
+  /**
+   * Converts this DTO DistanceMetric to its corresponding protobuf DistanceMetric.
+   *
+   * @return The protocol buffer DistanceMetric enum value
+   */
+  public SpaceOuterClass.DistanceMetric toProtoDistanceMetric() {
+    return switch (this) {
+      case COSINE -> SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_COSINE;
+      case DOT_PRODUCT -> SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_DOT_PRODUCT;
+      case EUCLIDEAN -> SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_EUCLIDEAN;
+    };
+  }
+
+  /**
+   * Converts a protobuf DistanceMetric to its corresponding DTO DistanceMetric.
+   *
+   * @param protoDistanceMetric The protocol buffer DistanceMetric enum value
+   * @return The corresponding DTO DistanceMetric enum value or null if not recognized
+   */
+  public static DistanceMetric fromProtoDistanceMetric(
+      SpaceOuterClass.DistanceMetric protoDistanceMetric) {
+    if (protoDistanceMetric == null) {
+      return null;
+    }
+
+    return switch (protoDistanceMetric) {
+      case DISTANCE_METRIC_COSINE -> COSINE;
+      case DISTANCE_METRIC_DOT_PRODUCT -> DOT_PRODUCT;
+      case DISTANCE_METRIC_EUCLIDEAN -> EUCLIDEAN;
+      default -> null;
+    };
+  }
+}
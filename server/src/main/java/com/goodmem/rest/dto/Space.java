@@ -79,13 +79,23 @@ public record Space(
     @OpenApiDescription("Whether this space is publicly readable by all users.")
     @OpenApiExample("false")
     @OpenApiRequired
-    Boolean publicRead
+    Boolean publicRead,
+
+    @OpenApiDescription("The distance metric used to rank this space's vectors. Fixed at creation time.")
+    @OpenApiExample("COSINE")
+    @OpenApiRequired
+    DistanceMetric distanceMetric,
+
+    @OpenApiDescription("Whether chunks keep the prefix vectors that two-stage search needs. Fixed at creation time.")
+    @OpenApiExample("false")
+    @OpenApiRequired
+    Boolean twoStageSearch
 ) {
     /**
      * Empty constructor that creates an empty response with null values.
      * Required for proper JSON serialization.
      */
     public Space() {
-        this(null, null, null, null, null, null, null, null, null, null);
+        this(null, null, null, null, null, null, null, null, null, null, null, null);
     }
 }
\ No newline at end of file
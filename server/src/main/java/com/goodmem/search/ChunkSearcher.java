@@ -0,0 +1,684 @@
+package com.goodmem.search;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.Memories;
+import com.goodmem.db.MemoryChunks;
+import com.goodmem.db.ScoredMemoryChunk;
+import com.goodmem.db.Spaces;
+import com.google.common.collect.ImmutableList;
+import io.grpc.Context;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+/**
+ * Executes chunk searches. Every query targets a single space; searches over several spaces run
+ * one query per space and merge the results.
+ *
+ * <p>Each retrieval leg checks out its own connection for the duration of its query only. In
+ * HYBRID mode the vector leg is submitted to the executor while the lexical leg runs on the
+ * calling thread, so the latency of a hybrid search is roughly that of the slower leg rather than
+ * the sum of both.
+ *
+ * <p>Before a space is searched its content version is read, and the search is answered from the
+ * {@link SearchResultCache} if an equivalent query already ran against that version. Versions
+ * read within the last {@link SearchResultCache#CONTENT_VERSION_TTL} are reused.
+ *
+ * <p>Queries that ask for diversified results over-fetch candidates and rerank them with the
+ * {@link Diversifier}, so callers get varied results without requesting a larger limit.
+ * Queries that ask for reranking retrieve the requested number of candidates, or the limit if it
+ * is larger, and pass all of them through the {@link RerankStage} first. Every candidate then
+ * carries a reranker score, so recency decay, diversification and the merge of several spaces
+ * only ever compare scores of one kind; reranked queries do not over-fetch for them.
+ *
+ * <p>The minimum score of a vector query is applied in the database as a maximum distance, so
+ * chunks below it are never sent back. When several spaces are searched by vector, legs that start
+ * after others have finished raise it to the running k-th best score, since nothing scoring lower
+ * can make the merged results.
+ *
+ * <p>Hierarchical queries search in two levels: the vector leg first picks the memories whose
+ * centroid vectors are closest to the query, then ranks only the chunks of those memories.
+ *
+ * <p>Queries with a recency half-life over-fetch candidates and reweight them with
+ * {@link RecencyDecay} after any reranking. Their results depend on the time they run, so they
+ * bypass the result cache.
+ */
+public class ChunkSearcher {
+
+  /** Each hybrid leg fetches this many candidates per requested result before fusion. */
+  static final int HYBRID_CANDIDATE_MULTIPLIER = 4;
+
+  /** A diversified search reranks this many candidates per requested result. */
+  static final int DIVERSITY_CANDIDATE_MULTIPLIER = 4;
+
+  /** A recency-weighted search reweights this many candidates per requested result. */
+  static final int RECENCY_CANDIDATE_MULTIPLIER = 4;
+
+  /** A grouped search first fetches this many chunks per requested memory. */
+  static final int GROUPING_CHUNK_MULTIPLIER = 4;
+
+  /** A two-stage vector leg passes this many coarse candidates per result to the rerank. */
+  static final int COARSE_CANDIDATE_MULTIPLIER = 10;
+
+  /** Upper bound on the candidates of the coarse stage of a two-stage vector leg. */
+  static final int MAX_COARSE_CANDIDATES = 4000;
+
+  /** Upper bound pgvector accepts for hnsw.ef_search. */
+  static final int MAX_EF_SEARCH = 1000;
+
+  /** Upper bound on the candidates fetched by any single leg. */
+  static final int MAX_CANDIDATES = 1000;
+
+  /** Maximum number of queries from a single batch or fan-out that run at the same time. */
+  static final int MAX_CONCURRENT_QUERIES = 8;
+
+  /**
+   * A metadata filter matching at most this many chunks is applied before ranking (exact scan of
+   * the matching chunks); a broader one is applied after an HNSW scan.
+   */
+  static final int PREFILTER_MAX_CHUNKS = 2000;
+
+  private final DataSource dataSource;
+  private final ExecutorService executor;
+  private final SearchResultCache resultCache;
+  private final RerankStage rerankStage;
+
+  /**
+   * Creates a new ChunkSearcher.
+   *
+   * @param dataSource the pool to check connections out of
+   * @param executor the executor on which concurrent legs are run
+   * @param resultCache the cache consulted before, and filled after, each single-space search
+   * @param rerankStage the reranker used by queries that ask for reranking, or null if none is
+   *     configured
+   */
+  public ChunkSearcher(
+      DataSource dataSource,
+      ExecutorService executor,
+      SearchResultCache resultCache,
+      RerankStage rerankStage) {
+    this.dataSource = dataSource;
+    this.executor = executor;
+    this.resultCache = resultCache;
+    this.rerankStage = rerankStage;
+  }
+
+  /**
+   * Runs a search, answering it from the result cache when the space has not changed since an
+   * equivalent search was run.
+   *
+   * @param query the validated search request
+   * @return StatusOr containing the matching chunks, best match first, or an error
+   */
+  @Nonnull
+  public StatusOr<List<ScoredMemoryChunk>> search(SearchQuery query) {
+    StatusOr<Map<UUID, Long>> versionsOr = loadContentVersions(List.of(query));
+    if (versionsOr.isNotOk()) {
+      return StatusOr.ofStatus(versionsOr.getStatus());
+    }
+    return cachedSearch(query, versionsOr.getValue().get(query.filter().spaceId()));
+  }
+
+  /**
+   * Runs the same search against several spaces and merges the results.
+   *
+   * <p>Each space is searched for its own top {@code limit} results, concurrently and subject to
+   * the same concurrency cap as {@link #searchAll}, and the per-space rankings are merged by score
+   * with {@link RankFusion#mergeSorted}. The minimum score is applied to each space's results as
+   * they are retrieved. Plain vector searches also raise it, for spaces searched after others
+   * have returned the top {@code limit}, to the lowest score among those. Reranking is applied
+   * within each space before the merge, so reranked results are merged by reranker score, and the
+   * minimum score is not applied again to them; the same holds for recency-weighted results.
+   *
+   * <p>Diversified queries instead fetch undiversified candidates from every space, merge them by
+   * score and diversify the merged list once, since MMR selection order is not score order.
+   *
+   * <p>Vector scores of spaces with different distance metrics are not on one scale, so a vector
+   * search over such spaces is rejected unless its results are reranked.
+   *
+   * @param queries one validated query per space, all with the same limit and minimum score
+   * @return StatusOr containing the merged results, best match first, or INVALID_ARGUMENT if the
+   *     spaces' scores cannot be merged
+   */
+  @Nonnull
+  public StatusOr<List<ScoredMemoryChunk>> searchSpaces(List<SearchQuery> queries) {
+    if (queries.isEmpty()) {
+      return StatusOr.ofValue(ImmutableList.of());
+    }
+    SearchQuery first = queries.get(0);
+    Status mergeable = checkMergeable(queries);
+    if (!mergeable.isOk()) {
+      return StatusOr.ofStatus(mergeable);
+    }
+    // The minimum score bounds retrieval scores, which reranking and recency decay replace
+    double minScore =
+        first.rerankCandidates() > 0 || first.hasRecencyDecay()
+            ? Double.NEGATIVE_INFINITY
+            : first.minScore();
+    // Only plain vector scores are merged as retrieved, so only they bound the remaining legs
+    boolean bounded =
+        first.mode() == SearchMode.VECTOR
+            && first.rerankCandidates() == 0
+            && !first.hasRecencyDecay();
+    Diversity diversity = first.diversity();
+    if (!diversity.isEnabled()) {
+      return searchAll(queries, bounded ? new RunningBound(first.limit()) : null)
+          .map(perSpace -> RankFusion.mergeSorted(perSpace, first.limit(), minScore));
+    }
+    int candidateLimit = Math.min(first.limit() * DIVERSITY_CANDIDATE_MULTIPLIER, MAX_CANDIDATES);
+    List<SearchQuery> candidateQueries =
+        queries.stream()
+            .map(query -> query.withDiversity(Diversity.NONE).withLimit(candidateLimit))
+            .toList();
+    return searchAll(candidateQueries, bounded ? new RunningBound(candidateLimit) : null)
+        .map(perSpace -> RankFusion.mergeSorted(perSpace, candidateLimit, minScore))
+        .map(candidates -> Diversifier.rerank(candidates, diversity, first.limit()));
+  }
+
+  /** Checks that the per-space rankings of a fan-out are scored on one scale. */
+  private static Status checkMergeable(List<SearchQuery> queries) {
+    SearchQuery first = queries.get(0);
+    // Reranker scores and fused hybrid scores do not depend on the distance metric
+    boolean metricScored = first.mode() == SearchMode.VECTOR && first.rerankCandidates() == 0;
+    for (SearchQuery query : queries) {
+      if (query.mode() != first.mode() || query.fusionMethod() != first.fusionMethod()) {
+        return Status.invalidArgument("All searched spaces must use the same search mode");
+      }
+      if (metricScored && query.distanceMetric() != first.distanceMetric()) {
+        return Status.invalidArgument(
+            "A vector search over several spaces needs them to share a distance metric; "
+                + "narrow it with embedder_id or space_id, or rerank the results");
+      }
+    }
+    return Status.ok();
+  }
+
+  /**
+   * Runs a search against one or more spaces and groups the matching chunks by memory.
+   *
+   * <p>Chunks are fetched in rounds: the first round fetches {@link #GROUPING_CHUNK_MULTIPLIER}
+   * chunks per requested memory, and each further round doubles that, until the chunks cover
+   * {@code limit} distinct memories, the spaces run out of matching chunks, or
+   * {@link #MAX_CANDIDATES} chunks have been fetched. A memory's aggregated score only counts
+   * the chunks fetched, so SUM scores favour memories whose chunks rank high.
+   *
+   * @param queries one validated query per space, all with the same limit and minimum score;
+   *     the limit is the number of memories to return
+   * @param scoring how each memory's score is aggregated from its chunks
+   * @param chunksPerMemory maximum number of chunks returned with each memory
+   * @return StatusOr containing the memories, best first, or an error
+   */
+  @Nonnull
+  public StatusOr<List<MemoryHits>> searchGrouped(
+      List<SearchQuery> queries, MemoryScoring scoring, int chunksPerMemory) {
+    if (queries.isEmpty()) {
+      return StatusOr.ofValue(ImmutableList.of());
+    }
+    int memoryLimit = queries.get(0).limit();
+    int fetchLimit = Math.min(memoryLimit * GROUPING_CHUNK_MULTIPLIER, MAX_CANDIDATES);
+    while (true) {
+      int chunkLimit = fetchLimit;
+      StatusOr<List<ScoredMemoryChunk>> chunksOr =
+          searchSpaces(queries.stream().map(query -> query.withLimit(chunkLimit)).toList());
+      if (chunksOr.isNotOk()) {
+        return StatusOr.ofStatus(chunksOr.getStatus());
+      }
+
+      List<ScoredMemoryChunk> chunks = chunksOr.getValue();
+      List<MemoryHits> memories =
+          MemoryGrouping.group(chunks, scoring, chunksPerMemory, memoryLimit);
+      boolean exhausted = chunks.size() < fetchLimit;
+      if (memories.size() >= memoryLimit || exhausted || fetchLimit >= MAX_CANDIDATES) {
+        return StatusOr.ofValue(memories);
+      }
+      fetchLimit = Math.min(fetchLimit * 2, MAX_CANDIDATES);
+    }
+  }
+
+  /**
+   * Runs several searches concurrently.
+   *
+   * <p>At most {@link #MAX_CONCURRENT_QUERIES} of the queries run at a time, so a large
+   * batch holds a bounded number of pooled connections and leaves the rest to other requests. If
+   * any query fails, the remaining ones are cancelled and the first failure in request order is
+   * returned.
+   *
+   * @param queries the validated search requests
+   * @return StatusOr containing one result list per query, in the order given, or an error
+   */
+  @Nonnull
+  public StatusOr<List<List<ScoredMemoryChunk>>> searchAll(List<SearchQuery> queries) {
+    return searchAll(queries, null);
+  }
+
+  /**
+   * Runs several searches concurrently, as {@link #searchAll(List)} does.
+   *
+   * @param queries the validated search requests
+   * @param bound the running k-th best score of a fan-out whose queries all retrieve scores on
+   *     one scale, raising the minimum score of the queries that start after it is known; or null
+   * @return StatusOr containing one result list per query, in the order given, or an error
+   */
+  private StatusOr<List<List<ScoredMemoryChunk>>> searchAll(
+      List<SearchQuery> queries, @Nullable RunningBound bound) {
+    StatusOr<Map<UUID, Long>> versionsOr = loadContentVersions(queries);
+    if (versionsOr.isNotOk()) {
+      return StatusOr.ofStatus(versionsOr.getStatus());
+    }
+    Map<UUID, Long> versions = versionsOr.getValue();
+
+    Semaphore permits = new Semaphore(MAX_CONCURRENT_QUERIES);
+    List<Future<StatusOr<List<ScoredMemoryChunk>>>> futures = new ArrayList<>(queries.size());
+    for (SearchQuery query : queries) {
+      futures.add(
+          executor.submit(
+              // Legs run in the caller's context, so their statements stop when the call does
+              Context.current()
+                  .wrap(
+                      () -> {
+                        permits.acquire();
+                        try {
+                          long version = versions.get(query.filter().spaceId());
+                          if (bound == null) {
+                            return cachedSearch(query, version);
+                          }
+                          StatusOr<List<ScoredMemoryChunk>> resultsOr =
+                              cachedSearch(bound.tighten(query), version);
+                          if (resultsOr.isOk()) {
+                            bound.offer(resultsOr.getValue());
+                          }
+                          return resultsOr;
+                        } finally {
+                          permits.release();
+                        }
+                      })));
+    }
+
+    List<List<ScoredMemoryChunk>> results = new ArrayList<>(queries.size());
+    for (Future<StatusOr<List<ScoredMemoryChunk>>> future : futures) {
+      StatusOr<List<ScoredMemoryChunk>> resultOr = await(future);
+      if (resultOr.isNotOk()) {
+        futures.forEach(pending -> pending.cancel(true));
+        return StatusOr.ofStatus(resultOr.getStatus());
+      }
+      results.add(resultOr.getValue());
+    }
+    return StatusOr.ofValue(ImmutableList.copyOf(results));
+  }
+
+  private StatusOr<List<ScoredMemoryChunk>> cachedSearch(SearchQuery query, long contentVersion) {
+    boolean decay = query.hasRecencyDecay();
+    if (!decay) {
+      Optional<List<ScoredMemoryChunk>> cached = resultCache.get(query, contentVersion);
+      if (cached.isPresent()) {
+        return StatusOr.ofValue(cached.get());
+      }
+    }
+
+    int fetchLimit = fetchLimit(query);
+    StatusOr<List<ScoredMemoryChunk>> resultsOr =
+        switch (query.mode()) {
+          case VECTOR -> vectorLeg(query, fetchLimit);
+          case LEXICAL -> lexicalLeg(query, fetchLimit);
+          case HYBRID -> hybridSearch(query, fetchLimit);
+        };
+    if (resultsOr.isNotOk()) {
+      return resultsOr;
+    }
+    Ranking ranking =
+        rank(query, atOrAbove(resultsOr.getValue(), query.minScore()), Instant.now());
+    // A fallback to retrieval order is served but not cached, so a later call can rerank
+    if (!decay && !ranking.rerankFailed()) {
+      resultCache.put(query, contentVersion, ranking.results());
+    }
+    return StatusOr.ofValue(ranking.results());
+  }
+
+  /** Returns how many candidates a single-space search retrieves before ranking them. */
+  int fetchLimit(SearchQuery query) {
+    // Reranked candidates are the whole pool, so that no reranker score is compared with a
+    // retrieval score further down
+    if (query.rerankCandidates() > 0 && rerankStage != null) {
+      return Math.max(query.limit(), query.rerankCandidates());
+    }
+    int fetchLimit = query.limit();
+    if (query.diversity().isEnabled()) {
+      fetchLimit = Math.min(query.limit() * DIVERSITY_CANDIDATE_MULTIPLIER, MAX_CANDIDATES);
+    }
+    if (query.hasRecencyDecay()) {
+      int recencyLimit = Math.min(query.limit() * RECENCY_CANDIDATE_MULTIPLIER, MAX_CANDIDATES);
+      fetchLimit = Math.max(fetchLimit, recencyLimit);
+    }
+    return fetchLimit;
+  }
+
+  /**
+   * Reranks, decays and diversifies retrieved candidates as the query asks, and trims them to its
+   * limit.
+   *
+   * @param query the query the candidates were retrieved for
+   * @param candidates the retrieved candidates, best match first
+   * @param now the time against which recency decay measures ages
+   * @return the ranked results
+   */
+  Ranking rank(SearchQuery query, List<ScoredMemoryChunk> candidates, Instant now) {
+    List<ScoredMemoryChunk> results = candidates;
+    boolean rerankFailed = false;
+    if (query.rerankCandidates() > 0 && rerankStage != null) {
+      Optional<List<ScoredMemoryChunk>> rerankedOr =
+          rerankStage.rerank(query.queryText(), results);
+      rerankFailed = rerankedOr.isEmpty();
+      results = rerankedOr.orElse(results);
+    }
+    if (query.hasRecencyDecay()) {
+      results = RecencyDecay.apply(results, query.recencyHalfLife(), now);
+    }
+    if (query.diversity().isEnabled()) {
+      results = Diversifier.rerank(results, query.diversity(), query.limit());
+    } else if (results.size() > query.limit()) {
+      results = results.subList(0, query.limit());
+    }
+    return new Ranking(results, rerankFailed);
+  }
+
+  /**
+   * The ranked results of a single-space search.
+   *
+   * @param results the results, best first
+   * @param rerankFailed whether reranking was asked for but the retrieval order was kept
+   */
+  record Ranking(List<ScoredMemoryChunk> results, boolean rerankFailed) {}
+
+  /** Reads the content versions of the queried spaces, from the cache where it has them. */
+  private StatusOr<Map<UUID, Long>> loadContentVersions(List<SearchQuery> queries) {
+    Set<UUID> spaceIds = new HashSet<>();
+    for (SearchQuery query : queries) {
+      spaceIds.add(query.filter().spaceId());
+    }
+    Map<UUID, Long> versions = new HashMap<>(resultCache.getContentVersions(spaceIds));
+    spaceIds.removeAll(versions.keySet());
+    if (spaceIds.isEmpty()) {
+      return StatusOr.ofValue(versions);
+    }
+    try (Connection connection = dataSource.getConnection()) {
+      StatusOr<Map<UUID, Long>> loadedOr = Spaces.loadContentVersions(connection, spaceIds);
+      if (loadedOr.isNotOk()) {
+        return loadedOr;
+      }
+      resultCache.putContentVersions(loadedOr.getValue());
+      versions.putAll(loadedOr.getValue());
+      return StatusOr.ofValue(versions);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  private StatusOr<List<ScoredMemoryChunk>> hybridSearch(SearchQuery query, int limit) {
+    int candidates = Math.min(limit * HYBRID_CANDIDATE_MULTIPLIER, MAX_CANDIDATES);
+
+    Future<StatusOr<List<ScoredMemoryChunk>>> vectorFuture =
+        executor.submit(Context.current().wrap(() -> vectorLeg(query, candidates)));
+    StatusOr<List<ScoredMemoryChunk>> lexicalOr = lexicalLeg(query, candidates);
+    if (lexicalOr.isNotOk()) {
+      vectorFuture.cancel(true);
+      return lexicalOr;
+    }
+
+    StatusOr<List<ScoredMemoryChunk>> vectorOr = await(vectorFuture);
+    if (vectorOr.isNotOk()) {
+      return vectorOr;
+    }
+
+    List<ScoredMemoryChunk> fused =
+        switch (query.fusionMethod()) {
+          case RRF ->
+              RankFusion.reciprocalRank(
+                  List.of(vectorOr.getValue(), lexicalOr.getValue()),
+                  RankFusion.DEFAULT_RRF_RANK_CONSTANT,
+                  limit);
+          case WEIGHTED ->
+              RankFusion.weighted(
+                  vectorOr.getValue(),
+                  lexicalOr.getValue(),
+                  query.vectorWeight(),
+                  limit);
+        };
+    return StatusOr.ofValue(fused);
+  }
+
+  /**
+   * Runs the vector leg, choosing between pre- and post-filtering when the query filters on
+   * metadata or creation time.
+   *
+   * <p>The chunks matching the filter are probed up to {@link #PREFILTER_MAX_CHUNKS}. If the
+   * filter is that selective, the matching chunks are ranked exactly without touching the HNSW
+   * index. Otherwise the index is scanned with iterative scans enabled and the filter is applied
+   * to the rows it returns, which stays fast because most rows pass.
+   *
+   * <p>Two-stage queries use the prefix-vector index in place of the full-dimension index; the
+   * exact scan of a selective filter's chunks is unaffected. Hierarchical queries, which set
+   * memory candidates, always pick memories by centroid and rank just their chunks.
+   */
+  private StatusOr<List<ScoredMemoryChunk>> vectorLeg(SearchQuery query, int limit) {
+    try (Connection connection = dataSource.getConnection()) {
+      if (query.memoryCandidates() > 0) {
+        return hierarchicalVectorSearch(connection, query, limit);
+      }
+      if (!query.filter().hasConditions()) {
+        return query.twoStage()
+            ? twoStageVectorSearch(connection, query, limit)
+            : MemoryChunks.vectorSearch(
+                connection,
+                query.queryVector(),
+                query.filter(),
+                query.distanceMetric(),
+                maxDistanceOf(query),
+                limit);
+      }
+
+      StatusOr<List<UUID>> allowedOr =
+          MemoryChunks.loadSearchableChunkIds(
+              connection, query.filter(), query.distanceMetric(), PREFILTER_MAX_CHUNKS + 1);
+      if (allowedOr.isNotOk()) {
+        return StatusOr.ofStatus(allowedOr.getStatus());
+      }
+      if (allowedOr.getValue().size() <= PREFILTER_MAX_CHUNKS) {
+        return MemoryChunks.exactVectorSearch(
+            connection,
+            query.queryVector(),
+            allowedOr.getValue(),
+            query.distanceMetric(),
+            maxDistanceOf(query),
+            limit);
+      }
+      return query.twoStage()
+          ? twoStageVectorSearch(connection, query, limit)
+          : postFilteredVectorSearch(connection, query, limit);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  private static StatusOr<List<ScoredMemoryChunk>> postFilteredVectorSearch(
+      Connection connection, SearchQuery query, int limit) throws SQLException {
+    // SET LOCAL only lasts for a transaction; rolling back discards it before the connection
+    // goes back to the pool.
+    connection.setAutoCommit(false);
+    try {
+      Status status = MemoryChunks.enableIterativeScan(connection);
+      if (!status.isOk()) {
+        return StatusOr.ofStatus(status);
+      }
+      return MemoryChunks.vectorSearch(
+          connection,
+          query.queryVector(),
+          query.filter(),
+          query.distanceMetric(),
+          maxDistanceOf(query),
+          limit);
+    } finally {
+      connection.rollback();
+      connection.setAutoCommit(true);
+    }
+  }
+
+  private static StatusOr<List<ScoredMemoryChunk>> twoStageVectorSearch(
+      Connection connection, SearchQuery query, int limit) throws SQLException {
+    int candidates =
+        Math.max(limit, Math.min(limit * COARSE_CANDIDATE_MULTIPLIER, MAX_COARSE_CANDIDATES));
+    // As in postFilteredVectorSearch, the SET LOCAL settings end with the transaction
+    connection.setAutoCommit(false);
+    try {
+      Status status = MemoryChunks.enableIterativeScan(connection);
+      if (status.isOk()) {
+        status = MemoryChunks.setEfSearch(connection, Math.min(candidates, MAX_EF_SEARCH));
+      }
+      if (!status.isOk()) {
+        return StatusOr.ofStatus(status);
+      }
+      return MemoryChunks.twoStageVectorSearch(
+          connection,
+          query.queryVector(),
+          query.filter(),
+          query.distanceMetric(),
+          candidates,
+          maxDistanceOf(query),
+          limit);
+    } finally {
+      connection.rollback();
+      connection.setAutoCommit(true);
+    }
+  }
+
+  private static StatusOr<List<ScoredMemoryChunk>> hierarchicalVectorSearch(
+      Connection connection, SearchQuery query, int limit) throws SQLException {
+    // As in postFilteredVectorSearch, the SET LOCAL settings end with the transaction
+    connection.setAutoCommit(false);
+    try {
+      Status status = MemoryChunks.enableIterativeScan(connection);
+      if (status.isOk()) {
+        status =
+            MemoryChunks.setEfSearch(
+                connection, Math.min(query.memoryCandidates(), MAX_EF_SEARCH));
+      }
+      if (!status.isOk()) {
+        return StatusOr.ofStatus(status);
+      }
+      StatusOr<List<UUID>> memoryIdsOr =
+          Memories.loadNearestByCentroid(
+              connection, query.queryVector(), query.filter(), query.memoryCandidates());
+      if (memoryIdsOr.isNotOk()) {
+        return StatusOr.ofStatus(memoryIdsOr.getStatus());
+      }
+      return MemoryChunks.memoryScopedVectorSearch(
+          connection,
+          query.queryVector(),
+          memoryIdsOr.getValue(),
+          query.filter(),
+          query.distanceMetric(),
+          maxDistanceOf(query),
+          limit);
+    } finally {
+      connection.rollback();
+      connection.setAutoCommit(true);
+    }
+  }
+
+  private StatusOr<List<ScoredMemoryChunk>> lexicalLeg(SearchQuery query, int limit) {
+    try (Connection connection = dataSource.getConnection()) {
+      return MemoryChunks.lexicalSearch(connection, query.queryText(), query.filter(), limit);
+    } catch (SQLException e) {
+      return StatusOr.ofException(e);
+    }
+  }
+
+  /**
+   * Returns the distance bound a vector leg applies in the database. Only a vector query's
+   * minimum score bounds its vector scores; a hybrid query's bounds the fused scores.
+   */
+  private static double maxDistanceOf(SearchQuery query) {
+    return query.mode() == SearchMode.VECTOR
+        ? query.distanceMetric().toOperatorValue(query.minScore())
+        : Double.POSITIVE_INFINITY;
+  }
+
+  /** Drops the tail of a best-first ranking that scores below {@code minScore}. */
+  private static List<ScoredMemoryChunk> atOrAbove(
+      List<ScoredMemoryChunk> results, double minScore) {
+    int end = 0;
+    while (end < results.size() && results.get(end).score() >= minScore) {
+      end++;
+    }
+    return end == results.size() ? results : results.subList(0, end);
+  }
+
+  /**
+   * The k-th best score retrieved so far by the legs of a fan-out. Once k results score at least
+   * this much, a result scoring less cannot make the merged top k, so legs that have yet to start
+   * need not retrieve it.
+   */
+  static final class RunningBound {
+    private final int k;
+    // The best k scores seen, worst first. Guarded by this
+    private final PriorityQueue<Double> best = new PriorityQueue<>();
+
+    RunningBound(int k) {
+      this.k = k;
+    }
+
+    /** Records the results of a finished leg, best match first. */
+    synchronized void offer(List<ScoredMemoryChunk> results) {
+      for (ScoredMemoryChunk scored : results) {
+        if (best.size() < k) {
+          best.add(scored.score());
+        } else if (scored.score() > best.peek()) {
+          best.poll();
+          best.add(scored.score());
+        } else {
+          break;
+        }
+      }
+    }
+
+    /** Returns the bound, or negative infinity until k results have been seen. */
+    synchronized double minScore() {
+      return best.size() < k ? Double.NEGATIVE_INFINITY : best.peek();
+    }
+
+    /** Raises a query's minimum score to the bound, if the bound is higher. */
+    SearchQuery tighten(SearchQuery query) {
+      double minScore = minScore();
+      return minScore > query.minScore() ? query.withMinScore(minScore) : query;
+    }
+  }
+
+  /** Waits for a leg submitted to the executor and unwraps its result. */
+  static <T> StatusOr<T> await(Future<StatusOr<T>> future) {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      future.cancel(true);
+      return StatusOr.ofStatus(Status.internal("Interrupted while waiting for search", e));
+    } catch (ExecutionException e) {
+      return StatusOr.ofStatus(Status.internal("Search leg failed", e.getCause()));
+    }
+  }
+}
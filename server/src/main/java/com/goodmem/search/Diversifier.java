@@ -0,0 +1,174 @@
+package com.goodmem.search;
+
+import com.goodmem.db.ScoredMemoryChunk;
+import com.google.common.collect.ImmutableList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reranks an over-fetched list of candidates so that the top results are not dominated by near
+ * copies of each other, such as adjacent chunks of the same memory.
+ *
+ * <p>Selection is greedy maximal marginal relevance: each step takes the candidate maximizing
+ * {@code lambda * relevance - (1 - lambda) * maxSimilarity}, where relevance is the candidate's
+ * min-max normalized score and maxSimilarity is its highest cosine similarity to any candidate
+ * already selected. Similarities are clamped at zero, so a vector pointing away from the selected
+ * ones is treated as unrelated rather than rewarded. Candidates of a memory that has reached its
+ * per-memory cap are skipped.
+ *
+ * <p>Candidate embeddings are copied once into a flat, row-major array of unit vectors, and after
+ * each selection only the similarity of the remaining candidates to the newly selected one is
+ * computed. A rerank of {@code n} candidates to {@code k} results therefore costs {@code n * k}
+ * dot products over contiguous memory, in a loop HotSpot unrolls and vectorizes.
+ */
+public final class Diversifier {
+
+  private Diversifier() {
+    // Utility class
+  }
+
+  /**
+   * Selects a diverse subset of candidates.
+   *
+   * <p>Results keep their original scores, so they are no longer in strictly descending score
+   * order once MMR moves a less relevant but more novel chunk ahead of a near duplicate.
+   *
+   * @param candidates the candidates, best match first
+   * @param diversity the MMR trade-off and per-memory cap to apply
+   * @param limit maximum number of results
+   * @return the selected candidates, in selection order
+   */
+  public static List<ScoredMemoryChunk> rerank(
+      List<ScoredMemoryChunk> candidates, Diversity diversity, int limit) {
+    int count = candidates.size();
+    double lambda = diversity.mmrLambda();
+    int cap =
+        diversity.maxChunksPerMemory() > 0 ? diversity.maxChunksPerMemory() : Integer.MAX_VALUE;
+    boolean penalizeSimilarity = lambda < 1.0;
+
+    double[] relevance = normalizedScores(candidates);
+    int dimensions = penalizeSimilarity ? dimensionsOf(candidates) : 0;
+    float[] unitVectors = penalizeSimilarity ? toUnitRows(candidates, dimensions) : null;
+    float[] maxSimilarity = new float[count];
+    boolean[] excluded = new boolean[count];
+    Map<UUID, Integer> perMemory = new HashMap<>();
+
+    ImmutableList.Builder<ScoredMemoryChunk> selected = ImmutableList.builder();
+    int selectedCount = 0;
+    while (selectedCount < limit) {
+      int best = -1;
+      double bestScore = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < count; i++) {
+        if (excluded[i]) {
+          continue;
+        }
+        if (perMemory.getOrDefault(candidates.get(i).chunk().memoryId(), 0) >= cap) {
+          excluded[i] = true;
+          continue;
+        }
+        // Strict comparison: on equal scores the better-ranked candidate wins
+        double score = lambda * relevance[i] - (1.0 - lambda) * maxSimilarity[i];
+        if (score > bestScore) {
+          best = i;
+          bestScore = score;
+        }
+      }
+      if (best < 0) {
+        break;
+      }
+
+      excluded[best] = true;
+      selected.add(candidates.get(best));
+      selectedCount++;
+      perMemory.merge(candidates.get(best).chunk().memoryId(), 1, Integer::sum);
+
+      if (penalizeSimilarity) {
+        int bestOffset = best * dimensions;
+        for (int i = 0; i < count; i++) {
+          if (!excluded[i]) {
+            float similarity = dot(unitVectors, i * dimensions, bestOffset, dimensions);
+            maxSimilarity[i] = Math.max(maxSimilarity[i], similarity);
+          }
+        }
+      }
+    }
+    return selected.build();
+  }
+
+  /**
+   * Computes the dot product of two rows of a flat row-major matrix.
+   *
+   * <p>Four independent accumulators break the dependency between successive additions, so the
+   * loop body can be pipelined and packed into SIMD instructions.
+   */
+  static float dot(float[] rows, int offsetA, int offsetB, int length) {
+    float sum0 = 0.0f;
+    float sum1 = 0.0f;
+    float sum2 = 0.0f;
+    float sum3 = 0.0f;
+    int i = 0;
+    for (; i + 3 < length; i += 4) {
+      sum0 += rows[offsetA + i] * rows[offsetB + i];
+      sum1 += rows[offsetA + i + 1] * rows[offsetB + i + 1];
+      sum2 += rows[offsetA + i + 2] * rows[offsetB + i + 2];
+      sum3 += rows[offsetA + i + 3] * rows[offsetB + i + 3];
+    }
+    for (; i < length; i++) {
+      sum0 += rows[offsetA + i] * rows[offsetB + i];
+    }
+    return (sum0 + sum1) + (sum2 + sum3);
+  }
+
+  /** Min-max normalizes scores to [0, 1]; equal scores all normalize to 1. */
+  private static double[] normalizedScores(List<ScoredMemoryChunk> candidates) {
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (ScoredMemoryChunk scored : candidates) {
+      min = Math.min(min, scored.score());
+      max = Math.max(max, scored.score());
+    }
+    double range = max - min;
+    double[] normalized = new double[candidates.size()];
+    for (int i = 0; i < normalized.length; i++) {
+      normalized[i] = range > 0 ? (candidates.get(i).score() - min) / range : 1.0;
+    }
+    return normalized;
+  }
+
+  private static int dimensionsOf(List<ScoredMemoryChunk> candidates) {
+    for (ScoredMemoryChunk scored : candidates) {
+      if (scored.chunk().embeddingVector() != null) {
+        return scored.chunk().embeddingVector().length;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Copies candidate embeddings into a flat array of unit vectors. Candidates without an embedding
+   * of the expected size get a zero row and so are similar to nothing.
+   */
+  private static float[] toUnitRows(List<ScoredMemoryChunk> candidates, int dimensions) {
+    float[] rows = new float[candidates.size() * dimensions];
+    for (int i = 0; i < candidates.size(); i++) {
+      float[] vector = candidates.get(i).chunk().embeddingVector();
+      if (vector == null || vector.length != dimensions) {
+        continue;
+      }
+      double norm = 0.0;
+      for (float value : vector) {
+        norm += (double) value * value;
+      }
+      if (norm == 0.0) {
+        continue;
+      }
+      float scale = (float) (1.0 / Math.sqrt(norm));
+      for (int j = 0; j < dimensions; j++) {
+        rows[i * dimensions + j] = vector[j] * scale;
+      }
+    }
+    return rows;
+  }
+}
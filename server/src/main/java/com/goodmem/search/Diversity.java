@@ -0,0 +1,23 @@
+package com.goodmem.search;
+
+/**
+ * How the results of a search are diversified before they are returned.
+ *
+ * @param mmrLambda The maximal marginal relevance trade-off between 0 and 1: 1 ranks by relevance
+ *     alone, lower values increasingly penalize chunks similar to those already selected
+ * @param maxChunksPerMemory At most this many chunks of any one memory are returned; 0 for no cap
+ */
+public record Diversity(double mmrLambda, int maxChunksPerMemory) {
+
+  /** Results are returned in relevance order with no cap. */
+  public static final Diversity NONE = new Diversity(1.0, 0);
+
+  /**
+   * Returns whether results need to be reranked at all.
+   *
+   * @return true if MMR or a per-memory cap applies
+   */
+  public boolean isEnabled() {
+    return mmrLambda < 1.0 || maxChunksPerMemory > 0;
+  }
+}
@@ -0,0 +1,17 @@
+package com.goodmem.search;
+
+/**
+ * Methods for combining the vector and lexical rankings of a hybrid search.
+ */
+public enum FusionMethod {
+  /**
+   * Reciprocal rank fusion. Uses only the rank of each chunk in each list, so it needs no score
+   * calibration between legs.
+   */
+  RRF,
+
+  /**
+   * Weighted sum of the min-max normalized scores of each leg.
+   */
+  WEIGHTED
+}
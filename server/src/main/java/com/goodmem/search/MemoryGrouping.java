@@ -0,0 +1,65 @@
+package com.goodmem.search;
+
+import com.goodmem.db.ScoredMemoryChunk;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Groups a chunk ranking by memory.
+ *
+ * <p>Memories are ordered by their aggregated score. Ties are broken by the rank of each memory's
+ * first chunk in the input, so the grouping is deterministic.
+ */
+public final class MemoryGrouping {
+
+  private MemoryGrouping() {
+    // Utility class
+  }
+
+  /**
+   * Groups chunks by the memory they belong to.
+   *
+   * @param chunks the chunk ranking, best match first
+   * @param scoring how each memory's score is aggregated from its chunks
+   * @param chunksPerMemory maximum number of chunks kept for each memory
+   * @param limit maximum number of memories
+   * @return the memories, best first
+   */
+  public static List<MemoryHits> group(
+      List<ScoredMemoryChunk> chunks, MemoryScoring scoring, int chunksPerMemory, int limit) {
+    Map<UUID, List<ScoredMemoryChunk>> byMemory = new LinkedHashMap<>();
+    for (ScoredMemoryChunk scored : chunks) {
+      byMemory.computeIfAbsent(scored.chunk().memoryId(), id -> new ArrayList<>()).add(scored);
+    }
+
+    List<MemoryHits> memories = new ArrayList<>(byMemory.size());
+    for (Map.Entry<UUID, List<ScoredMemoryChunk>> entry : byMemory.entrySet()) {
+      List<ScoredMemoryChunk> memoryChunks = entry.getValue();
+      double score =
+          switch (scoring) {
+            case MAX ->
+                memoryChunks.stream()
+                    .mapToDouble(ScoredMemoryChunk::score)
+                    .max()
+                    .orElse(Double.NEGATIVE_INFINITY);
+            case SUM -> memoryChunks.stream().mapToDouble(ScoredMemoryChunk::score).sum();
+          };
+      List<ScoredMemoryChunk> best =
+          memoryChunks.size() > chunksPerMemory
+              ? memoryChunks.subList(0, chunksPerMemory)
+              : memoryChunks;
+      memories.add(new MemoryHits(entry.getKey(), score, ImmutableList.copyOf(best)));
+    }
+
+    // The sort is stable, so first-seen wins ties
+    return memories.stream()
+        .sorted(Comparator.comparingDouble(MemoryHits::score).reversed())
+        .limit(limit)
+        .collect(ImmutableList.toImmutableList());
+  }
+}
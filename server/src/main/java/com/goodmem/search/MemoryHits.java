@@ -0,0 +1,14 @@
+package com.goodmem.search;
+
+import com.goodmem.db.ScoredMemoryChunk;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The chunks of one memory that matched a search.
+ *
+ * @param memoryId The memory the chunks belong to
+ * @param score The memory's score, aggregated from all of its matched chunks
+ * @param chunks The memory's best chunks, best match first
+ */
+public record MemoryHits(UUID memoryId, double score, List<ScoredMemoryChunk> chunks) {}
@@ -0,0 +1,17 @@
+package com.goodmem.search;
+
+/**
+ * How a memory is scored from the chunks of it that a search matched.
+ */
+public enum MemoryScoring {
+  /**
+   * The score of the memory's best chunk.
+   */
+  MAX,
+
+  /**
+   * The sum of the scores of the memory's matched chunks. Rewards memories with many hits; only
+   * meaningful for modes whose scores are not negative.
+   */
+  SUM
+}
@@ -0,0 +1,157 @@
+package com.goodmem.search;
+
+import com.goodmem.db.ScoredMemoryChunk;
+import com.google.common.collect.ImmutableList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Merges independently ranked lists of chunks into a single ranking.
+ *
+ * <p>A chunk that appears in several input lists appears once in the output. Ties are broken by
+ * the order in which chunks were first seen, so the first list passed in wins ties.
+ */
+public final class RankFusion {
+
+  /** The rank constant from the original RRF paper; dampens the weight of top ranks. */
+  public static final int DEFAULT_RRF_RANK_CONSTANT = 60;
+
+  private RankFusion() {
+    // Utility class
+  }
+
+  /**
+   * Fuses rankings with reciprocal rank fusion: each chunk scores the sum of
+   * {@code 1 / (rankConstant + rank)} over the lists it appears in, with ranks starting at 1.
+   *
+   * @param rankings the ranked lists to fuse, best match first
+   * @param rankConstant the RRF rank constant
+   * @param limit maximum number of results
+   * @return the fused ranking, best match first
+   */
+  public static List<ScoredMemoryChunk> reciprocalRank(
+      List<List<ScoredMemoryChunk>> rankings, int rankConstant, int limit) {
+    Map<UUID, ScoredMemoryChunk> chunks = new LinkedHashMap<>();
+    Map<UUID, Double> scores = new HashMap<>();
+    for (List<ScoredMemoryChunk> ranking : rankings) {
+      for (int i = 0; i < ranking.size(); i++) {
+        ScoredMemoryChunk scored = ranking.get(i);
+        UUID chunkId = scored.chunk().chunkId();
+        chunks.putIfAbsent(chunkId, scored);
+        scores.merge(chunkId, 1.0 / (rankConstant + i + 1), Double::sum);
+      }
+    }
+    return topByScore(chunks, scores, limit);
+  }
+
+  /**
+   * Fuses two rankings with a weighted sum of their scores. Each list's scores are first min-max
+   * normalized to [0, 1] so that distances and text ranks are comparable; a chunk missing from a
+   * list contributes 0 for that list.
+   *
+   * @param vectorResults the vector-leg ranking, best match first
+   * @param lexicalResults the lexical-leg ranking, best match first
+   * @param vectorWeight the weight of the vector leg, between 0 and 1
+   * @param limit maximum number of results
+   * @return the fused ranking, best match first
+   */
+  public static List<ScoredMemoryChunk> weighted(
+      List<ScoredMemoryChunk> vectorResults,
+      List<ScoredMemoryChunk> lexicalResults,
+      double vectorWeight,
+      int limit) {
+    Map<UUID, ScoredMemoryChunk> chunks = new LinkedHashMap<>();
+    Map<UUID, Double> scores = new HashMap<>();
+    accumulateNormalized(vectorResults, vectorWeight, chunks, scores);
+    accumulateNormalized(lexicalResults, 1.0 - vectorWeight, chunks, scores);
+    return topByScore(chunks, scores, limit);
+  }
+
+  /**
+   * Merges rankings whose scores are already on a common scale, such as the per-space results of
+   * one query, with a k-way heap merge. Scores are kept as they are and chunks are not
+   * de-duplicated. Because every input is sorted, the merge stops as soon as {@code limit} results
+   * have been taken or the best remaining score falls below {@code minScore}, without examining
+   * the rest of the inputs.
+   *
+   * @param rankings the ranked lists to merge, each best match first
+   * @param limit maximum number of results
+   * @param minScore results scoring below this are dropped
+   * @return the merged ranking, best match first
+   */
+  public static List<ScoredMemoryChunk> mergeSorted(
+      List<List<ScoredMemoryChunk>> rankings, int limit, double minScore) {
+    // Ties go to the earlier ranking so that the merge is deterministic
+    PriorityQueue<Cursor> heap =
+        new PriorityQueue<>(
+            Comparator.comparingDouble((Cursor cursor) -> cursor.current().score())
+                .reversed()
+                .thenComparingInt(Cursor::rankingIndex));
+    for (int i = 0; i < rankings.size(); i++) {
+      if (!rankings.get(i).isEmpty()) {
+        heap.add(new Cursor(rankings.get(i), i, 0));
+      }
+    }
+
+    ImmutableList.Builder<ScoredMemoryChunk> merged = ImmutableList.builder();
+    int taken = 0;
+    while (taken < limit && !heap.isEmpty()) {
+      Cursor cursor = heap.poll();
+      if (cursor.current().score() < minScore) {
+        break;
+      }
+      merged.add(cursor.current());
+      taken++;
+      if (cursor.position() + 1 < cursor.ranking().size()) {
+        heap.add(new Cursor(cursor.ranking(), cursor.rankingIndex(), cursor.position() + 1));
+      }
+    }
+    return merged.build();
+  }
+
+  /** A position within one of the rankings being merged. */
+  private record Cursor(List<ScoredMemoryChunk> ranking, int rankingIndex, int position) {
+    ScoredMemoryChunk current() {
+      return ranking.get(position);
+    }
+  }
+
+  private static void accumulateNormalized(
+      List<ScoredMemoryChunk> results,
+      double weight,
+      Map<UUID, ScoredMemoryChunk> chunks,
+      Map<UUID, Double> scores) {
+    if (results.isEmpty()) {
+      return;
+    }
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (ScoredMemoryChunk scored : results) {
+      min = Math.min(min, scored.score());
+      max = Math.max(max, scored.score());
+    }
+    double range = max - min;
+    for (ScoredMemoryChunk scored : results) {
+      UUID chunkId = scored.chunk().chunkId();
+      // A list whose scores are all equal carries no ordering signal beyond membership.
+      double normalized = range > 0 ? (scored.score() - min) / range : 1.0;
+      chunks.putIfAbsent(chunkId, scored);
+      scores.merge(chunkId, weight * normalized, Double::sum);
+    }
+  }
+
+  private static List<ScoredMemoryChunk> topByScore(
+      Map<UUID, ScoredMemoryChunk> chunks, Map<UUID, Double> scores, int limit) {
+    // Stream over the insertion-ordered map; the sort is stable, so first-seen wins ties.
+    return chunks.values().stream()
+        .map(scored -> new ScoredMemoryChunk(scored.chunk(), scores.get(scored.chunk().chunkId())))
+        .sorted(Comparator.comparingDouble(ScoredMemoryChunk::score).reversed())
+        .limit(limit)
+        .collect(ImmutableList.toImmutableList());
+  }
+}
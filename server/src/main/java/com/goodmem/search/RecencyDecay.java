@@ -0,0 +1,62 @@
+package com.goodmem.search;
+
+import com.goodmem.db.ScoredMemoryChunk;
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reweights search candidates so that newer chunks rank higher.
+ *
+ * <p>Scores are first min-max normalized to [0, 1], since vector, lexical, fused and reranker
+ * scores live on unrelated scales, and then multiplied by {@code 0.5^(age / halfLife)}: a chunk
+ * one half-life old needs twice the relevance of a brand new one to rank level with it. Chunks
+ * dated in the future are treated as brand new.
+ */
+public final class RecencyDecay {
+
+  private RecencyDecay() {
+    // Utility class
+  }
+
+  /**
+   * Applies exponential time decay to candidate scores.
+   *
+   * @param candidates the candidates, best match first
+   * @param halfLife the age at which a chunk's score is halved
+   * @param now the time against which ages are measured
+   * @return the candidates carrying decayed scores, best first; ties keep the input order
+   */
+  public static List<ScoredMemoryChunk> apply(
+      List<ScoredMemoryChunk> candidates, Duration halfLife, Instant now) {
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (ScoredMemoryChunk scored : candidates) {
+      min = Math.min(min, scored.score());
+      max = Math.max(max, scored.score());
+    }
+    double range = max - min;
+    double halfLifeMillis = halfLife.toMillis();
+
+    return candidates.stream()
+        .map(
+            scored -> {
+              double relevance = range > 0 ? (scored.score() - min) / range : 1.0;
+              return new ScoredMemoryChunk(
+                  scored.chunk(), relevance * decay(scored, now, halfLifeMillis));
+            })
+        .sorted(Comparator.comparingDouble(ScoredMemoryChunk::score).reversed())
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private static double decay(ScoredMemoryChunk scored, Instant now, double halfLifeMillis) {
+    Instant createdAt = scored.chunk().createdAt();
+    if (createdAt == null) {
+      return 1.0;
+    }
+    long ageMillis = Math.max(0, Duration.between(createdAt, now).toMillis());
+    return Math.pow(0.5, ageMillis / halfLifeMillis);
+  }
+}
@@ -0,0 +1,114 @@
+package com.goodmem.search;
+
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.ScoredMemoryChunk;
+import com.goodmem.rerank.Reranker;
+import com.google.common.collect.ImmutableList;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+import org.tinylog.Logger;
+
+/**
+ * Reorders search candidates with a {@link Reranker}.
+ *
+ * <p>Candidates are split into batches of {@link #BATCH_SIZE}, which are scored concurrently on
+ * the search executor. All batches share a single deadline. If any batch fails, returns a wrong
+ * number of scores or misses the deadline, the outstanding batches are cancelled and the caller
+ * falls back to the retrieval order: a slow or unavailable reranker degrades ranking quality,
+ * never availability.
+ */
+public class RerankStage {
+
+  /** Maximum number of candidate texts sent to the reranker in one call. */
+  static final int BATCH_SIZE = 32;
+
+  private final Reranker reranker;
+  private final ExecutorService executor;
+  private final Duration timeout;
+
+  /**
+   * Creates a new RerankStage.
+   *
+   * @param reranker the reranker to call
+   * @param executor the executor on which batches are scored
+   * @param timeout how long to wait for all batches before falling back
+   */
+  public RerankStage(Reranker reranker, ExecutorService executor, Duration timeout) {
+    this.reranker = reranker;
+    this.executor = executor;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Reranks candidates against a query.
+   *
+   * @param queryText the query text
+   * @param candidates the candidates, best match first
+   * @return the candidates ordered by reranker score and carrying those scores, or empty if the
+   *     reranker failed or timed out and the retrieval order should be kept
+   */
+  public Optional<List<ScoredMemoryChunk>> rerank(
+      String queryText, List<ScoredMemoryChunk> candidates) {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    List<Future<StatusOr<List<Double>>>> futures = new ArrayList<>();
+    for (int start = 0; start < candidates.size(); start += BATCH_SIZE) {
+      List<String> texts =
+          candidates.subList(start, Math.min(start + BATCH_SIZE, candidates.size())).stream()
+              .map(scored -> scored.chunk().chunkText() == null ? "" : scored.chunk().chunkText())
+              .toList();
+      futures.add(executor.submit(() -> reranker.score(queryText, texts)));
+    }
+
+    double[] scores = new double[candidates.size()];
+    for (int batch = 0; batch < futures.size(); batch++) {
+      Optional<List<Double>> batchScores = awaitBatch(futures.get(batch), deadline);
+      int expected = Math.min(BATCH_SIZE, candidates.size() - batch * BATCH_SIZE);
+      if (batchScores.isEmpty() || batchScores.get().size() != expected) {
+        futures.forEach(pending -> pending.cancel(true));
+        return Optional.empty();
+      }
+      for (int i = 0; i < expected; i++) {
+        scores[batch * BATCH_SIZE + i] = batchScores.get().get(i);
+      }
+    }
+
+    // The sort is stable, so the retrieval order breaks ties
+    return Optional.of(
+        IntStream.range(0, candidates.size())
+            .boxed()
+            .sorted(Comparator.comparingDouble((Integer i) -> scores[i]).reversed())
+            .map(i -> new ScoredMemoryChunk(candidates.get(i).chunk(), scores[i]))
+            .collect(ImmutableList.toImmutableList()));
+  }
+
+  private static Optional<List<Double>> awaitBatch(
+      Future<StatusOr<List<Double>>> future, long deadline) {
+    try {
+      StatusOr<List<Double>> scoresOr =
+          future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      if (scoresOr.isNotOk()) {
+        Logger.warn("Reranker failed, keeping retrieval order: {}", scoresOr.getStatus());
+        return Optional.empty();
+      }
+      return Optional.of(scoresOr.getValue());
+    } catch (TimeoutException e) {
+      Logger.warn("Reranker timed out, keeping retrieval order");
+      return Optional.empty();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Optional.empty();
+    } catch (ExecutionException e) {
+      Logger.warn(e.getCause(), "Reranker failed, keeping retrieval order");
+      return Optional.empty();
+    }
+  }
+}
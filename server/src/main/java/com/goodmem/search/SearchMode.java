@@ -0,0 +1,21 @@
+package com.goodmem.search;
+
+/**
+ * Retrieval strategies supported by {@link ChunkSearcher}.
+ */
+public enum SearchMode {
+  /**
+   * Approximate nearest-neighbour search over chunk embeddings.
+   */
+  VECTOR,
+
+  /**
+   * Full-text search over chunk text.
+   */
+  LEXICAL,
+
+  /**
+   * Vector and lexical search run concurrently, with the two rankings fused.
+   */
+  HYBRID
+}
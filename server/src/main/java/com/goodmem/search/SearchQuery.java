@@ -0,0 +1,177 @@
+package com.goodmem.search;
+
+import com.goodmem.db.ChunkFilter;
+import com.goodmem.db.DistanceMetric;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * A validated search request against a single space.
+ *
+ * @param filter The space to search, any metadata the matching memories must carry and the
+ *     window in which matching chunks were created
+ * @param distanceMetric The distance metric configured on the space
+ * @param queryVector The query embedding; required for VECTOR and HYBRID searches once the query
+ *     text has been embedded
+ * @param queryText The free-text query; required for LEXICAL and HYBRID searches
+ * @param mode The retrieval strategy
+ * @param fusionMethod How HYBRID rankings are combined
+ * @param vectorWeight Weight of the vector leg in WEIGHTED fusion, between 0 and 1
+ * @param limit Maximum number of results to return
+ * @param minScore Results scoring below this are dropped; negative infinity for no bound
+ * @param diversity How results are diversified; {@link Diversity#NONE} for plain relevance order
+ * @param twoStage Whether the vector leg finds candidates in the prefix-vector index and reranks
+ *     them on full vectors, rather than scanning the full-dimension index
+ * @param memoryCandidates How many memories the vector leg picks by centroid before ranking their
+ *     chunks; 0 to search all chunks directly
+ * @param rerankCandidates How many of the top retrieved chunks are reordered by the reranker; 0
+ *     to skip reranking
+ * @param recencyHalfLife The age at which a chunk's score is halved by recency decay; null to rank
+ *     by relevance alone
+ */
+public record SearchQuery(
+    ChunkFilter filter,
+    DistanceMetric distanceMetric,
+    float[] queryVector,
+    String queryText,
+    SearchMode mode,
+    FusionMethod fusionMethod,
+    double vectorWeight,
+    int limit,
+    double minScore,
+    Diversity diversity,
+    boolean twoStage,
+    int memoryCandidates,
+    int rerankCandidates,
+    Duration recencyHalfLife) {
+
+  /**
+   * Returns whether scores are decayed by chunk age.
+   *
+   * @return true if a recency half-life is set
+   */
+  public boolean hasRecencyDecay() {
+    return recencyHalfLife != null;
+  }
+
+  /**
+   * Returns a copy of this query that targets another space.
+   *
+   * @param spaceId the space to search
+   * @param spaceMetric the distance metric configured on that space
+   * @return the retargeted query
+   */
+  public SearchQuery withSpace(UUID spaceId, DistanceMetric spaceMetric) {
+    return new SearchQuery(
+        filter.withSpace(spaceId),
+        spaceMetric,
+        queryVector,
+        queryText,
+        mode,
+        fusionMethod,
+        vectorWeight,
+        limit,
+        minScore,
+        diversity,
+        twoStage,
+        memoryCandidates,
+        rerankCandidates,
+        recencyHalfLife);
+  }
+
+  /**
+   * Returns a copy of this query with the given query embedding.
+   *
+   * @param vector the embedding of the query text
+   * @return the query with its vector set
+   */
+  public SearchQuery withQueryVector(float[] vector) {
+    return new SearchQuery(
+        filter,
+        distanceMetric,
+        vector,
+        queryText,
+        mode,
+        fusionMethod,
+        vectorWeight,
+        limit,
+        minScore,
+        diversity,
+        twoStage,
+        memoryCandidates,
+        rerankCandidates,
+        recencyHalfLife);
+  }
+
+  /**
+   * Returns a copy of this query with another diversification.
+   *
+   * @param newDiversity how results are diversified
+   * @return the query with its diversity replaced
+   */
+  public SearchQuery withDiversity(Diversity newDiversity) {
+    return new SearchQuery(
+        filter,
+        distanceMetric,
+        queryVector,
+        queryText,
+        mode,
+        fusionMethod,
+        vectorWeight,
+        limit,
+        minScore,
+        newDiversity,
+        twoStage,
+        memoryCandidates,
+        rerankCandidates,
+        recencyHalfLife);
+  }
+
+  /**
+   * Returns a copy of this query with another result limit.
+   *
+   * @param newLimit the maximum number of results
+   * @return the query with its limit replaced
+   */
+  public SearchQuery withLimit(int newLimit) {
+    return new SearchQuery(
+        filter,
+        distanceMetric,
+        queryVector,
+        queryText,
+        mode,
+        fusionMethod,
+        vectorWeight,
+        newLimit,
+        minScore,
+        diversity,
+        twoStage,
+        memoryCandidates,
+        rerankCandidates,
+        recencyHalfLife);
+  }
+
+  /**
+   * Returns a copy of this query with another minimum score.
+   *
+   * @param newMinScore the lowest score a result may have
+   * @return the query with its minimum score replaced
+   */
+  public SearchQuery withMinScore(double newMinScore) {
+    return new SearchQuery(
+        filter,
+        distanceMetric,
+        queryVector,
+        queryText,
+        mode,
+        fusionMethod,
+        vectorWeight,
+        limit,
+        newMinScore,
+        diversity,
+        twoStage,
+        memoryCandidates,
+        rerankCandidates,
+        recencyHalfLife);
+  }
+}
@@ -0,0 +1,314 @@
+package com.goodmem.search;
+
+import com.goodmem.db.ScoredMemoryChunk;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caches the results of single-space searches, bounded by an estimate of their size in memory.
+ *
+ * <p>Query vectors are filed under a coarse bucket: the side of each of {@link #BUCKET_BITS}
+ * fixed random hyperplanes they fall on. Near-identical vectors, such as embeddings of lightly
+ * reworded text, almost always share a bucket, and a bucket holds the few most recent searches
+ * that fell into it. A lookup is answered only by a stored search whose vector is at least
+ * {@link #MIN_SIMILARITY} cosine-similar to its own and of nearly the same length, so a bucket
+ * shared by unrelated vectors never serves the wrong results. Query text is part of the key only
+ * where the search uses it, so a vector search of reworded text can hit as well.
+ *
+ * <p>Every key includes the content version of the space it searched. The version changes on any
+ * write to the space's memories or chunks, so entries for older versions can never be served
+ * again; they are evicted as the cache fills. Callers must read the version before running the
+ * search they store, so that results can only ever be newer than the version they are filed under.
+ *
+ * <p>The versions themselves are kept for {@link #CONTENT_VERSION_TTL}, so that repeated searches
+ * do not each read them from the database. A search can therefore miss writes made by another
+ * server during that window; writes through this server invalidate the versions they change.
+ */
+public class SearchResultCache {
+
+  /** How long a space's content version is reused before it is read again. */
+  static final Duration CONTENT_VERSION_TTL = Duration.ofSeconds(1);
+
+  /** The number of hyperplanes whose sides make up a vector's bucket. */
+  static final int BUCKET_BITS = 8;
+
+  /** How similar a stored query vector must be to a looked-up one to answer it. */
+  static final double MIN_SIMILARITY = 0.995;
+
+  /** The number of searches kept per bucket, most recent first. */
+  static final int MAX_ENTRIES_PER_BUCKET = 8;
+
+  /** Rough per-result overhead of the chunk record, its UUIDs and timestamps. */
+  private static final int RESULT_OVERHEAD_BYTES = 256;
+
+  // Hyperplanes by vector dimension; seeded by the dimension, so buckets are the same every run
+  private static final Map<Integer, float[][]> HYPERPLANES = new ConcurrentHashMap<>();
+
+  private final Cache<Key, List<Entry>> cache;
+  private final Cache<UUID, Long> contentVersions;
+  // The cache's own counts would count a bucket found as a hit even if no vector in it matched
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Creates a new SearchResultCache.
+   *
+   * @param maxWeightBytes the approximate number of bytes the cached results may occupy
+   */
+  public SearchResultCache(long maxWeightBytes) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxWeightBytes)
+            .weigher(SearchResultCache::weigh)
+            .recordStats()
+            .build();
+    this.contentVersions =
+        CacheBuilder.newBuilder().expireAfterWrite(CONTENT_VERSION_TTL).recordStats().build();
+  }
+
+  /**
+   * Looks up the results of a search.
+   *
+   * @param query the search being run
+   * @param contentVersion the content version of the space the query targets
+   * @return the cached results of the same search or of one with a near-identical vector, best
+   *     match first, or empty on a miss
+   */
+  public Optional<List<ScoredMemoryChunk>> get(SearchQuery query, long contentVersion) {
+    List<Entry> entries = cache.getIfPresent(keyFor(query, contentVersion));
+    Optional<List<ScoredMemoryChunk>> resultsOr = Optional.empty();
+    if (entries != null) {
+      resultsOr =
+          entries.stream()
+              .filter(entry -> isNearDuplicate(entry.queryVector(), query.queryVector()))
+              .findFirst()
+              .map(Entry::results);
+    }
+    (resultsOr.isPresent() ? hits : misses).increment();
+    return resultsOr;
+  }
+
+  /**
+   * Stores the results of a search.
+   *
+   * @param query the search that was run
+   * @param contentVersion the content version of the space, read before the search was run
+   * @param results the results, best match first; never results whose reranking fell back to
+   *     the retrieval order
+   */
+  public void put(SearchQuery query, long contentVersion, List<ScoredMemoryChunk> results) {
+    Entry entry = new Entry(query.queryVector(), results);
+    cache
+        .asMap()
+        .merge(
+            keyFor(query, contentVersion),
+            List.of(entry),
+            (stored, added) -> {
+              List<Entry> entries = new ArrayList<>(MAX_ENTRIES_PER_BUCKET);
+              entries.add(entry);
+              for (Entry other : stored) {
+                if (entries.size() < MAX_ENTRIES_PER_BUCKET
+                    && !isNearDuplicate(other.queryVector(), entry.queryVector())) {
+                  entries.add(other);
+                }
+              }
+              return List.copyOf(entries);
+            });
+  }
+
+  /**
+   * Looks up the content versions read within the last {@link #CONTENT_VERSION_TTL}.
+   *
+   * @param spaceIds the spaces to look up
+   * @return the versions of those of the spaces that are cached
+   */
+  public Map<UUID, Long> getContentVersions(Collection<UUID> spaceIds) {
+    return contentVersions.getAllPresent(spaceIds);
+  }
+
+  /**
+   * Stores content versions just read from the database.
+   *
+   * @param versions the version of each space
+   */
+  public void putContentVersions(Map<UUID, Long> versions) {
+    contentVersions.putAll(versions);
+  }
+
+  /**
+   * Forgets the content versions of spaces this server has just written to, so that the next
+   * search of them reads the new version.
+   *
+   * @param spaceIds the spaces written to
+   */
+  public void invalidateContentVersions(Collection<UUID> spaceIds) {
+    contentVersions.invalidateAll(spaceIds);
+  }
+
+  /**
+   * Returns the hit, miss and eviction counts since the cache was created. A lookup is a hit only
+   * if it was answered, not merely if its bucket was found.
+   *
+   * @return the cache statistics
+   */
+  public CacheStats stats() {
+    CacheStats buckets = cache.stats();
+    return new CacheStats(hits.sum(), misses.sum(), 0, 0, 0, buckets.evictionCount());
+  }
+
+  /**
+   * Returns the hit and miss counts of the content versions since the cache was created.
+   *
+   * @return the content version cache statistics
+   */
+  public CacheStats contentVersionStats() {
+    return contentVersions.stats();
+  }
+
+  /** Builds the key a query is cached under. */
+  static Key keyFor(SearchQuery query, long contentVersion) {
+    float[] vector = query.queryVector();
+    // A vector search uses its text only to rerank
+    boolean usesText = query.mode() != SearchMode.VECTOR || query.rerankCandidates() > 0;
+    String queryText =
+        query.queryText() == null || !usesText
+            ? null
+            : query.queryText().strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    Map<String, String> metadata =
+        query.filter().hasMetadata() ? Map.copyOf(query.filter().metadata()) : Map.of();
+
+    return new Key(
+        query.filter().spaceId(),
+        contentVersion,
+        query.mode(),
+        query.fusionMethod(),
+        query.vectorWeight(),
+        query.limit(),
+        query.minScore(),
+        query.diversity(),
+        query.twoStage(),
+        query.memoryCandidates(),
+        query.rerankCandidates(),
+        metadata,
+        query.filter().createdAfter(),
+        query.filter().createdBefore(),
+        queryText,
+        vector == null ? 0 : vector.length,
+        vector == null ? 0 : bucketOf(vector));
+  }
+
+  /** Returns the bucket of a vector: bit i is set if it lies on the positive side of plane i. */
+  static int bucketOf(float[] vector) {
+    float[][] planes = HYPERPLANES.computeIfAbsent(vector.length, SearchResultCache::hyperplanes);
+    int bucket = 0;
+    for (int i = 0; i < planes.length; i++) {
+      double dot = 0;
+      for (int d = 0; d < vector.length; d++) {
+        dot += (double) planes[i][d] * vector[d];
+      }
+      if (dot >= 0) {
+        bucket |= 1 << i;
+      }
+    }
+    return bucket;
+  }
+
+  private static float[][] hyperplanes(int dimensions) {
+    Random random = new Random(dimensions);
+    float[][] planes = new float[BUCKET_BITS][dimensions];
+    for (float[] plane : planes) {
+      for (int d = 0; d < dimensions; d++) {
+        plane[d] = (float) random.nextGaussian();
+      }
+    }
+    return planes;
+  }
+
+  /**
+   * Returns whether a stored query vector may answer a lookup: both absent, or of the same
+   * dimension, at least {@link #MIN_SIMILARITY} cosine-similar and within the same share of each
+   * other's length, so that searches by distance as well as by angle are near-identical.
+   */
+  static boolean isNearDuplicate(float[] stored, float[] lookedUp) {
+    if (stored == null || lookedUp == null) {
+      return stored == lookedUp;
+    }
+    if (stored.length != lookedUp.length) {
+      return false;
+    }
+    double dot = 0;
+    double storedNorm = 0;
+    double lookedUpNorm = 0;
+    for (int d = 0; d < stored.length; d++) {
+      dot += (double) stored[d] * lookedUp[d];
+      storedNorm += (double) stored[d] * stored[d];
+      lookedUpNorm += (double) lookedUp[d] * lookedUp[d];
+    }
+    storedNorm = Math.sqrt(storedNorm);
+    lookedUpNorm = Math.sqrt(lookedUpNorm);
+    if (storedNorm == 0 || lookedUpNorm == 0) {
+      return storedNorm == lookedUpNorm;
+    }
+    return dot / (storedNorm * lookedUpNorm) >= MIN_SIMILARITY
+        && Math.min(storedNorm, lookedUpNorm) / Math.max(storedNorm, lookedUpNorm)
+            >= MIN_SIMILARITY;
+  }
+
+  private static int weigh(Key key, List<Entry> entries) {
+    long bytes = 0;
+    for (Entry entry : entries) {
+      if (entry.queryVector() != null) {
+        bytes += (long) Float.BYTES * entry.queryVector().length;
+      }
+      for (ScoredMemoryChunk scored : entry.results()) {
+        bytes += RESULT_OVERHEAD_BYTES;
+        if (scored.chunk().chunkText() != null) {
+          bytes += 2L * scored.chunk().chunkText().length();
+        }
+        if (scored.chunk().embeddingVector() != null) {
+          bytes += 4L * scored.chunk().embeddingVector().length;
+        }
+      }
+    }
+    return (int) Math.min(bytes, Integer.MAX_VALUE);
+  }
+
+  /**
+   * The bucket of a cached search. Text is whitespace- and case-normalized, matching how the
+   * lexical leg tokenizes it; the vector is reduced to its dimension and bucket.
+   */
+  record Key(
+      UUID spaceId,
+      long contentVersion,
+      SearchMode mode,
+      FusionMethod fusionMethod,
+      double vectorWeight,
+      int limit,
+      double minScore,
+      Diversity diversity,
+      boolean twoStage,
+      int memoryCandidates,
+      int rerankCandidates,
+      Map<String, String> metadata,
+      Instant createdAfter,
+      Instant createdBefore,
+      String queryText,
+      int dimensions,
+      int vectorBucket) {}
+
+  /** A search stored in a bucket, with the vector it ran with. */
+  private record Entry(float[] queryVector, List<ScoredMemoryChunk> results) {}
+}
@@ -0,0 +1,17 @@
+/**
+ * The retrieval layer for the Goodmem application.
+ *
+ * <p>This package turns a validated search request into a ranked list of memory chunks. It sits
+ * between the gRPC services and the {@code com.goodmem.db} helpers:
+ *
+ * <ul>
+ *   <li>{@code ChunkSearcher} runs the individual retrieval legs, each on its own pooled
+ *       connection, and combines their results
+ *   <li>{@code RankFusion} merges independently ranked result lists into a single ranking
+ *   <li>{@code Diversifier} reranks candidates for diversity with MMR and per-memory caps
+ *   <li>{@code MemoryGrouping} groups a chunk ranking into a ranking of memories
+ * </ul>
+ *
+ * <p>Like the database layer, operations return {@code StatusOr<T>} rather than throwing.
+ */
+package com.goodmem.search;
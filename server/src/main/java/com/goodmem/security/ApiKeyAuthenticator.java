@@ -0,0 +1,73 @@
+package com.goodmem.security;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.ApiKeys;
+import com.goodmem.db.ApiKeys.UserWithApiKey;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.tinylog.Logger;
+
+/**
+ * Resolves an API key to the user it belongs to.
+ *
+ * <p>This is the authentication step shared by both transports: {@link AuthInterceptor} runs it
+ * for gRPC calls, and the REST layer runs it before dispatching to a service.
+ */
+public class ApiKeyAuthenticator {
+
+  private final DataSource dataSource;
+
+  /**
+   * Creates a new ApiKeyAuthenticator.
+   *
+   * @param dataSource the pool to look API keys up in
+   */
+  public ApiKeyAuthenticator(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Authenticates a request by its API key.
+   *
+   * @param apiKeyString the raw API key sent by the caller, possibly null
+   * @return StatusOr containing the authenticated user, or UNAUTHENTICATED if the key is missing,
+   *     unknown or could not be checked
+   */
+  public StatusOr<User> authenticate(String apiKeyString) {
+    // No API key provided - cannot authenticate
+    if (apiKeyString == null || apiKeyString.isEmpty()) {
+      return StatusOr.ofStatus(Status.unauthenticated("No API key provided."));
+    }
+
+    try (Connection conn = dataSource.getConnection()) {
+      StatusOr<Optional<UserWithApiKey>> userOr = ApiKeys.getUserByApiKey(conn, apiKeyString);
+      if (userOr.isNotOk()) {
+        return StatusOr.ofStatus(Status.unauthenticated("Error looking up API key."));
+      }
+      if (userOr.getValue().isEmpty()) {
+        return StatusOr.ofStatus(Status.unauthenticated("Invalid or expired API key."));
+      }
+
+      // We have a valid user - create security user with appropriate role
+      com.goodmem.db.User dbUser = userOr.getValue().get().user();
+
+      // TODO: In a real implementation, look up the user's roles from the database
+      // For now, we'll assign ADMIN for a specific user ID and USER for everyone else
+      Role role;
+      if (dbUser.userId().toString().equals("00000000-0000-0000-0000-000000000001")) {
+        role = Roles.ADMIN.role();
+      } else {
+        role = Roles.ADMIN.role();     // Make all users admins for now.
+      }
+
+      return StatusOr.ofValue(new DefaultUserImpl(dbUser, role));
+    } catch (SQLException | RuntimeException e) {
+      // Callers answer UNAUTHENTICATED; nothing may escape the gRPC interceptor or REST handler
+      Logger.error(e, "Unexpected failure during authentication.");
+      return StatusOr.ofStatus(Status.unauthenticated("Error during authentication."));
+    }
+  }
+}
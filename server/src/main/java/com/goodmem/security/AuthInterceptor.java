@@ -1,7 +1,6 @@
 package com.goodmem.security;
 
 import com.goodmem.common.status.StatusOr;
-import com.goodmem.db.ApiKeys.UserWithApiKey;
 import io.grpc.Context;
 import io.grpc.Contexts;
 import io.grpc.Metadata;
@@ -9,7 +8,6 @@ import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
 import io.grpc.ServerInterceptor;
 import io.grpc.Status;
-import java.util.Optional;
 import org.tinylog.Logger;
 
 /**
@@ -22,10 +20,19 @@ public class AuthInterceptor implements ServerInterceptor {
   // Context key for the authenticated user object
   public static final Context.Key<User> USER_CONTEXT_KEY = Context.key("user");
 
-  private final com.zaxxer.hikari.HikariDataSource dataSource;
+  private final ApiKeyAuthenticator authenticator;
 
   public AuthInterceptor(com.zaxxer.hikari.HikariDataSource dataSource) {
-    this.dataSource = dataSource;
+    this(new ApiKeyAuthenticator(dataSource));
+  }
+
+  /**
+   * Creates an interceptor that shares its authentication step with other transports.
+   *
+   * @param authenticator resolves API keys to users
+   */
+  public AuthInterceptor(ApiKeyAuthenticator authenticator) {
+    this.authenticator = authenticator;
   }
 
   private <ReqT, RespT> ServerCall.Listener<ReqT> abortUnauthenticated(
@@ -44,48 +51,13 @@ public class AuthInterceptor implements ServerInterceptor {
     String apiKeyString = headers.get(API_KEY_METADATA_KEY);
     Logger.info("API Key: {}", (apiKeyString != null ? "present" : "absent"));
 
-    // No API key provided - cannot authenticate
-    if (apiKeyString == null || apiKeyString.isEmpty()) {
-      return abortUnauthenticated(call, "No API key provided.");
+    StatusOr<User> userOr = authenticator.authenticate(apiKeyString);
+    if (userOr.isNotOk()) {
+      return abortUnauthenticated(call, userOr.getStatus().getMessage());
     }
 
-    // Attempt to authenticate with the provided API key
-    try (java.sql.Connection conn = dataSource.getConnection()) {
-      // Look up user by API key
-      StatusOr<Optional<UserWithApiKey>> userOr =
-          com.goodmem.db.ApiKeys.getUserByApiKey(conn, apiKeyString);
-
-      if (!userOr.isOk()) {
-        return abortUnauthenticated(call, "Error looking up API key.");
-      }
-
-      Optional<com.goodmem.db.ApiKeys.UserWithApiKey> userWithKeyOpt = userOr.getValue();
-      if (userWithKeyOpt.isEmpty()) {
-        return abortUnauthenticated(call, "Invalid or expired API key.");
-      }
-
-      // We have a valid user - create security user with appropriate role
-      com.goodmem.db.User dbUser = userWithKeyOpt.get().user();
-
-      // TODO: In a real implementation, look up the user's roles from the database
-      // For now, we'll assign ADMIN for a specific user ID and USER for everyone else
-      Role role;
-      if (dbUser.userId().toString().equals("00000000-0000-0000-0000-000000000001")) {
-        role = Roles.ADMIN.role();
-      } else {
-        role = Roles.ADMIN.role();     // Make all users admins for now.
-      }
-
-      // Create security User from db.User with the appropriate role
-      User securityUser = new DefaultUserImpl(dbUser, role);
-
-      // Add the user to the context
-      Context context = Context.current().withValue(USER_CONTEXT_KEY, securityUser);
-      return Contexts.interceptCall(context, call, headers, next);
-
-    } catch (Exception e) {
-      Logger.error(e, "Unexpected failure during authentication.");
-      return abortUnauthenticated(call, "Error during authentication.");
-    }
+    // Add the user to the context
+    Context context = Context.current().withValue(USER_CONTEXT_KEY, userOr.getValue());
+    return Contexts.interceptCall(context, call, headers, next);
   }
 }
@@ -0,0 +1,211 @@
+package com.goodmem.util;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+
+/**
+ * A concurrency limit for one operation that adapts to the operation's latency.
+ *
+ * <p>A fixed limit is either too low for a healthy server or too high to stop queueing on an
+ * overloaded one. This limiter follows the gradient algorithm: it keeps a long-term average of the
+ * operation's latency, and after each call moves the limit towards {@code limit * gradient +
+ * sqrt(limit)}, where the gradient is the ratio of the long-term latency (with some tolerance) to
+ * the latency just observed, capped at 1. While latency holds steady the square-root term grows
+ * the limit; once requests start queueing somewhere, latency rises and the limit shrinks. Calls
+ * that time out or are shed downstream cut the limit directly.
+ *
+ * <p>Admission is partitioned two ways. Bulk calls may only use a share of the limit, so that
+ * reads keep headroom during a burst of batch writes. And once the limit is half used, no single
+ * partition (a caller) may hold more than its share of it; an idle server lends a lone client
+ * all of its capacity. Calls admitted by another limiter can also be counted here with {@link
+ * #admit}, without being checked, so that bulk calls yield to them.
+ */
+public class AdaptiveLimiter {
+
+  /** How a call ended, as far as the limit is concerned. */
+  public enum Outcome {
+    /** The call completed; its latency is a sample of the operation's. */
+    SUCCESS,
+    /** The call timed out or was shed downstream, a sign of overload. */
+    DROPPED,
+    /** The call says nothing about load, e.g. it was cancelled or streamed. */
+    IGNORED
+  }
+
+  /**
+   * Settings for an AdaptiveLimiter.
+   *
+   * @param initialLimit the limit before any latency has been observed
+   * @param minLimit the limit never drops below this
+   * @param maxLimit the limit never grows above this
+   * @param bulkShare the fraction of the limit that bulk calls may use
+   * @param partitionShare the fraction of the limit one partition may use under contention
+   */
+  public record Config(
+      int initialLimit, int minLimit, int maxLimit, double bulkShare, double partitionShare) {
+
+    public static final Config DEFAULT = new Config(20, 4, 500, 0.5, 0.5);
+  }
+
+  // Latency may grow by half over its long-term average before the limit shrinks
+  private static final double RTT_TOLERANCE = 1.5;
+  // Weight of each new limit estimate, damping oscillation
+  private static final double SMOOTHING = 0.2;
+  // Number of samples the long-term latency average spans
+  private static final int LONG_WINDOW = 600;
+  // Multiplier applied to the limit when a call is dropped
+  private static final double BACKOFF_RATIO = 0.9;
+  private static final Duration MIN_RETRY_AFTER = Duration.ofMillis(100);
+
+  private final Config config;
+  private final Ticker ticker;
+  // All state below is guarded by this
+  private final Map<String, Integer> inFlightByPartition = new HashMap<>();
+  private double limit;
+  private int inFlight;
+  private double longRttNanos;
+
+  /**
+   * Creates a new AdaptiveLimiter.
+   *
+   * @param config the limiter settings
+   * @param ticker the time source used to measure latency
+   */
+  public AdaptiveLimiter(Config config, Ticker ticker) {
+    this.config = config;
+    this.ticker = ticker;
+    this.limit = config.initialLimit();
+  }
+
+  /**
+   * Admits a call if the limit allows it.
+   *
+   * @param partition the partition the call belongs to, or null if it belongs to none
+   * @param bulk whether the call is a bulk operation, which may only use part of the limit
+   * @return a permit to release when the call ends, or empty if the call should be rejected
+   */
+  public synchronized Optional<Permit> tryAcquire(@Nullable String partition, boolean bulk) {
+    int currentLimit = getLimit();
+    int allowed = bulk ? share(currentLimit, config.bulkShare()) : currentLimit;
+    if (inFlight >= allowed) {
+      return Optional.empty();
+    }
+    if (partition != null
+        && inFlight * 2 >= currentLimit
+        && inFlightByPartition.getOrDefault(partition, 0)
+            >= share(currentLimit, config.partitionShare())) {
+      return Optional.empty();
+    }
+    return Optional.of(admit(partition));
+  }
+
+  /**
+   * Admits a call without checking the limit, so that it counts against the calls that are
+   * checked.
+   *
+   * @param partition the partition the call belongs to, or null if it belongs to none
+   * @return a permit to release when the call ends
+   */
+  synchronized Permit admit(@Nullable String partition) {
+    inFlight++;
+    if (partition != null) {
+      inFlightByPartition.merge(partition, 1, Integer::sum);
+    }
+    return new Permit(partition, ticker.read(), inFlight);
+  }
+
+  /** Returns the current limit on concurrent calls. */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /** Returns the number of calls currently admitted. */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /** Returns how long a rejected caller should wait before retrying: about one call's latency. */
+  public synchronized Duration retryAfter() {
+    Duration rtt = Duration.ofNanos((long) longRttNanos);
+    return rtt.compareTo(MIN_RETRY_AFTER) > 0 ? rtt : MIN_RETRY_AFTER;
+  }
+
+  private static int share(int currentLimit, double share) {
+    return Math.max(1, (int) (currentLimit * share));
+  }
+
+  private synchronized void release(Permit permit, Outcome outcome) {
+    inFlight--;
+    if (permit.partition != null) {
+      inFlightByPartition.computeIfPresent(permit.partition, (k, n) -> n == 1 ? null : n - 1);
+    }
+    switch (outcome) {
+      case SUCCESS -> onSample(ticker.read() - permit.startNanos, permit.inFlightAtStart);
+      case DROPPED -> limit = Math.max(config.minLimit(), limit * BACKOFF_RATIO);
+      case IGNORED -> {}
+    }
+  }
+
+  private void onSample(long rttNanos, int inFlightAtStart) {
+    double rtt = Math.max(1, rttNanos);
+    longRttNanos = longRttNanos == 0 ? rtt : longRttNanos + (rtt - longRttNanos) / LONG_WINDOW;
+    // After a burst the average lags far above current latency; let it catch up faster
+    if (longRttNanos > 2 * rtt) {
+      longRttNanos *= 0.95;
+    }
+    // A limit that is not being used says nothing about whether it is too high or too low
+    if (inFlightAtStart * 2 < limit) {
+      return;
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / rtt));
+    double newLimit = limit * gradient + Math.sqrt(limit);
+    limit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    limit = Math.max(config.minLimit(), Math.min(config.maxLimit(), limit));
+  }
+
+  /** An admitted call. Releasing it more than once has no effect. */
+  public final class Permit {
+    private final String partition;
+    private final long startNanos;
+    private final int inFlightAtStart;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private Permit linked;
+
+    private Permit(String partition, long startNanos, int inFlightAtStart) {
+      this.partition = partition;
+      this.startNanos = startNanos;
+      this.inFlightAtStart = inFlightAtStart;
+    }
+
+    /**
+     * Ties the permit of another limiter to this one, so that releasing this permit releases
+     * both. Must be called before the permit is handed out.
+     *
+     * @param other the other limiter's permit for the same call
+     * @return this permit
+     */
+    Permit linkedWith(Permit other) {
+      this.linked = other;
+      return this;
+    }
+
+    /**
+     * Ends the call, freeing its place under the limit.
+     *
+     * @param outcome how the call ended
+     */
+    public void release(Outcome outcome) {
+      if (released.compareAndSet(false, true)) {
+        AdaptiveLimiter.this.release(this, outcome);
+        if (linked != null) {
+          linked.release(outcome);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package com.goodmem.util;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrent calls into one downstream dependency.
+ *
+ * <p>With request handlers on virtual threads, nothing else bounds how many requests can be
+ * waiting on a dependency at once. Giving each dependency its own permits means a slow dependency
+ * only ties up the requests that need it: callers that cannot get a permit within the wait limit
+ * fail fast with RESOURCE_EXHAUSTED instead of piling up behind it. Permits are granted in
+ * arrival order.
+ */
+public class Bulkhead {
+
+  private final String name;
+  private final int maxConcurrentCalls;
+  private final Duration maxWait;
+  private final Semaphore permits;
+
+  /**
+   * Creates a new Bulkhead.
+   *
+   * @param name the dependency guarded, used in error messages
+   * @param maxConcurrentCalls the maximum number of calls in flight at once
+   * @param maxWait how long a caller waits for a permit before giving up
+   */
+  public Bulkhead(String name, int maxConcurrentCalls, Duration maxWait) {
+    this.name = name;
+    this.maxConcurrentCalls = maxConcurrentCalls;
+    this.maxWait = maxWait;
+    this.permits = new Semaphore(maxConcurrentCalls, true);
+  }
+
+  /**
+   * Runs a call once a permit is available.
+   *
+   * @param call the call into the guarded dependency
+   * @return the result of the call, RESOURCE_EXHAUSTED if no permit became available in time, or
+   *     CANCELLED if the caller was interrupted while waiting
+   */
+  public <T> StatusOr<T> call(Supplier<StatusOr<T>> call) {
+    try {
+      if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+        return StatusOr.ofStatus(
+            Status.resourceExhausted(
+                name + " is at its limit of " + maxConcurrentCalls + " concurrent calls"));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return StatusOr.ofStatus(Status.of(StatusCode.CANCELLED, "Interrupted waiting for " + name));
+    }
+    try {
+      return call.get();
+    } finally {
+      permits.release();
+    }
+  }
+
+  /**
+   * Returns the number of calls that could start right now without waiting.
+   *
+   * @return the number of free permits
+   */
+  public int availablePermits() {
+    return permits.availablePermits();
+  }
+}
@@ -0,0 +1,60 @@
+package com.goodmem.util;
+
+import com.google.common.cache.CacheStats;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.tinylog.Logger;
+
+/**
+ * Exports the hit and miss counts of a cache as a JMX MBean named {@code
+ * com.goodmem:type=Cache,name=<name>}, so that monitoring can scrape them rather than read them
+ * from the log.
+ */
+public class CacheMetrics implements CacheStatsMXBean {
+
+  private final Supplier<CacheStats> stats;
+
+  private CacheMetrics(Supplier<CacheStats> stats) {
+    this.stats = stats;
+  }
+
+  /**
+   * Registers the counts of a cache with the platform MBean server. A cache that cannot be
+   * registered, e.g. because one of the same name already is, is logged and not exported.
+   *
+   * @param name the name of the cache, e.g. "SearchResults"
+   * @param stats reads the cache's current counts
+   */
+  public static void register(String name, Supplier<CacheStats> stats) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.registerMBean(
+          new CacheMetrics(stats), new ObjectName("com.goodmem:type=Cache,name=" + name));
+    } catch (JMException e) {
+      Logger.warn(e, "Could not export the counts of cache {}", name);
+    }
+  }
+
+  @Override
+  public long getHitCount() {
+    return stats.get().hitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return stats.get().missCount();
+  }
+
+  @Override
+  public double getHitRate() {
+    return stats.get().hitRate();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return stats.get().evictionCount();
+  }
+}
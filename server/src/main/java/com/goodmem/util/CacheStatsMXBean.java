@@ -0,0 +1,17 @@
+package com.goodmem.util;
+
+/** The counts of one of the server's caches, as exported over JMX. */
+public interface CacheStatsMXBean {
+
+  /** Returns the number of lookups answered from the cache. */
+  long getHitCount();
+
+  /** Returns the number of lookups the cache could not answer. */
+  long getMissCount();
+
+  /** Returns the share of lookups answered from the cache, or 1 if there were none. */
+  double getHitRate();
+
+  /** Returns the number of entries evicted to stay within the cache's bounds. */
+  long getEvictionCount();
+}
@@ -0,0 +1,121 @@
+package com.goodmem.util;
+
+import com.google.common.hash.Hashing;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+
+/**
+ * Sheds gRPC calls beyond each method's adaptive concurrency limit.
+ *
+ * <p>Without a limit, excess calls queue for a database connection for up to the pool's timeout,
+ * and latency rises for every caller. Calls over the limit are instead rejected at once with
+ * RESOURCE_EXHAUSTED and a grpc-retry-pushback-ms trailer. The interceptor runs before
+ * authentication so that shed calls cost no database lookup, so the caller is not yet known: the
+ * partition is a hash of the API key header, so that no key is kept in memory. A made-up key
+ * only earns a partition of its own until authentication rejects the call.
+ *
+ * <p>Only unary calls are latency samples, since a stream's duration depends on its consumer.
+ */
+public class ConcurrencyLimitInterceptor implements ServerInterceptor {
+
+  static final Metadata.Key<String> API_KEY_METADATA_KEY =
+      Metadata.Key.of("x-api-key", Metadata.ASCII_STRING_MARSHALLER);
+  static final Metadata.Key<String> RETRY_PUSHBACK_KEY =
+      Metadata.Key.of("grpc-retry-pushback-ms", Metadata.ASCII_STRING_MARSHALLER);
+
+  private final ConcurrencyLimits limits;
+
+  /**
+   * Creates a new ConcurrencyLimitInterceptor.
+   *
+   * @param limits the limits, keyed by full method name
+   */
+  public ConcurrencyLimitInterceptor(ConcurrencyLimits limits) {
+    this.limits = limits;
+  }
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+      ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+    MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+    String methodName = method.getFullMethodName();
+    Optional<AdaptiveLimiter.Permit> permitOr =
+        limits.tryAcquire(methodName, partitionOf(headers.get(API_KEY_METADATA_KEY)));
+    if (permitOr.isEmpty()) {
+      long retryAfterMillis = limits.limiterFor(methodName).retryAfter().toMillis();
+      Metadata trailers = new Metadata();
+      trailers.put(RETRY_PUSHBACK_KEY, Long.toString(retryAfterMillis));
+      call.close(
+          Status.RESOURCE_EXHAUSTED.withDescription(
+              "Too many concurrent " + methodName + " calls; retry in " + retryAfterMillis + " ms"),
+          trailers);
+      return new ServerCall.Listener<>() {};
+    }
+
+    AdaptiveLimiter.Permit permit = permitOr.get();
+    boolean sampled = method.getType() == MethodDescriptor.MethodType.UNARY;
+    ServerCall<ReqT, RespT> limitedCall =
+        new SimpleForwardingServerCall<>(call) {
+          @Override
+          public void close(Status status, Metadata trailers) {
+            permit.release(sampled ? outcomeOf(status) : AdaptiveLimiter.Outcome.IGNORED);
+            super.close(status, trailers);
+          }
+        };
+    ServerCall.Listener<ReqT> listener;
+    try {
+      listener = next.startCall(limitedCall, headers);
+    } catch (RuntimeException e) {
+      permit.release(AdaptiveLimiter.Outcome.IGNORED);
+      throw e;
+    }
+    // A call the client abandons, or whose deadline passes, is never closed by the service
+    return new SimpleForwardingServerCallListener<>(listener) {
+      @Override
+      public void onCancel() {
+        permit.release(
+            sampled ? cancelOutcomeOf(Context.current()) : AdaptiveLimiter.Outcome.IGNORED);
+        super.onCancel();
+      }
+    };
+  }
+
+  /** Returns the partition of a call by its API key: a hash, or the shared one if it has none. */
+  static String partitionOf(@Nullable String apiKey) {
+    if (apiKey == null || apiKey.isEmpty()) {
+      return ConcurrencyLimits.UNAUTHENTICATED_PARTITION;
+    }
+    return Hashing.sha256().hashString(apiKey, StandardCharsets.UTF_8).toString();
+  }
+
+  /** Classifies a cancelled call: one that ran out of time timed out, any other says nothing. */
+  static AdaptiveLimiter.Outcome cancelOutcomeOf(Context context) {
+    Deadline deadline = context.getDeadline();
+    if ((deadline != null && deadline.isExpired())
+        || context.cancellationCause() instanceof TimeoutException) {
+      return AdaptiveLimiter.Outcome.DROPPED;
+    }
+    return AdaptiveLimiter.Outcome.IGNORED;
+  }
+
+  /** Classifies how a call ended: overload signals cut the limit, other statuses are samples. */
+  static AdaptiveLimiter.Outcome outcomeOf(Status status) {
+    return switch (status.getCode()) {
+      case RESOURCE_EXHAUSTED, UNAVAILABLE, DEADLINE_EXCEEDED -> AdaptiveLimiter.Outcome.DROPPED;
+      case CANCELLED -> AdaptiveLimiter.Outcome.IGNORED;
+      default -> AdaptiveLimiter.Outcome.SUCCESS;
+    };
+  }
+}
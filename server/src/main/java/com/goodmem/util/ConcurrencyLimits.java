@@ -0,0 +1,112 @@
+package com.goodmem.util;
+
+import com.google.common.base.Ticker;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The adaptive concurrency limits of the server, one per operation.
+ *
+ * <p>Operations differ too much in latency to share one limit: a search and a get cannot be
+ * judged by the same round-trip time. Each gRPC method and each REST route therefore gets its own
+ * {@link AdaptiveLimiter}, created on first use, and within each the caller is the partition.
+ * Partitions never hold credentials: they are user IDs or key hashes, and calls that cannot be
+ * told apart share {@link #UNAUTHENTICATED_PARTITION}.
+ *
+ * <p>Operations marked as bulk are also held to a limiter shared by every operation. All calls
+ * count towards it, but only bulk calls are checked, and they may only use its bulk share. Reads
+ * therefore take priority: as they fill the shared limit, bulk calls are shed first. The shared
+ * limit adapts to the latency of all calls together, which is coarse, but it only decides how
+ * much room bulk calls get.
+ */
+public class ConcurrencyLimits {
+
+  /** Partition shared by calls that carry no credentials. */
+  public static final String UNAUTHENTICATED_PARTITION = "unauthenticated";
+
+  /** Operation whose limiter is shared once the number of operations reaches the cap. */
+  static final String OVERFLOW_OPERATION = "other";
+
+  // Bounds memory if callers can make up operation names, e.g. with unknown REST paths
+  private static final int MAX_OPERATIONS = 256;
+
+  private final AdaptiveLimiter.Config config;
+  private final Ticker ticker;
+  private final Set<String> bulkOperations = new HashSet<>();
+  private final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+  private final AdaptiveLimiter shared;
+
+  /**
+   * Creates a new ConcurrencyLimits.
+   *
+   * @param config the settings of each operation's limiter
+   * @param ticker the time source used to measure latency
+   */
+  public ConcurrencyLimits(AdaptiveLimiter.Config config, Ticker ticker) {
+    this.config = config;
+    this.ticker = ticker;
+    this.shared = new AdaptiveLimiter(config, ticker);
+  }
+
+  /**
+   * Marks an operation as bulk, so that it may only use part of its own limit and of the shared
+   * limit, and the rest is kept for reads. Must be called before the server starts.
+   *
+   * @param operation the operation, e.g. "goodmem.v1.MemoryService/BatchCreateMemories"
+   * @return this instance for method chaining
+   */
+  public ConcurrencyLimits markBulk(String operation) {
+    bulkOperations.add(operation);
+    return this;
+  }
+
+  /**
+   * Admits a call if its operation's limit allows it and, for a bulk call, if the shared limit
+   * does too.
+   *
+   * @param operation the operation called
+   * @param partition the caller, e.g. its user ID; never a credential
+   * @return a permit to release when the call ends, or empty if the call should be rejected
+   */
+  public Optional<AdaptiveLimiter.Permit> tryAcquire(String operation, String partition) {
+    boolean bulk = bulkOperations.contains(operation);
+    Optional<AdaptiveLimiter.Permit> sharedOr =
+        bulk ? shared.tryAcquire(null, true) : Optional.of(shared.admit(null));
+    if (sharedOr.isEmpty()) {
+      return Optional.empty();
+    }
+    Optional<AdaptiveLimiter.Permit> permitOr = limiterFor(operation).tryAcquire(partition, bulk);
+    if (permitOr.isEmpty()) {
+      sharedOr.get().release(AdaptiveLimiter.Outcome.IGNORED);
+      return Optional.empty();
+    }
+    return Optional.of(permitOr.get().linkedWith(sharedOr.get()));
+  }
+
+  /**
+   * Returns the limiter shared by all operations, which only bulk calls are held to.
+   *
+   * @return the shared limiter
+   */
+  public AdaptiveLimiter sharedLimiter() {
+    return shared;
+  }
+
+  /**
+   * Returns the limiter of an operation, creating it on first use.
+   *
+   * @param operation the operation
+   * @return the operation's limiter, or the shared overflow limiter once there are too many
+   */
+  public AdaptiveLimiter limiterFor(String operation) {
+    AdaptiveLimiter limiter = limiters.get(operation);
+    if (limiter != null) {
+      return limiter;
+    }
+    String key = limiters.size() < MAX_OPERATIONS ? operation : OVERFLOW_OPERATION;
+    return limiters.computeIfAbsent(key, k -> new AdaptiveLimiter(config, ticker));
+  }
+}
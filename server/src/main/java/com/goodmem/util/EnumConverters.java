@@ -1,9 +1,11 @@
 package com.goodmem.util;
 
+import com.goodmem.db.DistanceMetric;
 import com.goodmem.db.EmbedderModality;
 import com.goodmem.db.EmbedderProviderType;
 import goodmem.v1.EmbedderOuterClass.Modality;
 import goodmem.v1.EmbedderOuterClass.ProviderType;
+import goodmem.v1.SpaceOuterClass;
 
 /**
  * Utility class for converting between proto enums and database enums.
@@ -124,4 +126,39 @@ public final class EnumConverters {
       default -> Modality.MODALITY_UNSPECIFIED;
     };
   }
-}
\ No newline at end of file
+
+  /**
+   * Converts proto DistanceMetric enum to database DistanceMetric enum.
+   *
+   * @param distanceMetric The proto DistanceMetric enum
+   * @return The database DistanceMetric enum; COSINE for UNSPECIFIED
+   * @throws IllegalArgumentException if the value is UNRECOGNIZED; callers should reject it first
+   */
+  public static DistanceMetric fromProtoDistanceMetric(
+      SpaceOuterClass.DistanceMetric distanceMetric) {
+    return switch (distanceMetric) {
+      case DISTANCE_METRIC_UNSPECIFIED, DISTANCE_METRIC_COSINE -> DistanceMetric.COSINE;
+      case DISTANCE_METRIC_DOT_PRODUCT -> DistanceMetric.DOT_PRODUCT;
+      case DISTANCE_METRIC_EUCLIDEAN -> DistanceMetric.EUCLIDEAN;
+      case UNRECOGNIZED -> throw new IllegalArgumentException("Unrecognized distance metric");
+    };
+  }
+
+  /**
+   * Converts database DistanceMetric enum to proto DistanceMetric enum.
+   *
+   * @param distanceMetric The database DistanceMetric enum
+   * @return The proto DistanceMetric enum
+   */
+  public static SpaceOuterClass.DistanceMetric toProtoDistanceMetric(
+      DistanceMetric distanceMetric) {
+    if (distanceMetric == null) {
+      return SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_UNSPECIFIED;
+    }
+    return switch (distanceMetric) {
+      case COSINE -> SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_COSINE;
+      case DOT_PRODUCT -> SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_DOT_PRODUCT;
+      case EUCLIDEAN -> SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_EUCLIDEAN;
+    };
+  }
+}
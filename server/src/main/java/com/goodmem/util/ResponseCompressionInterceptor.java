@@ -0,0 +1,124 @@
+package com.goodmem.util;
+
+import com.google.common.base.Splitter;
+import com.google.protobuf.MessageLite;
+import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compresses the responses of selected gRPC methods with the best encoding the client accepts.
+ *
+ * <p>grpc-java never compresses responses on its own. For each method covered by the policy, this
+ * interceptor picks the first of the server's preferred encodings that the client lists in
+ * grpc-accept-encoding, and leaves the call uncompressed if there is none. Messages smaller than
+ * the threshold are still sent uncompressed, since framing and CPU outweigh the saving.
+ */
+public class ResponseCompressionInterceptor implements ServerInterceptor {
+
+  static final Metadata.Key<String> ACCEPT_ENCODING_KEY =
+      Metadata.Key.of("grpc-accept-encoding", Metadata.ASCII_STRING_MARSHALLER);
+
+  private static final Splitter ENCODING_SPLITTER = Splitter.on(',').trimResults();
+
+  private final List<String> preferredEncodings;
+  private final int minMessageBytes;
+  private final Set<String> compressedServices = new HashSet<>();
+  private final Set<String> compressedMethods = new HashSet<>();
+
+  /**
+   * Creates a new ResponseCompressionInterceptor that compresses nothing until methods or
+   * services are added.
+   *
+   * @param preferredEncodings the encodings to offer, most preferred first; each must be
+   *     registered with the server's compressor registry
+   * @param minMessageBytes the serialized size below which a message is sent uncompressed
+   */
+  public ResponseCompressionInterceptor(List<String> preferredEncodings, int minMessageBytes) {
+    this.preferredEncodings = List.copyOf(preferredEncodings);
+    this.minMessageBytes = minMessageBytes;
+  }
+
+  /**
+   * Compresses the responses of every method of a service.
+   *
+   * @param serviceName the full service name (e.g. "goodmem.v1.MemoryService")
+   * @return this instance for method chaining
+   */
+  public ResponseCompressionInterceptor compressService(String serviceName) {
+    compressedServices.add(serviceName);
+    return this;
+  }
+
+  /**
+   * Compresses the responses of one method.
+   *
+   * @param fullMethodName the full method name in the format "service/method"
+   * @return this instance for method chaining
+   */
+  public ResponseCompressionInterceptor compressMethod(String fullMethodName) {
+    compressedMethods.add(fullMethodName);
+    return this;
+  }
+
+  @Override
+  public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+      ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+    MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+    if (!compressedMethods.contains(method.getFullMethodName())
+        && !compressedServices.contains(method.getServiceName())) {
+      return next.startCall(call, headers);
+    }
+    String encoding = negotiate(headers.get(ACCEPT_ENCODING_KEY));
+    if (encoding == null) {
+      return next.startCall(call, headers);
+    }
+    call.setCompression(encoding);
+    return next.startCall(new ThresholdCall<>(call, minMessageBytes), headers);
+  }
+
+  /**
+   * Picks the encoding for a call.
+   *
+   * @param acceptEncoding the client's grpc-accept-encoding header, or null if absent
+   * @return the most preferred encoding the client accepts, or null if it accepts none of them
+   */
+  String negotiate(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return null;
+    }
+    List<String> accepted = ENCODING_SPLITTER.splitToList(acceptEncoding);
+    for (String encoding : preferredEncodings) {
+      if (accepted.contains(encoding)) {
+        return encoding;
+      }
+    }
+    return null;
+  }
+
+  /** Turns compression off for each message below the size threshold. */
+  private static final class ThresholdCall<ReqT, RespT>
+      extends SimpleForwardingServerCall<ReqT, RespT> {
+    private final int minMessageBytes;
+
+    ThresholdCall(ServerCall<ReqT, RespT> delegate, int minMessageBytes) {
+      super(delegate);
+      this.minMessageBytes = minMessageBytes;
+    }
+
+    @Override
+    public void sendMessage(RespT message) {
+      // Protobuf memoizes the size, so serialization does not compute it again
+      boolean large =
+          !(message instanceof MessageLite lite) || lite.getSerializedSize() >= minMessageBytes;
+      setMessageCompression(large);
+      super.sendMessage(message);
+    }
+  }
+}
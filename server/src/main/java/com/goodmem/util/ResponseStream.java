@@ -0,0 +1,224 @@
+package com.goodmem.util;
+
+import io.grpc.Context;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.tinylog.Logger;
+
+/**
+ * Sends the messages of a server-streaming response as they are produced, at the pace the client
+ * reads them.
+ *
+ * <p>{@code onNext} on a gRPC response observer never blocks: messages the transport cannot send
+ * yet are queued in memory, so a producer that outruns a slow client buffers the whole response
+ * after all. This class waits for the call to become ready before each message instead, which
+ * parks the producer thread and leaves the rest of the result in the database cursor. It also
+ * notices when the client cancels, or when {@code onNext} fails, so that the producer can stop
+ * reading. Observers that are not gRPC server observers, such as the REST layer's, apply their own
+ * backpressure and are written to directly.
+ *
+ * <p>gRPC delivers the readiness and cancellation callbacks on the call's serialized executor,
+ * which a handler blocked in {@link #send} would occupy. {@link #start} therefore runs the
+ * producer of a gRPC stream on a thread of its own and returns at once.
+ *
+ * <p>A producer holds a pooled connection and an open transaction for as long as it streams. To
+ * keep a few slow consumers from exhausting the pool or holding back vacuum, only a limited number
+ * of streams run at once, and a stream whose client reads nothing for {@link #IDLE_TIMEOUT} is
+ * ended.
+ */
+public class ResponseStream<T> {
+
+  /** How long a stream may wait for its client to read before it is ended. */
+  static final Duration IDLE_TIMEOUT = Duration.ofSeconds(30);
+
+  private static final long READY_POLL_MILLIS = 1000;
+  private static final int DEFAULT_MAX_CONCURRENT_STREAMS = 4;
+
+  private static final ExecutorService PRODUCERS = Executors.newVirtualThreadPerTaskExecutor();
+  private static volatile Semaphore streamSlots = new Semaphore(DEFAULT_MAX_CONCURRENT_STREAMS);
+
+  private final StreamObserver<T> observer;
+  private final ServerCallStreamObserver<T> serverObserver;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition readyOrCancelled = lock.newCondition();
+  private volatile boolean aborted;
+  private volatile boolean idle;
+
+  private ResponseStream(StreamObserver<T> observer) {
+    this.observer = observer;
+    if (observer instanceof ServerCallStreamObserver<T> callObserver) {
+      this.serverObserver = callObserver;
+      callObserver.setOnReadyHandler(this::signal);
+      callObserver.setOnCancelHandler(this::signal);
+    } else {
+      this.serverObserver = null;
+    }
+  }
+
+  /**
+   * Sets how many streams may run at once; calls beyond it fail with RESOURCE_EXHAUSTED. Should be
+   * well below the size of the connection pool, and must be called before the server starts.
+   *
+   * @param maxConcurrentStreams the maximum number of concurrent streams
+   */
+  public static void setMaxConcurrentStreams(int maxConcurrentStreams) {
+    streamSlots = new Semaphore(Math.max(1, maxConcurrentStreams));
+  }
+
+  /**
+   * Starts a streamed response. Must be called before the service method returns, because gRPC
+   * only accepts readiness handlers during the initial call.
+   *
+   * <p>The producer of a gRPC stream runs on a separate thread in the current gRPC context, so
+   * that deadlines and cancellation still reach its database statements; other producers run on
+   * the calling thread. If too many streams are already running, the call fails at once with
+   * RESOURCE_EXHAUSTED and the producer is not run.
+   *
+   * @param observer the response observer of a server-streaming call
+   * @param producer sends the messages and then completes or fails the stream
+   */
+  public static <T> void start(StreamObserver<T> observer, Consumer<ResponseStream<T>> producer) {
+    Semaphore slots = streamSlots;
+    if (!slots.tryAcquire()) {
+      observer.onError(
+          io.grpc.Status.RESOURCE_EXHAUSTED
+              .withDescription("Too many concurrent streams; retry later")
+              .asRuntimeException());
+      return;
+    }
+    ResponseStream<T> stream = new ResponseStream<>(observer);
+    Runnable body =
+        () -> {
+          try {
+            producer.accept(stream);
+          } finally {
+            slots.release();
+          }
+        };
+    if (stream.serverObserver == null) {
+      body.run();
+      return;
+    }
+    PRODUCERS.execute(
+        Context.current()
+            .wrap(
+                () -> {
+                  try {
+                    body.run();
+                  } catch (RuntimeException e) {
+                    // Nothing else would end the call, which has already returned
+                    Logger.error(e, "Stream producer failed");
+                    observer.onError(
+                        io.grpc.Status.INTERNAL
+                            .withDescription("Unexpected error while streaming")
+                            .asRuntimeException());
+                  }
+                }));
+  }
+
+  /**
+   * Sends one message, first waiting until the client can take it.
+   *
+   * @param message the message to send
+   * @return true if the message was sent, false if the stream was cancelled, broke or went idle
+   *     and the producer should stop
+   */
+  public boolean send(T message) {
+    if (!awaitReady()) {
+      return false;
+    }
+    try {
+      observer.onNext(message);
+      return true;
+    } catch (RuntimeException e) {
+      Logger.warn(e, "Failed to send streamed response message");
+      aborted = true;
+      return false;
+    }
+  }
+
+  /** Completes the stream, unless it was cancelled, broke or went idle while sending. */
+  public void complete() {
+    if (isCancelled()) {
+      return;
+    }
+    if (idle) {
+      observer.onError(
+          io.grpc.Status.CANCELLED
+              .withDescription(
+                  "Client read nothing for " + IDLE_TIMEOUT.toSeconds() + " seconds")
+              .asRuntimeException());
+      return;
+    }
+    if (aborted) {
+      observer.onError(
+          io.grpc.Status.CANCELLED
+              .withDescription("Stream aborted while sending")
+              .asRuntimeException());
+      return;
+    }
+    observer.onCompleted();
+  }
+
+  /**
+   * Returns whether the client cancelled the call.
+   *
+   * @return true if the call was cancelled
+   */
+  public boolean isCancelled() {
+    return serverObserver != null && serverObserver.isCancelled();
+  }
+
+  private boolean awaitReady() {
+    if (aborted || isCancelled()) {
+      return false;
+    }
+    if (serverObserver == null || serverObserver.isReady()) {
+      return true;
+    }
+    long idleDeadline = System.nanoTime() + IDLE_TIMEOUT.toNanos();
+    lock.lock();
+    try {
+      while (!serverObserver.isReady()) {
+        if (serverObserver.isCancelled()) {
+          return false;
+        }
+        long remainingMillis =
+            TimeUnit.NANOSECONDS.toMillis(idleDeadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+          Logger.warn("Ending stream whose client read nothing for {}", IDLE_TIMEOUT);
+          idle = true;
+          aborted = true;
+          return false;
+        }
+        // Polls as well as waiting for a signal, in case readiness changed between the checks
+        readyOrCancelled.await(
+            Math.min(READY_POLL_MILLIS, remainingMillis), TimeUnit.MILLISECONDS);
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      aborted = true;
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void signal() {
+    lock.lock();
+    try {
+      readyOrCancelled.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
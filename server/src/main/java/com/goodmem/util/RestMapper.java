@@ -1,6 +1,7 @@
 package com.goodmem.util;
 
 import com.goodmem.Uuids;
+import com.google.common.io.BaseEncoding;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Timestamp;
 import com.google.protobuf.util.Timestamps;
@@ -8,6 +9,8 @@ import goodmem.v1.Apikey.ApiKey;
 import goodmem.v1.EmbedderOuterClass.Embedder;
 import goodmem.v1.EmbedderOuterClass.Modality;
 import goodmem.v1.MemoryOuterClass.Memory;
+import goodmem.v1.MemoryOuterClass.MemoryChunk;
+import goodmem.v1.MemoryOuterClass.VectorEncoding;
 import goodmem.v1.SpaceOuterClass.Space;
 import goodmem.v1.UserOuterClass.User;
 import java.util.HashMap;
@@ -65,6 +68,9 @@ public final class RestMapper {
     map.put(formatName("createdById", convention), Uuids.bytesToHex(space.getCreatedById().toByteArray()));
     map.put(formatName("updatedById", convention), Uuids.bytesToHex(space.getUpdatedById().toByteArray()));
     map.put(formatName("publicRead", convention), space.getPublicRead());
+    map.put(formatName("distanceMetric", convention),
+        space.getDistanceMetric().name().replace("DISTANCE_METRIC_", ""));
+    map.put(formatName("twoStageSearch", convention), space.getTwoStageSearch());
     return map;
   }
 
@@ -128,6 +134,55 @@ public final class RestMapper {
     return map;
   }
 
+  /**
+   * Converts a protocol buffer MemoryChunk message to a JSON-friendly Map with proper field names.
+   *
+   * @param chunk The MemoryChunk protocol buffer message
+   * @return A Map containing MemoryChunk fields with REST-friendly names
+   */
+  public static Map<String, Object> toJsonMap(MemoryChunk chunk) {
+    return toJsonMap(chunk, DEFAULT_CONVENTION);
+  }
+
+  /**
+   * Converts a protocol buffer MemoryChunk message to a JSON-friendly Map with specified naming
+   * convention. The embedding vector is only included when present on the message.
+   *
+   * @param chunk The MemoryChunk protocol buffer message
+   * @param convention The naming convention to use for field names
+   * @return A Map containing MemoryChunk fields with REST-friendly names
+   */
+  public static Map<String, Object> toJsonMap(MemoryChunk chunk, NamingConvention convention) {
+    Map<String, Object> map = new HashMap<>();
+    map.put(formatName("chunkId", convention), Uuids.bytesToHex(chunk.getChunkId().toByteArray()));
+    map.put(formatName("memoryId", convention), Uuids.bytesToHex(chunk.getMemoryId().toByteArray()));
+    map.put(formatName("chunkSequenceNumber", convention), chunk.getChunkSequenceNumber());
+    map.put(formatName("chunkText", convention), chunk.getChunkText());
+    if (chunk.getEmbeddingVectorCount() > 0) {
+      map.put(formatName("embeddingVector", convention), chunk.getEmbeddingVectorList());
+    }
+    if (!chunk.getPackedVector().isEmpty()) {
+      // JSON has no bytes type, so packed vectors travel as standard base64
+      map.put(
+          formatName("packedVector", convention),
+          BaseEncoding.base64().encode(chunk.getPackedVector().toByteArray()));
+      map.put(
+          formatName("packedVectorEncoding", convention),
+          chunk.getPackedVectorEncoding().name().replace("VECTOR_ENCODING_", ""));
+      if (chunk.getPackedVectorEncoding() == VectorEncoding.VECTOR_ENCODING_INT8) {
+        map.put(formatName("packedVectorScale", convention), chunk.getPackedVectorScale());
+      }
+    }
+    map.put(formatName("vectorStatus", convention), chunk.getVectorStatus());
+    map.put(formatName("startOffset", convention), chunk.getStartOffset());
+    map.put(formatName("endOffset", convention), chunk.getEndOffset());
+    map.put(formatName("createdAt", convention), formatTimestamp(chunk.getCreatedAt()));
+    map.put(formatName("updatedAt", convention), formatTimestamp(chunk.getUpdatedAt()));
+    map.put(formatName("createdById", convention), Uuids.bytesToHex(chunk.getCreatedById().toByteArray()));
+    map.put(formatName("updatedById", convention), Uuids.bytesToHex(chunk.getUpdatedById().toByteArray()));
+    return map;
+  }
+
   /**
    * Converts a protocol buffer ApiKey message to a JSON-friendly Map with proper field names.
    *
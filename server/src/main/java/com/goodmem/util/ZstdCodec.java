@@ -0,0 +1,45 @@
+package com.goodmem.util;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import io.grpc.Codec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The "zstd" gRPC message encoding.
+ *
+ * <p>grpc-java only ships gzip. Zstandard compresses protobuf responses about as well at a
+ * fraction of the CPU cost, so it is offered first to clients that advertise it.
+ */
+public class ZstdCodec implements Codec {
+
+  public static final String ENCODING = "zstd";
+
+  private final int level;
+
+  /**
+   * Creates a new ZstdCodec.
+   *
+   * @param level the compression level, from 1 (fastest) to 22
+   */
+  public ZstdCodec(int level) {
+    this.level = level;
+  }
+
+  @Override
+  public String getMessageEncoding() {
+    return ENCODING;
+  }
+
+  @Override
+  public OutputStream compress(OutputStream os) throws IOException {
+    return new ZstdOutputStream(os, level);
+  }
+
+  @Override
+  public InputStream decompress(InputStream is) throws IOException {
+    return new ZstdInputStream(is);
+  }
+}
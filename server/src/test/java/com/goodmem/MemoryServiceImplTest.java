@@ -0,0 +1,465 @@
+package com.goodmem;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.db.DistanceMetric;
+import com.goodmem.db.Memories;
+import com.goodmem.db.Memory;
+import com.goodmem.db.Space;
+import com.goodmem.db.Spaces;
+import com.goodmem.db.helpers.EntityHelper;
+import com.goodmem.db.util.PostgresTestHelper;
+import com.goodmem.db.util.PostgresTestHelper.PostgresContext;
+import com.goodmem.db.util.UuidUtil;
+import com.goodmem.search.SearchResultCache;
+import com.goodmem.security.AuthInterceptor;
+import com.goodmem.security.DefaultUserImpl;
+import com.goodmem.security.Roles;
+import com.goodmem.security.User;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.google.protobuf.ByteString;
+import goodmem.v1.MemoryOuterClass.BatchCreateMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchCreateMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchDeleteMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchDeleteMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchGetMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.BatchGetMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.BatchMemoryResult;
+import goodmem.v1.MemoryOuterClass.CreateMemoryRequest;
+import goodmem.v1.MemoryOuterClass.ListMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.ListMemoriesResponse;
+import goodmem.v1.MemoryOuterClass.SearchMemoriesRequest;
+import goodmem.v1.MemoryOuterClass.SearchMemoriesResponse;
+import io.grpc.Context;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Integration tests for MemoryServiceImpl against a real PostgreSQL database. */
+@Testcontainers
+public class MemoryServiceImplTest {
+
+  private static PostgresContext postgresContext;
+  private static HikariDataSource dataSource;
+  private static ExecutorService searchExecutor;
+  private static MemoryServiceImpl memoryService;
+  private static User owner;
+  private static User other;
+  private static UUID embedderId;
+  private static UUID spaceId;
+  private static UUID publicSpaceId;
+  private static UUID otherSpaceId;
+
+  @BeforeAll
+  static void setUp() throws SQLException {
+    postgresContext =
+        PostgresTestHelper.setupPostgres("goodmem_memoryservice_test", MemoryServiceImplTest.class);
+
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl(postgresContext.getContainer().getJdbcUrl());
+    config.setUsername(postgresContext.getContainer().getUsername());
+    config.setPassword(postgresContext.getContainer().getPassword());
+    config.setMaximumPoolSize(2);
+    dataSource = new HikariDataSource(config);
+
+    try (Connection conn = dataSource.getConnection()) {
+      EntityHelper.TestUserInfo ownerInfo =
+          EntityHelper.createTestUserWithKey(
+              conn, "owner", "Space Owner", "owner@example.com", Roles.USER.role().getName(), null);
+      owner = securityUser(ownerInfo.userId(), "owner");
+      embedderId = EntityHelper.createTestEmbedder(conn, UUID.randomUUID(), ownerInfo.userId());
+      spaceId = createSpace(conn, ownerInfo.userId(), embedderId, "owner-space", false);
+      publicSpaceId = createSpace(conn, ownerInfo.userId(), embedderId, "public-space", true);
+
+      EntityHelper.TestUserInfo otherInfo =
+          EntityHelper.createTestUserWithKey(
+              conn, "other", "Other User", "other@example.com", Roles.USER.role().getName(), null);
+      other = securityUser(otherInfo.userId(), "other");
+      otherSpaceId = createSpace(conn, otherInfo.userId(), embedderId, "other-space", false);
+    }
+
+    searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    memoryService =
+        new MemoryServiceImpl(
+            new MemoryServiceImpl.Config(
+                dataSource, null, searchExecutor, new SearchResultCache(1 << 20), null, null));
+  }
+
+  @AfterAll
+  static void tearDown() {
+    if (searchExecutor != null) {
+      searchExecutor.shutdownNow();
+    }
+    if (dataSource != null) {
+      dataSource.close();
+    }
+    if (postgresContext != null) {
+      postgresContext.close();
+    }
+  }
+
+  @BeforeEach
+  void clearData() throws SQLException {
+    try (Connection conn = dataSource.getConnection();
+        var stmt = conn.createStatement()) {
+      stmt.execute("DELETE FROM memory");
+    }
+  }
+
+  @Test
+  void testListMemories_NextTokenAdvancesPastSubMillisecondTimestamps() throws SQLException {
+    // Given: Three memories created within the same millisecond, microseconds apart
+    Instant base = Instant.parse("2025-01-01T00:00:00.000100Z");
+    List<UUID> expected = new ArrayList<>();
+    try (Connection conn = dataSource.getConnection()) {
+      for (int i = 0; i < 3; i++) {
+        Memory memory = newMemory(spaceId, owner.getId(), base.plusNanos(i * 250_000L));
+        assertTrue(Memories.save(conn, memory).isOk());
+        expected.add(memory.memoryId());
+      }
+    }
+
+    // When: We page through them one at a time using the returned tokens
+    List<UUID> listed = new ArrayList<>();
+    String nextToken = null;
+    for (int page = 0; page < 5; page++) {
+      ListMemoriesRequest.Builder request =
+          ListMemoriesRequest.newBuilder()
+              .setSpaceId(UuidUtil.toProtoBytes(spaceId))
+              .setMaxResults(1);
+      if (nextToken != null) {
+        request.setNextToken(nextToken);
+      }
+      TestStreamObserver<ListMemoriesResponse> observer = new TestStreamObserver<>();
+      runAs(owner, () -> memoryService.listMemories(request.build(), observer));
+      assertNull(observer.getError());
+      ListMemoriesResponse response = observer.getValue();
+      for (goodmem.v1.MemoryOuterClass.Memory memory : response.getMemoriesList()) {
+        listed.add(UuidUtil.fromProtoBytes(memory.getMemoryId()).getValue());
+      }
+      if (!response.hasNextToken()) {
+        break;
+      }
+      nextToken = response.getNextToken();
+    }
+
+    // Then: Every memory is listed exactly once, oldest first
+    assertEquals(expected, listed);
+  }
+
+  @Test
+  void testSearchMemories_TwoStageRejectsShortQueryVector() {
+    SearchMemoriesRequest request =
+        SearchMemoriesRequest.newBuilder()
+            .setSpaceId(UuidUtil.toProtoBytes(spaceId))
+            .addAllQueryVector(List.of(1.0f, 0.0f, 0.0f))
+            .setTwoStage(true)
+            .build();
+
+    TestStreamObserver<SearchMemoriesResponse> observer = new TestStreamObserver<>();
+    runAs(owner, () -> memoryService.searchMemories(request, observer));
+
+    assertEquals(
+        io.grpc.Status.Code.INVALID_ARGUMENT,
+        ((StatusRuntimeException) observer.getError()).getStatus().getCode());
+  }
+
+  @Test
+  void testSearchMemories_RejectsMergingSpacesWithDifferentMetrics() throws SQLException {
+    // Given: A second space of the owner's on the same embedder, ranked by Euclidean distance
+    UUID euclideanSpaceId;
+    try (Connection conn = dataSource.getConnection()) {
+      euclideanSpaceId =
+          createSpace(
+              conn, owner.getId(), embedderId, "euclidean-space", false, DistanceMetric.EUCLIDEAN);
+    }
+    try {
+      SearchMemoriesRequest request =
+          SearchMemoriesRequest.newBuilder()
+              .setEmbedderId(UuidUtil.toProtoBytes(embedderId))
+              .addAllQueryVector(List.of(1.0f, 0.0f, 0.0f))
+              .build();
+
+      // When: The owner runs a vector search over all of their spaces
+      TestStreamObserver<SearchMemoriesResponse> observer = new TestStreamObserver<>();
+      runAs(owner, () -> memoryService.searchMemories(request, observer));
+
+      // Then: Cosine similarities and Euclidean distances are not merged
+      assertEquals(
+          io.grpc.Status.Code.INVALID_ARGUMENT,
+          ((StatusRuntimeException) observer.getError()).getStatus().getCode());
+    } finally {
+      try (Connection conn = dataSource.getConnection()) {
+        assertTrue(Spaces.delete(conn, euclideanSpaceId).isOk());
+      }
+    }
+  }
+
+  @Test
+  void testBatchCreateMemories_ChecksEachSpace() throws SQLException {
+    // Given: Requests for the caller's own space, another user's space and a missing space
+    BatchCreateMemoriesRequest request =
+        BatchCreateMemoriesRequest.newBuilder()
+            .addRequests(createRequest(otherSpaceId))
+            .addRequests(createRequest(spaceId))
+            .addRequests(createRequest(UUID.randomUUID()))
+            .addRequests(
+                CreateMemoryRequest.newBuilder().setSpaceId(ByteString.copyFromUtf8("bad")))
+            .build();
+
+    // When: The other user creates them in one batch
+    TestStreamObserver<BatchCreateMemoriesResponse> observer = new TestStreamObserver<>();
+    runAs(other, () -> memoryService.batchCreateMemories(request, observer));
+
+    // Then: Each item gets its own status and only the permitted memory is stored
+    assertNull(observer.getError());
+    List<BatchMemoryResult> results = observer.getValue().getResultsList();
+    assertEquals(4, results.size());
+    assertEquals(io.grpc.Status.Code.OK.value(), results.get(0).getStatus().getCode());
+    assertTrue(results.get(0).hasMemory());
+    assertEquals(
+        io.grpc.Status.Code.PERMISSION_DENIED.value(), results.get(1).getStatus().getCode());
+    assertFalse(results.get(1).hasMemory());
+    assertEquals(io.grpc.Status.Code.NOT_FOUND.value(), results.get(2).getStatus().getCode());
+    assertEquals(
+        io.grpc.Status.Code.INVALID_ARGUMENT.value(), results.get(3).getStatus().getCode());
+    UUID createdId =
+        UuidUtil.fromProtoBytes(results.get(0).getMemory().getMemoryId()).getValue();
+    try (Connection conn = dataSource.getConnection()) {
+      assertTrue(Memories.loadById(conn, createdId).getValue().isPresent());
+      assertEquals(1, countMemories(conn));
+    }
+  }
+
+  @Test
+  void testBatchGetMemories_ChecksReadAccessPerItem() throws SQLException {
+    // Given: Memories in a private and a public space of the owner
+    Memory privateMemory = newMemory(spaceId, owner.getId(), Instant.now());
+    Memory publicMemory = newMemory(publicSpaceId, owner.getId(), Instant.now());
+    try (Connection conn = dataSource.getConnection()) {
+      assertTrue(Memories.save(conn, privateMemory).isOk());
+      assertTrue(Memories.save(conn, publicMemory).isOk());
+    }
+    BatchGetMemoriesRequest request =
+        BatchGetMemoriesRequest.newBuilder()
+            .addMemoryIds(UuidUtil.toProtoBytes(privateMemory.memoryId()))
+            .addMemoryIds(UuidUtil.toProtoBytes(publicMemory.memoryId()))
+            .addMemoryIds(UuidUtil.toProtoBytes(UUID.randomUUID()))
+            .build();
+
+    // When: Another user fetches them
+    TestStreamObserver<BatchGetMemoriesResponse> observer = new TestStreamObserver<>();
+    runAs(other, () -> memoryService.batchGetMemories(request, observer));
+
+    // Then: Only the public memory is returned; the others fail individually
+    assertNull(observer.getError());
+    List<BatchMemoryResult> results = observer.getValue().getResultsList();
+    assertEquals(
+        io.grpc.Status.Code.PERMISSION_DENIED.value(), results.get(0).getStatus().getCode());
+    assertFalse(results.get(0).hasMemory());
+    assertEquals(io.grpc.Status.Code.OK.value(), results.get(1).getStatus().getCode());
+    assertEquals(
+        UuidUtil.toProtoBytes(publicMemory.memoryId()), results.get(1).getMemory().getMemoryId());
+    assertEquals(io.grpc.Status.Code.NOT_FOUND.value(), results.get(2).getStatus().getCode());
+  }
+
+  @Test
+  void testBatchDeleteMemories_ChecksWriteAccessPerItem() throws SQLException {
+    // Given: A memory in the owner's public space and one in the other user's space
+    Memory publicMemory = newMemory(publicSpaceId, owner.getId(), Instant.now());
+    Memory ownMemory = newMemory(otherSpaceId, other.getId(), Instant.now());
+    try (Connection conn = dataSource.getConnection()) {
+      assertTrue(Memories.save(conn, publicMemory).isOk());
+      assertTrue(Memories.save(conn, ownMemory).isOk());
+    }
+    BatchDeleteMemoriesRequest request =
+        BatchDeleteMemoriesRequest.newBuilder()
+            .addMemoryIds(UuidUtil.toProtoBytes(publicMemory.memoryId()))
+            .addMemoryIds(UuidUtil.toProtoBytes(ownMemory.memoryId()))
+            .addMemoryIds(UuidUtil.toProtoBytes(UUID.randomUUID()))
+            .build();
+
+    // When: The other user deletes all three
+    TestStreamObserver<BatchDeleteMemoriesResponse> observer = new TestStreamObserver<>();
+    runAs(other, () -> memoryService.batchDeleteMemories(request, observer));
+
+    // Then: Reading a public space does not allow deleting from it
+    assertNull(observer.getError());
+    BatchDeleteMemoriesResponse response = observer.getValue();
+    assertEquals(
+        io.grpc.Status.Code.PERMISSION_DENIED.value(), response.getResults(0).getCode());
+    assertEquals(io.grpc.Status.Code.OK.value(), response.getResults(1).getCode());
+    assertEquals(io.grpc.Status.Code.NOT_FOUND.value(), response.getResults(2).getCode());
+    try (Connection conn = dataSource.getConnection()) {
+      assertTrue(Memories.loadById(conn, publicMemory.memoryId()).getValue().isPresent());
+      assertTrue(Memories.loadById(conn, ownMemory.memoryId()).getValue().isEmpty());
+    }
+  }
+
+  @Test
+  void testBatchDeleteMemories_ConcurrentlyDeletedIsNotFound() throws Exception {
+    // Given: A memory that another transaction has deleted but not yet committed
+    Memory memory = newMemory(spaceId, owner.getId(), Instant.now());
+    try (Connection conn = dataSource.getConnection()) {
+      assertTrue(Memories.save(conn, memory).isOk());
+    }
+    BatchDeleteMemoriesRequest request =
+        BatchDeleteMemoriesRequest.newBuilder()
+            .addMemoryIds(UuidUtil.toProtoBytes(memory.memoryId()))
+            .build();
+    TestStreamObserver<BatchDeleteMemoriesResponse> observer = new TestStreamObserver<>();
+
+    try (Connection conn = dataSource.getConnection()) {
+      conn.setAutoCommit(false);
+      try (PreparedStatement stmt =
+          conn.prepareStatement("UPDATE memory SET deleted_at = now() WHERE memory_id = ?")) {
+        stmt.setObject(1, memory.memoryId());
+        assertEquals(1, stmt.executeUpdate());
+      }
+
+      // When: The batch delete loads the still-visible memory and then waits on its row lock
+      Future<?> call =
+          searchExecutor.submit(
+              () -> runAs(owner, () -> memoryService.batchDeleteMemories(request, observer)));
+      awaitBlockedLock(conn);
+      conn.commit();
+      call.get();
+    }
+
+    // Then: The memory it could not delete itself is reported as not found
+    assertNull(observer.getError());
+    assertEquals(
+        io.grpc.Status.Code.NOT_FOUND.value(), observer.getValue().getResults(0).getCode());
+  }
+
+  /** Waits until some session is blocked on a lock, such as a row lock held by this one. */
+  private static void awaitBlockedLock(Connection conn) throws Exception {
+    for (int attempt = 0; attempt < 500; attempt++) {
+      try (var stmt = conn.createStatement();
+          ResultSet rs = stmt.executeQuery("SELECT count(*) FROM pg_locks WHERE NOT granted")) {
+        rs.next();
+        if (rs.getLong(1) > 0) {
+          return;
+        }
+      }
+      Thread.sleep(10);
+    }
+    fail("The batch delete never waited on the row lock");
+  }
+
+  private static long countMemories(Connection conn) throws SQLException {
+    try (var stmt = conn.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT count(*) FROM memory")) {
+      rs.next();
+      return rs.getLong(1);
+    }
+  }
+
+  private static CreateMemoryRequest createRequest(UUID spaceId) {
+    return CreateMemoryRequest.newBuilder()
+        .setSpaceId(UuidUtil.toProtoBytes(spaceId))
+        .setOriginalContentRef("ref")
+        .setContentType("text/plain")
+        .build();
+  }
+
+  private static UUID createSpace(
+      Connection conn, UUID ownerId, UUID embedderId, String name, boolean publicRead) {
+    return createSpace(conn, ownerId, embedderId, name, publicRead, DistanceMetric.COSINE);
+  }
+
+  private static UUID createSpace(
+      Connection conn,
+      UUID ownerId,
+      UUID embedderId,
+      String name,
+      boolean publicRead,
+      DistanceMetric metric) {
+    Instant now = Instant.now();
+    Space space =
+        new Space(
+            UUID.randomUUID(),
+            ownerId,
+            name,
+            Map.of(),
+            embedderId,
+            metric,
+            false,
+            publicRead,
+            now,
+            now,
+            ownerId,
+            ownerId);
+    assertTrue(Spaces.save(conn, space).isOk());
+    return space.spaceId();
+  }
+
+  private static Memory newMemory(UUID spaceId, UUID userId, Instant createdAt) {
+    return new Memory(
+        UUID.randomUUID(),
+        spaceId,
+        "ref",
+        "text/plain",
+        Map.of(),
+        "COMPLETED",
+        createdAt,
+        createdAt,
+        userId,
+        userId);
+  }
+
+  private static User securityUser(UUID userId, String username) {
+    Instant now = Instant.now();
+    return new DefaultUserImpl(
+        new com.goodmem.db.User(
+            userId, username, username + "@example.com", username, now, now),
+        Roles.USER.role());
+  }
+
+  private static void runAs(User user, Runnable call) {
+    Context.current().withValue(AuthInterceptor.USER_CONTEXT_KEY, user).run(call);
+  }
+
+  static class TestStreamObserver<T> implements StreamObserver<T> {
+    private final List<T> values = new ArrayList<>();
+    private Throwable error;
+
+    @Override
+    public void onNext(T value) {
+      values.add(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      this.error = t;
+    }
+
+    @Override
+    public void onCompleted() {}
+
+    public T getValue() {
+      return values.isEmpty() ? null : values.get(0);
+    }
+
+    public Throwable getError() {
+      return error;
+    }
+  }
+}
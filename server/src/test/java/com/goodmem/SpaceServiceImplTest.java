@@ -120,6 +120,32 @@ public class SpaceServiceImplTest {
     }
   }
 
+  @Test
+  void testCreateSpace_RejectsUnrecognizedDistanceMetric() throws SQLException {
+    com.goodmem.security.User rootUser = setupRootUser();
+    Context authenticatedContext =
+        Context.current().withValue(AuthInterceptor.USER_CONTEXT_KEY, rootUser);
+    Context previousContext = authenticatedContext.attach();
+
+    try {
+      // A client built against a newer proto may send a metric this server does not know
+      TestStreamObserver<Space> observer = new TestStreamObserver<>();
+      spaceService.createSpace(
+          CreateSpaceRequest.newBuilder()
+              .setName("Unknown Metric Space")
+              .setDistanceMetricValue(99)
+              .build(),
+          observer);
+
+      assertTrue(observer.hasError());
+      assertEquals(
+          Status.Code.INVALID_ARGUMENT,
+          ((StatusRuntimeException) observer.getError()).getStatus().getCode());
+    } finally {
+      authenticatedContext.detach(previousContext);
+    }
+  }
+
   /**
    * Initialize the system and authenticate as root user.
    *
@@ -737,11 +763,11 @@ public class SpaceServiceImplTest {
   }
 
   /**
-   * Checks if a space exists in the database.
+   * Checks if a live (not tombstoned) space exists in the database.
    */
   private boolean spaceExistsInDatabase(UUID spaceId) throws SQLException {
     try (Connection conn = dataSource.getConnection()) {
-      String sql = "SELECT 1 FROM space WHERE space_id = ?";
+      String sql = "SELECT 1 FROM space WHERE space_id = ? AND deleted_at IS NULL";
 
       try (PreparedStatement stmt = conn.prepareStatement(sql)) {
         stmt.setObject(1, spaceId);
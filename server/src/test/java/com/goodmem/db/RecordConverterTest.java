@@ -51,6 +51,8 @@ public class RecordConverterTest {
             "Test Space",
             Map.of("key1", "value1"),
             UUID.fromString("00000000-0000-0000-0000-000000000001"), // Test embedder ID
+            DistanceMetric.EUCLIDEAN,
+            false,
             true,
             now,
             now,
@@ -66,6 +68,9 @@ public class RecordConverterTest {
     assertEquals("Test Space", proto.getName());
     assertEquals(UUID.fromString("00000000-0000-0000-0000-000000000001"), 
                  UuidUtil.fromProtoBytes(proto.getEmbedderId()).getValue());
+    assertEquals(
+        goodmem.v1.SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_EUCLIDEAN,
+        proto.getDistanceMetric());
     assertTrue(proto.getPublicRead());
     assertEquals(
         now.toEpochMilli(), DbUtil.fromProtoTimestamp(proto.getCreatedAt()).toEpochMilli());
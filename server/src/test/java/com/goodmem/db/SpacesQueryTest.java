@@ -602,6 +602,8 @@ public class SpacesQueryTest {
         name,
         labels,
         embedderId,
+        DistanceMetric.COSINE,
+        false,
         publicRead,
         now,
         now,
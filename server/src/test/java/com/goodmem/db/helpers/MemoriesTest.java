@@ -3,8 +3,11 @@ package com.goodmem.db.helpers;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.DistanceMetric;
 import com.goodmem.db.Memories;
 import com.goodmem.db.Memory;
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.MemoryChunks;
 import com.goodmem.db.Space;
 import com.goodmem.db.Spaces;
 import com.goodmem.db.User;
@@ -15,9 +18,11 @@ import com.goodmem.db.util.PostgresTestHelper.PostgresContext;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -112,6 +117,32 @@ public class MemoriesTest {
     assertEquals("PENDING", result.getValue().get().processingStatus());
   }
 
+  @Test
+  void testSave_PersistsMetadata() {
+    // Given: A memory with metadata
+    Memory base = createTestMemory("metaref", "text/plain", "PENDING");
+    Memory memory =
+        new Memory(
+            base.memoryId(),
+            base.spaceId(),
+            base.originalContentRef(),
+            base.contentType(),
+            Map.of("source", "email", "lang", "en"),
+            base.processingStatus(),
+            base.createdAt(),
+            base.updatedAt(),
+            base.createdById(),
+            base.updatedById());
+
+    // When: We save and reload it
+    Memories.save(connection, memory);
+    StatusOr<Optional<Memory>> result = Memories.loadById(connection, memory.memoryId());
+
+    // Then: The metadata survives the round trip
+    assertTrue(result.isOk());
+    assertEquals(Map.of("source", "email", "lang", "en"), result.getValue().get().metadata());
+  }
+
   @Test
   void testLoadById_ReturnsEmpty_WhenMemoryDoesNotExist() {
     // Given: A non-existent UUID
@@ -147,6 +178,53 @@ public class MemoriesTest {
     assertTrue(refs.contains("spaceref2"));
   }
 
+  @Test
+  void testLoadPageBySpaceId_PagesInCreationOrderAcrossTies() {
+    // Given: Five memories, three of them created at the same instant
+    Instant base = Instant.parse("2025-01-01T00:00:00Z");
+    Instant tied = base.plusSeconds(1);
+    List<Instant> createdAts = List.of(base, tied, tied, tied, base.plusSeconds(2));
+    for (int i = 0; i < createdAts.size(); i++) {
+      Memory memory = createTestMemory("page" + i, "text/plain", i == 4 ? "FAILED" : "COMPLETED");
+      Memories.save(
+          connection,
+          new Memory(
+              memory.memoryId(), testSpaceId, memory.originalContentRef(), memory.contentType(),
+              Map.of(), memory.processingStatus(), createdAts.get(i), createdAts.get(i),
+              testUserId, testUserId));
+    }
+    // The database orders UUIDs bytewise, unlike UUID.compareTo, so it supplies the expected order
+    List<UUID> expected = new ArrayList<>();
+    Memories.streamBySpaceId(
+        connection, testSpaceId, null, null, memory -> expected.add(memory.memoryId()));
+
+    // When: The space is read two memories at a time, each page resuming after the last
+    List<Memory> seen = new ArrayList<>();
+    Memories.PageCursor after = null;
+    while (true) {
+      StatusOr<List<Memory>> pageOr =
+          Memories.loadPageBySpaceId(connection, testSpaceId, null, null, after, 2);
+      assertTrue(pageOr.isOk());
+      seen.addAll(pageOr.getValue());
+      if (pageOr.getValue().size() < 2) {
+        break;
+      }
+      Memory last = pageOr.getValue().get(1);
+      after = new Memories.PageCursor(last.createdAt(), last.memoryId());
+    }
+
+    // Then: Every memory is returned once, in (created_at, memory_id) order
+    assertEquals(5, expected.size());
+    assertEquals(expected, seen.stream().map(Memory::memoryId).toList());
+
+    // And: Filters narrow the page
+    StatusOr<List<Memory>> failedOr =
+        Memories.loadPageBySpaceId(connection, testSpaceId, "FAILED", "text/plain", null, 10);
+    assertTrue(failedOr.isOk());
+    assertEquals(
+        List.of("page4"), failedOr.getValue().stream().map(Memory::originalContentRef).toList());
+  }
+
   @Test
   void testLoadByProcessingStatus_ReturnsMemories_WhenMatch() {
     // Given: Memories with different processing statuses
@@ -264,6 +342,108 @@ public class MemoriesTest {
     assertFalse(loadResult.getValue().isPresent());
   }
 
+  @Test
+  void testPurgeTombstoned_RemovesMemoryAfterItsChunks() {
+    // Given: A deleted memory that still has a chunk
+    Memory memory = createTestMemory("purgememory", "text/plain", "COMPLETED");
+    Memories.save(connection, memory);
+    Instant now = Instant.now();
+    MemoryChunks.save(
+        connection,
+        new MemoryChunk(
+            UUID.randomUUID(),
+            memory.memoryId(),
+            0,
+            "chunk",
+            null,
+            "PENDING",
+            0,
+            5,
+            now,
+            now,
+            testUserId,
+            testUserId));
+    assertEquals(1, Memories.delete(connection, memory.memoryId()).getValue());
+
+    // When/Then: The memory is kept until its chunks have been purged
+    assertEquals(0, Memories.purgeTombstoned(connection, 10).getValue());
+    assertEquals(1, MemoryChunks.purgeTombstoned(connection, 10).getValue());
+    assertEquals(1, Memories.purgeTombstoned(connection, 10).getValue());
+
+    // And: Deleting it again finds nothing
+    assertEquals(0, Memories.delete(connection, memory.memoryId()).getValue());
+  }
+
+  @Test
+  void testPurgeTombstoned_DropsCentroidsOfMemoriesInDeletedSpace() throws SQLException {
+    // Given: A live memory with an embedded chunk, in a space that is then deleted
+    Instant now = Instant.now();
+    Space space =
+        new Space(
+            UUID.randomUUID(),
+            testUserId,
+            "doomed-space",
+            Map.of(),
+            UUID.fromString("00000000-0000-0000-0000-000000000001"),
+            DistanceMetric.COSINE,
+            false,
+            false,
+            now,
+            now,
+            testUserId,
+            testUserId);
+    Spaces.save(connection, space);
+    Memory memory =
+        new Memory(
+            UUID.randomUUID(),
+            space.spaceId(),
+            "ref",
+            "text/plain",
+            Map.of(),
+            "COMPLETED",
+            now,
+            now,
+            testUserId,
+            testUserId);
+    Memories.save(connection, memory);
+    float[] vector = new float[1536];
+    vector[0] = 1.0f;
+    MemoryChunks.save(
+        connection,
+        new MemoryChunk(
+            UUID.randomUUID(),
+            memory.memoryId(),
+            0,
+            "chunk",
+            vector,
+            "GENERATED",
+            0,
+            5,
+            now,
+            now,
+            testUserId,
+            testUserId));
+    assertEquals(1, countCentroids(memory.memoryId()));
+    assertEquals(1, Spaces.delete(connection, space.spaceId()).getValue());
+
+    // When: Its chunks are purged
+    assertEquals(1, MemoryChunks.purgeTombstoned(connection, 10).getValue());
+
+    // Then: The memory's centroid is gone with them
+    assertEquals(0, countCentroids(memory.memoryId()));
+  }
+
+  private static int countCentroids(UUID memoryId) throws SQLException {
+    try (var stmt =
+        connection.prepareStatement("SELECT count(*) FROM memory_centroid WHERE memory_id = ?")) {
+      stmt.setObject(1, memoryId);
+      try (var rs = stmt.executeQuery()) {
+        rs.next();
+        return rs.getInt(1);
+      }
+    }
+  }
+
   @Test
   void testDelete_ReturnsZero_WhenMemoryDoesNotExist() {
     // Given: A non-existent UUID
@@ -277,6 +457,43 @@ public class MemoriesTest {
     assertEquals(0, result.getValue());
   }
 
+  @Test
+  void testInsertAll_LoadByIds_DeleteAll_RoundTrip() {
+    // Given: Three new memories inserted in one statement
+    List<Memory> memories =
+        List.of(
+            createTestMemory("batch0", "text/plain", "PENDING"),
+            createTestMemory("batch1", "text/plain", "PENDING"),
+            new Memory(
+                UUID.randomUUID(), testSpaceId, "batch2", "text/markdown",
+                Map.of("source", "crawler"), "PENDING", Instant.now(), Instant.now(),
+                testUserId, testUserId));
+    StatusOr<Integer> insertedOr = Memories.insertAll(connection, memories);
+    assertTrue(insertedOr.isOk());
+    assertEquals(3, insertedOr.getValue());
+
+    // When: They are loaded by ID together with an unknown ID
+    UUID unknownId = UUID.randomUUID();
+    List<UUID> ids = new ArrayList<>(memories.stream().map(Memory::memoryId).toList());
+    ids.add(unknownId);
+    StatusOr<Map<UUID, Memory>> loadedOr = Memories.loadByIds(connection, ids);
+
+    // Then: Every inserted memory is found, metadata included, and the unknown ID is absent
+    assertTrue(loadedOr.isOk());
+    assertEquals(3, loadedOr.getValue().size());
+    assertFalse(loadedOr.getValue().containsKey(unknownId));
+    assertEquals(
+        Map.of("source", "crawler"),
+        loadedOr.getValue().get(memories.get(2).memoryId()).metadata());
+
+    // And: Deleting them reports only the IDs that were live, and hides them from loadByIds
+    List<UUID> toDelete = List.of(memories.get(0).memoryId(), unknownId);
+    StatusOr<Set<UUID>> deletedOr = Memories.deleteAll(connection, toDelete);
+    assertTrue(deletedOr.isOk());
+    assertEquals(Set.of(memories.get(0).memoryId()), deletedOr.getValue());
+    assertEquals(2, Memories.loadByIds(connection, ids).getValue().size());
+  }
+
   // Helper methods to set up test data
 
   private static UUID createTestUser() {
@@ -294,7 +511,18 @@ public class MemoriesTest {
         UUID.fromString("00000000-0000-0000-0000-000000000001")); // Test embedder ID
     Space space =
         new Space(
-            spaceId, ownerId, "test-space", Map.of(), embedderId, false, now, now, ownerId, ownerId);
+            spaceId,
+            ownerId,
+            "test-space",
+            Map.of(),
+            embedderId,
+            DistanceMetric.COSINE,
+            false,
+            false,
+            now,
+            now,
+            ownerId,
+            ownerId);
     Spaces.save(connection, space);
     return spaceId;
   }
@@ -4,11 +4,15 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import com.goodmem.common.status.StatusOr;
 import com.goodmem.db.*;
+import com.goodmem.db.util.DbUtil;
 import com.goodmem.db.util.PostgresTestHelper;
 import com.goodmem.db.helpers.EntityHelper;
 import com.goodmem.db.util.PostgresTestHelper.PostgresContext;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import org.junit.jupiter.api.AfterAll;
@@ -227,21 +231,538 @@ public class MemoryChunksTest {
     MemoryChunks.save(connection, chunk3);
 
     // When: We perform a vector search
-    StatusOr<List<MemoryChunk>> searchResult =
-        MemoryChunks.vectorSearch(connection, queryVector, testSpaceId, 3);
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.vectorSearch(
+            connection,
+            queryVector,
+            ChunkFilter.forSpace(testSpaceId),
+            DistanceMetric.EUCLIDEAN,
+            Double.POSITIVE_INFINITY,
+            3);
 
     // Then: Results are returned in order of similarity
     assertTrue(searchResult.isOk());
     assertEquals(3, searchResult.getValue().size());
 
     // Check order: chunk1 (closest) should be first, chunk3 (furthest) should be last
-    List<String> chunkTexts = searchResult.getValue().stream().map(MemoryChunk::chunkText).toList();
+    List<String> chunkTexts =
+        searchResult.getValue().stream().map(scored -> scored.chunk().chunkText()).toList();
 
     assertEquals("Closest chunk", chunkTexts.get(0));
     assertEquals("Medium chunk", chunkTexts.get(1));
     assertEquals("Furthest chunk", chunkTexts.get(2));
   }
 
+  @Test
+  void testTwoStageVectorSearch_ReranksPrefixTiesOnFullVector() {
+    // Given: Two chunks whose 256-dimension prefixes both match the query exactly, differing
+    // only past the prefix, and one chunk pointing elsewhere
+    float[] queryVector = unitVector(0);
+    float[] near = unitVector(0);
+    near[300] = 0.1f;
+    float[] fartherTail = unitVector(0);
+    fartherTail[500] = 1.0f;
+    float[] elsewhere = unitVector(1);
+
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 1, "Farther tail", fartherTail)
+            .withVectorStatus("GENERATED"));
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 2, "Near", near).withVectorStatus("GENERATED"));
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 3, "Elsewhere", elsewhere)
+            .withVectorStatus("GENERATED"));
+
+    // When: We run a two-stage search
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.twoStageVectorSearch(
+            connection,
+            queryVector,
+            ChunkFilter.forSpace(testSpaceId),
+            DistanceMetric.EUCLIDEAN,
+            10,
+            Double.POSITIVE_INFINITY,
+            3);
+
+    // Then: The prefix tie is broken by the exact distance on the full vectors
+    assertTrue(searchResult.isOk());
+    assertEquals(
+        List.of("Near", "Farther tail", "Elsewhere"),
+        searchResult.getValue().stream().map(scored -> scored.chunk().chunkText()).toList());
+  }
+
+  @Test
+  void testSave_DerivesPrefixVectorOnlyInTwoStageSpaces() throws SQLException {
+    // Given: A second space, created without two-stage search
+    UUID plainMemoryId =
+        createTestMemory(createSpace("plain-space", DistanceMetric.EUCLIDEAN, false), testUserId);
+
+    // When: We save an embedded chunk in each space
+    MemoryChunk indexed =
+        createTestChunk(testMemoryId, testUserId, 1, "Indexed", unitVector(0))
+            .withVectorStatus("GENERATED");
+    MemoryChunk plain =
+        createTestChunk(plainMemoryId, testUserId, 1, "Plain", unitVector(0))
+            .withVectorStatus("GENERATED");
+    MemoryChunks.save(connection, indexed);
+    MemoryChunks.save(connection, plain);
+
+    // Then: Only the chunk in the two-stage space has a prefix vector
+    try (PreparedStatement stmt =
+        connection.prepareStatement(
+            "SELECT prefix_vector IS NOT NULL FROM memory_chunk WHERE chunk_id = ?")) {
+      stmt.setObject(1, indexed.chunkId());
+      try (ResultSet rs = stmt.executeQuery()) {
+        assertTrue(rs.next());
+        assertTrue(rs.getBoolean(1));
+      }
+      stmt.setObject(1, plain.chunkId());
+      try (ResultSet rs = stmt.executeQuery()) {
+        assertTrue(rs.next());
+        assertFalse(rs.getBoolean(1));
+      }
+    }
+  }
+
+  @Test
+  void testSave_NormalizesVectorsOnlyInCosineSpaces() {
+    // Given: One memory in a COSINE space and one in a DOT_PRODUCT space
+    UUID cosineMemoryId =
+        createTestMemory(createSpace("cosine-space", DistanceMetric.COSINE, false), testUserId);
+    UUID dotMemoryId =
+        createTestMemory(
+            createSpace("dot-space", DistanceMetric.DOT_PRODUCT, false), testUserId);
+    float[] scaled = unitVector(0);
+    scaled[0] = 3.0f;
+    scaled[1] = 4.0f;
+
+    // When: We save the same non-unit vector in both
+    MemoryChunk cosineChunk =
+        createTestChunk(cosineMemoryId, testUserId, 1, "Cosine", scaled)
+            .withVectorStatus("GENERATED");
+    MemoryChunk dotChunk =
+        createTestChunk(dotMemoryId, testUserId, 1, "Dot", scaled).withVectorStatus("GENERATED");
+    MemoryChunks.save(connection, cosineChunk);
+    MemoryChunks.save(connection, dotChunk);
+
+    // Then: The trigger scales the COSINE copy to unit length and leaves the other alone
+    float[] cosineStored =
+        MemoryChunks.loadById(connection, cosineChunk.chunkId()).getValue().get().embeddingVector();
+    float[] dotStored =
+        MemoryChunks.loadById(connection, dotChunk.chunkId()).getValue().get().embeddingVector();
+    assertEquals(0.6f, cosineStored[0], 1e-6f);
+    assertEquals(0.8f, cosineStored[1], 1e-6f);
+    assertEquals(3.0f, dotStored[0], 1e-6f);
+    assertEquals(4.0f, dotStored[1], 1e-6f);
+  }
+
+  @Test
+  void testVectorSearch_RanksByTheSpaceMetric() {
+    // Given: The same two chunks in a COSINE and a DOT_PRODUCT space. The first points exactly
+    // along the query; the second is further off in angle but much longer.
+    UUID cosineSpaceId = createSpace("cosine-ranking", DistanceMetric.COSINE, false);
+    UUID dotSpaceId = createSpace("dot-ranking", DistanceMetric.DOT_PRODUCT, false);
+    float[] aligned = unitVector(0);
+    float[] long45 = unitVector(0);
+    long45[0] = 5.0f;
+    long45[1] = 5.0f;
+    for (UUID spaceId : List.of(cosineSpaceId, dotSpaceId)) {
+      UUID memoryId = createTestMemory(spaceId, testUserId);
+      MemoryChunks.save(
+          connection,
+          createTestChunk(memoryId, testUserId, 1, "Aligned", aligned)
+              .withVectorStatus("GENERATED"));
+      MemoryChunks.save(
+          connection,
+          createTestChunk(memoryId, testUserId, 2, "Long", long45).withVectorStatus("GENERATED"));
+    }
+
+    // When: We search both spaces with the same query
+    StatusOr<List<ScoredMemoryChunk>> cosineResult =
+        MemoryChunks.vectorSearch(
+            connection,
+            unitVector(0),
+            ChunkFilter.forSpace(cosineSpaceId),
+            DistanceMetric.COSINE,
+            Double.POSITIVE_INFINITY,
+            2);
+    StatusOr<List<ScoredMemoryChunk>> dotResult =
+        MemoryChunks.vectorSearch(
+            connection,
+            unitVector(0),
+            ChunkFilter.forSpace(dotSpaceId),
+            DistanceMetric.DOT_PRODUCT,
+            Double.POSITIVE_INFINITY,
+            2);
+
+    // Then: Cosine prefers the aligned chunk and inner product the longer one
+    assertTrue(cosineResult.isOk());
+    assertTrue(dotResult.isOk());
+    assertEquals(
+        List.of("Aligned", "Long"),
+        cosineResult.getValue().stream().map(scored -> scored.chunk().chunkText()).toList());
+    assertEquals(
+        List.of("Long", "Aligned"),
+        dotResult.getValue().stream().map(scored -> scored.chunk().chunkText()).toList());
+  }
+
+  @Test
+  void testTwoStageVectorSearch_RejectsShortQueryVector() {
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.twoStageVectorSearch(
+            connection,
+            new float[] {1.0f, 0.0f},
+            ChunkFilter.forSpace(testSpaceId),
+            DistanceMetric.EUCLIDEAN,
+            10,
+            Double.POSITIVE_INFINITY,
+            3);
+
+    assertFalse(searchResult.isOk());
+  }
+
+  @Test
+  void testHierarchicalVectorSearch_SearchesChunksOfClosestMemories() {
+    // Given: A memory whose chunks point along the query and another whose chunks do not
+    UUID otherMemoryId = createTestMemory(testSpaceId, testUserId);
+    float[] along = unitVector(0);
+    along[1] = 0.2f;
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 1, "Along", unitVector(0))
+            .withVectorStatus("GENERATED"));
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 2, "Nearly along", along)
+            .withVectorStatus("GENERATED"));
+    MemoryChunks.save(
+        connection,
+        createTestChunk(otherMemoryId, testUserId, 1, "Across", unitVector(1))
+            .withVectorStatus("GENERATED"));
+
+    // When: We pick the single closest memory by centroid and search its chunks
+    StatusOr<List<UUID>> memoryIdsOr =
+        Memories.loadNearestByCentroid(
+            connection, unitVector(0), ChunkFilter.forSpace(testSpaceId), 1);
+    assertTrue(memoryIdsOr.isOk());
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.memoryScopedVectorSearch(
+            connection,
+            unitVector(0),
+            memoryIdsOr.getValue(),
+            ChunkFilter.forSpace(testSpaceId),
+            DistanceMetric.EUCLIDEAN,
+            Double.POSITIVE_INFINITY,
+            10);
+
+    // Then: Only the chunks of the closer memory are ranked, closest first
+    assertEquals(List.of(testMemoryId), memoryIdsOr.getValue());
+    assertTrue(searchResult.isOk());
+    assertEquals(
+        List.of("Along", "Nearly along"),
+        searchResult.getValue().stream().map(scored -> scored.chunk().chunkText()).toList());
+  }
+
+  @Test
+  void testMemoryScopedVectorSearch_ReturnsOnlyChunksWithinMaxDistance() {
+    // Given: A chunk on the query and one 0.2 away from it
+    float[] along = unitVector(0);
+    along[1] = 0.2f;
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 1, "Along", unitVector(0))
+            .withVectorStatus("GENERATED"));
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 2, "Nearly along", along)
+            .withVectorStatus("GENERATED"));
+
+    // When: We search with a distance bound between the two
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.memoryScopedVectorSearch(
+            connection,
+            unitVector(0),
+            List.of(testMemoryId),
+            ChunkFilter.forSpace(testSpaceId),
+            DistanceMetric.EUCLIDEAN,
+            0.1,
+            10);
+
+    // Then: Only the chunk within the bound is returned
+    assertTrue(searchResult.isOk());
+    assertEquals(
+        List.of("Along"),
+        searchResult.getValue().stream().map(scored -> scored.chunk().chunkText()).toList());
+  }
+
+  @Test
+  void testChunkWrites_MaintainMemoryCentroid() {
+    // Given: A memory with one embedded chunk
+    MemoryChunk chunk =
+        createTestChunk(testMemoryId, testUserId, 1, "Only chunk", unitVector(0))
+            .withVectorStatus("GENERATED");
+    MemoryChunks.save(connection, chunk);
+    assertEquals(
+        List.of(testMemoryId),
+        Memories.loadNearestByCentroid(
+                connection, unitVector(0), ChunkFilter.forSpace(testSpaceId), 10)
+            .getValue());
+
+    // When: Its only chunk is deleted
+    MemoryChunks.delete(connection, chunk.chunkId());
+
+    // Then: The memory has no centroid and is no longer found
+    assertTrue(
+        Memories.loadNearestByCentroid(
+                connection, unitVector(0), ChunkFilter.forSpace(testSpaceId), 10)
+            .getValue()
+            .isEmpty());
+  }
+
+  @Test
+  void testChunkWrites_AdjustCentroidWithoutTouchingMemory() throws SQLException {
+    // Given: A memory with two embedded chunks along different axes
+    MemoryChunk first =
+        createTestChunk(testMemoryId, testUserId, 1, "First", unitVector(0))
+            .withVectorStatus("GENERATED");
+    MemoryChunk second =
+        createTestChunk(testMemoryId, testUserId, 2, "Second", unitVector(1))
+            .withVectorStatus("GENERATED");
+    MemoryChunks.save(connection, first);
+    MemoryChunks.save(connection, second);
+    Instant updatedAt = Memories.loadById(connection, testMemoryId).getValue().get().updatedAt();
+
+    // When: The first chunk is deleted and the second changes status only
+    MemoryChunks.delete(connection, first.chunkId());
+    MemoryChunks.save(connection, second.withVectorStatus("FAILED"));
+
+    // Then: The centroid follows the remaining chunk
+    try (var stmt =
+        connection.prepareStatement(
+            "SELECT chunk_count, centroid_vector <#> ?::vector AS distance"
+                + " FROM memory_centroid WHERE memory_id = ?")) {
+      stmt.setObject(1, DbUtil.formatVector(unitVector(1)), java.sql.Types.OTHER);
+      stmt.setObject(2, testMemoryId);
+      try (var rs = stmt.executeQuery()) {
+        assertTrue(rs.next());
+        assertEquals(1, rs.getInt("chunk_count"));
+        assertEquals(-1.0, rs.getDouble("distance"), 1e-5);
+      }
+    }
+
+    // And: The memory itself was not updated
+    assertEquals(
+        updatedAt, Memories.loadById(connection, testMemoryId).getValue().get().updatedAt());
+  }
+
+  @Test
+  void testLexicalSearch() {
+    // Given: Chunks where only some mention the product code being searched for
+    MemoryChunk exact =
+        createTestChunk(testMemoryId, testUserId, 1, "Invoice for SKU-4471 and SKU-4471 spares", null);
+    MemoryChunk partial =
+        createTestChunk(testMemoryId, testUserId, 2, "Shipment note mentioning SKU-4471", null);
+    MemoryChunk unrelated =
+        createTestChunk(testMemoryId, testUserId, 3, "Quarterly planning meeting notes", null);
+
+    MemoryChunks.save(connection, exact);
+    MemoryChunks.save(connection, partial);
+    MemoryChunks.save(connection, unrelated);
+
+    // When: We perform a full-text search for the product code
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.lexicalSearch(connection, "SKU-4471", ChunkFilter.forSpace(testSpaceId), 10);
+
+    // Then: Only the chunks containing the code are returned, the denser match first
+    assertTrue(searchResult.isOk());
+    List<UUID> chunkIds =
+        searchResult.getValue().stream().map(scored -> scored.chunk().chunkId()).toList();
+    assertEquals(List.of(exact.chunkId(), partial.chunkId()), chunkIds);
+    assertTrue(searchResult.getValue().get(0).score() > searchResult.getValue().get(1).score());
+  }
+
+  @Test
+  void testLexicalSearch_ScopedToSpace() {
+    // Given: A matching chunk in the test space
+    MemoryChunks.save(
+        connection, createTestChunk(testMemoryId, testUserId, 1, "Unique term zyzzogeton", null));
+
+    // When: We search a different space
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.lexicalSearch(
+            connection, "zyzzogeton", ChunkFilter.forSpace(UUID.randomUUID()), 10);
+
+    // Then: Nothing is returned
+    assertTrue(searchResult.isOk());
+    assertTrue(searchResult.getValue().isEmpty());
+  }
+
+  @Test
+  void testLexicalSearch_FiltersOnMemoryMetadata() {
+    // Given: Matching chunks in two memories, only one of which is tagged as an email
+    UUID emailMemoryId =
+        createTestMemory(testSpaceId, testUserId, Map.of("source", "email", "lang", "en"));
+    MemoryChunk fromEmail =
+        createTestChunk(emailMemoryId, testUserId, 1, "Renewal terms for contract 88", null);
+    MemoryChunk untagged =
+        createTestChunk(testMemoryId, testUserId, 1, "Renewal terms for contract 88", null);
+    MemoryChunks.save(connection, fromEmail);
+    MemoryChunks.save(connection, untagged);
+
+    // When: We search with a metadata filter
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.lexicalSearch(
+            connection,
+            "renewal",
+            new ChunkFilter(testSpaceId, Map.of("source", "email"), null, null),
+            10);
+
+    // Then: Only the chunk whose memory carries the metadata pair is returned
+    assertTrue(searchResult.isOk());
+    assertEquals(
+        List.of(fromEmail.chunkId()),
+        searchResult.getValue().stream().map(scored -> scored.chunk().chunkId()).toList());
+  }
+
+  @Test
+  void testLexicalSearch_FiltersOnCreationTime() {
+    // Given: Two matching chunks, one created a week before the other
+    Instant now = Instant.now();
+    MemoryChunk recent =
+        createTestChunk(testMemoryId, testUserId, 1, "Standup notes for project kestrel", null);
+    MemoryChunk old =
+        createTestChunk(testMemoryId, testUserId, 2, "Kickoff notes for project kestrel", null);
+    old =
+        new MemoryChunk(
+            old.chunkId(),
+            old.memoryId(),
+            old.chunkSequenceNumber(),
+            old.chunkText(),
+            null,
+            old.vectorStatus(),
+            old.startOffset(),
+            old.endOffset(),
+            now.minus(Duration.ofDays(7)),
+            now.minus(Duration.ofDays(7)),
+            testUserId,
+            testUserId);
+    MemoryChunks.save(connection, recent);
+    MemoryChunks.save(connection, old);
+
+    // When: We search only the last day
+    StatusOr<List<ScoredMemoryChunk>> searchResult =
+        MemoryChunks.lexicalSearch(
+            connection,
+            "kestrel",
+            new ChunkFilter(testSpaceId, Map.of(), now.minus(Duration.ofDays(1)), null),
+            10);
+
+    // Then: Only the recent chunk is returned
+    assertTrue(searchResult.isOk());
+    assertEquals(
+        List.of(recent.chunkId()),
+        searchResult.getValue().stream().map(scored -> scored.chunk().chunkId()).toList());
+  }
+
+  @Test
+  void testSaveDeduplicated_LinksNearDuplicateAndReleasesItOnDelete() {
+    // Given: An embedded chunk, and a slightly edited copy of it in another memory
+    MemoryChunk original =
+        createTestChunk(testMemoryId, testUserId, 1, "Refund policy v1", unitVector(0))
+            .withVectorStatus("GENERATED");
+    MemoryChunks.save(connection, original);
+    float[] edited = unitVector(0);
+    edited[1] = 0.05f;
+    UUID reuploadId = createTestMemory(testSpaceId, testUserId);
+    MemoryChunk copy =
+        createTestChunk(reuploadId, testUserId, 1, "Refund policy v2", edited)
+            .withVectorStatus("GENERATED");
+
+    // When: We save the copy with duplicate detection
+    StatusOr<Optional<UUID>> result =
+        MemoryChunks.saveDeduplicated(
+            connection, copy, testSpaceId, DistanceMetric.EUCLIDEAN, 0.98);
+
+    // Then: It is stored as a link to the original, without an embedding
+    assertTrue(result.isOk());
+    assertEquals(Optional.of(original.chunkId()), result.getValue());
+    MemoryChunk stored = MemoryChunks.loadById(connection, copy.chunkId()).getValue().get();
+    assertEquals(MemoryChunks.DUPLICATE_STATUS, stored.vectorStatus());
+    assertNull(stored.embeddingVector());
+    assertEquals("Refund policy v2", stored.chunkText());
+
+    // And: Deleting the original indexes the copy's own embedding again
+    MemoryChunks.delete(connection, original.chunkId());
+    MemoryChunk released = MemoryChunks.loadById(connection, copy.chunkId()).getValue().get();
+    assertEquals("GENERATED", released.vectorStatus());
+    assertNotNull(released.embeddingVector());
+    assertEquals(edited[1], released.embeddingVector()[1], 1e-6f);
+  }
+
+  @Test
+  void testSaveDeduplicated_ClearsStaleLinkOnResave() throws SQLException {
+    // Given: A chunk saved as a near-duplicate of another
+    MemoryChunk original =
+        createTestChunk(testMemoryId, testUserId, 1, "Original", unitVector(0))
+            .withVectorStatus("GENERATED");
+    MemoryChunks.save(connection, original);
+    MemoryChunk copy =
+        createTestChunk(testMemoryId, testUserId, 2, "Copy", unitVector(0))
+            .withVectorStatus("GENERATED");
+    MemoryChunks.saveDeduplicated(connection, copy, testSpaceId, DistanceMetric.EUCLIDEAN, 0.98);
+
+    // When: It is saved again with content that no longer matches
+    StatusOr<Optional<UUID>> result =
+        MemoryChunks.saveDeduplicated(
+            connection,
+            copy.withEmbeddingVector(unitVector(1)),
+            testSpaceId,
+            DistanceMetric.EUCLIDEAN,
+            0.98);
+
+    // Then: It is a regular chunk again, with no link left behind
+    assertTrue(result.isOk());
+    assertTrue(result.getValue().isEmpty());
+    MemoryChunk stored = MemoryChunks.loadById(connection, copy.chunkId()).getValue().get();
+    assertEquals("GENERATED", stored.vectorStatus());
+    assertNotNull(stored.embeddingVector());
+    try (PreparedStatement stmt =
+        connection.prepareStatement(
+            "SELECT duplicate_of_chunk_id, duplicate_embedding_vector FROM memory_chunk"
+                + " WHERE chunk_id = ?")) {
+      stmt.setObject(1, copy.chunkId());
+      try (ResultSet rs = stmt.executeQuery()) {
+        assertTrue(rs.next());
+        assertNull(rs.getObject(1));
+        assertNull(rs.getObject(2));
+      }
+    }
+  }
+
+  @Test
+  void testSaveDeduplicated_SavesDissimilarChunk() {
+    MemoryChunks.save(
+        connection,
+        createTestChunk(testMemoryId, testUserId, 1, "Existing", unitVector(0))
+            .withVectorStatus("GENERATED"));
+    MemoryChunk different =
+        createTestChunk(testMemoryId, testUserId, 2, "Different", unitVector(1))
+            .withVectorStatus("GENERATED");
+
+    StatusOr<Optional<UUID>> result =
+        MemoryChunks.saveDeduplicated(
+            connection, different, testSpaceId, DistanceMetric.EUCLIDEAN, 0.98);
+
+    assertTrue(result.isOk());
+    assertTrue(result.getValue().isEmpty());
+    assertEquals(
+        "GENERATED",
+        MemoryChunks.loadById(connection, different.chunkId()).getValue().get().vectorStatus());
+  }
+
   @Test
   void testDeleteByMemoryId() {
     // Given: Multiple chunks for the same memory
@@ -264,8 +785,35 @@ public class MemoryChunksTest {
     assertEquals(0, loadResult.getValue().size());
   }
 
+  @Test
+  void testChunkWrites_BumpSpaceContentVersion() {
+    // Given: The current content version of the test space
+    long before =
+        Spaces.loadContentVersions(connection, List.of(testSpaceId)).getValue().get(testSpaceId);
+
+    // When: A chunk is inserted and then deleted
+    MemoryChunk chunk = createTestChunk(testMemoryId, testUserId, 1, "Versioned chunk", null);
+    MemoryChunks.save(connection, chunk);
+    long afterInsert =
+        Spaces.loadContentVersions(connection, List.of(testSpaceId)).getValue().get(testSpaceId);
+    MemoryChunks.delete(connection, chunk.chunkId());
+    long afterDelete =
+        Spaces.loadContentVersions(connection, List.of(testSpaceId)).getValue().get(testSpaceId);
+
+    // Then: Each write moves the version forward
+    assertTrue(afterInsert > before);
+    assertTrue(afterDelete > afterInsert);
+  }
+
   // Helper methods to set up test data
 
+  /** Returns a full-dimension vector with a single 1 at {@code index}. */
+  private static float[] unitVector(int index) {
+    float[] vector = new float[1536];
+    vector[index] = 1.0f;
+    return vector;
+  }
+
   private static UUID createTestUser() {
     return EntityHelper.createTestUserWithKey(connection).userId();
   }
@@ -281,12 +829,49 @@ public class MemoryChunksTest {
         UUID.fromString("00000000-0000-0000-0000-000000000001")); // Test embedder ID
     Space space =
         new Space(
-            spaceId, ownerId, "test-space", Map.of(), embedderId, false, now, now, ownerId, ownerId);
+            spaceId,
+            ownerId,
+            "test-space",
+            Map.of(),
+            embedderId,
+            DistanceMetric.EUCLIDEAN, // Keeps testVectorSearch's expected ordering
+            true, // Keeps prefix vectors for the two-stage tests
+            false,
+            now,
+            now,
+            ownerId,
+            ownerId);
     Spaces.save(connection, space);
     return spaceId;
   }
 
+  /** Creates another space of the test user, sharing the test space's embedder. */
+  private static UUID createSpace(String name, DistanceMetric metric, boolean twoStageSearch) {
+    Space testSpace = Spaces.loadById(connection, testSpaceId).getValue().get();
+    Instant now = Instant.now();
+    Space space =
+        new Space(
+            UUID.randomUUID(),
+            testUserId,
+            name,
+            Map.of(),
+            testSpace.embedderId(),
+            metric,
+            twoStageSearch,
+            false,
+            now,
+            now,
+            testUserId,
+            testUserId);
+    assertTrue(Spaces.save(connection, space).isOk());
+    return space.spaceId();
+  }
+
   private static UUID createTestMemory(UUID spaceId, UUID userId) {
+    return createTestMemory(spaceId, userId, Map.of());
+  }
+
+  private static UUID createTestMemory(UUID spaceId, UUID userId, Map<String, String> metadata) {
     UUID memoryId = UUID.randomUUID();
     Instant now = Instant.now();
     Memory memory =
@@ -295,7 +880,7 @@ public class MemoryChunksTest {
             spaceId,
             "test-content-ref",
             "text/plain",
-            Map.of(),
+            metadata,
             "COMPLETED",
             now,
             now,
@@ -3,6 +3,7 @@ package com.goodmem.db.helpers;
 import static org.junit.jupiter.api.Assertions.*;
 
 import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.DistanceMetric;
 import com.goodmem.db.Space;
 import com.goodmem.db.Spaces;
 import com.goodmem.db.util.PostgresTestHelper;
@@ -141,6 +142,42 @@ public class SpacesTest {
     assertTrue(names.contains("ownerspace2"));
   }
 
+  @Test
+  void testLoadReadableByUser_ReturnsOwnedAndPublicSpaces() {
+    // Given: A private and a public space owned by someone else, and a private space of our own
+    UUID otherUserId = createTestUser();
+    Space ownPrivate = createTestSpace("own-private", false);
+    Space otherPrivate = withOwner(createTestSpace("other-private", false), otherUserId);
+    Space otherPublic = withOwner(createTestSpace("other-public", true), otherUserId);
+
+    Spaces.save(connection, ownPrivate);
+    Spaces.save(connection, otherPrivate);
+    Spaces.save(connection, otherPublic);
+
+    // When: We load the spaces readable by the test user
+    StatusOr<List<Space>> result = Spaces.loadReadableByUser(connection, testUserId, null, 100);
+
+    // Then: Our own space and the public space are returned, the other private space is not
+    assertTrue(result.isOk());
+    List<String> names = result.getValue().stream().map(Space::name).sorted().toList();
+    assertEquals(List.of("other-public", "own-private"), names);
+  }
+
+  @Test
+  void testLoadReadableByUser_PutsOwnSpacesFirstWithinTheLimit() {
+    // Given: A public space of someone else, updated after a private space of our own
+    UUID otherUserId = createTestUser();
+    Spaces.save(connection, createTestSpace("own-private", false));
+    Spaces.save(connection, withOwner(createTestSpace("other-public", true), otherUserId));
+
+    // When: We load a single readable space
+    StatusOr<List<Space>> result = Spaces.loadReadableByUser(connection, testUserId, null, 1);
+
+    // Then: It is our own
+    assertTrue(result.isOk());
+    assertEquals(List.of("own-private"), result.getValue().stream().map(Space::name).toList());
+  }
+
   @Test
   void testLoadByOwnerAndName_ReturnsSpace_WhenExists() {
     // Given: A space with a specific owner and name
@@ -207,6 +244,8 @@ public class SpacesTest {
             space.name(),
             space.labels(),
             uuid2, // Changed embedder ID
+            space.distanceMetric(),
+            space.twoStageSearch(),
             true, // Changed publicRead to true
             space.createdAt(),
             now, // Updated updatedAt
@@ -263,6 +302,22 @@ public class SpacesTest {
     assertFalse(loadResult.getValue().isPresent());
   }
 
+  @Test
+  void testDelete_FreesNameAndPurgesLater() {
+    // Given: A deleted space
+    Space space = createTestSpace("reusedname", false);
+    Spaces.save(connection, space);
+    assertEquals(1, Spaces.delete(connection, space.spaceId()).getValue());
+
+    // When: A new space is created with the same name before the purge
+    StatusOr<Integer> saveResult = Spaces.save(connection, createTestSpace("reusedname", false));
+
+    // Then: The name is free, and the tombstoned row is purged on the next pass
+    assertTrue(saveResult.isOk());
+    assertEquals(1, Spaces.purgeTombstoned(connection, 10).getValue());
+    assertEquals(0, Spaces.purgeTombstoned(connection, 10).getValue());
+  }
+
   @Test
   void testDelete_ReturnsZero_WhenSpaceDoesNotExist() {
     // Given: A non-existent UUID
@@ -298,10 +353,28 @@ public class SpacesTest {
         name,
         Map.of(), // Empty labels
         embedderUUID,
+        DistanceMetric.COSINE,
+        false,
         publicRead,
         now,
         now,
         testUserId,
         testUserId);
   }
+
+  private static Space withOwner(Space space, UUID ownerId) {
+    return new Space(
+        space.spaceId(),
+        ownerId,
+        space.name(),
+        space.labels(),
+        space.embedderId(),
+        space.distanceMetric(),
+        space.twoStageSearch(),
+        space.publicRead(),
+        space.createdAt(),
+        space.updatedAt(),
+        ownerId,
+        ownerId);
+  }
 }
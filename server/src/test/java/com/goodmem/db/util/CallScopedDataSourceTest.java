@@ -0,0 +1,145 @@
+package com.goodmem.db.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Context;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the CallScopedDataSource class. */
+public class CallScopedDataSourceTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @AfterEach
+  void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void testStatements_GetTheRemainingDeadlineAsQueryTimeout() throws SQLException {
+    // Given: A call with 2.5 seconds left
+    Context.CancellableContext context =
+        Context.current().withDeadlineAfter(2500, TimeUnit.MILLISECONDS, scheduler);
+    Connection pooled = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(pooled.prepareStatement("SELECT 1")).thenReturn(statement);
+
+    // When: A statement is prepared on a connection bound to the call
+    Connection connection = CallScopedDataSource.bind(pooled, context);
+    assertSame(statement, connection.prepareStatement("SELECT 1"));
+
+    // Then: Its timeout is the remaining time, rounded up to whole seconds
+    verify(statement).setQueryTimeout(3);
+    context.cancel(null);
+  }
+
+  @Test
+  void testCancellation_CancelsStatementsUntilTheConnectionIsClosed() throws SQLException {
+    // Given: A statement created inside a call without a deadline
+    Context.CancellableContext context = Context.current().withCancellation();
+    Connection pooled = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(pooled.prepareStatement("SELECT 1")).thenReturn(statement);
+    Connection connection = CallScopedDataSource.bind(pooled, context);
+    connection.prepareStatement("SELECT 1");
+
+    // When: The call is cancelled
+    context.cancel(null);
+
+    // Then: The statement is cancelled, and no timeout was set
+    verify(statement, timeout(1000)).cancel();
+    verify(statement, never()).setQueryTimeout(anyInt());
+
+    // And: New statements fail fast, and closing returns the connection to the pool
+    PreparedStatement late = mock(PreparedStatement.class);
+    when(pooled.prepareStatement("SELECT 2")).thenReturn(late);
+    assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT 2"));
+    verify(late).close();
+    connection.close();
+    verify(pooled).close();
+  }
+
+  @Test
+  void testCancellation_RunsOffTheCancellingThreadAndSkipsClosedStatements() throws Exception {
+    // Given: A call with a statement that has been closed and one that is still running
+    Context.CancellableContext context = Context.current().withCancellation();
+    Connection pooled = mock(Connection.class);
+    PreparedStatement closed = mock(PreparedStatement.class);
+    PreparedStatement running = mock(PreparedStatement.class);
+    when(pooled.prepareStatement("SELECT 1")).thenReturn(closed);
+    when(pooled.prepareStatement("SELECT 2")).thenReturn(running);
+    Connection connection = CallScopedDataSource.bind(pooled, context);
+    connection.prepareStatement("SELECT 1");
+    when(closed.isClosed()).thenReturn(true);
+    connection.prepareStatement("SELECT 2");
+    CompletableFuture<Thread> cancelThread = new CompletableFuture<>();
+    doAnswer(
+            invocation -> {
+              cancelThread.complete(Thread.currentThread());
+              return null;
+            })
+        .when(running)
+        .cancel();
+
+    // When: The call is cancelled
+    context.cancel(null);
+
+    // Then: Only the running statement is cancelled, on another thread
+    assertNotSame(Thread.currentThread(), cancelThread.get(1, TimeUnit.SECONDS));
+    verify(closed, never()).cancel();
+    connection.close();
+  }
+
+  @Test
+  void testClose_DetachesTheConnectionFromTheCall() throws SQLException {
+    Context.CancellableContext context = Context.current().withCancellation();
+    Connection pooled = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(pooled.prepareStatement("SELECT 1")).thenReturn(statement);
+    Connection connection = CallScopedDataSource.bind(pooled, context);
+    connection.prepareStatement("SELECT 1");
+
+    connection.close();
+    context.cancel(null);
+
+    // A connection back in the pool may be serving another call
+    verify(pooled).close();
+    verify(statement, never()).cancel();
+  }
+
+  @Test
+  void testBind_FailsFastOnceTheCallIsOver() throws SQLException {
+    // Given: A cancelled call and a call whose deadline has passed
+    Context.CancellableContext cancelled = Context.current().withCancellation();
+    cancelled.cancel(null);
+    Context.CancellableContext expired =
+        Context.current().withDeadlineAfter(-1, TimeUnit.SECONDS, scheduler);
+    Connection first = mock(Connection.class);
+    Connection second = mock(Connection.class);
+
+    // When/Then: Binding fails with query_canceled and returns the connection to the pool
+    SQLException e =
+        assertThrows(SQLException.class, () -> CallScopedDataSource.bind(first, cancelled));
+    assertEquals(CallScopedDataSource.QUERY_CANCELED, e.getSQLState());
+    verify(first).close();
+
+    // An expired deadline also cancels the context, so either check may report it
+    assertThrows(SQLException.class, () -> CallScopedDataSource.bind(second, expired));
+    verify(second).close();
+  }
+}
@@ -409,4 +409,24 @@ public class DbUtilTest {
     assertThrows(IllegalArgumentException.class, () -> DbUtil.formatVector(null), 
         "Null vector should throw IllegalArgumentException");
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests the vector normalization method.
+   */
+  @Test
+  void testNormalizeVector() {
+    float[] vector = {3.0f, 4.0f};
+    float[] normalized = DbUtil.normalizeVector(vector);
+    assertEquals(0.6f, normalized[0], 1e-6f, "x component should be scaled to unit length");
+    assertEquals(0.8f, normalized[1], 1e-6f, "y component should be scaled to unit length");
+    assertEquals(3.0f, vector[0], "Input vector should not be modified");
+
+    // Zero vector is returned unchanged
+    assertArrayEquals(new float[] {0.0f, 0.0f}, DbUtil.normalizeVector(new float[] {0.0f, 0.0f}),
+        "Zero vector should be returned unchanged");
+
+    // Null vector
+    assertThrows(IllegalArgumentException.class, () -> DbUtil.normalizeVector(null),
+        "Null vector should throw IllegalArgumentException");
+  }
+}
@@ -0,0 +1,139 @@
+package com.goodmem.embedding;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.Embedder;
+import com.goodmem.db.EmbedderModality;
+import com.goodmem.db.EmbedderProviderType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the CachingEmbedderClient class. */
+public class CachingEmbedderClientTest {
+
+  private final UUID embedderId = UUID.randomUUID();
+
+  @Test
+  void testEmbed_ConcurrentIdenticalTextsShareOneCall() throws Exception {
+    // Given: A delegate that blocks until every caller has issued its request
+    int callers = 8;
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    CachingEmbedderClient client =
+        new CachingEmbedderClient(
+            (embedder, text) -> {
+              calls.incrementAndGet();
+              try {
+                release.await(5, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return StatusOr.ofValue(new float[] {1.0f, 2.0f});
+            },
+            100);
+
+    // When: Several callers embed the same text at once
+    List<Future<StatusOr<float[]>>> futures = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+      for (int i = 0; i < callers; i++) {
+        futures.add(executor.submit(() -> client.embed(embedder("v1"), "  what is   goodmem ")));
+      }
+      Thread.sleep(100);
+      release.countDown();
+
+      // Then: The embedder is called once and every caller gets the vector
+      for (Future<StatusOr<float[]>> future : futures) {
+        StatusOr<float[]> vectorOr = future.get(5, TimeUnit.SECONDS);
+        assertTrue(vectorOr.isOk());
+        assertArrayEquals(new float[] {1.0f, 2.0f}, vectorOr.getValue());
+      }
+    }
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void testEmbed_NormalizesWhitespaceAndMissesOnNewVersion() {
+    AtomicInteger calls = new AtomicInteger();
+    CachingEmbedderClient client =
+        new CachingEmbedderClient(
+            (embedder, text) -> {
+              calls.incrementAndGet();
+              return StatusOr.ofValue(new float[] {0.5f});
+            },
+            100);
+
+    client.embed(embedder("v1"), "hello world");
+    client.embed(embedder("v1"), " hello \n world ");
+    assertEquals(1, calls.get());
+
+    client.embed(embedder("v2"), "hello world");
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void testEmbed_FailuresAreNotCached() {
+    AtomicInteger calls = new AtomicInteger();
+    CachingEmbedderClient client =
+        new CachingEmbedderClient(
+            (embedder, text) ->
+                calls.incrementAndGet() == 1
+                    ? StatusOr.ofStatus(Status.of(StatusCode.UNAVAILABLE, "down"))
+                    : StatusOr.ofValue(new float[] {0.5f}),
+            100);
+
+    StatusOr<float[]> first = client.embed(embedder("v1"), "hello");
+    StatusOr<float[]> second = client.embed(embedder("v1"), "hello");
+
+    assertEquals(StatusCode.UNAVAILABLE, first.getStatus().getCode());
+    assertTrue(second.isOk());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void testEmbed_ReturnsCopies() {
+    CachingEmbedderClient client =
+        new CachingEmbedderClient((embedder, text) -> StatusOr.ofValue(new float[] {0.5f}), 100);
+
+    client.embed(embedder("v1"), "hello").getValue()[0] = 9.0f;
+
+    assertArrayEquals(new float[] {0.5f}, client.embed(embedder("v1"), "hello").getValue());
+  }
+
+  private Embedder embedder(String version) {
+    Instant now = Instant.now();
+    UUID userId = UUID.randomUUID();
+    return new Embedder(
+        embedderId,
+        "Test Embedder",
+        null,
+        EmbedderProviderType.OPENAI,
+        "http://localhost:8000",
+        "/v1/embeddings",
+        "test-model",
+        2,
+        null,
+        List.of(EmbedderModality.TEXT),
+        null,
+        Map.of(),
+        version,
+        null,
+        userId,
+        now,
+        now,
+        userId,
+        userId);
+  }
+}
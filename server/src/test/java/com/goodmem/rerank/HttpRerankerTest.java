@@ -0,0 +1,35 @@
+package com.goodmem.rerank;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.common.status.StatusOr;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the HttpReranker class. */
+public class HttpRerankerTest {
+
+  @Test
+  void testParseResponse_RestoresRequestOrder() {
+    // TEI returns results sorted by score, not by index
+    String body = "[{\"index\":1,\"score\":0.9},{\"index\":0,\"score\":0.2}]";
+
+    StatusOr<List<Double>> scoresOr = HttpReranker.parseResponse(body, 2);
+
+    assertTrue(scoresOr.isOk());
+    assertEquals(List.of(0.2, 0.9), scoresOr.getValue());
+  }
+
+  @Test
+  void testParseResponse_RejectsMissingScores() {
+    StatusOr<List<Double>> scoresOr =
+        HttpReranker.parseResponse("[{\"index\":0,\"score\":0.2}]", 2);
+
+    assertFalse(scoresOr.isOk());
+  }
+
+  @Test
+  void testParseResponse_RejectsMalformedBody() {
+    assertFalse(HttpReranker.parseResponse("{\"error\":\"overloaded\"}", 1).isOk());
+  }
+}
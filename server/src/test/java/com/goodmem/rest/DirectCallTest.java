@@ -0,0 +1,120 @@
+package com.goodmem.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.security.AuthInterceptor;
+import com.goodmem.security.User;
+import goodmem.v1.SpaceOuterClass.GetSpaceRequest;
+import goodmem.v1.SpaceOuterClass.ListSpacesRequest;
+import goodmem.v1.SpaceOuterClass.Space;
+import goodmem.v1.SpaceServiceGrpc;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the DirectCall class. */
+public class DirectCallTest {
+
+  @Test
+  void testUnary_ReturnsResponseAndBindsUser() {
+    // Given: A service that echoes the caller's user back through the gRPC context
+    AtomicReference<User> seenUser = new AtomicReference<>();
+    SpaceServiceGrpc.AsyncService service =
+        new SpaceServiceGrpc.SpaceServiceImplBase() {
+          @Override
+          public void getSpace(GetSpaceRequest request, StreamObserver<Space> responseObserver) {
+            seenUser.set(AuthInterceptor.USER_CONTEXT_KEY.get());
+            responseObserver.onNext(Space.newBuilder().setName("direct").build());
+            responseObserver.onCompleted();
+          }
+        };
+    User user = mock(User.class);
+
+    // When: The method is called directly
+    StatusOr<Space> spaceOr =
+        DirectCall.unary(user, service::getSpace, GetSpaceRequest.getDefaultInstance());
+
+    // Then: The response comes back and the service saw the user
+    assertTrue(spaceOr.isOk());
+    assertEquals("direct", spaceOr.getValue().getName());
+    assertSame(user, seenUser.get());
+    assertNull(AuthInterceptor.USER_CONTEXT_KEY.get(), "User must not leak past the call");
+  }
+
+  @Test
+  void testUnary_MapsServiceErrorToStatus() {
+    SpaceServiceGrpc.AsyncService service =
+        new SpaceServiceGrpc.SpaceServiceImplBase() {
+          @Override
+          public void getSpace(GetSpaceRequest request, StreamObserver<Space> responseObserver) {
+            responseObserver.onError(
+                Status.NOT_FOUND.withDescription("Space not found").asRuntimeException());
+          }
+        };
+
+    StatusOr<Space> spaceOr =
+        DirectCall.unary(null, service::getSpace, GetSpaceRequest.getDefaultInstance());
+
+    assertTrue(spaceOr.isNotOk());
+    assertEquals(StatusCode.NOT_FOUND, spaceOr.getStatus().getCode());
+    assertEquals("Space not found", spaceOr.getStatus().getMessage());
+    assertEquals(404, spaceOr.getStatus().getHttpCode());
+  }
+
+  @Test
+  void testUnary_UnimplementedAndThrowingMethodsFail() {
+    // An unimplemented method reports UNIMPLEMENTED through the observer
+    SpaceServiceGrpc.AsyncService unimplemented = new SpaceServiceGrpc.SpaceServiceImplBase() {};
+    StatusOr<Space> unimplementedOr =
+        DirectCall.unary(null, unimplemented::getSpace, GetSpaceRequest.getDefaultInstance());
+    assertEquals(StatusCode.UNIMPLEMENTED, unimplementedOr.getStatus().getCode());
+
+    // A method that throws is reported as an internal error rather than propagating
+    SpaceServiceGrpc.AsyncService throwing =
+        new SpaceServiceGrpc.SpaceServiceImplBase() {
+          @Override
+          public void getSpace(GetSpaceRequest request, StreamObserver<Space> responseObserver) {
+            throw new IllegalStateException("boom");
+          }
+        };
+    StatusOr<Space> throwingOr =
+        DirectCall.unary(null, throwing::getSpace, GetSpaceRequest.getDefaultInstance());
+    assertEquals(StatusCode.INTERNAL, throwingOr.getStatus().getCode());
+  }
+
+  @Test
+  void testServerStreaming_ForwardsEachMessageThenReportsHowTheStreamEnded() {
+    // Given: A streaming method that sends two spaces and then fails
+    SpaceServiceGrpc.AsyncService service =
+        new SpaceServiceGrpc.SpaceServiceImplBase() {
+          @Override
+          public void streamSpaces(
+              ListSpacesRequest request, StreamObserver<Space> responseObserver) {
+            responseObserver.onNext(Space.newBuilder().setName("first").build());
+            responseObserver.onNext(Space.newBuilder().setName("second").build());
+            responseObserver.onError(
+                Status.PERMISSION_DENIED.withDescription("denied").asRuntimeException());
+          }
+        };
+    List<String> names = new ArrayList<>();
+
+    // When: The method is called directly
+    com.goodmem.common.status.Status status =
+        DirectCall.serverStreaming(
+            null,
+            service::streamSpaces,
+            ListSpacesRequest.getDefaultInstance(),
+            space -> names.add(space.getName()));
+
+    // Then: Both messages were delivered in order and the error is reported afterwards
+    assertEquals(List.of("first", "second"), names);
+    assertEquals(StatusCode.PERMISSION_DENIED, status.getCode());
+    assertEquals("denied", status.getMessage());
+  }
+}
@@ -5,30 +5,27 @@ import com.goodmem.rest.dto.DeleteEmbedderRequest;
 import com.goodmem.rest.dto.EmbedderResponse;
 import com.goodmem.rest.dto.GetEmbedderRequest;
 import com.goodmem.rest.dto.ListEmbeddersRequest;
-import com.goodmem.rest.dto.ListEmbeddersResponse;
 import com.goodmem.rest.dto.Modality;
 import com.goodmem.rest.dto.ProviderType;
 import com.goodmem.rest.dto.UpdateEmbedderRequest;
 import com.goodmem.util.RestMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
 import goodmem.v1.Common;
 import goodmem.v1.EmbedderOuterClass;
 import goodmem.v1.EmbedderOuterClass.Embedder;
 import goodmem.v1.EmbedderServiceGrpc;
-import io.grpc.ManagedChannel;
-import io.grpc.inprocess.InProcessChannelBuilder;
-import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.StreamObserver;
 import io.javalin.http.Context;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
@@ -49,43 +46,14 @@ class EmbedderServiceRestAdapterTest {
 
     private EmbedderServiceRestAdapter adapter;
     private TestEmbedderServiceImpl testServiceImpl;
-    private io.grpc.Server server;
-    private ManagedChannel channel;
 
     @BeforeEach
-    void setUp() throws IOException {
+    void setUp() {
         // Create the test service implementation
         testServiceImpl = new TestEmbedderServiceImpl();
 
-        // Create an in-process server
-        String serverName = InProcessServerBuilder.generateName();
-        server = InProcessServerBuilder.forName(serverName)
-            .directExecutor()
-            .addService(testServiceImpl)
-            .build()
-            .start();
-
-        // Create a client channel and stub
-        channel = InProcessChannelBuilder
-            .forName(serverName)
-            .directExecutor()
-            .build();
-        EmbedderServiceGrpc.EmbedderServiceBlockingStub stub =
-            EmbedderServiceGrpc.newBlockingStub(channel);
-
-        // Create the adapter with this stub
-        adapter = new EmbedderServiceRestAdapter(stub);
-    }
-    
-    @AfterEach
-    void tearDown() {
-        // Shutdown the channel and server
-        if (channel != null) {
-            channel.shutdown();
-        }
-        if (server != null) {
-            server.shutdown();
-        }
+        // Create the adapter, which calls the implementation directly
+        adapter = new EmbedderServiceRestAdapter(testServiceImpl);
     }
 
     @Test
@@ -233,7 +201,7 @@ class EmbedderServiceRestAdapterTest {
     }
 
     @Test
-    void testListEmbedders() {
+    void testListEmbedders() throws Exception {
         // Setup mock context with query parameters
         Map<String, List<String>> queryParams = new HashMap<>();
         queryParams.put("owner_id", List.of("00000000-0000-0000-0000-000000000001"));
@@ -245,7 +213,9 @@ class EmbedderServiceRestAdapterTest {
         when(mockContext.queryParam("owner_id")).thenReturn("00000000-0000-0000-0000-000000000001");
         when(mockContext.queryParam("provider_type")).thenReturn("OPENAI");
         when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
-        when(mockContext.json(any())).thenReturn(mockContext);
+        when(mockContext.header("Accept")).thenReturn("application/json");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(mockContext.outputStream()).thenReturn(body);
 
         // Act
         adapter.handleListEmbedders(mockContext);
@@ -269,8 +239,14 @@ class EmbedderServiceRestAdapterTest {
         assertEquals("test", protoRequest.getLabelSelectorsMap().get("env"), "Label selector 'env' should match");
         assertEquals("nlp", protoRequest.getLabelSelectorsMap().get("team"), "Label selector 'team' should match");
 
-        // Verify response handling
-        verify(mockContext).json(any(ListEmbeddersResponse.class));
+        // Verify the response was streamed in the shape of the ListEmbeddersResponse DTO
+        JsonNode json = new ObjectMapper().readTree(body.toByteArray());
+        assertEquals(1, json.get("embedders").size(), "One embedder should be returned");
+        JsonNode embedder = json.get("embedders").get(0);
+        assertEquals("Mock Embedder", embedder.get("displayName").asText());
+        assertEquals("OPENAI", embedder.get("providerType").asText());
+        assertEquals(1536, embedder.get("dimensionality").asInt());
+        assertEquals("TEXT", embedder.get("supportedModalities").get(0).asText());
     }
     
     // Remove the test since it's causing stubbing issues and we're already covered by other tests
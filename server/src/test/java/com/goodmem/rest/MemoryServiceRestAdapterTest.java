@@ -6,13 +6,8 @@ import com.google.protobuf.Empty;
 import com.google.protobuf.Timestamp;
 import goodmem.v1.MemoryOuterClass;
 import goodmem.v1.MemoryServiceGrpc;
-import io.grpc.ManagedChannel;
-import io.grpc.Server;
-import io.grpc.inprocess.InProcessChannelBuilder;
-import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.StreamObserver;
 import io.javalin.http.Context;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,7 +15,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
@@ -42,43 +36,14 @@ class MemoryServiceRestAdapterTest {
 
     private MemoryServiceRestAdapter adapter;
     private TestMemoryServiceImpl testServiceImpl;
-    private Server server;
-    private ManagedChannel channel;
 
     @BeforeEach
-    void setUp() throws IOException {
+    void setUp() {
         // Create the test service implementation
         testServiceImpl = new TestMemoryServiceImpl();
 
-        // Create an in-process server
-        String serverName = InProcessServerBuilder.generateName();
-        server = InProcessServerBuilder.forName(serverName)
-            .directExecutor()
-            .addService(testServiceImpl)
-            .build()
-            .start();
-
-        // Create a client channel and stub
-        channel = InProcessChannelBuilder
-            .forName(serverName)
-            .directExecutor()
-            .build();
-        MemoryServiceGrpc.MemoryServiceBlockingStub stub =
-            MemoryServiceGrpc.newBlockingStub(channel);
-
-        // Create the adapter with this stub
-        adapter = new MemoryServiceRestAdapter(stub);
-    }
-    
-    @AfterEach
-    void tearDown() {
-        // Shutdown the channel and server
-        if (channel != null) {
-            channel.shutdown();
-        }
-        if (server != null) {
-            server.shutdown();
-        }
+        // Create the adapter, which calls the implementation directly
+        adapter = new MemoryServiceRestAdapter(testServiceImpl);
     }
 
     @Test
@@ -197,6 +162,7 @@ class MemoryServiceRestAdapterTest {
         String spaceId = "00000000-0000-0000-0000-000000000001";
         when(mockContext.pathParam("spaceId")).thenReturn(spaceId);
         when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
+        when(mockContext.header("Accept")).thenReturn("application/json");
         when(mockContext.json(any())).thenReturn(mockContext);
 
         // Act
@@ -223,6 +189,50 @@ class MemoryServiceRestAdapterTest {
         assertTrue(responseMap.get("memories") instanceof List, "Memories should be a list");
     }
 
+    @Test
+    void testListMemories_PaginationAndFilters() {
+        // Setup mock context with filters, page size and a token from a previous page
+        when(mockContext.pathParam("spaceId")).thenReturn("00000000-0000-0000-0000-000000000001");
+        when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
+        when(mockContext.header("Accept")).thenReturn("application/json");
+        when(mockContext.queryParam("processing_status")).thenReturn("COMPLETED");
+        when(mockContext.queryParam("content_type")).thenReturn("text/plain");
+        when(mockContext.queryParam("max_results")).thenReturn("25");
+        when(mockContext.queryParam("next_token")).thenReturn("previous-page");
+        when(mockContext.json(any())).thenReturn(mockContext);
+
+        // Act
+        adapter.handleListMemories(mockContext);
+
+        // The query parameters are passed through to the service
+        MemoryOuterClass.ListMemoriesRequest protoRequest = testServiceImpl.getLastListRequest();
+        assertEquals("COMPLETED", protoRequest.getProcessingStatus());
+        assertEquals("text/plain", protoRequest.getContentType());
+        assertEquals(25, protoRequest.getMaxResults());
+        assertEquals("previous-page", protoRequest.getNextToken());
+
+        // The next page token is returned alongside the memories
+        ArgumentCaptor<Map<String, Object>> responseCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(mockContext).json(responseCaptor.capture());
+        assertEquals("next-page", responseCaptor.getValue().get("nextToken"));
+    }
+
+    @Test
+    void testListMemories_InvalidMaxResults() {
+        when(mockContext.pathParam("spaceId")).thenReturn("00000000-0000-0000-0000-000000000001");
+        when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
+        when(mockContext.queryParam("processing_status")).thenReturn(null);
+        when(mockContext.queryParam("content_type")).thenReturn(null);
+        when(mockContext.queryParam("max_results")).thenReturn("many");
+        when(mockContext.status(anyInt())).thenReturn(mockContext);
+        when(mockContext.json(any())).thenReturn(mockContext);
+
+        adapter.handleListMemories(mockContext);
+
+        verify(mockContext).status(400);
+        assertNull(testServiceImpl.getLastListRequest(), "The service should not be called");
+    }
+
     @Test
     void testDeleteMemory() {
         // Setup mock context
@@ -249,6 +259,65 @@ class MemoryServiceRestAdapterTest {
         verify(mockContext).status(204);
     }
 
+    @Test
+    void testBatchDeleteMemories_ReportsEachIdInOrder() {
+        // Given: A valid ID followed by a malformed one
+        Map<String, Object> requestJson = new HashMap<>();
+        requestJson.put(
+            "memory_ids", List.of("00000000-0000-0000-0000-000000000001", "not-a-uuid"));
+        when(mockContext.bodyAsClass(Map.class)).thenReturn(requestJson);
+        when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
+        when(mockContext.json(any())).thenReturn(mockContext);
+
+        // When
+        adapter.handleBatchDeleteMemories(mockContext);
+
+        // Then: The malformed ID is passed on empty and reported in its own result
+        MemoryOuterClass.BatchDeleteMemoriesRequest protoRequest =
+            testServiceImpl.getLastBatchDeleteRequest();
+        assertNotNull(protoRequest, "Request should not be null");
+        assertEquals(2, protoRequest.getMemoryIdsCount());
+        assertTrue(protoRequest.getMemoryIds(1).isEmpty());
+
+        ArgumentCaptor<Map<String, Object>> responseCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(mockContext).json(responseCaptor.capture());
+        List<Map<String, Object>> results =
+            (List<Map<String, Object>>) responseCaptor.getValue().get("results");
+        assertEquals(2, results.size());
+        assertEquals("OK", results.get(0).get("code"));
+        assertEquals("INVALID_ARGUMENT", results.get(1).get("code"));
+        assertEquals("Invalid memory ID format", results.get(1).get("message"));
+    }
+
+    @Test
+    void testBatchDeleteMemories_MissingIds() {
+        when(mockContext.bodyAsClass(Map.class)).thenReturn(new HashMap<>());
+        when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
+        when(mockContext.status(anyInt())).thenReturn(mockContext);
+        when(mockContext.json(any())).thenReturn(mockContext);
+
+        adapter.handleBatchDeleteMemories(mockContext);
+
+        verify(mockContext).status(400);
+        assertNull(testServiceImpl.getLastBatchDeleteRequest(), "The service should not be called");
+    }
+
+    @Test
+    void testSearchAllMemories_RejectsNonStringMetadataFilterValues() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("query_text", "invoices");
+        body.put("metadata_filter", Map.of("tags", List.of("a", "b")));
+        when(mockContext.bodyAsClass(Map.class)).thenReturn(body);
+        when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
+        when(mockContext.status(anyInt())).thenReturn(mockContext);
+        when(mockContext.json(any())).thenReturn(mockContext);
+
+        adapter.handleSearchAllMemories(mockContext);
+
+        // A list cannot be matched against string metadata, so this is the client's error
+        verify(mockContext).status(400);
+    }
+
     /**
      * Mock implementation of the MemoryService for testing.
      * Captures requests and returns mock responses.
@@ -258,6 +327,7 @@ class MemoryServiceRestAdapterTest {
         private MemoryOuterClass.GetMemoryRequest lastGetRequest;
         private MemoryOuterClass.ListMemoriesRequest lastListRequest;
         private MemoryOuterClass.DeleteMemoryRequest lastDeleteRequest;
+        private MemoryOuterClass.BatchDeleteMemoriesRequest lastBatchDeleteRequest;
         
         @Override
         public void createMemory(MemoryOuterClass.CreateMemoryRequest request, 
@@ -287,6 +357,7 @@ class MemoryServiceRestAdapterTest {
             MemoryOuterClass.ListMemoriesResponse response = 
                 MemoryOuterClass.ListMemoriesResponse.newBuilder()
                     .addMemories(createMockMemory())
+                    .setNextToken("next-page")
                     .build();
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -300,6 +371,25 @@ class MemoryServiceRestAdapterTest {
             responseObserver.onCompleted();
         }
         
+        @Override
+        public void batchDeleteMemories(MemoryOuterClass.BatchDeleteMemoriesRequest request,
+                StreamObserver<MemoryOuterClass.BatchDeleteMemoriesResponse> responseObserver) {
+            this.lastBatchDeleteRequest = request;
+            MemoryOuterClass.BatchDeleteMemoriesResponse.Builder response =
+                MemoryOuterClass.BatchDeleteMemoriesResponse.newBuilder();
+            for (ByteString memoryId : request.getMemoryIdsList()) {
+                response.addResults(
+                    memoryId.isEmpty()
+                        ? MemoryOuterClass.BatchItemStatus.newBuilder()
+                            .setCode(io.grpc.Status.Code.INVALID_ARGUMENT.value())
+                            .setMessage("Invalid memory ID format")
+                            .build()
+                        : MemoryOuterClass.BatchItemStatus.getDefaultInstance());
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        }
+        
         // Helper to create a mock memory for response
         private MemoryOuterClass.Memory createMockMemory() {
             // Create proper UUID bytes
@@ -359,5 +449,9 @@ class MemoryServiceRestAdapterTest {
         public MemoryOuterClass.DeleteMemoryRequest getLastDeleteRequest() {
             return lastDeleteRequest;
         }
+
+        public MemoryOuterClass.BatchDeleteMemoriesRequest getLastBatchDeleteRequest() {
+            return lastBatchDeleteRequest;
+        }
     }
 }
\ No newline at end of file
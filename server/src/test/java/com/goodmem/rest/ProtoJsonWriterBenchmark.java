@@ -0,0 +1,132 @@
+package com.goodmem.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goodmem.Uuids;
+import com.goodmem.util.RestMapper;
+import com.google.protobuf.Timestamp;
+import goodmem.v1.EmbedderOuterClass;
+import goodmem.v1.SpaceOuterClass;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compares {@link ProtoJsonWriter} against the Map-based path it replaced for 1000-item list
+ * responses.
+ *
+ * <p>The baseline converts every message with {@link RestMapper#toJsonMap} and serializes the
+ * resulting tree with Jackson, as the REST adapters did before. Run with {@code ./gradlew
+ * :server:benchmark}; it prints time and bytes allocated per response for each path.
+ */
+public class ProtoJsonWriterBenchmark {
+
+  private static final int ITEMS = 1000;
+  private static final int WARMUP_ITERATIONS = 200;
+  private static final int MEASURED_ITERATIONS = 500;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /** A response serializer under test. */
+  private interface Writer {
+    void write(ByteArrayOutputStream out) throws Exception;
+  }
+
+  public static void main(String[] args) throws Exception {
+    SpaceOuterClass.ListSpacesResponse spaces = buildSpaces();
+    EmbedderOuterClass.ListEmbeddersResponse embedders = buildEmbedders();
+
+    run("ListSpaces    maps   ", out -> {
+      Map<String, Object> body = new HashMap<>();
+      body.put("spaces", spaces.getSpacesList().stream().map(RestMapper::toJsonMap).toList());
+      body.put("nextToken", spaces.getNextToken());
+      MAPPER.writeValue(out, body);
+    });
+    run("ListSpaces    stream ", out -> ProtoJsonWriter.writeListSpacesResponse(out, spaces));
+    run("ListEmbedders maps   ", out -> {
+      List<Map<String, Object>> list =
+          embedders.getEmbeddersList().stream().map(RestMapper::toJsonMap).toList();
+      MAPPER.writeValue(out, Map.of("embedders", list));
+    });
+    run("ListEmbedders stream ",
+        out -> ProtoJsonWriter.writeListEmbeddersResponse(out, embedders));
+  }
+
+  private static void run(String label, Writer writer) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+      out.reset();
+      writer.write(out);
+    }
+
+    long threadId = Thread.currentThread().threadId();
+    long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+      out.reset();
+      writer.write(out);
+    }
+    long elapsed = System.nanoTime() - start;
+    long allocated = THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+    System.out.printf(
+        "%s %8.1f us/op %10d bytes/op %8d bytes out%n",
+        label,
+        elapsed / 1000.0 / MEASURED_ITERATIONS,
+        allocated / MEASURED_ITERATIONS,
+        out.size());
+  }
+
+  private static SpaceOuterClass.ListSpacesResponse buildSpaces() {
+    SpaceOuterClass.ListSpacesResponse.Builder builder =
+        SpaceOuterClass.ListSpacesResponse.newBuilder().setNextToken("next-page-token");
+    for (int i = 0; i < ITEMS; i++) {
+      builder.addSpaces(
+          SpaceOuterClass.Space.newBuilder()
+              .setSpaceId(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setName("space-" + i)
+              .putLabels("env", "benchmark")
+              .putLabels("team", "team-" + (i % 10))
+              .setEmbedderId(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setCreatedAt(Timestamp.newBuilder().setSeconds(1700000000L + i))
+              .setUpdatedAt(Timestamp.newBuilder().setSeconds(1700000000L + i))
+              .setOwnerId(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setCreatedById(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setUpdatedById(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setPublicRead(i % 2 == 0)
+              .setDistanceMetric(SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_COSINE));
+    }
+    return builder.build();
+  }
+
+  private static EmbedderOuterClass.ListEmbeddersResponse buildEmbedders() {
+    EmbedderOuterClass.ListEmbeddersResponse.Builder builder =
+        EmbedderOuterClass.ListEmbeddersResponse.newBuilder();
+    for (int i = 0; i < ITEMS; i++) {
+      builder.addEmbedders(
+          EmbedderOuterClass.Embedder.newBuilder()
+              .setEmbedderId(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setDisplayName("embedder-" + i)
+              .setDescription("Benchmark embedder " + i)
+              .setProviderType(EmbedderOuterClass.ProviderType.PROVIDER_TYPE_OPENAI)
+              .setEndpointUrl("https://api.openai.com")
+              .setApiPath("/v1/embeddings")
+              .setModelIdentifier("text-embedding-3-small")
+              .setDimensionality(1536)
+              .setMaxSequenceLength(8192)
+              .addSupportedModalities(EmbedderOuterClass.Modality.MODALITY_TEXT)
+              .putLabels("env", "benchmark")
+              .setVersion("1")
+              .setOwnerId(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setCreatedAt(Timestamp.newBuilder().setSeconds(1700000000L + i))
+              .setUpdatedAt(Timestamp.newBuilder().setSeconds(1700000000L + i))
+              .setCreatedById(Uuids.getBytesFromUUID(UUID.randomUUID()))
+              .setUpdatedById(Uuids.getBytesFromUUID(UUID.randomUUID())));
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,96 @@
+package com.goodmem.rest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.goodmem.Uuids;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import goodmem.v1.EmbedderOuterClass;
+import goodmem.v1.SpaceOuterClass;
+import java.io.ByteArrayOutputStream;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the ProtoJsonWriter class. */
+public class ProtoJsonWriterTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void testWriteListSpacesResponse_MatchesSpaceDtoShape() throws Exception {
+    // Given: A page of one space with a next token
+    UUID spaceId = UUID.randomUUID();
+    ByteString spaceIdBytes = Uuids.getBytesFromUUID(spaceId);
+    SpaceOuterClass.ListSpacesResponse response =
+        SpaceOuterClass.ListSpacesResponse.newBuilder()
+            .addSpaces(
+                SpaceOuterClass.Space.newBuilder()
+                    .setSpaceId(spaceIdBytes)
+                    .setName("Quoted \"name\"")
+                    .putLabels("env", "test")
+                    .setCreatedAt(Timestamp.newBuilder().setSeconds(1700000000).setNanos(5000000))
+                    .setPublicRead(true)
+                    .setDistanceMetric(SpaceOuterClass.DistanceMetric.DISTANCE_METRIC_COSINE))
+            .setNextToken("token")
+            .build();
+
+    // When: The response is written
+    JsonNode json = write(response);
+
+    // Then: Field names, UUIDs, timestamps and enums match the DTO serialization
+    JsonNode space = json.get("spaces").get(0);
+    assertEquals(Uuids.bytesToHex(spaceIdBytes), space.get("spaceId").asText());
+    assertEquals("Quoted \"name\"", space.get("name").asText());
+    assertEquals("test", space.get("labels").get("env").asText());
+    assertEquals(1700000000005L, space.get("createdAt").asLong());
+    assertTrue(space.get("publicRead").asBoolean());
+    assertEquals("COSINE", space.get("distanceMetric").asText());
+    assertEquals("", space.get("ownerId").asText(), "Unset IDs are written as empty strings");
+    assertEquals("token", json.get("nextToken").asText());
+  }
+
+  @Test
+  void testWriteListEmbeddersResponse_WritesOptionalAndRepeatedFields() throws Exception {
+    EmbedderOuterClass.ListEmbeddersResponse response =
+        EmbedderOuterClass.ListEmbeddersResponse.newBuilder()
+            .addEmbedders(
+                EmbedderOuterClass.Embedder.newBuilder()
+                    .setDisplayName("First")
+                    .setProviderType(EmbedderOuterClass.ProviderType.PROVIDER_TYPE_TEI)
+                    .setDimensionality(768)
+                    .setMaxSequenceLength(512)
+                    .addSupportedModalities(EmbedderOuterClass.Modality.MODALITY_TEXT)
+                    .addSupportedModalities(EmbedderOuterClass.Modality.MODALITY_IMAGE))
+            .addEmbedders(EmbedderOuterClass.Embedder.newBuilder().setDisplayName("Second"))
+            .build();
+
+    JsonNode json = write(response);
+
+    JsonNode first = json.get("embedders").get(0);
+    assertEquals("TEI", first.get("providerType").asText());
+    assertEquals(768, first.get("dimensionality").asInt());
+    assertEquals(512, first.get("maxSequenceLength").asInt());
+    assertEquals(2, first.get("supportedModalities").size());
+    assertEquals("IMAGE", first.get("supportedModalities").get(1).asText());
+
+    JsonNode second = json.get("embedders").get(1);
+    assertTrue(second.get("maxSequenceLength").isNull(), "Unset optional fields are null");
+    assertTrue(second.get("providerType").isNull(), "Unspecified enums are null");
+    assertEquals(0, second.get("supportedModalities").size());
+  }
+
+  private static JsonNode write(SpaceOuterClass.ListSpacesResponse response) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ProtoJsonWriter.writeListSpacesResponse(out, response);
+    return MAPPER.readTree(out.toByteArray());
+  }
+
+  private static JsonNode write(EmbedderOuterClass.ListEmbeddersResponse response)
+      throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ProtoJsonWriter.writeListEmbeddersResponse(out, response);
+    return MAPPER.readTree(out.toByteArray());
+  }
+}
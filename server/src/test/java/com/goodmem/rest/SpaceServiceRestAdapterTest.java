@@ -4,11 +4,12 @@ import com.goodmem.rest.dto.CreateSpaceRequest;
 import com.goodmem.rest.dto.DeleteSpaceRequest;
 import com.goodmem.rest.dto.GetSpaceRequest;
 import com.goodmem.rest.dto.ListSpacesRequest;
-import com.goodmem.rest.dto.ListSpacesResponse;
 import com.goodmem.rest.dto.SortOrder;
 import com.goodmem.rest.dto.Space;
 import com.goodmem.rest.dto.UpdateSpaceRequest;
 import com.goodmem.util.RestMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Empty;
 import com.google.protobuf.Timestamp;
@@ -16,20 +17,15 @@ import goodmem.v1.Common;
 import goodmem.v1.SpaceOuterClass;
 import goodmem.v1.SpaceOuterClass.Space.Builder;
 import goodmem.v1.SpaceServiceGrpc;
-import io.grpc.ManagedChannel;
-import io.grpc.Server;
-import io.grpc.inprocess.InProcessChannelBuilder;
-import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.StreamObserver;
 import io.javalin.http.Context;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.IOException;
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
@@ -50,43 +46,14 @@ class SpaceServiceRestAdapterTest {
 
     private SpaceServiceRestAdapter adapter;
     private TestSpaceServiceImpl testServiceImpl;
-    private Server server;
-    private ManagedChannel channel;
 
     @BeforeEach
-    void setUp() throws IOException {
+    void setUp() {
         // Create the test service implementation
         testServiceImpl = new TestSpaceServiceImpl();
 
-        // Create an in-process server
-        String serverName = InProcessServerBuilder.generateName();
-        server = InProcessServerBuilder.forName(serverName)
-            .directExecutor()
-            .addService(testServiceImpl)
-            .build()
-            .start();
-
-        // Create a client channel and stub
-        channel = InProcessChannelBuilder
-            .forName(serverName)
-            .directExecutor()
-            .build();
-        SpaceServiceGrpc.SpaceServiceBlockingStub stub =
-            SpaceServiceGrpc.newBlockingStub(channel);
-
-        // Create the adapter with this stub
-        adapter = new SpaceServiceRestAdapter(stub);
-    }
-    
-    @AfterEach
-    void tearDown() {
-        // Shutdown the channel and server
-        if (channel != null) {
-            channel.shutdown();
-        }
-        if (server != null) {
-            server.shutdown();
-        }
+        // Create the adapter, which calls the implementation directly
+        adapter = new SpaceServiceRestAdapter(testServiceImpl);
     }
 
     @Test
@@ -204,7 +171,7 @@ class SpaceServiceRestAdapterTest {
     }
 
     @Test
-    void testListSpaces_WithFilters() {
+    void testListSpaces_WithFilters() throws Exception {
         // Setup mock context with query parameters
         Map<String, List<String>> queryParams = new HashMap<>();
         queryParams.put("owner_id", List.of("00000000-0000-0000-0000-000000000001"));
@@ -224,7 +191,9 @@ class SpaceServiceRestAdapterTest {
         when(mockContext.queryParam("max_results")).thenReturn("20");
         when(mockContext.queryParam("next_token")).thenReturn("");
         when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
-        when(mockContext.json(any())).thenReturn(mockContext);
+        when(mockContext.header("Accept")).thenReturn("application/json");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(mockContext.outputStream()).thenReturn(body);
 
         // Act
         adapter.handleListSpaces(mockContext);
@@ -256,8 +225,43 @@ class SpaceServiceRestAdapterTest {
         assertEquals("test", protoRequest.getLabelSelectorsMap().get("env"), "Label selector 'env' should match");
         assertEquals("demo", protoRequest.getLabelSelectorsMap().get("project"), "Label selector 'project' should match");
 
-        // Verify response handling
-        verify(mockContext).json(any(ListSpacesResponse.class));
+        // Verify the response was streamed in the shape of the ListSpacesResponse DTO
+        JsonNode json = new ObjectMapper().readTree(body.toByteArray());
+        assertEquals(1, json.get("spaces").size(), "One space should be returned");
+        JsonNode space = json.get("spaces").get(0);
+        assertEquals("Mock Space", space.get("name").asText());
+        assertEquals(36, space.get("spaceId").asText().length(), "Space ID should be a dashed UUID");
+        assertEquals("test", space.get("labels").get("env").asText());
+        assertTrue(space.get("createdAt").isNumber(), "Timestamps should be epoch millis");
+        assertTrue(json.get("nextToken").isNull(), "No next token should be present");
+    }
+
+    @Test
+    void testListSpaces_Ndjson() throws Exception {
+        // Setup mock context asking for newline-delimited JSON
+        when(mockContext.queryParamMap()).thenReturn(Map.of());
+        when(mockContext.header("x-api-key")).thenReturn("valid-api-key");
+        when(mockContext.header("Accept")).thenReturn("application/x-ndjson");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        when(mockContext.outputStream()).thenReturn(body);
+
+        // Act
+        adapter.handleListSpaces(mockContext);
+
+        // The streaming RPC was called instead of the paged one
+        assertNotNull(testServiceImpl.getLastStreamRequest(), "Stream request should be set");
+        assertNull(testServiceImpl.getLastListRequest(), "ListSpaces should not be called");
+        verify(mockContext).contentType("application/x-ndjson");
+
+        // Each space is written as one JSON object per line
+        String[] lines = body.toString(java.nio.charset.StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length, "One line per streamed space");
+        ObjectMapper mapper = new ObjectMapper();
+        for (String line : lines) {
+            JsonNode space = mapper.readTree(line);
+            assertEquals("Mock Space", space.get("name").asText());
+            assertEquals(36, space.get("spaceId").asText().length());
+        }
     }
 
     @Test
@@ -345,6 +349,7 @@ class SpaceServiceRestAdapterTest {
         private SpaceOuterClass.UpdateSpaceRequest lastUpdateRequest;
         private SpaceOuterClass.GetSpaceRequest lastGetRequest;
         private SpaceOuterClass.ListSpacesRequest lastListRequest;
+        private SpaceOuterClass.ListSpacesRequest lastStreamRequest;
         private SpaceOuterClass.DeleteSpaceRequest lastDeleteRequest;
         
         @Override
@@ -387,6 +392,15 @@ class SpaceServiceRestAdapterTest {
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         }
+
+        @Override
+        public void streamSpaces(SpaceOuterClass.ListSpacesRequest request,
+                StreamObserver<SpaceOuterClass.Space> responseObserver) {
+            this.lastStreamRequest = request;
+            responseObserver.onNext(createMockSpace());
+            responseObserver.onNext(createMockSpace());
+            responseObserver.onCompleted();
+        }
         
         @Override
         public void deleteSpace(SpaceOuterClass.DeleteSpaceRequest request, 
@@ -441,6 +455,10 @@ class SpaceServiceRestAdapterTest {
         public SpaceOuterClass.ListSpacesRequest getLastListRequest() {
             return lastListRequest;
         }
+
+        public SpaceOuterClass.ListSpacesRequest getLastStreamRequest() {
+            return lastStreamRequest;
+        }
         
         public SpaceOuterClass.DeleteSpaceRequest getLastDeleteRequest() {
             return lastDeleteRequest;
@@ -0,0 +1,131 @@
+package com.goodmem.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.ChunkFilter;
+import com.goodmem.db.DistanceMetric;
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.ScoredMemoryChunk;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the ranking stages of the ChunkSearcher class. */
+public class ChunkSearcherTest {
+
+  private static final Instant NOW = Instant.parse("2025-06-01T00:00:00Z");
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @AfterEach
+  void shutDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testRank_DecaysOnlyRerankerScores() {
+    // Given: A reranker that scores on a much smaller scale than retrieval, and a query that
+    // reranks one candidate but returns three, decayed by recency
+    Map<String, Double> rerankerScores = Map.of("a", 0.10, "b", 0.05, "c", 0.02);
+    ChunkSearcher searcher = searcher(rerankerScores);
+    SearchQuery query = query(3, 1, Duration.ofDays(30));
+    List<ScoredMemoryChunk> candidates =
+        List.of(scored("c", 0.9, NOW), scored("b", 0.8, NOW), scored("a", 0.7, NOW));
+
+    // When: The candidates are ranked
+    ChunkSearcher.Ranking ranking = searcher.rank(query, candidates, NOW);
+
+    // Then: Every candidate was reranked, so no retrieval score outranks a reranker score
+    assertFalse(ranking.rerankFailed());
+    assertEquals(
+        List.of("a", "b", "c"),
+        ranking.results().stream().map(scored -> scored.chunk().chunkText()).toList());
+    for (int i = 1; i < ranking.results().size(); i++) {
+      assertTrue(ranking.results().get(i - 1).score() >= ranking.results().get(i).score());
+    }
+  }
+
+  @Test
+  void testFetchLimit_RerankedQueriesFetchTheirWholePool() {
+    ChunkSearcher searcher = searcher(Map.of());
+
+    // The limit is covered even with fewer rerank candidates, without a recency over-fetch
+    assertEquals(10, searcher.fetchLimit(query(10, 4, Duration.ofDays(30))));
+    assertEquals(50, searcher.fetchLimit(query(10, 50, Duration.ofDays(30))));
+    assertEquals(
+        10 * ChunkSearcher.RECENCY_CANDIDATE_MULTIPLIER,
+        searcher.fetchLimit(query(10, 0, Duration.ofDays(30))));
+  }
+
+  @Test
+  void testRunningBound_RaisesMinScoreToTheKthBestScore() {
+    // Given: A bound on the top two results of a fan-out
+    ChunkSearcher.RunningBound bound = new ChunkSearcher.RunningBound(2);
+    SearchQuery query = query(2, 0, null);
+
+    // When: One space returns a single result, then another returns two
+    bound.offer(List.of(scored("a", 0.9, NOW)));
+    SearchQuery afterOne = bound.tighten(query);
+    bound.offer(List.of(scored("b", 0.8, NOW), scored("c", 0.5, NOW)));
+    SearchQuery afterTwo = bound.tighten(query);
+
+    // Then: Queries are only bounded once two results are known, by the second best of them
+    assertEquals(Double.NEGATIVE_INFINITY, afterOne.minScore());
+    assertEquals(0.8, afterTwo.minScore());
+  }
+
+  private ChunkSearcher searcher(Map<String, Double> rerankerScores) {
+    RerankStage rerankStage =
+        new RerankStage(
+            (queryText, texts) ->
+                StatusOr.ofValue(
+                    texts.stream().map(text -> rerankerScores.getOrDefault(text, 0.0)).toList()),
+            executor,
+            Duration.ofSeconds(5));
+    return new ChunkSearcher(null, executor, new SearchResultCache(1024 * 1024), rerankStage);
+  }
+
+  private static SearchQuery query(int limit, int rerankCandidates, Duration halfLife) {
+    return new SearchQuery(
+        ChunkFilter.forSpace(UUID.randomUUID()),
+        DistanceMetric.COSINE,
+        null,
+        "query",
+        SearchMode.LEXICAL,
+        FusionMethod.RRF,
+        0.5,
+        limit,
+        Double.NEGATIVE_INFINITY,
+        Diversity.NONE,
+        false,
+        0,
+        rerankCandidates,
+        halfLife);
+  }
+
+  private static ScoredMemoryChunk scored(String text, double score, Instant createdAt) {
+    UUID userId = UUID.randomUUID();
+    MemoryChunk chunk =
+        new MemoryChunk(
+            UUID.randomUUID(),
+            UUID.randomUUID(),
+            0,
+            text,
+            null,
+            "GENERATED",
+            0,
+            text.length(),
+            createdAt,
+            createdAt,
+            userId,
+            userId);
+    return new ScoredMemoryChunk(chunk, score);
+  }
+}
@@ -0,0 +1,97 @@
+package com.goodmem.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.ScoredMemoryChunk;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the Diversifier class. */
+public class DiversifierTest {
+
+  private final UUID memoryA = UUID.randomUUID();
+  private final UUID memoryB = UUID.randomUUID();
+
+  @Test
+  void testRerank_MmrPrefersNovelChunk() {
+    // Given: Two near-identical top candidates and a slightly less relevant, different one
+    MemoryChunk first = chunk(memoryA, new float[] {1.0f, 0.0f});
+    MemoryChunk nearCopy = chunk(memoryA, new float[] {0.99f, 0.01f});
+    MemoryChunk different = chunk(memoryB, new float[] {0.0f, 1.0f});
+    List<ScoredMemoryChunk> candidates =
+        List.of(scored(first, 0.95), scored(nearCopy, 0.94), scored(different, 0.80));
+
+    // When: We rerank with an even relevance/novelty trade-off
+    List<ScoredMemoryChunk> reranked = Diversifier.rerank(candidates, new Diversity(0.5, 0), 2);
+
+    // Then: The near copy is passed over for the different chunk
+    assertEquals(List.of(first, different), chunks(reranked));
+    assertEquals(0.80, reranked.get(1).score(), 1e-12);
+  }
+
+  @Test
+  void testRerank_LambdaOneKeepsRelevanceOrder() {
+    MemoryChunk first = chunk(memoryA, new float[] {1.0f, 0.0f});
+    MemoryChunk nearCopy = chunk(memoryA, new float[] {0.99f, 0.01f});
+    MemoryChunk different = chunk(memoryB, new float[] {0.0f, 1.0f});
+    List<ScoredMemoryChunk> candidates =
+        List.of(scored(first, 0.95), scored(nearCopy, 0.94), scored(different, 0.80));
+
+    List<ScoredMemoryChunk> reranked = Diversifier.rerank(candidates, new Diversity(1.0, 0), 2);
+
+    assertEquals(List.of(first, nearCopy), chunks(reranked));
+  }
+
+  @Test
+  void testRerank_CapsChunksPerMemory() {
+    // Given: Three chunks of one memory ahead of a chunk of another, without embeddings
+    MemoryChunk a1 = chunk(memoryA, null);
+    MemoryChunk a2 = chunk(memoryA, null);
+    MemoryChunk a3 = chunk(memoryA, null);
+    MemoryChunk b1 = chunk(memoryB, null);
+    List<ScoredMemoryChunk> candidates =
+        List.of(scored(a1, 4.0), scored(a2, 3.0), scored(a3, 2.0), scored(b1, 1.0));
+
+    // When: We allow at most two chunks per memory
+    List<ScoredMemoryChunk> reranked = Diversifier.rerank(candidates, new Diversity(1.0, 2), 10);
+
+    // Then: The third chunk of the first memory is dropped
+    assertEquals(List.of(a1, a2, b1), chunks(reranked));
+  }
+
+  @Test
+  void testDot_HandlesTailBeyondUnrolledBlocks() {
+    float[] rows = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+    assertEquals(1 * 6 + 2 * 7 + 3 * 8 + 4 * 9 + 5 * 10, Diversifier.dot(rows, 0, 5, 5), 1e-6);
+  }
+
+  private static List<MemoryChunk> chunks(List<ScoredMemoryChunk> results) {
+    return results.stream().map(ScoredMemoryChunk::chunk).toList();
+  }
+
+  private static ScoredMemoryChunk scored(MemoryChunk chunk, double score) {
+    return new ScoredMemoryChunk(chunk, score);
+  }
+
+  private static MemoryChunk chunk(UUID memoryId, float[] vector) {
+    Instant now = Instant.now();
+    UUID userId = UUID.randomUUID();
+    return new MemoryChunk(
+        UUID.randomUUID(),
+        memoryId,
+        0,
+        "text",
+        vector,
+        "GENERATED",
+        0,
+        4,
+        now,
+        now,
+        userId,
+        userId);
+  }
+}
@@ -0,0 +1,74 @@
+package com.goodmem.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.ScoredMemoryChunk;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the MemoryGrouping utility class. */
+public class MemoryGroupingTest {
+
+  private final UUID memoryA = UUID.randomUUID();
+  private final UUID memoryB = UUID.randomUUID();
+  private final UUID memoryC = UUID.randomUUID();
+
+  @Test
+  void testGroup_MaxScoresByBestChunk() {
+    // Given: A ranking where memory A holds the best and third-best chunks
+    ScoredMemoryChunk a1 = scored(memoryA, 0.9);
+    ScoredMemoryChunk b1 = scored(memoryB, 0.8);
+    ScoredMemoryChunk a2 = scored(memoryA, 0.7);
+    ScoredMemoryChunk c1 = scored(memoryC, 0.6);
+
+    // When: We group the top two memories by their best chunk
+    List<MemoryHits> memories =
+        MemoryGrouping.group(List.of(a1, b1, a2, c1), MemoryScoring.MAX, 5, 2);
+
+    // Then: A ranks first with both chunks, B second, and C is cut by the limit
+    assertEquals(2, memories.size());
+    assertEquals(memoryA, memories.get(0).memoryId());
+    assertEquals(0.9, memories.get(0).score(), 1e-12);
+    assertEquals(List.of(a1, a2), memories.get(0).chunks());
+    assertEquals(memoryB, memories.get(1).memoryId());
+  }
+
+  @Test
+  void testGroup_SumRewardsManyHits() {
+    ScoredMemoryChunk b1 = scored(memoryB, 0.9);
+    ScoredMemoryChunk a1 = scored(memoryA, 0.6);
+    ScoredMemoryChunk a2 = scored(memoryA, 0.5);
+    ScoredMemoryChunk a3 = scored(memoryA, 0.4);
+
+    List<MemoryHits> memories =
+        MemoryGrouping.group(List.of(b1, a1, a2, a3), MemoryScoring.SUM, 2, 10);
+
+    assertEquals(memoryA, memories.get(0).memoryId());
+    assertEquals(1.5, memories.get(0).score(), 1e-12);
+    assertEquals(List.of(a1, a2), memories.get(0).chunks());
+    assertEquals(memoryB, memories.get(1).memoryId());
+  }
+
+  private static ScoredMemoryChunk scored(UUID memoryId, double score) {
+    Instant now = Instant.now();
+    UUID userId = UUID.randomUUID();
+    MemoryChunk chunk =
+        new MemoryChunk(
+            UUID.randomUUID(),
+            memoryId,
+            0,
+            "text",
+            null,
+            "GENERATED",
+            0,
+            4,
+            now,
+            now,
+            userId,
+            userId);
+    return new ScoredMemoryChunk(chunk, score);
+  }
+}
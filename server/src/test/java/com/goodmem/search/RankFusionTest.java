@@ -0,0 +1,120 @@
+package com.goodmem.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.ScoredMemoryChunk;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the RankFusion utility class. */
+public class RankFusionTest {
+
+  private final MemoryChunk chunkA = chunk("a");
+  private final MemoryChunk chunkB = chunk("b");
+  private final MemoryChunk chunkC = chunk("c");
+
+  @Test
+  void testReciprocalRank_ChunkInBothListsWins() {
+    // Given: B is second in both lists, A and C each top only one list
+    List<ScoredMemoryChunk> vector = List.of(scored(chunkA, 0.9), scored(chunkB, 0.8));
+    List<ScoredMemoryChunk> lexical = List.of(scored(chunkC, 12.0), scored(chunkB, 3.0));
+
+    // When: We fuse the rankings
+    List<ScoredMemoryChunk> fused =
+        RankFusion.reciprocalRank(
+            List.of(vector, lexical), RankFusion.DEFAULT_RRF_RANK_CONSTANT, 10);
+
+    // Then: B accumulates both contributions and ranks first; A beats C on the tie
+    assertEquals(List.of(chunkB, chunkA, chunkC), fused.stream().map(ScoredMemoryChunk::chunk).toList());
+    assertEquals(2.0 / 62, fused.get(0).score(), 1e-12);
+    assertEquals(1.0 / 61, fused.get(1).score(), 1e-12);
+  }
+
+  @Test
+  void testReciprocalRank_RespectsLimit() {
+    List<ScoredMemoryChunk> ranking =
+        List.of(scored(chunkA, 3.0), scored(chunkB, 2.0), scored(chunkC, 1.0));
+
+    List<ScoredMemoryChunk> fused =
+        RankFusion.reciprocalRank(List.of(ranking), RankFusion.DEFAULT_RRF_RANK_CONSTANT, 2);
+
+    assertEquals(List.of(chunkA, chunkB), fused.stream().map(ScoredMemoryChunk::chunk).toList());
+  }
+
+  @Test
+  void testWeighted_NormalizesEachLeg() {
+    // Given: Legs on very different score scales
+    List<ScoredMemoryChunk> vector = List.of(scored(chunkA, -0.1), scored(chunkB, -0.5));
+    List<ScoredMemoryChunk> lexical = List.of(scored(chunkB, 40.0), scored(chunkC, 10.0));
+
+    // When: We fuse with most of the weight on the lexical leg
+    List<ScoredMemoryChunk> fused = RankFusion.weighted(vector, lexical, 0.25, 10);
+
+    // Then: Scores are combined after min-max normalization
+    assertEquals(List.of(chunkB, chunkA, chunkC), fused.stream().map(ScoredMemoryChunk::chunk).toList());
+    assertEquals(0.75, fused.get(0).score(), 1e-12);
+    assertEquals(0.25, fused.get(1).score(), 1e-12);
+    assertEquals(0.0, fused.get(2).score(), 1e-12);
+  }
+
+  @Test
+  void testWeighted_EmptyLeg() {
+    List<ScoredMemoryChunk> vector = List.of(scored(chunkA, 0.7));
+
+    List<ScoredMemoryChunk> fused = RankFusion.weighted(vector, List.of(), 0.5, 10);
+
+    assertEquals(1, fused.size());
+    assertEquals(0.5, fused.get(0).score(), 1e-12);
+  }
+
+  @Test
+  void testMergeSorted_InterleavesByScore() {
+    // Given: Per-space rankings on a shared scale
+    MemoryChunk chunkD = chunk("d");
+    List<ScoredMemoryChunk> spaceOne = List.of(scored(chunkA, 0.9), scored(chunkC, 0.4));
+    List<ScoredMemoryChunk> spaceTwo = List.of(scored(chunkB, 0.7), scored(chunkD, 0.1));
+
+    // When: We merge the top three
+    List<ScoredMemoryChunk> merged =
+        RankFusion.mergeSorted(List.of(spaceOne, List.of(), spaceTwo), 3, Double.NEGATIVE_INFINITY);
+
+    // Then: Results are interleaved by score and keep their original scores
+    assertEquals(List.of(chunkA, chunkB, chunkC), merged.stream().map(ScoredMemoryChunk::chunk).toList());
+    assertEquals(0.7, merged.get(1).score(), 1e-12);
+  }
+
+  @Test
+  void testMergeSorted_StopsAtMinScore() {
+    List<ScoredMemoryChunk> spaceOne = List.of(scored(chunkA, 0.9), scored(chunkC, 0.2));
+    List<ScoredMemoryChunk> spaceTwo = List.of(scored(chunkB, 0.5));
+
+    List<ScoredMemoryChunk> merged = RankFusion.mergeSorted(List.of(spaceOne, spaceTwo), 10, 0.5);
+
+    assertEquals(List.of(chunkA, chunkB), merged.stream().map(ScoredMemoryChunk::chunk).toList());
+  }
+
+  private static ScoredMemoryChunk scored(MemoryChunk chunk, double score) {
+    return new ScoredMemoryChunk(chunk, score);
+  }
+
+  private static MemoryChunk chunk(String text) {
+    Instant now = Instant.now();
+    UUID userId = UUID.randomUUID();
+    return new MemoryChunk(
+        UUID.randomUUID(),
+        UUID.randomUUID(),
+        0,
+        text,
+        null,
+        "GENERATED",
+        0,
+        text.length(),
+        now,
+        now,
+        userId,
+        userId);
+  }
+}
@@ -0,0 +1,73 @@
+package com.goodmem.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.ScoredMemoryChunk;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the RecencyDecay class. */
+public class RecencyDecayTest {
+
+  private final Instant now = Instant.parse("2025-06-01T00:00:00Z");
+
+  @Test
+  void testApply_NewerChunkOvertakesOlderMoreRelevantOne() {
+    // Given: A highly relevant chunk two weeks old and a slightly less relevant one from today
+    MemoryChunk old = chunk(now.minus(Duration.ofDays(14)));
+    MemoryChunk fresh = chunk(now);
+    MemoryChunk weak = chunk(now);
+    List<ScoredMemoryChunk> candidates =
+        List.of(scored(old, 0.90), scored(fresh, 0.85), scored(weak, 0.50));
+
+    // When: We decay with a one-week half-life
+    List<ScoredMemoryChunk> decayed = RecencyDecay.apply(candidates, Duration.ofDays(7), now);
+
+    // Then: The fresh chunk ranks first and the old one is quartered
+    assertEquals(
+        List.of(fresh, old, weak), decayed.stream().map(ScoredMemoryChunk::chunk).toList());
+    assertEquals(0.875, decayed.get(0).score(), 1e-9);
+    assertEquals(0.25, decayed.get(1).score(), 1e-9);
+    assertEquals(0.0, decayed.get(2).score(), 1e-9);
+  }
+
+  @Test
+  void testApply_FutureChunksAreNotBoosted() {
+    MemoryChunk future = chunk(now.plus(Duration.ofDays(3)));
+    MemoryChunk current = chunk(now);
+
+    List<ScoredMemoryChunk> decayed =
+        RecencyDecay.apply(
+            List.of(scored(current, 2.0), scored(future, 2.0)), Duration.ofHours(1), now);
+
+    // Equal scores normalize to 1, neither is decayed, and the input order breaks the tie
+    assertEquals(
+        List.of(current, future), decayed.stream().map(ScoredMemoryChunk::chunk).toList());
+    assertEquals(1.0, decayed.get(1).score(), 1e-12);
+  }
+
+  private static ScoredMemoryChunk scored(MemoryChunk chunk, double score) {
+    return new ScoredMemoryChunk(chunk, score);
+  }
+
+  private static MemoryChunk chunk(Instant createdAt) {
+    UUID userId = UUID.randomUUID();
+    return new MemoryChunk(
+        UUID.randomUUID(),
+        UUID.randomUUID(),
+        0,
+        "text",
+        null,
+        "GENERATED",
+        0,
+        4,
+        createdAt,
+        createdAt,
+        userId,
+        userId);
+  }
+}
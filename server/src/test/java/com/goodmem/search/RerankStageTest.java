@@ -0,0 +1,118 @@
+package com.goodmem.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.common.status.Status;
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.ScoredMemoryChunk;
+import com.goodmem.rerank.LocalReranker;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the RerankStage class. */
+public class RerankStageTest {
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @AfterEach
+  void shutDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testRerank_ReordersByRerankerScore() {
+    // Given: Retrieval put the chunk that mentions the query terms last
+    List<ScoredMemoryChunk> candidates =
+        List.of(
+            scored("quarterly revenue summary", 0.9),
+            scored("unrelated notes", 0.8),
+            scored("invoice SKU-1234 overdue", 0.7));
+    RerankStage stage =
+        new RerankStage(new LocalReranker(Duration.ZERO), executor, Duration.ofSeconds(5));
+
+    // When: We rerank against the query
+    Optional<List<ScoredMemoryChunk>> reranked = stage.rerank("overdue invoice", candidates);
+
+    // Then: That chunk moves to the top and carries the reranker's score
+    assertTrue(reranked.isPresent());
+    assertEquals("invoice SKU-1234 overdue", reranked.get().get(0).chunk().chunkText());
+    assertEquals(1.0, reranked.get().get(0).score(), 1e-12);
+    assertEquals(candidates.size(), reranked.get().size());
+  }
+
+  @Test
+  void testRerank_SplitsCandidatesIntoBatches() {
+    AtomicInteger calls = new AtomicInteger();
+    RerankStage stage =
+        new RerankStage(
+            (query, texts) -> {
+              calls.incrementAndGet();
+              return StatusOr.ofValue(texts.stream().map(text -> 1.0).toList());
+            },
+            executor,
+            Duration.ofSeconds(5));
+    List<ScoredMemoryChunk> candidates = new ArrayList<>();
+    for (int i = 0; i < 2 * RerankStage.BATCH_SIZE + 1; i++) {
+      candidates.add(scored("chunk " + i, 1.0 - i * 0.001));
+    }
+
+    Optional<List<ScoredMemoryChunk>> reranked = stage.rerank("query", candidates);
+
+    // Equal scores keep the retrieval order
+    assertTrue(reranked.isPresent());
+    assertEquals(3, calls.get());
+    assertEquals("chunk 0", reranked.get().get(0).chunk().chunkText());
+    assertEquals("chunk 64", reranked.get().get(64).chunk().chunkText());
+  }
+
+  @Test
+  void testRerank_FallsBackOnFailure() {
+    RerankStage stage =
+        new RerankStage(
+            (query, texts) -> StatusOr.ofStatus(Status.of(StatusCode.UNAVAILABLE, "down")),
+            executor,
+            Duration.ofSeconds(5));
+
+    assertTrue(stage.rerank("query", List.of(scored("text", 0.5))).isEmpty());
+  }
+
+  @Test
+  void testRerank_FallsBackOnTimeout() {
+    RerankStage stage =
+        new RerankStage(
+            new LocalReranker(Duration.ofSeconds(5)), executor, Duration.ofMillis(50));
+
+    assertTrue(stage.rerank("query", List.of(scored("text", 0.5))).isEmpty());
+  }
+
+  private static ScoredMemoryChunk scored(String text, double score) {
+    Instant now = Instant.now();
+    UUID userId = UUID.randomUUID();
+    MemoryChunk chunk =
+        new MemoryChunk(
+            UUID.randomUUID(),
+            UUID.randomUUID(),
+            0,
+            text,
+            null,
+            "GENERATED",
+            0,
+            text.length(),
+            now,
+            now,
+            userId,
+            userId);
+    return new ScoredMemoryChunk(chunk, score);
+  }
+}
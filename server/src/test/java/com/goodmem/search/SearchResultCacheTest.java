@@ -0,0 +1,154 @@
+package com.goodmem.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.db.ChunkFilter;
+import com.goodmem.db.DistanceMetric;
+import com.goodmem.db.MemoryChunk;
+import com.goodmem.db.ScoredMemoryChunk;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the SearchResultCache class. */
+public class SearchResultCacheTest {
+
+  private final UUID spaceId = UUID.randomUUID();
+
+  @Test
+  void testGet_HitsNearIdenticalVectorsOnly() {
+    // Given: Results cached for one query vector
+    SearchResultCache cache = new SearchResultCache(1024 * 1024);
+    List<ScoredMemoryChunk> results = List.of(new ScoredMemoryChunk(chunk("cached"), 0.9));
+    cache.put(vectorQuery(new float[] {0.6f, 0.8f, 0.0f}, 10), 3, results);
+
+    // When: We look up a near-identical vector, one in the same bucket at a wider angle, and
+    // one in the same direction but twice as long
+    var hit = cache.get(vectorQuery(new float[] {0.601f, 0.8f, 0.0f}, 10), 3);
+    var otherAngle = cache.get(vectorQuery(new float[] {0.8f, 0.6f, 0.0f}, 10), 3);
+    var otherLength = cache.get(vectorQuery(new float[] {1.2f, 1.6f, 0.0f}, 10), 3);
+
+    // Then: Only the near-identical vector is answered from the cache, and counted as a hit
+    assertTrue(hit.isPresent());
+    assertSame(results, hit.get());
+    assertTrue(otherAngle.isEmpty());
+    assertTrue(otherLength.isEmpty());
+    assertEquals(1, cache.stats().hitCount());
+    assertEquals(2, cache.stats().missCount());
+  }
+
+  @Test
+  void testPut_KeepsDistinctSearchesThatShareABucket() {
+    // Given: Two dissimilar vectors that fall into the same bucket
+    SearchQuery first = vectorQuery(new float[] {0.6f, 0.8f, 0.0f}, 10);
+    SearchQuery second = vectorQuery(new float[] {0.8f, 0.6f, 0.0f}, 10);
+    assertEquals(SearchResultCache.keyFor(first, 1), SearchResultCache.keyFor(second, 1));
+    SearchResultCache cache = new SearchResultCache(1024 * 1024);
+    List<ScoredMemoryChunk> firstResults = List.of(new ScoredMemoryChunk(chunk("first"), 0.9));
+    List<ScoredMemoryChunk> secondResults = List.of(new ScoredMemoryChunk(chunk("second"), 0.8));
+
+    // When: Both are stored
+    cache.put(first, 1, firstResults);
+    cache.put(second, 1, secondResults);
+
+    // Then: Each is answered with its own results
+    assertSame(firstResults, cache.get(first, 1).orElseThrow());
+    assertSame(secondResults, cache.get(second, 1).orElseThrow());
+  }
+
+  @Test
+  void testGet_MissesOnNewContentVersion() {
+    SearchResultCache cache = new SearchResultCache(1024 * 1024);
+    SearchQuery query = vectorQuery(new float[] {0.6f, 0.8f, 0.0f}, 10);
+    cache.put(query, 3, List.of(new ScoredMemoryChunk(chunk("stale"), 0.9)));
+
+    assertTrue(cache.get(query, 4).isEmpty());
+    assertEquals(1, cache.stats().missCount());
+  }
+
+  @Test
+  void testKeyFor_DistinguishesLimitAndBucket() {
+    SearchQuery base = vectorQuery(new float[] {0.6f, 0.8f, 0.0f}, 10);
+
+    assertEquals(
+        SearchResultCache.keyFor(base, 1),
+        SearchResultCache.keyFor(vectorQuery(new float[] {0.601f, 0.8f, 0.0f}, 10), 1));
+    assertNotEquals(
+        SearchResultCache.keyFor(base, 1),
+        SearchResultCache.keyFor(vectorQuery(new float[] {0.0f, 0.0f, 1.0f}, 10), 1));
+    assertNotEquals(
+        SearchResultCache.keyFor(base, 1),
+        SearchResultCache.keyFor(vectorQuery(new float[] {0.6f, 0.8f, 0.0f}, 5), 1));
+    assertNotEquals(
+        SearchResultCache.keyFor(base, 1),
+        SearchResultCache.keyFor(vectorQuery(new float[] {0.6f, 0.8f, 0.0f, 0.0f}, 10), 1));
+  }
+
+  @Test
+  void testGetContentVersions_ReturnsStoredUntilInvalidated() {
+    SearchResultCache cache = new SearchResultCache(1024 * 1024);
+    UUID otherSpaceId = UUID.randomUUID();
+    cache.putContentVersions(Map.of(spaceId, 7L));
+
+    assertEquals(Map.of(spaceId, 7L), cache.getContentVersions(List.of(spaceId, otherSpaceId)));
+
+    cache.invalidateContentVersions(List.of(spaceId));
+
+    assertTrue(cache.getContentVersions(List.of(spaceId)).isEmpty());
+  }
+
+  @Test
+  void testPut_EvictsBeyondWeightBound() {
+    // Given: A cache with room for only a few results
+    SearchResultCache cache = new SearchResultCache(4 * 1024);
+
+    // When: We store many distinct searches
+    for (int i = 0; i < 100; i++) {
+      cache.put(
+          vectorQuery(new float[] {i, 1.0f, 0.0f}, i + 1),
+          1,
+          List.of(new ScoredMemoryChunk(chunk("result " + i), 1.0)));
+    }
+
+    // Then: Older entries have been evicted to stay within the bound
+    assertTrue(cache.stats().evictionCount() > 0);
+  }
+
+  private SearchQuery vectorQuery(float[] vector, int limit) {
+    return new SearchQuery(
+        ChunkFilter.forSpace(spaceId),
+        DistanceMetric.COSINE,
+        vector,
+        null,
+        SearchMode.VECTOR,
+        FusionMethod.RRF,
+        0.5,
+        limit,
+        Double.NEGATIVE_INFINITY,
+        Diversity.NONE,
+        false,
+        0,
+        0,
+        null);
+  }
+
+  private static MemoryChunk chunk(String text) {
+    Instant now = Instant.now();
+    UUID userId = UUID.randomUUID();
+    return new MemoryChunk(
+        UUID.randomUUID(),
+        UUID.randomUUID(),
+        0,
+        text,
+        null,
+        "GENERATED",
+        0,
+        text.length(),
+        now,
+        now,
+        userId,
+        userId);
+  }
+}
@@ -0,0 +1,29 @@
+package com.goodmem.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the ApiKeyAuthenticator class. */
+public class ApiKeyAuthenticatorTest {
+
+  @Test
+  void testAuthenticate_ReportsUnexpectedFailuresAsUnauthenticated() throws SQLException {
+    // Given: A pool that fails with an unchecked exception
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection()).thenThrow(new IllegalStateException("pool is closed"));
+
+    // When: A key is authenticated
+    StatusOr<User> userOr = new ApiKeyAuthenticator(dataSource).authenticate("gm_abcdefgh");
+
+    // Then: The failure is returned rather than thrown
+    assertTrue(userOr.isNotOk());
+    assertEquals(StatusCode.UNAUTHENTICATED, userOr.getStatus().getCode());
+  }
+}
@@ -0,0 +1,121 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the AdaptiveLimiter class. */
+public class AdaptiveLimiterTest {
+
+  private final FakeTicker ticker = new FakeTicker();
+
+  @Test
+  void testTryAcquire_RejectsAtTheLimitUntilAPermitIsReleased() {
+    AdaptiveLimiter limiter =
+        new AdaptiveLimiter(new AdaptiveLimiter.Config(2, 1, 10, 1, 1), ticker);
+
+    AdaptiveLimiter.Permit first = limiter.tryAcquire(null, false).orElseThrow();
+    assertTrue(limiter.tryAcquire(null, false).isPresent());
+    assertTrue(limiter.tryAcquire(null, false).isEmpty());
+
+    // Releasing twice frees only one place
+    first.release(AdaptiveLimiter.Outcome.IGNORED);
+    first.release(AdaptiveLimiter.Outcome.IGNORED);
+    assertEquals(1, limiter.getInFlight());
+    assertTrue(limiter.tryAcquire(null, false).isPresent());
+  }
+
+  @Test
+  void testTryAcquire_BulkCallsUseOnlyTheirShare() {
+    // Given: A limit of 4, half of which bulk calls may use
+    AdaptiveLimiter limiter =
+        new AdaptiveLimiter(new AdaptiveLimiter.Config(4, 1, 10, 0.5, 1), ticker);
+
+    // When: Bulk calls fill their share
+    assertTrue(limiter.tryAcquire(null, true).isPresent());
+    assertTrue(limiter.tryAcquire(null, true).isPresent());
+
+    // Then: Further bulk calls are rejected, but reads still get in
+    assertTrue(limiter.tryAcquire(null, true).isEmpty());
+    assertTrue(limiter.tryAcquire(null, false).isPresent());
+    assertTrue(limiter.tryAcquire(null, false).isPresent());
+  }
+
+  @Test
+  void testTryAcquire_CapsOnePartitionOnlyUnderContention() {
+    // Given: A limit of 8, a quarter of which one API key may hold under contention
+    AdaptiveLimiter limiter =
+        new AdaptiveLimiter(new AdaptiveLimiter.Config(8, 1, 10, 1, 0.25), ticker);
+
+    // When: One key takes half the limit on an otherwise idle server
+    for (int i = 0; i < 4; i++) {
+      assertTrue(limiter.tryAcquire("key-a", false).isPresent(), "idle capacity is lent");
+    }
+
+    // Then: Now that the limit is half used, that key is over its share but others are not
+    assertTrue(limiter.tryAcquire("key-a", false).isEmpty());
+    assertTrue(limiter.tryAcquire("key-b", false).isPresent());
+    assertTrue(limiter.tryAcquire(null, false).isPresent());
+  }
+
+  @Test
+  void testLimit_GrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+    AdaptiveLimiter limiter =
+        new AdaptiveLimiter(new AdaptiveLimiter.Config(40, 4, 1000, 1, 1), ticker);
+
+    // Steady latency: each fully used round raises the limit
+    for (int i = 0; i < 10; i++) {
+      runRound(limiter, Duration.ofMillis(10));
+    }
+    int grown = limiter.getLimit();
+    assertTrue(grown > 40, "limit should grow, was " + grown);
+
+    // Latency ten times the average: queueing somewhere, so the limit backs off
+    runRound(limiter, Duration.ofMillis(100));
+    assertTrue(limiter.getLimit() < grown, "limit should shrink, was " + limiter.getLimit());
+  }
+
+  @Test
+  void testLimit_DroppedCallsCutItDownToTheMinimum() {
+    AdaptiveLimiter limiter =
+        new AdaptiveLimiter(new AdaptiveLimiter.Config(10, 5, 10, 1, 1), ticker);
+
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire(null, false).orElseThrow().release(AdaptiveLimiter.Outcome.DROPPED);
+    }
+
+    assertEquals(5, limiter.getLimit());
+  }
+
+  @Test
+  void testRetryAfter_IsAtLeastTheMinimumBeforeAnySample() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(AdaptiveLimiter.Config.DEFAULT, ticker);
+
+    assertEquals(Duration.ofMillis(100), limiter.retryAfter());
+  }
+
+  /** Fills the limit, lets every call take the same time, and releases them all. */
+  private void runRound(AdaptiveLimiter limiter, Duration latency) {
+    List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+    Optional<AdaptiveLimiter.Permit> permit;
+    while ((permit = limiter.tryAcquire(null, false)).isPresent()) {
+      permits.add(permit.get());
+    }
+    ticker.nanos += latency.toNanos();
+    permits.forEach(p -> p.release(AdaptiveLimiter.Outcome.SUCCESS));
+  }
+
+  private static final class FakeTicker extends Ticker {
+    private long nanos;
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+}
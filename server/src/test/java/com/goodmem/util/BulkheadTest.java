@@ -0,0 +1,71 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.goodmem.common.status.StatusCode;
+import com.goodmem.common.status.StatusOr;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the Bulkhead class. */
+public class BulkheadTest {
+
+  @Test
+  void testCall_RejectsCallsBeyondTheLimitAndRecovers() throws Exception {
+    // Given: A bulkhead of one permit held by a call that blocks until released
+    Bulkhead bulkhead = new Bulkhead("Embedder", 1, Duration.ofMillis(50));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<StatusOr<String>> slow =
+          executor.submit(
+              () ->
+                  bulkhead.call(
+                      () -> {
+                        started.countDown();
+                        awaitQuietly(release);
+                        return StatusOr.ofValue("slow");
+                      }));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      // When: A second call arrives while the permit is taken
+      StatusOr<String> rejected = bulkhead.call(() -> StatusOr.ofValue("fast"));
+
+      // Then: It fails fast without running, and the bulkhead works again once the slow call ends
+      assertEquals(StatusCode.RESOURCE_EXHAUSTED, rejected.getStatus().getCode());
+      assertEquals(0, bulkhead.availablePermits());
+      release.countDown();
+      assertEquals("slow", slow.get(5, TimeUnit.SECONDS).getValue());
+      assertEquals("fast", bulkhead.call(() -> StatusOr.ofValue("fast")).getValue());
+      assertEquals(1, bulkhead.availablePermits());
+    }
+  }
+
+  @Test
+  void testCall_ReleasesPermitWhenCallThrows() {
+    Bulkhead bulkhead = new Bulkhead("Reranker", 2, Duration.ofMillis(50));
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            bulkhead.call(
+                () -> {
+                  throw new IllegalStateException("boom");
+                }));
+
+    assertEquals(2, bulkhead.availablePermits());
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.base.Ticker;
+import goodmem.v1.MemoryOuterClass;
+import goodmem.v1.MemoryServiceGrpc;
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/** Tests for the ConcurrencyLimitInterceptor class. */
+public class ConcurrencyLimitInterceptorTest {
+
+  private static final String METHOD =
+      MemoryServiceGrpc.getGetMemoryMethod().getFullMethodName();
+
+  private final ConcurrencyLimits limits =
+      new ConcurrencyLimits(new AdaptiveLimiter.Config(1, 1, 1, 1, 1), Ticker.systemTicker());
+  private final ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor(limits);
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testInterceptCall_ShedsCallsOverTheLimitUntilOneCloses() {
+    // Given: A limit of one and a call holding it
+    ServerCall<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory> first =
+        mockCall();
+    ServerCallHandler<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory> next =
+        mock(ServerCallHandler.class);
+    when(next.startCall(any(), any())).thenReturn(mock(ServerCall.Listener.class));
+    interceptor.interceptCall(first, new Metadata(), next);
+    ArgumentCaptor<ServerCall<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory>>
+        admitted = ArgumentCaptor.forClass(ServerCall.class);
+    verify(next).startCall(admitted.capture(), any());
+
+    // When: A second call arrives
+    ServerCall<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory> second =
+        mockCall();
+    interceptor.interceptCall(second, new Metadata(), next);
+
+    // Then: It is closed at once with RESOURCE_EXHAUSTED and a retry hint
+    ArgumentCaptor<Status> status = ArgumentCaptor.forClass(Status.class);
+    ArgumentCaptor<Metadata> trailers = ArgumentCaptor.forClass(Metadata.class);
+    verify(second).close(status.capture(), trailers.capture());
+    assertEquals(Status.Code.RESOURCE_EXHAUSTED, status.getValue().getCode());
+    assertEquals("100", trailers.getValue().get(ConcurrencyLimitInterceptor.RETRY_PUSHBACK_KEY));
+    verify(next, never()).startCall(same(second), any());
+
+    // And: Once the first call closes, its place is free again
+    admitted.getValue().close(Status.OK, new Metadata());
+    assertEquals(0, limits.limiterFor(METHOD).getInFlight());
+  }
+
+  @Test
+  void testOutcomeOf_TreatsOverloadStatusesAsDrops() {
+    assertEquals(
+        AdaptiveLimiter.Outcome.DROPPED,
+        ConcurrencyLimitInterceptor.outcomeOf(Status.DEADLINE_EXCEEDED));
+    assertEquals(
+        AdaptiveLimiter.Outcome.DROPPED,
+        ConcurrencyLimitInterceptor.outcomeOf(Status.RESOURCE_EXHAUSTED));
+    assertEquals(
+        AdaptiveLimiter.Outcome.IGNORED, ConcurrencyLimitInterceptor.outcomeOf(Status.CANCELLED));
+    assertEquals(
+        AdaptiveLimiter.Outcome.SUCCESS, ConcurrencyLimitInterceptor.outcomeOf(Status.NOT_FOUND));
+  }
+
+  @Test
+  void testPartitionOf_KeepsNoKeyAndSharesOneForKeylessCalls() {
+    String key = "gm_abcdefghijklmnop";
+
+    String partition = ConcurrencyLimitInterceptor.partitionOf(key);
+
+    assertEquals(partition, ConcurrencyLimitInterceptor.partitionOf(key));
+    assertFalse(partition.contains(key));
+    assertNotEquals(partition, ConcurrencyLimitInterceptor.partitionOf(key + "x"));
+    assertEquals(
+        ConcurrencyLimits.UNAUTHENTICATED_PARTITION, ConcurrencyLimitInterceptor.partitionOf(null));
+    assertEquals(
+        ConcurrencyLimits.UNAUTHENTICATED_PARTITION, ConcurrencyLimitInterceptor.partitionOf(""));
+  }
+
+  @Test
+  void testCancelOutcomeOf_TreatsExpiredDeadlinesAsDrops() throws Exception {
+    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    try {
+      Context.CancellableContext expired =
+          Context.current().withDeadlineAfter(1, TimeUnit.MILLISECONDS, scheduler);
+      Thread.sleep(20);
+      Context.CancellableContext cancelled = Context.current().withCancellation();
+      cancelled.cancel(null);
+
+      assertEquals(
+          AdaptiveLimiter.Outcome.DROPPED, ConcurrencyLimitInterceptor.cancelOutcomeOf(expired));
+      assertEquals(
+          AdaptiveLimiter.Outcome.IGNORED, ConcurrencyLimitInterceptor.cancelOutcomeOf(cancelled));
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ServerCall<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory>
+      mockCall() {
+    ServerCall<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory> call =
+        mock(ServerCall.class);
+    when(call.getMethodDescriptor()).thenReturn(MemoryServiceGrpc.getGetMemoryMethod());
+    return call;
+  }
+}
@@ -0,0 +1,52 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.google.common.base.Ticker;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the ConcurrencyLimits class. */
+public class ConcurrencyLimitsTest {
+
+  private static final String READ = "goodmem.v1.MemoryService/GetMemory";
+  private static final String BULK = "goodmem.v1.MemoryService/BatchCreateMemories";
+
+  @Test
+  void testTryAcquire_ReadsOnOtherOperationsShrinkTheBulkBudget() {
+    // Given: Limits of 4, half of which bulk calls may use
+    ConcurrencyLimits limits =
+        new ConcurrencyLimits(new AdaptiveLimiter.Config(4, 1, 10, 0.5, 1), Ticker.systemTicker())
+            .markBulk(BULK);
+
+    // When: Reads of another operation hold half of the shared limit
+    List<AdaptiveLimiter.Permit> reads = new ArrayList<>();
+    reads.add(limits.tryAcquire(READ, null).orElseThrow());
+    reads.add(limits.tryAcquire(READ, null).orElseThrow());
+
+    // Then: Bulk calls are shed although their own limit is unused, and reads still get in
+    assertTrue(limits.tryAcquire(BULK, null).isEmpty());
+    assertEquals(0, limits.limiterFor(BULK).getInFlight());
+    assertTrue(limits.tryAcquire(READ, null).isPresent());
+
+    // And: Once the reads finish, bulk calls are admitted again
+    reads.forEach(permit -> permit.release(AdaptiveLimiter.Outcome.IGNORED));
+    assertTrue(limits.tryAcquire(BULK, null).isPresent());
+  }
+
+  @Test
+  void testTryAcquire_ReleasingFreesBothLimits() {
+    ConcurrencyLimits limits =
+        new ConcurrencyLimits(new AdaptiveLimiter.Config(4, 1, 10, 0.5, 1), Ticker.systemTicker())
+            .markBulk(BULK);
+
+    AdaptiveLimiter.Permit permit = limits.tryAcquire(BULK, null).orElseThrow();
+    assertEquals(1, limits.sharedLimiter().getInFlight());
+    assertEquals(1, limits.limiterFor(BULK).getInFlight());
+
+    permit.release(AdaptiveLimiter.Outcome.IGNORED);
+    assertEquals(0, limits.sharedLimiter().getInFlight());
+    assertEquals(0, limits.limiterFor(BULK).getInFlight());
+  }
+}
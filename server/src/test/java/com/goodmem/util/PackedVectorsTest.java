@@ -0,0 +1,69 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import goodmem.v1.MemoryOuterClass.MemoryChunk;
+import goodmem.v1.MemoryOuterClass.VectorEncoding;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the PackedVectors class. */
+public class PackedVectorsTest {
+
+  private static final float[] VECTOR = {0.25f, -1.5f, 0.0f, 3.0f, -0.001f};
+
+  @Test
+  void testFloat32_IsLosslessAndLittleEndian() {
+    MemoryChunk chunk = pack(VectorEncoding.VECTOR_ENCODING_FLOAT32);
+
+    assertEquals(VECTOR.length * 4, chunk.getPackedVector().size());
+    // 0.25f is 0x3E800000, so its first byte on the wire is the low-order 0x00
+    assertEquals(0x00, chunk.getPackedVector().byteAt(0));
+    assertEquals((byte) 0x3E, chunk.getPackedVector().byteAt(3));
+    assertArrayEquals(VECTOR, PackedVectors.unpack(chunk));
+  }
+
+  @Test
+  void testFloat16_HalvesTheSizeWithinHalfPrecision() {
+    MemoryChunk chunk = pack(VectorEncoding.VECTOR_ENCODING_FLOAT16);
+
+    assertEquals(VECTOR.length * 2, chunk.getPackedVector().size());
+    assertArrayEquals(VECTOR, PackedVectors.unpack(chunk), 1e-3f);
+  }
+
+  @Test
+  void testInt8_ScalesTheLargestMagnitudeTo127() {
+    MemoryChunk chunk = pack(VectorEncoding.VECTOR_ENCODING_INT8);
+
+    assertEquals(VECTOR.length, chunk.getPackedVector().size());
+    assertEquals(3.0f / 127f, chunk.getPackedVectorScale(), 1e-7f);
+    assertEquals(127, chunk.getPackedVector().byteAt(3));
+    assertArrayEquals(VECTOR, PackedVectors.unpack(chunk), 3.0f / 127f / 2 + 1e-6f);
+  }
+
+  @Test
+  void testInt8_ZeroVectorHasZeroScale() {
+    MemoryChunk chunk =
+        PackedVectors.pack(
+                new float[3], VectorEncoding.VECTOR_ENCODING_INT8, MemoryChunk.newBuilder())
+            .build();
+
+    assertEquals(0f, chunk.getPackedVectorScale());
+    assertArrayEquals(new float[3], PackedVectors.unpack(chunk));
+  }
+
+  @Test
+  void testPack_RejectsUnspecifiedEncoding() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            PackedVectors.pack(
+                VECTOR, VectorEncoding.VECTOR_ENCODING_UNSPECIFIED, MemoryChunk.newBuilder()));
+  }
+
+  private static MemoryChunk pack(VectorEncoding encoding) {
+    MemoryChunk chunk = PackedVectors.pack(VECTOR, encoding, MemoryChunk.newBuilder()).build();
+    assertEquals(encoding, chunk.getPackedVectorEncoding());
+    assertEquals(0, chunk.getEmbeddingVectorCount());
+    return chunk;
+  }
+}
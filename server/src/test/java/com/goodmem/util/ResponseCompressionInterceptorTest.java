@@ -0,0 +1,87 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import goodmem.v1.MemoryOuterClass;
+import goodmem.v1.MemoryServiceGrpc;
+import goodmem.v1.UserOuterClass;
+import goodmem.v1.UserServiceGrpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/** Tests for the ResponseCompressionInterceptor class. */
+public class ResponseCompressionInterceptorTest {
+
+  private final ResponseCompressionInterceptor interceptor =
+      new ResponseCompressionInterceptor(List.of("zstd", "gzip"), 64)
+          .compressService(MemoryServiceGrpc.SERVICE_NAME);
+
+  @Test
+  void testNegotiate_PrefersServerOrderAmongAcceptedEncodings() {
+    assertEquals("zstd", interceptor.negotiate("gzip, zstd"));
+    assertEquals("gzip", interceptor.negotiate("identity,deflate,gzip"));
+    assertNull(interceptor.negotiate("deflate"));
+    assertNull(interceptor.negotiate(null));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testInterceptCall_CompressesOnlyMessagesAboveThreshold() {
+    // Given: A call to a covered method from a client that accepts gzip
+    ServerCall<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory> call =
+        mock(ServerCall.class);
+    when(call.getMethodDescriptor()).thenReturn(MemoryServiceGrpc.getGetMemoryMethod());
+    ServerCallHandler<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory> next =
+        mock(ServerCallHandler.class);
+
+    // When: The call is intercepted and the handler sends a small and a large message
+    interceptor.interceptCall(call, acceptEncoding("gzip"), next);
+    ArgumentCaptor<ServerCall<MemoryOuterClass.GetMemoryRequest, MemoryOuterClass.Memory>>
+        wrapped = ArgumentCaptor.forClass(ServerCall.class);
+    verify(next).startCall(wrapped.capture(), any());
+    MemoryOuterClass.Memory small = MemoryOuterClass.Memory.getDefaultInstance();
+    MemoryOuterClass.Memory large =
+        MemoryOuterClass.Memory.newBuilder().setOriginalContentRef("x".repeat(100)).build();
+    wrapped.getValue().sendMessage(small);
+    wrapped.getValue().sendMessage(large);
+
+    // Then: gzip is selected, and only the large message is compressed
+    verify(call).setCompression("gzip");
+    verify(call).setMessageCompression(false);
+    verify(call).setMessageCompression(true);
+    verify(call).sendMessage(same(small));
+    verify(call).sendMessage(same(large));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testInterceptCall_LeavesUncoveredMethodsAlone() {
+    ServerCall<UserOuterClass.GetUserRequest, UserOuterClass.User> call = mock(ServerCall.class);
+    when(call.getMethodDescriptor()).thenReturn(UserServiceGrpc.getGetUserMethod());
+    ServerCallHandler<UserOuterClass.GetUserRequest, UserOuterClass.User> next =
+        mock(ServerCallHandler.class);
+    Metadata headers = acceptEncoding("zstd");
+
+    interceptor.interceptCall(call, headers, next);
+
+    verify(next).startCall(same(call), same(headers));
+    verify(call, never()).setCompression(anyString());
+  }
+
+  private static Metadata acceptEncoding(String value) {
+    Metadata headers = new Metadata();
+    headers.put(ResponseCompressionInterceptor.ACCEPT_ENCODING_KEY, value);
+    return headers;
+  }
+}
@@ -0,0 +1,169 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/** Tests for the ResponseStream class. */
+public class ResponseStreamTest {
+
+  @Test
+  void testSend_PlainObserverReceivesMessagesAndCompletion() {
+    // Given: An observer that is not a gRPC server observer
+    RecordingObserver observer = new RecordingObserver(false);
+
+    // When: Two messages are sent and the stream completed
+    ResponseStream.start(
+        observer,
+        stream -> {
+          assertTrue(stream.send("a"));
+          assertTrue(stream.send("b"));
+          stream.complete();
+        });
+
+    // Then: The observer saw both messages and a normal completion
+    assertEquals(List.of("a", "b"), observer.messages);
+    assertTrue(observer.completed);
+    assertNull(observer.error.get());
+  }
+
+  @Test
+  void testSend_StopsAfterOnNextFailsAndCompletesWithCancelled() {
+    // Given: An observer whose writes fail, as when a REST client disconnects
+    RecordingObserver observer = new RecordingObserver(true);
+
+    // When: Messages are sent after the failure
+    ResponseStream.start(
+        observer,
+        stream -> {
+          assertFalse(stream.send("a"));
+          assertFalse(stream.send("b"));
+          stream.complete();
+        });
+
+    // Then: The producer is told to stop and the stream ends with CANCELLED
+    assertFalse(observer.completed);
+    assertEquals(Status.Code.CANCELLED, Status.fromThrowable(observer.error.get()).getCode());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testSend_CancelledCallSendsNothing() throws Exception {
+    ServerCallStreamObserver<String> observer = mock(ServerCallStreamObserver.class);
+    when(observer.isCancelled()).thenReturn(true);
+    CompletableFuture<Boolean> sent = new CompletableFuture<>();
+
+    ResponseStream.start(
+        observer,
+        stream -> {
+          sent.complete(stream.send("a"));
+          stream.complete();
+        });
+
+    assertFalse(sent.get(5, TimeUnit.SECONDS));
+    verify(observer, never()).onNext(any());
+    verify(observer, never()).onCompleted();
+    verify(observer, never()).onError(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testStart_GrpcProducerRunsOffTheHandlerAndWakesWhenReady() throws Exception {
+    // Given: A call that cannot take a message yet
+    ServerCallStreamObserver<String> observer = mock(ServerCallStreamObserver.class);
+    AtomicBoolean ready = new AtomicBoolean();
+    when(observer.isReady()).thenAnswer(invocation -> ready.get());
+    CompletableFuture<Boolean> sent = new CompletableFuture<>();
+
+    // When: A stream starts
+    ResponseStream.start(observer, stream -> sent.complete(stream.send("a")));
+
+    // Then: The handler returns while the producer waits for the call to be ready
+    ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+    verify(observer).setOnReadyHandler(onReady.capture());
+    assertFalse(sent.isDone());
+
+    // And: The ready signal wakes the producer well before its fallback poll
+    ready.set(true);
+    onReady.getValue().run();
+    assertTrue(sent.get(500, TimeUnit.MILLISECONDS));
+    verify(observer).onNext("a");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testStart_RejectsStreamsBeyondTheLimit() throws Exception {
+    ResponseStream.setMaxConcurrentStreams(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      // Given: One running stream holding the only slot
+      ServerCallStreamObserver<String> first = mock(ServerCallStreamObserver.class);
+      ResponseStream.start(first, stream -> awaitQuietly(release));
+
+      // When: A second stream starts
+      RecordingObserver second = new RecordingObserver(false);
+      ResponseStream.start(second, stream -> fail("producer should not run"));
+
+      // Then: It fails at once with RESOURCE_EXHAUSTED
+      assertEquals(
+          Status.Code.RESOURCE_EXHAUSTED, Status.fromThrowable(second.error.get()).getCode());
+    } finally {
+      release.countDown();
+      ResponseStream.setMaxConcurrentStreams(4);
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Records what was sent; optionally fails every write. */
+  private static final class RecordingObserver implements StreamObserver<String> {
+    private final boolean failWrites;
+    private final List<String> messages = new ArrayList<>();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private boolean completed;
+
+    RecordingObserver(boolean failWrites) {
+      this.failWrites = failWrites;
+    }
+
+    @Override
+    public void onNext(String value) {
+      if (failWrites) {
+        throw new IllegalStateException("client went away");
+      }
+      messages.add(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      error.set(t);
+    }
+
+    @Override
+    public void onCompleted() {
+      completed = true;
+    }
+  }
+}
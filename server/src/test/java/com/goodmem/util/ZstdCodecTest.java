@@ -0,0 +1,56 @@
+package com.goodmem.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import goodmem.v1.MemoryOuterClass;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the ZstdCodec class. */
+public class ZstdCodecTest {
+
+  private final ZstdCodec codec = new ZstdCodec(3);
+
+  @Test
+  void testCompress_RoundTripsMessage() throws IOException {
+    // Given: A message large and repetitive enough to compress well
+    MemoryOuterClass.Memory memory =
+        MemoryOuterClass.Memory.newBuilder()
+            .setOriginalContentRef("s3://bucket/" + "x".repeat(4096))
+            .setContentType("text/plain")
+            .putMetadata("source", "test")
+            .build();
+
+    // When: It is compressed and decompressed
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out = codec.compress(compressed)) {
+      memory.writeTo(out);
+    }
+    MemoryOuterClass.Memory decoded;
+    try (InputStream in = codec.decompress(new ByteArrayInputStream(compressed.toByteArray()))) {
+      decoded = MemoryOuterClass.Memory.parseFrom(in);
+    }
+
+    // Then: The same message comes back, from fewer bytes than it encodes to
+    assertEquals(memory, decoded);
+    assertTrue(compressed.size() < memory.getSerializedSize());
+    assertEquals("zstd", codec.getMessageEncoding());
+  }
+
+  @Test
+  void testCompress_RoundTripsEmptyMessage() throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (OutputStream out = codec.compress(compressed)) {
+      MemoryOuterClass.Memory.getDefaultInstance().writeTo(out);
+    }
+
+    try (InputStream in = codec.decompress(new ByteArrayInputStream(compressed.toByteArray()))) {
+      assertEquals(
+          MemoryOuterClass.Memory.getDefaultInstance(), MemoryOuterClass.Memory.parseFrom(in));
+    }
+  }
+}